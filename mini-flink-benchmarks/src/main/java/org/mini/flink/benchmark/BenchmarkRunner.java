@@ -0,0 +1,52 @@
+package org.mini.flink.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * benchmarks.jar 的入口，接受与 JMH 相同的命令行参数，只是默认值更适合在两次构建之间对比：
+ * <ul>
+ *     <li>没有指定 -rf 时结果以 JSON 格式写出，没有同时指定 -rff 时写入当前目录下带时间戳的 jmh-result-*.json；</li>
+ *     <li>没有指定 -prof 时启用 GC 分析器，结果中的 gc.alloc.rate.norm 是每个操作（每条记录）分配的字节数。</li>
+ * </ul>
+ * 在项目根目录下构建并运行全部基准：
+ * <pre>
+ * mvn -pl mini-flink-benchmarks -am package -DskipTests &amp;&amp; java -jar mini-flink-benchmarks/target/benchmarks.jar
+ * </pre>
+ * 只运行部分基准、或调整参数时照常传入 JMH 参数，例如
+ * {@code java -jar target/benchmarks.jar WordCountBenchmark -p parallelism=1,4 -rff wordcount.json}。
+ */
+public class BenchmarkRunner {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()
+                || commandLineOptions.shouldListWithParams() || commandLineOptions.shouldListProfilers()
+                || commandLineOptions.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+            if (!commandLineOptions.getResult().hasValue()) {
+                options.result("jmh-result-" + LocalDateTime.now().format(TIMESTAMP) + ".json");
+            }
+        }
+        if (commandLineOptions.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+}
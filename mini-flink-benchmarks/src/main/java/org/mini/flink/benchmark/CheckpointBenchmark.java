@@ -0,0 +1,133 @@
+package org.mini.flink.benchmark;
+
+import org.mini.flink.api.state.LongValueState;
+import org.mini.flink.api.state.LongValueStateDescriptor;
+import org.mini.flink.runtime.state.Stateful;
+import org.mini.flink.runtime.state.heap.HeapKeyedStateBackend;
+import org.mini.flink.runtime.state.heap.HeapKeyedStateSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 检查点在任务线程上造成的停顿与状态大小的关系。
+ * <ul>
+ *     <li>KEYED / KEYED_INCREMENTAL：键控状态的全量 / 增量快照，同步阶段只做写时复制，物化在异步线程中进行；</li>
+ *     <li>OPERATOR：实现 {@link Stateful} 的算子在 {@link Stateful#snapshotState()} 中复制自己的 Map，全部发生在任务线程上。</li>
+ * </ul>
+ * 每次调用先更新 {@link #UPDATES_PER_CHECKPOINT} 个键，模拟两次检查点之间的数据处理，再完成一次检查点。
+ * synchronousPhase 是任务线程的停顿时间，fullCheckpoint 额外包含异步物化，反映检查点的总开销。
+ * 运行: java -jar target/benchmarks.jar CheckpointBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckpointBenchmark {
+
+    private static final int UPDATES_PER_CHECKPOINT = 1000;
+
+    /**
+     * 把计数保存在普通 Map 中、检查点时整体复制的算子状态。
+     */
+    public static class CountingOperatorState implements Stateful {
+        private static final long serialVersionUID = 1L;
+
+        private transient Map<Long, Long> counts;
+
+        @Override
+        public void initializeState(Map<String, Object> state) {
+            counts = new HashMap<>();
+        }
+
+        @Override
+        public Map<String, Object> snapshotState() {
+            Map<String, Object> snapshot = new HashMap<>();
+            snapshot.put("counts", new HashMap<>(counts));
+            return snapshot;
+        }
+
+        void add(Long key) {
+            counts.merge(key, 1L, Long::sum);
+        }
+    }
+
+    @Param({"KEYED", "KEYED_INCREMENTAL", "OPERATOR"})
+    public String stateType;
+
+    @Param({"10000", "100000", "1000000"})
+    public int stateSize;
+
+    private Long[] keys;
+    private HeapKeyedStateBackend keyedStateBackend;
+    private LongValueState count;
+    private CountingOperatorState operatorState;
+    private int nextKey;
+    private long checkpointId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = new Long[stateSize];
+        for (int i = 0; i < stateSize; i++) {
+            keys[i] = (long) i;
+        }
+        if ("OPERATOR".equals(stateType)) {
+            operatorState = new CountingOperatorState();
+            operatorState.initializeState(new HashMap<>());
+        } else {
+            keyedStateBackend = new HeapKeyedStateBackend("KEYED_INCREMENTAL".equals(stateType), Integer.MAX_VALUE);
+            count = keyedStateBackend.getLongState(new LongValueStateDescriptor("count"));
+        }
+        for (Long key : keys) {
+            update(key);
+        }
+        // 先完成一次全量检查点，之后的增量快照才有基准
+        if (keyedStateBackend != null) {
+            keyedStateBackend.snapshot(++checkpointId).materialize();
+            keyedStateBackend.notifyCheckpointComplete(checkpointId);
+        }
+    }
+
+    @Benchmark
+    public Object synchronousPhase() {
+        updateSomeKeys();
+        if (operatorState != null) {
+            return operatorState.snapshotState();
+        }
+        HeapKeyedStateSnapshot snapshot = keyedStateBackend.snapshot(++checkpointId);
+        snapshot.release();
+        keyedStateBackend.notifyCheckpointComplete(checkpointId);
+        return snapshot;
+    }
+
+    @Benchmark
+    public Object fullCheckpoint() {
+        updateSomeKeys();
+        if (operatorState != null) {
+            return operatorState.snapshotState();
+        }
+        HeapKeyedStateSnapshot.MaterializedKeyedState state = keyedStateBackend.snapshot(++checkpointId).materialize();
+        keyedStateBackend.notifyCheckpointComplete(checkpointId);
+        return state;
+    }
+
+    private void updateSomeKeys() {
+        for (int i = 0; i < UPDATES_PER_CHECKPOINT; i++) {
+            update(keys[nextKey]);
+            nextKey = nextKey + 1 == keys.length ? 0 : nextKey + 1;
+        }
+    }
+
+    private void update(Long key) {
+        if (operatorState != null) {
+            operatorState.add(key);
+        } else {
+            keyedStateBackend.setCurrentKey(key);
+            count.add(1);
+        }
+    }
+}
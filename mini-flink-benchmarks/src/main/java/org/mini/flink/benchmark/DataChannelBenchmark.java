@@ -0,0 +1,65 @@
+package org.mini.flink.benchmark;
+
+import org.mini.flink.runtime.stream.ChannelType;
+import org.mini.flink.runtime.stream.DataChannel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比不同 {@link DataChannel} 实现在一个生产者线程和一个消费者线程之间传递记录的吞吐量。
+ * <p>
+ * 后台生产者线程持续写入，基准方法作为消费者每次取出 {@link #BATCH} 条记录。
+ * 运行: java -jar target/benchmarks.jar DataChannelBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataChannelBenchmark {
+
+    private static final int BATCH = 1024;
+
+    @Param({"BLOCKING_QUEUE", "SPSC_RING_BUFFER"})
+    public ChannelType channelType;
+
+    @Param({"1024"})
+    public int capacity;
+
+    private DataChannel channel;
+    private Thread producer;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        channel = channelType.createChannel(capacity);
+        final Object record = "record";
+        producer = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    channel.push(record);
+                }
+            } catch (InterruptedException ignored) {
+                // 迭代结束
+            }
+        }, "channel-benchmark-producer");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException {
+        producer.interrupt();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void handOff(Blackhole blackhole) throws InterruptedException {
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(channel.pop());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.mini.flink.benchmark;
+
+import org.mini.flink.api.eventtime.TimestampAssigner;
+import org.mini.flink.runtime.partitioner.KeyGroupStreamPartitioner;
+import org.mini.flink.runtime.partitioner.RebalancePartitioner;
+import org.mini.flink.runtime.partitioner.StreamPartitioner;
+import org.mini.flink.runtime.stream.ChannelType;
+import org.mini.flink.runtime.stream.DataChannel;
+import org.mini.flink.runtime.stream.RecordBuffer;
+import org.mini.flink.runtime.stream.RecordWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 任务输出一条记录的开销，即 StreamTask 的 OutputCollector.collect 对每条输出边调用的 {@link RecordWriter#emit}：
+ * 分区器选择通道、记录追加到缓冲、缓冲写满后写入通道。
+ * <p>
+ * 每次调用写出 {@link #BATCH} 条记录，之后在同一个线程中取出通道里的缓冲并归还信用，不涉及线程间交接。
+ * 记录是预先创建好的 Long，配合 -prof gc 得到的 gc.alloc.rate.norm 就是每条记录在输出路径上分配的字节数。
+ * 运行: java -jar target/benchmarks.jar RecordWriterBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordWriterBenchmark {
+
+    private static final int BATCH = 1024;
+
+    @Param({"REBALANCE", "KEY_GROUP"})
+    public String partitioner;
+
+    @Param({"1", "4"})
+    public int channels;
+
+    @Param({"64"})
+    public int bufferSize;
+
+    private Long[] records;
+    private List<DataChannel> outputChannels;
+    private RecordWriter writer;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        records = new Long[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            records[i] = (long) i;
+        }
+        StreamPartitioner<?> streamPartitioner = "KEY_GROUP".equals(partitioner)
+                ? new KeyGroupStreamPartitioner<Long, Long>(value -> value)
+                : new RebalancePartitioner<>();
+        // 一批记录全部落到同一个通道时也不会因为没有信用而阻塞
+        int buffersPerChannel = BATCH / bufferSize + 2;
+        outputChannels = new ArrayList<>(channels);
+        for (int i = 0; i < channels; i++) {
+            outputChannels.add(ChannelType.SPSC_RING_BUFFER.createChannel(buffersPerChannel));
+        }
+        writer = new RecordWriter((StreamPartitioner<Object>) streamPartitioner, outputChannels,
+                bufferSize, buffersPerChannel, false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void emit() throws InterruptedException {
+        for (Long record : records) {
+            writer.emit(record, TimestampAssigner.NO_TIMESTAMP);
+        }
+        writer.flushAll();
+        for (DataChannel channel : outputChannels) {
+            Object element;
+            while ((element = channel.poll()) != null) {
+                ((RecordBuffer) element).recycle();
+            }
+        }
+    }
+}
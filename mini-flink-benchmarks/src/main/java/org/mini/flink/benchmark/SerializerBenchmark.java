@@ -0,0 +1,128 @@
+package org.mini.flink.benchmark;
+
+import org.mini.flink.api.tuple.Tuple2;
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.api.typeutils.TypeSerializers;
+import org.mini.flink.api.typeutils.base.LongSerializer;
+import org.mini.flink.api.typeutils.base.StringSerializer;
+import org.mini.flink.util.InstantiationUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比 {@link TypeSerializer} 与 Java 序列化对一条记录做一次序列化 + 反序列化的吞吐量。
+ * <p>
+ * 记录类型覆盖 POJO、元组、字符串和 Long，两种方式编码后的字节数作为附加指标（见 {@link EncodedSizes}）输出。
+ * 运行: java -jar target/benchmarks.jar SerializerBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+
+    /**
+     * 基准使用的 POJO。
+     */
+    public static class Order implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        public long orderId;
+        public String customer;
+        public int quantity;
+        public double price;
+        public boolean priority;
+
+        public Order() {
+        }
+
+        Order(long orderId, String customer, int quantity, double price, boolean priority) {
+            this.orderId = orderId;
+            this.customer = customer;
+            this.quantity = quantity;
+            this.price = price;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * 一条记录编码后的字节数，与序列化方式的参数无关，两种方式都会报告。
+     * JMH 在每轮迭代开始时清零附加指标，因此在迭代结束时赋值。
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSizes {
+        /** TypeSerializer 编码后的字节数 */
+        public double typeSerializerBytes;
+        /** Java 序列化编码后的字节数 */
+        public double javaSerializationBytes;
+
+        @TearDown(Level.Iteration)
+        public void report(SerializerBenchmark benchmark) {
+            typeSerializerBytes = benchmark.typeSerializerBytes;
+            javaSerializationBytes = benchmark.javaSerializationBytes;
+        }
+    }
+
+    @Param({"POJO", "TUPLE", "STRING", "LONG"})
+    public String recordType;
+
+    @Param({"TYPE_SERIALIZER", "JAVA"})
+    public String serialization;
+
+    private Object record;
+    private TypeSerializer<Object> serializer;
+    private int typeSerializerBytes;
+    private int javaSerializationBytes;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream output = new DataOutputStream(bytes);
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        switch (recordType) {
+            case "POJO":
+                record = new Order(1_234_567L, "customer-42", 3, 99.5, true);
+                serializer = (TypeSerializer<Object>) (TypeSerializer<?>) TypeSerializers.forClass(Order.class);
+                break;
+            case "TUPLE":
+                record = Tuple2.of("word", 42L);
+                serializer = (TypeSerializer<Object>) (TypeSerializer<?>)
+                        TypeSerializers.forTuple(Tuple2.class, StringSerializer.INSTANCE, LongSerializer.INSTANCE);
+                break;
+            case "STRING":
+                record = "The quick brown fox jumps over the lazy dog";
+                serializer = (TypeSerializer<Object>) (TypeSerializer<?>) StringSerializer.INSTANCE;
+                break;
+            case "LONG":
+                record = 1_234_567_890L;
+                serializer = (TypeSerializer<Object>) (TypeSerializer<?>) LongSerializer.INSTANCE;
+                break;
+            default:
+                throw new IllegalArgumentException(recordType);
+        }
+        bytes.reset();
+        serializer.serialize(record, output);
+        typeSerializerBytes = bytes.size();
+        javaSerializationBytes = InstantiationUtil.serializeObject(record).length;
+    }
+
+    @Benchmark
+    public Object roundTrip(EncodedSizes sizes) throws IOException, ClassNotFoundException {
+        if ("JAVA".equals(serialization)) {
+            return InstantiationUtil.deserializeObject(InstantiationUtil.serializeObject(record));
+        }
+        bytes.reset();
+        serializer.serialize(record, output);
+        return serializer.deserialize(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
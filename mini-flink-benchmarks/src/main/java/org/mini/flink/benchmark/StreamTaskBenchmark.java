@@ -0,0 +1,140 @@
+package org.mini.flink.benchmark;
+
+import org.mini.flink.api.Collector;
+import org.mini.flink.api.Operator;
+import org.mini.flink.api.RichFunction;
+import org.mini.flink.api.RuntimeContext;
+import org.mini.flink.api.Sink;
+import org.mini.flink.api.eventtime.TimestampAssigner;
+import org.mini.flink.api.state.LongValueState;
+import org.mini.flink.api.state.LongValueStateDescriptor;
+import org.mini.flink.runtime.jobgraph.CheckpointConfig;
+import org.mini.flink.runtime.jobgraph.ExecutionConfig;
+import org.mini.flink.runtime.stream.ChannelType;
+import org.mini.flink.runtime.stream.DataChannel;
+import org.mini.flink.runtime.stream.RecordBuffer;
+import org.mini.flink.runtime.stream.RecordBufferPool;
+import org.mini.flink.runtime.stream.StreamTask;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * StreamTask 分发记录的吞吐量：任务线程从输入通道取出缓冲、逐条设置当前键并交给链上的算子，
+ * 链为 Map -> Sink，keyed 时链头换成按键计数的有状态算子。
+ * <p>
+ * 基准方法作为上游，每次写出 {@link #BATCH} 条记录，需要先拿到任务归还的信用才能写入，
+ * 因此测得的是任务线程的处理速度，而不是上游写入的速度。任务线程上每条记录的分配量见 {@link TaskAllocationCounters}。
+ * 运行: java -jar target/benchmarks.jar StreamTaskBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamTaskBenchmark {
+
+    private static final int BATCH = 1024;
+    private static final int BUFFER_SIZE = 64;
+    private static final int BUFFERS = 8;
+    // 持有引用，避免 Logger 被回收后级别设置失效
+    private static final Logger FRAMEWORK_LOGGER = Logger.getLogger("org.mini.flink");
+
+    public static class IncrementMap implements Operator<Long, Long> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void process(Long value, Collector<Long> collector) {
+            collector.collect(value + 1);
+        }
+    }
+
+    public static class KeyedCounter implements Operator<Long, Long>, RichFunction {
+        private static final long serialVersionUID = 1L;
+
+        private transient LongValueState count;
+
+        @Override
+        public void open(RuntimeContext runtimeContext) {
+            this.count = runtimeContext.getLongState(new LongValueStateDescriptor("count"));
+        }
+
+        @Override
+        public void process(Long value, Collector<Long> collector) {
+            count.add(1);
+            collector.collect(value);
+        }
+    }
+
+    public static class LastValueSink implements Sink<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private transient long last;
+
+        @Override
+        public void invoke(Long value) {
+            last = value;
+        }
+    }
+
+    @Param({"false", "true"})
+    public boolean keyed;
+
+    private Long[] records;
+    private RecordBufferPool bufferPool;
+    private DataChannel input;
+    private StreamTask task;
+    private Thread taskThread;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FRAMEWORK_LOGGER.setLevel(java.util.logging.Level.WARNING);
+        records = new Long[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            records[i] = (long) i;
+        }
+        bufferPool = new RecordBufferPool(BUFFERS, BUFFER_SIZE);
+        input = ChannelType.SPSC_RING_BUFFER.createChannel(BUFFERS);
+        LinkedHashMap<String, Serializable> chain = new LinkedHashMap<>();
+        chain.put(keyed ? "Counter" : "Map", keyed ? new KeyedCounter() : new IncrementMap());
+        chain.put("Sink", new LastValueSink());
+        task = new StreamTask(keyed ? "Counter -> Sink (1/1)" : "Map -> Sink (1/1)", 0, 1, chain,
+                keyed ? (Long value) -> value : null, null, Collections.singletonList(input),
+                Collections.emptyList(), (checkpointId, taskName, stateSnapshot) -> { },
+                new ExecutionConfig(), new CheckpointConfig(), null);
+        taskThread = new Thread(task, "stream-task-benchmark");
+        taskThread.setDaemon(true);
+        taskThread.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        task.cancel();
+        taskThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void processRecords(TaskAllocationCounters allocation) throws InterruptedException {
+        allocation.recordsProcessedBy(taskThread, BATCH);
+        RecordBuffer buffer = null;
+        for (Long record : records) {
+            if (buffer == null) {
+                buffer = bufferPool.requestBuffer();
+            }
+            buffer.add(record, TimestampAssigner.NO_TIMESTAMP);
+            if (buffer.isFull()) {
+                input.push(buffer);
+                buffer = null;
+            }
+        }
+        if (buffer != null) {
+            input.push(buffer);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.mini.flink.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 统计任务线程在一轮迭代中每处理一条记录分配的堆内存，作为附加指标 taskAllocBytesPerRecord 写入结果。
+ * <p>
+ * JMH 的 GC 分析器在 Java 21 之前只统计执行基准方法的线程，而记录是在任务线程中处理的，
+ * 因此这部分分配需要借助 {@link com.sun.management.ThreadMXBean} 按线程单独统计。
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class TaskAllocationCounters {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** 本轮迭代中任务线程平均每条记录分配的字节数 */
+    public double taskAllocBytesPerRecord;
+
+    // 逐批统计时被统计的任务线程，以及它在本轮迭代开始时已经分配的字节数
+    private Thread taskThread;
+    private long iterationStartBytes;
+    private long allocatedBytes;
+    private long records;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        taskAllocBytesPerRecord = 0;
+        taskThread = null;
+        allocatedBytes = 0;
+        records = 0;
+    }
+
+    /**
+     * 逐批统计：任务线程处理了一批记录。分配量在迭代结束时一次性读取，每批只累加记录数。
+     */
+    public void recordsProcessedBy(Thread thread, long records) {
+        if (taskThread == null) {
+            taskThread = thread;
+            iterationStartBytes = allocatedBytes(thread);
+        }
+        this.records += records;
+    }
+
+    /**
+     * 逐次统计：累加一次调用中所有任务线程分配的字节数和处理的记录数。
+     */
+    public void add(long allocatedBytes, long records) {
+        this.allocatedBytes += allocatedBytes;
+        this.records += records;
+        updateRatio();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finishIteration() {
+        if (taskThread != null) {
+            allocatedBytes = allocatedBytes(taskThread) - iterationStartBytes;
+            updateRatio();
+        }
+    }
+
+    private void updateRatio() {
+        if (records > 0) {
+            taskAllocBytesPerRecord = (double) allocatedBytes / records;
+        }
+    }
+
+    /**
+     * @return 线程从启动到现在分配的字节数，线程已经结束时返回 -1
+     */
+    static long allocatedBytes(Thread thread) {
+        return THREADS.getThreadAllocatedBytes(thread.getId());
+    }
+
+    /**
+     * @return 当前所有存活线程各自已经分配的字节数，Key 为线程 ID
+     */
+    static Map<Long, Long> snapshotAllThreads() {
+        long[] threadIds = THREADS.getAllThreadIds();
+        long[] bytes = THREADS.getThreadAllocatedBytes(threadIds);
+        Map<Long, Long> snapshot = new HashMap<>(threadIds.length * 2);
+        for (int i = 0; i < threadIds.length; i++) {
+            if (bytes[i] >= 0) {
+                snapshot.put(threadIds[i], bytes[i]);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return 从 before 到现在所有线程分配的字节数。期间结束的线程无法统计，调用者需要保证它们仍然存活。
+     */
+    static long allocatedSince(Map<Long, Long> before) {
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : snapshotAllThreads().entrySet()) {
+            Long start = before.get(entry.getKey());
+            total += entry.getValue() - (start != null ? start : 0);
+        }
+        return total;
+    }
+}
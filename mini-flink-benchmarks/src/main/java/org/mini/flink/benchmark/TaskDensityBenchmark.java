@@ -0,0 +1,160 @@
+package org.mini.flink.benchmark;
+
+import org.mini.flink.api.Collector;
+import org.mini.flink.api.RichFunction;
+import org.mini.flink.api.RuntimeContext;
+import org.mini.flink.api.Source;
+import org.mini.flink.api.datastream.StreamExecutionEnvironment;
+import org.mini.flink.runtime.jobmanager.JobManager;
+import org.mini.flink.runtime.taskmanager.TaskExecutionMode;
+import org.mini.flink.runtime.taskmanager.TaskManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * 平台线程和虚拟线程两种执行模式下，一个 TaskManager 上运行不同数量的子任务时的吞吐和常驻内存。
+ * <p>
+ * 作业由若干条互不相连的 Source -> Map -> Sink 流水线组成，关闭算子链接，每条流水线 3 个子任务，
+ * 子任务数向下取整到 3 的倍数。所有 Source 一共发送 {@link #TOTAL_RECORDS} 条记录，与子任务数无关。
+ * 每次调用在新的本地集群上提交一个作业，从提交到 Sink 收到全部记录的时间计入结果，因此包含部署时间。
+ * <p>
+ * 附加指标（见 {@link DensityCounters}）在 Source 结束、Map 和 Sink 空闲地等待输入时统计：
+ * residentHeapKBPerSubtask 是 GC 之后每个子任务占用的堆内存，platformThreads 是存活的平台线程数。
+ * 虚拟线程的栈保存在堆上，计入前者；平台线程的栈不在堆上，只体现在后者中。
+ * <p>
+ * 虚拟线程模式需要用 Java 21 运行 benchmarks.jar，更早的 JVM 上这个模式直接失败，而不是退回平台线程。
+ * 平台线程模式下子任务过多时可能因为无法创建线程而失败，JMH 会报告失败并继续运行其他参数组合。
+ * 运行: java -jar target/benchmarks.jar TaskDensityBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class TaskDensityBenchmark {
+
+    private static final int TOTAL_RECORDS = 3_000_000;
+    private static final long TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    // 一万个子任务时框架日志过多，只保留严重错误；持有引用，避免 Logger 被回收后级别设置失效
+    private static final Logger FRAMEWORK_LOGGER = Logger.getLogger("org.mini.flink");
+    // Sink 被复制到每个子任务中，计数器必须是静态的
+    private static final LongAdder RECEIVED = new LongAdder();
+
+    /**
+     * 尽快发送递增的数字，所有子任务一共发送 {@link #TOTAL_RECORDS} 条。
+     */
+    public static class CountingSource implements Source<Long>, RichFunction {
+        private static final long serialVersionUID = 1L;
+
+        private transient long numberOfRecords;
+
+        @Override
+        public void open(RuntimeContext runtimeContext) {
+            int parallelism = runtimeContext.getNumberOfParallelSubtasks();
+            // 余数分给前几个子任务
+            numberOfRecords = TOTAL_RECORDS / parallelism
+                    + (runtimeContext.getIndexOfThisSubtask() < TOTAL_RECORDS % parallelism ? 1 : 0);
+        }
+
+        @Override
+        public void run(Collector<Long> collector) {
+            for (long i = 0; i < numberOfRecords; i++) {
+                collector.collect(i);
+            }
+        }
+    }
+
+    /**
+     * 空闲任务的常驻开销，在每次调用结束后统计，一轮迭代取最后一次调用的值。
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class DensityCounters {
+        /** GC 之后每个子任务占用的堆内存（KB） */
+        public double residentHeapKBPerSubtask;
+        /** 存活的平台线程数，包括 JMH 自己的线程 */
+        public double platformThreads;
+    }
+
+    @Param({"PLATFORM_THREADS", "VIRTUAL_THREADS"})
+    public TaskExecutionMode mode;
+
+    @Param({"10", "100", "10000"})
+    public int subtasks;
+
+    private int pipelines;
+    private long baselineHeap;
+    private JobManager jobManager;
+    private DensityCounters counters;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        if (!mode.isSupported()) {
+            throw new IllegalStateException(mode + " 需要 Java 21，当前 Java 版本: " + System.getProperty("java.version"));
+        }
+        FRAMEWORK_LOGGER.setLevel(java.util.logging.Level.SEVERE);
+        pipelines = Math.max(1, subtasks / 3);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() throws InterruptedException {
+        RECEIVED.reset();
+        baselineHeap = usedHeapAfterGc();
+        jobManager = new JobManager(new TaskManager(pipelines, mode));
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws InterruptedException {
+        try {
+            if (counters != null && RECEIVED.sum() == TOTAL_RECORDS) {
+                long heap = Math.max(0, usedHeapAfterGc() - baselineHeap);
+                counters.residentHeapKBPerSubtask = heap / 1024.0 / (pipelines * 3);
+                counters.platformThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+            }
+        } finally {
+            jobManager.shutdown();
+            // 等待被停止的任务线程退出，避免干扰下一次调用
+            TimeUnit.MILLISECONDS.sleep(500);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOTAL_RECORDS)
+    public long runJob(DensityCounters counters) throws InterruptedException {
+        this.counters = counters;
+        StreamExecutionEnvironment env = new StreamExecutionEnvironment()
+                .setParallelism(pipelines)
+                .disableOperatorChaining();
+        // 许多低速率的小作业不需要很深的缓冲
+        env.getConfig().setBuffersPerChannel(4);
+        env.getCheckpointConfig().setCheckpointInterval(TimeUnit.HOURS.toMillis(1));
+        env.addSource(new CountingSource(), "Source")
+                .map(value -> value + 1).name("Map")
+                .addSink(value -> RECEIVED.increment()).name("Sink");
+        env.execute(jobManager, "TaskDensity Benchmark").join();
+
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        while (RECEIVED.sum() < TOTAL_RECORDS) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("只收到 " + RECEIVED.sum() + " / " + TOTAL_RECORDS + " 条记录");
+            }
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        return RECEIVED.sum();
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,121 @@
+package org.mini.flink.benchmark;
+
+import org.mini.flink.api.Collector;
+import org.mini.flink.api.Source;
+import org.mini.flink.api.datastream.StreamExecutionEnvironment;
+import org.mini.flink.client.WordCountExample;
+import org.mini.flink.runtime.jobmanager.JobManager;
+import org.mini.flink.runtime.stream.ChannelType;
+import org.mini.flink.runtime.taskmanager.TaskManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * 端到端的 WordCount 吞吐量：Source -> Splitter 链接在一起，按单词分区后由 WordCounter -> Sink 计数，
+ * 与 {@link WordCountExample} 的拓扑相同，只是 Source 尽快发送固定数量的句子。
+ * <p>
+ * 每次调用在新的本地集群上提交一个作业，从提交到 Sink 收到全部单词的时间计入结果，单位是 Sink 收到的记录数。
+ * 所有 Source 一共发送 {@link #TOTAL_SENTENCES} 个句子，与并行度无关。
+ * 附加指标 taskAllocBytesPerRecord 是所有线程（包括部署作业）分配的内存分摊到每个单词上的字节数；
+ * 结束的 Source 任务的线程仍留在槽的线程池中，它的分配也能统计到。
+ * 运行: java -jar target/benchmarks.jar WordCountBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WordCountBenchmark {
+
+    private static final String[] SENTENCES = {
+            "the quick brown fox jumps over the lazy dog",
+            "the lazy cat sleeps in the sun",
+            "a quick brown rabbit hops away"
+    };
+    private static final int WORDS_PER_ROUND = 9 + 7 + 6;
+    private static final int TOTAL_SENTENCES = 120_000;
+    private static final int TOTAL_WORDS = TOTAL_SENTENCES / 3 * WORDS_PER_ROUND;
+    private static final long TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    // 持有引用，避免 Logger 被回收后级别设置失效
+    private static final Logger FRAMEWORK_LOGGER = Logger.getLogger("org.mini.flink");
+    // Sink 被复制到每个子任务中，计数器必须是静态的
+    private static final LongAdder RECEIVED = new LongAdder();
+
+    /**
+     * 轮流发送 {@link #SENTENCES} 中的句子，每个子任务发送固定数量后结束。
+     */
+    public static class BoundedSentenceSource implements Source<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final int numberOfSentences;
+
+        public BoundedSentenceSource(int numberOfSentences) {
+            this.numberOfSentences = numberOfSentences;
+        }
+
+        @Override
+        public void run(Collector<String> collector) {
+            for (int i = 0; i < numberOfSentences; i++) {
+                collector.collect(SENTENCES[i % SENTENCES.length]);
+            }
+        }
+    }
+
+    @Param({"1", "2", "4"})
+    public int parallelism;
+
+    @Param({"SPSC_RING_BUFFER"})
+    public ChannelType channelType;
+
+    private JobManager jobManager;
+
+    @Setup(Level.Trial)
+    public void setUpLogging() {
+        FRAMEWORK_LOGGER.setLevel(java.util.logging.Level.WARNING);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        RECEIVED.reset();
+        jobManager = new JobManager(new TaskManager(parallelism));
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws InterruptedException {
+        jobManager.shutdown();
+        // 等待被停止的任务线程退出，避免干扰下一次调用
+        TimeUnit.MILLISECONDS.sleep(200);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOTAL_WORDS)
+    public long wordCount(TaskAllocationCounters allocation) throws InterruptedException {
+        Map<Long, Long> threadsBefore = TaskAllocationCounters.snapshotAllThreads();
+        StreamExecutionEnvironment env = new StreamExecutionEnvironment()
+                .setParallelism(parallelism)
+                .setChannelType(channelType);
+        env.getCheckpointConfig().setCheckpointInterval(TimeUnit.HOURS.toMillis(1));
+        env.addSource(new BoundedSentenceSource(TOTAL_SENTENCES / parallelism), "SentenceSource")
+                .flatMap(new WordCountExample.Splitter()).name("Splitter")
+                .keyBy(word -> word)
+                .process(new WordCountExample.WordCounter()).name("WordCounter")
+                .addSink(value -> RECEIVED.increment()).name("CountingSink");
+        env.execute(jobManager, "WordCount Benchmark").join();
+
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        while (RECEIVED.sum() < TOTAL_WORDS) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("只收到 " + RECEIVED.sum() + " / " + TOTAL_WORDS + " 个单词");
+            }
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        allocation.add(TaskAllocationCounters.allocatedSince(threadsBefore), TOTAL_WORDS);
+        return RECEIVED.sum();
+    }
+}
@@ -0,0 +1,28 @@
+package org.mini.flink.api;
+
+import java.io.Serializable;
+
+/**
+ * 增量聚合函数。每条记录到达时立即折叠进累加器，不需要缓存记录本身，
+ * 窗口的内存占用只与累加器的个数有关，而与记录数无关。
+ *
+ * @param <IN>  输入数据类型
+ * @param <ACC> 累加器类型
+ * @param <OUT> 聚合结果类型
+ */
+public interface AggregateFunction<IN, ACC, OUT> extends Serializable {
+
+    ACC createAccumulator();
+
+    /**
+     * 把一条记录加入累加器，可以原地修改并返回传入的累加器。
+     */
+    ACC add(IN value, ACC accumulator);
+
+    OUT getResult(ACC accumulator);
+
+    /**
+     * 合并两个累加器，可以原地修改并返回 a，但不能修改 b。
+     */
+    ACC merge(ACC a, ACC b);
+}
@@ -0,0 +1,36 @@
+package org.mini.flink.api;
+
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 异步处理每条输入的用户函数，典型的用法是查询外部存储来补全记录，
+ * 由 {@link org.mini.flink.api.datastream.AsyncDataStream} 接入数据流。
+ * <pre>
+ * AsyncDataStream.orderedWait(orders, order -&gt; client.lookup(order.getUserId())
+ *         .thenApply(user -&gt; new EnrichedOrder(order, user)), 1, TimeUnit.SECONDS, 100);
+ * </pre>
+ * {@link #asyncInvoke} 在任务线程中调用，应当只发起请求并立即返回，不能阻塞；
+ * 请求完成后结果由任务线程输出，用户函数不需要考虑线程安全。实现 {@link RichFunction} 时可以在 open 中创建客户端。
+ *
+ * @param <IN> 输入数据类型
+ * @param <OUT> 输出数据类型
+ */
+@FunctionalInterface
+public interface AsyncFunction<IN, OUT> extends Serializable {
+
+    /**
+     * 为一条输入发起异步请求。
+     * @return 请求的结果，结果为 null 时这条输入没有输出；以异常结束时任务失败
+     */
+    CompletableFuture<OUT> asyncInvoke(IN input) throws Exception;
+
+    /**
+     * 请求在超时时间内没有完成时调用，返回值作为这条输入的结果，之后请求的结果被忽略。
+     * 默认抛出 {@link TimeoutException}，任务失败。
+     */
+    default OUT timeout(IN input) throws Exception {
+        throw new TimeoutException("异步请求超时: " + input);
+    }
+}
@@ -0,0 +1,12 @@
+package org.mini.flink.api;
+
+import java.io.Serializable;
+
+/**
+ * 过滤函数，返回 true 的记录被保留。
+ * @param <T> 数据类型
+ */
+@FunctionalInterface
+public interface FilterFunction<T> extends Serializable {
+    boolean filter(T value) throws Exception;
+}
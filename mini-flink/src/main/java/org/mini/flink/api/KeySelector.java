@@ -0,0 +1,14 @@
+package org.mini.flink.api;
+
+import java.io.Serializable;
+
+/**
+ * 键选择器，从记录中提取用于分区和键控状态的键。
+ * 同一个键的记录总会被发送到同一个下游并行实例。
+ * @param <IN> 输入数据类型
+ * @param <KEY> 键的类型，必须正确实现 hashCode 和 equals
+ */
+@FunctionalInterface
+public interface KeySelector<IN, KEY> extends Serializable {
+    KEY getKey(IN value) throws Exception;
+}
@@ -0,0 +1,13 @@
+package org.mini.flink.api;
+
+import java.io.Serializable;
+
+/**
+ * 一对一转换函数，每条输入记录恰好产生一条输出记录。
+ * @param <IN> 输入数据类型
+ * @param <OUT> 输出数据类型
+ */
+@FunctionalInterface
+public interface MapFunction<IN, OUT> extends Serializable {
+    OUT map(IN value) throws Exception;
+}
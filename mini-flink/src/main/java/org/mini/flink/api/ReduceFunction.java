@@ -0,0 +1,12 @@
+package org.mini.flink.api;
+
+import java.io.Serializable;
+
+/**
+ * 归约函数，把两个相同类型的值合并为一个。
+ * @param <T> 被归约的数据类型
+ */
+@FunctionalInterface
+public interface ReduceFunction<T> extends Serializable {
+    T reduce(T value1, T value2) throws Exception;
+}
@@ -0,0 +1,19 @@
+package org.mini.flink.api;
+
+/**
+ * 带生命周期的用户函数。Source、Operator 或 Sink 实现此接口后，
+ * 任务会在处理第一条数据之前调用 {@link #open}，可以在这里通过 {@link RuntimeContext} 获取状态。
+ */
+public interface RichFunction {
+
+    /**
+     * 在任务线程中、处理任何数据之前调用。
+     */
+    void open(RuntimeContext runtimeContext) throws Exception;
+
+    /**
+     * 任务结束时调用，用于释放资源。
+     */
+    default void close() throws Exception {
+    }
+}
@@ -0,0 +1,52 @@
+package org.mini.flink.api;
+
+import org.mini.flink.api.state.IntValueState;
+import org.mini.flink.api.state.IntValueStateDescriptor;
+import org.mini.flink.api.state.LongValueState;
+import org.mini.flink.api.state.LongValueStateDescriptor;
+import org.mini.flink.api.state.MapState;
+import org.mini.flink.api.state.MapStateDescriptor;
+import org.mini.flink.api.state.ReducingState;
+import org.mini.flink.api.state.ReducingStateDescriptor;
+import org.mini.flink.api.state.ValueState;
+import org.mini.flink.api.state.ValueStateDescriptor;
+
+/**
+ * 用户函数运行时的上下文，提供子任务信息、键控状态和定时器的访问入口。
+ * <p>
+ * 键控状态只能在按键分区（{@code KeyGroupStreamPartitioner}）之后的第一个算子中使用，
+ * 获取到的状态对象总是作用于当前正在处理的记录的键。
+ */
+public interface RuntimeContext {
+
+    String getTaskName();
+
+    /**
+     * @return 当前子任务的下标，从 0 开始
+     */
+    int getIndexOfThisSubtask();
+
+    int getNumberOfParallelSubtasks();
+
+    <T> ValueState<T> getState(ValueStateDescriptor<T> stateDescriptor);
+
+    <UK, UV> MapState<UK, UV> getMapState(MapStateDescriptor<UK, UV> stateDescriptor);
+
+    <T> ReducingState<T> getReducingState(ReducingStateDescriptor<T> stateDescriptor);
+
+    /**
+     * 获取值类型为 long 的状态，读写都不会产生装箱对象。
+     */
+    LongValueState getLongState(LongValueStateDescriptor stateDescriptor);
+
+    /**
+     * 获取值类型为 int 的状态，读写都不会产生装箱对象。
+     */
+    IntValueState getIntState(IntValueStateDescriptor stateDescriptor);
+
+    /**
+     * 获取事件时间定时器服务。与键控状态一样只能在按键分区之后的第一个算子中使用，
+     * 并且算子需要实现 {@link Triggerable} 来接收定时器回调。
+     */
+    TimerService getTimerService();
+}
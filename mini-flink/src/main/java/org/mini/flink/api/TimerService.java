@@ -0,0 +1,36 @@
+package org.mini.flink.api;
+
+/**
+ * 事件时间定时器服务，通过 {@link RuntimeContext#getTimerService()} 获取。
+ * <p>
+ * 定时器属于当前键：注册时记下当前正在处理的记录的键，任务的水位线越过定时器时间时，
+ * 在同一个键的上下文中回调 {@link Triggerable#onEventTime}。同一个键、同一时间的定时器只保留一个。
+ * 定时器和键控状态一起做检查点，恢复后仍会触发。
+ */
+public interface TimerService {
+
+    /**
+     * @return 任务当前的水位线，还没有收到水位线时为 {@link Long#MIN_VALUE}
+     */
+    long currentWatermark();
+
+    /**
+     * @return 当前正在处理的记录（或正在触发的定时器）的事件时间戳，记录没有时间戳时为 {@link Long#MIN_VALUE}
+     */
+    long currentTimestamp();
+
+    /**
+     * @return 当前键
+     */
+    Object getCurrentKey();
+
+    /**
+     * 为当前键注册一个事件时间定时器。时间不晚于当前水位线的定时器会在下一个水位线到达时触发。
+     */
+    void registerEventTimeTimer(long time);
+
+    /**
+     * 删除当前键在给定时间上的定时器，不存在时什么都不做。
+     */
+    void deleteEventTimeTimer(long time);
+}
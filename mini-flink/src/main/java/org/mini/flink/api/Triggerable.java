@@ -0,0 +1,15 @@
+package org.mini.flink.api;
+
+/**
+ * 使用事件时间定时器的算子需要实现的回调接口。
+ * @param <OUT> 输出数据类型
+ */
+public interface Triggerable<OUT> {
+
+    /**
+     * 水位线越过了当前键的一个定时器。回调期间键控状态作用于该定时器的键，
+     * 输出记录的时间戳为定时器时间。
+     * @param timestamp 定时器时间
+     */
+    void onEventTime(long timestamp, Collector<OUT> collector) throws Exception;
+}
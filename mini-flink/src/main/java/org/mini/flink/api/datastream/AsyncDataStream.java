@@ -0,0 +1,71 @@
+package org.mini.flink.api.datastream;
+
+import org.mini.flink.api.AsyncFunction;
+import org.mini.flink.api.typeutils.TypeSerializers;
+import org.mini.flink.runtime.operators.async.AsyncWaitOperator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在数据流上追加异步 I/O 算子：每条输入交给 {@link AsyncFunction} 发起异步请求，任务线程不等待请求完成，
+ * 同一个子任务中可以同时有最多 capacity 个请求在进行，I/O 密集的算子不必靠提高并行度来提高吞吐。
+ * <ul>
+ *     <li>{@link #orderedWait}：结果按输入的顺序输出，先到的结果等待之前的请求完成；</li>
+ *     <li>{@link #unorderedWait}：结果在请求完成后立即输出，延迟更低，但不保持输入顺序。</li>
+ * </ul>
+ * 两种模式下结果都不会越过之后的水位线：任务发送水位线之前先等待所有进行中的请求完成。
+ * 检查点中保存进行中的请求的输入，从检查点恢复后重新发起请求，因此请求应当是幂等的。
+ */
+public final class AsyncDataStream {
+
+    /** 默认的同时进行的请求数上限 */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    /**
+     * 结果的输出顺序。
+     */
+    public enum OutputMode {
+        ORDERED,
+        UNORDERED
+    }
+
+    private AsyncDataStream() {
+    }
+
+    /**
+     * @param timeout 请求的超时时间，小于等于 0 表示不超时
+     * @param capacity 同时进行的请求数上限，达到上限时任务线程等待请求完成，从而向上游反压
+     */
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> orderedWait(
+            DataStream<IN> input, AsyncFunction<IN, OUT> function, long timeout, TimeUnit timeUnit, int capacity) {
+        return addOperator(input, function, timeout, timeUnit, capacity, OutputMode.ORDERED);
+    }
+
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> orderedWait(
+            DataStream<IN> input, AsyncFunction<IN, OUT> function, long timeout, TimeUnit timeUnit) {
+        return orderedWait(input, function, timeout, timeUnit, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param timeout 请求的超时时间，小于等于 0 表示不超时
+     * @param capacity 同时进行的请求数上限，达到上限时任务线程等待请求完成，从而向上游反压
+     */
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> unorderedWait(
+            DataStream<IN> input, AsyncFunction<IN, OUT> function, long timeout, TimeUnit timeUnit, int capacity) {
+        return addOperator(input, function, timeout, timeUnit, capacity, OutputMode.UNORDERED);
+    }
+
+    public static <IN, OUT> SingleOutputStreamOperator<OUT> unorderedWait(
+            DataStream<IN> input, AsyncFunction<IN, OUT> function, long timeout, TimeUnit timeUnit) {
+        return unorderedWait(input, function, timeout, timeUnit, DEFAULT_CAPACITY);
+    }
+
+    private static <IN, OUT> SingleOutputStreamOperator<OUT> addOperator(
+            DataStream<IN> input, AsyncFunction<IN, OUT> function, long timeout, TimeUnit timeUnit,
+            int capacity, OutputMode outputMode) {
+        AsyncWaitOperator<IN, OUT> operator =
+                new AsyncWaitOperator<>(function, timeUnit.toMillis(timeout), capacity, outputMode);
+        return input.transform("AsyncWait", operator,
+                TypeSerializers.extractFromFunction(function, AsyncFunction.class, 1));
+    }
+}
@@ -0,0 +1,115 @@
+package org.mini.flink.api.datastream;
+
+import org.mini.flink.api.FilterFunction;
+import org.mini.flink.api.KeySelector;
+import org.mini.flink.api.MapFunction;
+import org.mini.flink.api.Operator;
+import org.mini.flink.api.Sink;
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.api.typeutils.TypeSerializers;
+import org.mini.flink.runtime.operators.StreamFilter;
+import org.mini.flink.runtime.operators.StreamMap;
+import org.mini.flink.runtime.partitioner.BroadcastPartitioner;
+import org.mini.flink.runtime.partitioner.ForwardPartitioner;
+import org.mini.flink.runtime.partitioner.RebalancePartitioner;
+import org.mini.flink.runtime.partitioner.StreamPartitioner;
+
+import java.io.Serializable;
+
+/**
+ * 数据流，是构建作业的入口：每次调用 map、filter 等方法只会记录一个 {@link Transformation}，
+ * 直到 {@link StreamExecutionEnvironment#execute} 时才经过优化生成作业图。
+ * <pre>
+ * env.addSource(new SentenceSource()).setParallelism(1)
+ *         .flatMap(new Splitter())
+ *         .keyBy(word -&gt; word)
+ *         .process(new WordCounter()).name("WordCounter")
+ *         .addSink(new ConsoleSink());
+ * </pre>
+ * 分区方法（keyBy、rebalance 等）不产生新的算子，只决定下一个算子从这里读取数据的方式；
+ * 连续调用多个分区方法时只有最后一个生效。
+ *
+ * @param <T> 流中的数据类型
+ */
+public class DataStream<T> {
+
+    protected final StreamExecutionEnvironment environment;
+    protected final Transformation<T> transformation;
+    // 下游算子读取这个流时使用的分区方式，为 null 表示由优化器选择
+    protected final StreamPartitioner<?> partitioner;
+
+    DataStream(StreamExecutionEnvironment environment, Transformation<T> transformation, StreamPartitioner<?> partitioner) {
+        this.environment = environment;
+        this.transformation = transformation;
+        this.partitioner = partitioner;
+    }
+
+    public StreamExecutionEnvironment getExecutionEnvironment() {
+        return environment;
+    }
+
+    public Transformation<T> getTransformation() {
+        return transformation;
+    }
+
+    public <R> SingleOutputStreamOperator<R> map(MapFunction<T, R> mapper) {
+        return transform("Map", new StreamMap<>(mapper), TypeSerializers.extractFromFunction(mapper, MapFunction.class, 1));
+    }
+
+    /**
+     * 每条输入记录可以产生任意条输出记录，{@link Operator} 本身就是 flatMap 的语义。
+     */
+    public <R> SingleOutputStreamOperator<R> flatMap(Operator<T, R> flatMapper) {
+        return transform("FlatMap", flatMapper, TypeSerializers.extractFromFunction(flatMapper, Operator.class, 1));
+    }
+
+    public SingleOutputStreamOperator<T> filter(FilterFunction<T> filter) {
+        return transform("Filter", new StreamFilter<>(filter), transformation.getOutputSerializer());
+    }
+
+    /**
+     * 按键分区：相同键的记录总是被同一个下游子任务处理，下游算子可以使用键控状态和定时器。
+     */
+    public <K> KeyedStream<T, K> keyBy(KeySelector<T, K> keySelector) {
+        return new KeyedStream<>(environment, transformation, keySelector);
+    }
+
+    /**
+     * 下游算子轮询地从这个流读取数据，用于消除数据倾斜或改变并行度。
+     */
+    public DataStream<T> rebalance() {
+        return new DataStream<>(environment, transformation, new RebalancePartitioner<>());
+    }
+
+    /**
+     * 每条记录发送给下游算子的所有并行实例。
+     */
+    public DataStream<T> broadcast() {
+        return new DataStream<>(environment, transformation, new BroadcastPartitioner<>());
+    }
+
+    /**
+     * 上游第 i 个子任务只发送给下游第 i 个子任务，要求下游并行度与当前流相同。
+     */
+    public DataStream<T> forward() {
+        return new DataStream<>(environment, transformation, new ForwardPartitioner<>());
+    }
+
+    public DataStreamSink<T> addSink(Sink<T> sink) {
+        Transformation<Object> sinkTransformation = environment.addTransformation("Sink", sink, transformation, partitioner);
+        return new DataStreamSink<>(sinkTransformation);
+    }
+
+    /**
+     * 在当前流上追加一个算子，输入的分区方式沿用当前流上声明的分区方式。
+     *
+     * @param outputSerializer 从用户函数推断出的输出序列化器，无法推断时为 null
+     */
+    @SuppressWarnings("unchecked")
+    protected <R> SingleOutputStreamOperator<R> transform(String operatorName, Serializable operator,
+                                                          TypeSerializer<?> outputSerializer) {
+        Transformation<R> result = environment.addTransformation(operatorName, operator, transformation, partitioner);
+        result.setOutputSerializer((TypeSerializer<R>) outputSerializer);
+        return new SingleOutputStreamOperator<>(environment, result);
+    }
+}
@@ -0,0 +1,34 @@
+package org.mini.flink.api.datastream;
+
+/**
+ * 由 {@link DataStream#addSink} 返回，用于设置 Sink 的名称和并行度。
+ *
+ * @param <T> Sink 接收的数据类型
+ */
+public class DataStreamSink<T> {
+
+    private final Transformation<Object> transformation;
+
+    DataStreamSink(Transformation<Object> transformation) {
+        this.transformation = transformation;
+    }
+
+    public Transformation<Object> getTransformation() {
+        return transformation;
+    }
+
+    public DataStreamSink<T> name(String name) {
+        transformation.setName(name);
+        return this;
+    }
+
+    public DataStreamSink<T> setParallelism(int parallelism) {
+        transformation.setParallelism(parallelism);
+        return this;
+    }
+
+    public DataStreamSink<T> slotSharingGroup(String slotSharingGroup) {
+        transformation.setSlotSharingGroup(slotSharingGroup);
+        return this;
+    }
+}
@@ -0,0 +1,51 @@
+package org.mini.flink.api.datastream;
+
+import org.mini.flink.api.KeySelector;
+import org.mini.flink.api.Operator;
+import org.mini.flink.api.ReduceFunction;
+import org.mini.flink.api.typeutils.TypeSerializers;
+import org.mini.flink.api.windowing.WindowAssigner;
+import org.mini.flink.runtime.operators.StreamGroupedReduce;
+import org.mini.flink.runtime.partitioner.KeyGroupStreamPartitioner;
+
+/**
+ * 按键分区的数据流。在它上面追加的算子的输入按键分区，可以通过 {@link org.mini.flink.api.RuntimeContext}
+ * 使用键控状态；实现了 {@link org.mini.flink.api.Triggerable} 的算子还可以注册事件时间定时器。
+ *
+ * @param <T> 流中的数据类型
+ * @param <K> 键的类型
+ */
+public class KeyedStream<T, K> extends DataStream<T> {
+
+    private final KeySelector<T, K> keySelector;
+
+    KeyedStream(StreamExecutionEnvironment environment, Transformation<T> transformation, KeySelector<T, K> keySelector) {
+        super(environment, transformation, new KeyGroupStreamPartitioner<T, K>(keySelector));
+        this.keySelector = keySelector;
+    }
+
+    public KeySelector<T, K> getKeySelector() {
+        return keySelector;
+    }
+
+    /**
+     * 按键滚动归约，每条记录都会输出所在键最新的归约结果。
+     */
+    public SingleOutputStreamOperator<T> reduce(ReduceFunction<T> reducer) {
+        return transform("Reduce", new StreamGroupedReduce<>(reducer), transformation.getOutputSerializer());
+    }
+
+    /**
+     * 追加一个按键处理的算子，算子可以使用键控状态和定时器。
+     */
+    public <R> SingleOutputStreamOperator<R> process(Operator<T, R> operator) {
+        return transform("Process", operator, TypeSerializers.extractFromFunction(operator, Operator.class, 1));
+    }
+
+    /**
+     * 把每个键的数据划分到事件时间窗口中，需要 Source 设置了 WatermarkStrategy。
+     */
+    public WindowedStream<T, K> window(WindowAssigner windowAssigner) {
+        return new WindowedStream<>(this, windowAssigner);
+    }
+}
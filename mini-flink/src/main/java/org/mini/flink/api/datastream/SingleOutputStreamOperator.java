@@ -0,0 +1,73 @@
+package org.mini.flink.api.datastream;
+
+import org.mini.flink.api.eventtime.WatermarkStrategy;
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.api.typeutils.TypeSerializers;
+
+/**
+ * 由一个算子（或 Source）产生的数据流，可以继续设置这个算子的名称、并行度等属性。
+ *
+ * @param <T> 流中的数据类型
+ */
+public class SingleOutputStreamOperator<T> extends DataStream<T> {
+
+    SingleOutputStreamOperator(StreamExecutionEnvironment environment, Transformation<T> transformation) {
+        super(environment, transformation, null);
+    }
+
+    /**
+     * 设置算子名称。名称同时是算子状态在检查点中的标识，需要从检查点恢复的作业应显式命名有状态的算子。
+     */
+    public SingleOutputStreamOperator<T> name(String name) {
+        transformation.setName(name);
+        return this;
+    }
+
+    /**
+     * 设置算子并行度；不设置时由优化器决定，见 {@link StreamGraphOptimizer}。
+     */
+    public SingleOutputStreamOperator<T> setParallelism(int parallelism) {
+        transformation.setParallelism(parallelism);
+        return this;
+    }
+
+    /**
+     * 设置算子所在的槽共享组，不设置时沿用上游的槽共享组（Source 为默认组）。
+     * 把计算密集的算子放进单独的组，可以让它们独占任务槽，代价是作业需要更多的槽。
+     */
+    public SingleOutputStreamOperator<T> slotSharingGroup(String slotSharingGroup) {
+        transformation.setSlotSharingGroup(slotSharingGroup);
+        return this;
+    }
+
+    /**
+     * 显式声明算子的输出类型。用户函数是 Lambda 表达式时泛型参数被擦除，无法自动推断输出类型，
+     * 记录跨进程传输时每条都要带上类型标记；声明类型后按类型直接编码。
+     */
+    public SingleOutputStreamOperator<T> returns(Class<T> type) {
+        return returns(TypeSerializers.forClass(type));
+    }
+
+    /**
+     * 显式指定输出数据的序列化器，例如字段类型各不相同的元组。
+     */
+    public SingleOutputStreamOperator<T> returns(TypeSerializer<T> serializer) {
+        if (serializer == null) {
+            throw new NullPointerException("serializer 不能为 null");
+        }
+        transformation.setOutputSerializer(serializer);
+        return this;
+    }
+
+    /**
+     * 为 Source 设置事件时间策略，为每条记录分配时间戳并周期性地生成水位线。
+     * 时间戳目前只能在 Source 上分配。
+     */
+    public SingleOutputStreamOperator<T> assignTimestampsAndWatermarks(WatermarkStrategy<T> watermarkStrategy) {
+        if (transformation.getInput() != null) {
+            throw new IllegalStateException("只能为 Source 设置 WatermarkStrategy: " + transformation.getName());
+        }
+        transformation.setWatermarkStrategy(watermarkStrategy);
+        return this;
+    }
+}
@@ -0,0 +1,142 @@
+package org.mini.flink.api.datastream;
+
+import org.mini.flink.api.Source;
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.api.typeutils.TypeSerializers;
+import org.mini.flink.runtime.jobgraph.CheckpointConfig;
+import org.mini.flink.runtime.jobgraph.ExecutionConfig;
+import org.mini.flink.runtime.jobgraph.JobGraph;
+import org.mini.flink.runtime.jobmanager.JobManager;
+import org.mini.flink.runtime.partitioner.StreamPartitioner;
+import org.mini.flink.runtime.stream.ChannelType;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 流处理作业的构建环境。通过 {@link #addSource} 得到 {@link DataStream} 后，
+ * 在流上调用的各种转换只会被记录下来，{@link #execute} 时才由 {@link StreamGraphOptimizer}
+ * 统一决定并行度、分区方式和通道类型，生成 {@link JobGraph} 并提交。
+ */
+public class StreamExecutionEnvironment {
+
+    // 按创建顺序记录的所有转换，上游转换总是排在下游之前
+    private final List<Transformation<?>> transformations = new ArrayList<>();
+    private final ExecutionConfig executionConfig = new ExecutionConfig();
+    private final CheckpointConfig checkpointConfig = new CheckpointConfig();
+    private int parallelism = 1;
+    private boolean chainingEnabled = true;
+    private ChannelType channelType = ChannelType.SPSC_RING_BUFFER;
+
+    public <T> SingleOutputStreamOperator<T> addSource(Source<T> source) {
+        return addSource(source, null);
+    }
+
+    /**
+     * @param name 算子名称，为 null 时自动生成
+     */
+    public <T> SingleOutputStreamOperator<T> addSource(Source<T> source, String name) {
+        Transformation<T> transformation = addTransformation("Source", source, null, null);
+        if (name != null) {
+            transformation.setName(name);
+        }
+        transformation.setOutputSerializer(cast(TypeSerializers.extractFromFunction(source, Source.class, 0)));
+        return new SingleOutputStreamOperator<>(this, transformation);
+    }
+
+    /**
+     * 记录一个新的转换，默认名称由操作类型和序号组成，在同一个程序中是确定的。
+     */
+    <R> Transformation<R> addTransformation(String operatorName, Serializable logic,
+                                            Transformation<?> input, StreamPartitioner<?> inputPartitioner) {
+        if (logic == null) {
+            throw new NullPointerException("用户函数不能为 null");
+        }
+        int id = transformations.size() + 1;
+        Transformation<R> transformation = new Transformation<>(id, operatorName + "-" + id, logic, input, inputPartitioner);
+        transformations.add(transformation);
+        return transformation;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> TypeSerializer<T> cast(TypeSerializer<?> serializer) {
+        return (TypeSerializer<T>) serializer;
+    }
+
+    public List<Transformation<?>> getTransformations() {
+        return Collections.unmodifiableList(transformations);
+    }
+
+    public ExecutionConfig getConfig() {
+        return executionConfig;
+    }
+
+    public CheckpointConfig getCheckpointConfig() {
+        return checkpointConfig;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * 设置默认并行度，作用于 Source 以及按键分区、轮询分区之后的算子；
+     * 其他没有显式设置并行度的算子沿用上游的并行度，以便与上游链接在一起。
+     */
+    public StreamExecutionEnvironment setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("并行度必须大于 0: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public boolean isChainingEnabled() {
+        return chainingEnabled;
+    }
+
+    public StreamExecutionEnvironment disableOperatorChaining() {
+        this.chainingEnabled = false;
+        return this;
+    }
+
+    public ChannelType getChannelType() {
+        return channelType;
+    }
+
+    /**
+     * 设置任务之间数据通道的实现类型，默认使用无锁的环形缓冲区。
+     */
+    public StreamExecutionEnvironment setChannelType(ChannelType channelType) {
+        if (channelType == null) {
+            throw new NullPointerException("channelType 不能为 null");
+        }
+        this.channelType = channelType;
+        return this;
+    }
+
+    /**
+     * 优化当前记录的所有转换并生成作业图，不会提交作业。
+     */
+    public JobGraph getJobGraph(String jobName) {
+        return new StreamGraphOptimizer(this).createJobGraph(jobName);
+    }
+
+    /**
+     * @return 优化之后的执行计划，包括每个算子的并行度、每条边的分区方式以及算子链的划分
+     */
+    public String getExecutionPlan() {
+        return new StreamGraphOptimizer(this).explain();
+    }
+
+    /**
+     * 生成作业图并提交到给定的 JobManager。
+     * @return 作业部署完成时完成的 Future
+     */
+    public CompletableFuture<Void> execute(JobManager jobManager, String jobName) {
+        return jobManager.submitJob(getJobGraph(jobName));
+    }
+}
@@ -0,0 +1,153 @@
+package org.mini.flink.api.datastream;
+
+import org.mini.flink.runtime.jobgraph.JobEdge;
+import org.mini.flink.runtime.jobgraph.JobGraph;
+import org.mini.flink.runtime.jobgraph.JobVertex;
+import org.mini.flink.runtime.partitioner.ForwardPartitioner;
+import org.mini.flink.runtime.partitioner.KeyGroupStreamPartitioner;
+import org.mini.flink.runtime.partitioner.RebalancePartitioner;
+import org.mini.flink.runtime.partitioner.StreamPartitioner;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * 把 DataStream API 记录下来的转换优化后生成 {@link JobGraph}，依次执行：
+ * <ol>
+ *     <li>并行度推导：没有显式设置并行度、且没有要求重新分区的算子沿用上游的并行度，
+ *     这样它与上游之间是直连边，可以被链接到同一个任务中，省去一次跨线程的数据交换；
+ *     Source 以及按键、轮询分区之后的算子使用环境的默认并行度。</li>
+ *     <li>分区器选择：没有指定分区方式的边，并行度相同时直连，否则轮询。</li>
+ *     <li>冗余重分区消除：上下游并行度都为 1 时，轮询和广播都只有一个通道，等价于直连，
+ *     替换成直连之后两个算子可以被链接。按键分区会保留，因为下游的键控状态依赖它提取键。</li>
+ *     <li>算子链接：由作业图按 {@link JobGraph#isChainable} 判定，上面两步的目的都是让更多的边满足链接条件。</li>
+ * </ol>
+ * 连续调用多个分区方法（例如 rebalance().keyBy(...)）时只有最后一个生效，在记录转换时就已经被合并。
+ */
+public class StreamGraphOptimizer {
+    private static final Logger LOG = Logger.getLogger(StreamGraphOptimizer.class.getName());
+
+    private final StreamExecutionEnvironment environment;
+    // Key: 转换, Value: 推导出的并行度
+    private final Map<Transformation<?>, Integer> parallelisms = new HashMap<>();
+    // Key: 转换, Value: 推导出的槽共享组
+    private final Map<Transformation<?>, String> slotSharingGroups = new HashMap<>();
+    // Key: 转换, Value: 它与上游之间的分区器，Source 没有
+    private final Map<Transformation<?>, StreamPartitioner<?>> partitioners = new HashMap<>();
+
+    public StreamGraphOptimizer(StreamExecutionEnvironment environment) {
+        this.environment = environment;
+    }
+
+    public JobGraph createJobGraph(String jobName) {
+        List<Transformation<?>> transformations = environment.getTransformations();
+        if (transformations.isEmpty()) {
+            throw new IllegalStateException("作业中没有任何算子，请先调用 addSource");
+        }
+        validateNames(transformations);
+        for (Transformation<?> transformation : transformations) {
+            parallelisms.put(transformation, resolveParallelism(transformation));
+            slotSharingGroups.put(transformation, resolveSlotSharingGroup(transformation));
+        }
+        for (Transformation<?> transformation : transformations) {
+            if (transformation.getInput() != null) {
+                partitioners.put(transformation, selectPartitioner(transformation));
+            }
+        }
+
+        JobGraph jobGraph = new JobGraph(jobName, environment.getConfig(), environment.getCheckpointConfig());
+        if (!environment.isChainingEnabled()) {
+            jobGraph.disableOperatorChaining();
+        }
+        Map<Transformation<?>, JobVertex> vertices = new HashMap<>();
+        for (Transformation<?> transformation : transformations) {
+            JobVertex vertex = new JobVertex(transformation.getName(), transformation.getLogic(), parallelisms.get(transformation));
+            vertex.setSlotSharingGroup(slotSharingGroups.get(transformation));
+            vertex.setOutputSerializer(transformation.getOutputSerializer());
+            if (transformation.getWatermarkStrategy() != null) {
+                vertex.setWatermarkStrategy(transformation.getWatermarkStrategy());
+            }
+            jobGraph.addVertex(vertex);
+            vertices.put(transformation, vertex);
+        }
+        for (Transformation<?> transformation : transformations) {
+            if (transformation.getInput() != null) {
+                jobGraph.addEdge(vertices.get(transformation.getInput()), vertices.get(transformation),
+                        partitioners.get(transformation)).setChannelType(environment.getChannelType());
+            }
+        }
+        return jobGraph;
+    }
+
+    /**
+     * @return 优化之后的执行计划，"->" 表示链接在同一个任务中，"=>" 表示经过数据通道
+     */
+    public String explain() {
+        JobGraph jobGraph = createJobGraph("explain");
+        StringBuilder plan = new StringBuilder();
+        for (JobVertex vertex : jobGraph.getVertices()) {
+            plan.append(vertex.getName()).append(" (parallelism=").append(vertex.getParallelism())
+                    .append(", slotSharingGroup=").append(vertex.getSlotSharingGroup()).append(")\n");
+            for (JobEdge edge : jobGraph.getOutputEdges(vertex.getId())) {
+                plan.append("  ").append(jobGraph.isChainable(edge) ? "->" : "=>")
+                        .append(" [").append(edge.getPartitioner()).append("] ")
+                        .append(jobGraph.getVertex(edge.getTargetVertexId()).getName()).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    /**
+     * 算子名称是算子链内部以及检查点中状态的标识，必须唯一。
+     */
+    private static void validateNames(List<Transformation<?>> transformations) {
+        Set<String> names = new HashSet<>();
+        for (Transformation<?> transformation : transformations) {
+            if (!names.add(transformation.getName())) {
+                throw new IllegalStateException("算子名称重复: " + transformation.getName());
+            }
+        }
+    }
+
+    private int resolveParallelism(Transformation<?> transformation) {
+        if (transformation.getParallelism() != Transformation.PARALLELISM_DEFAULT) {
+            return transformation.getParallelism();
+        }
+        StreamPartitioner<?> partitioner = transformation.getInputPartitioner();
+        if (transformation.getInput() != null && (partitioner == null || partitioner.isPointwise())) {
+            // 上游转换总是先被推导
+            return parallelisms.get(transformation.getInput());
+        }
+        return environment.getParallelism();
+    }
+
+    private String resolveSlotSharingGroup(Transformation<?> transformation) {
+        if (transformation.getSlotSharingGroup() != null) {
+            return transformation.getSlotSharingGroup();
+        }
+        if (transformation.getInput() != null) {
+            return slotSharingGroups.get(transformation.getInput());
+        }
+        return JobVertex.DEFAULT_SLOT_SHARING_GROUP;
+    }
+
+    private StreamPartitioner<?> selectPartitioner(Transformation<?> transformation) {
+        int upstreamParallelism = parallelisms.get(transformation.getInput());
+        int downstreamParallelism = parallelisms.get(transformation);
+        StreamPartitioner<?> partitioner = transformation.getInputPartitioner();
+        if (partitioner == null) {
+            return upstreamParallelism == downstreamParallelism ? new ForwardPartitioner<>() : new RebalancePartitioner<>();
+        }
+        if (!partitioner.isPointwise() && !(partitioner instanceof KeyGroupStreamPartitioner)
+                && upstreamParallelism == 1 && downstreamParallelism == 1) {
+            LOG.info("消除冗余的重分区: " + transformation.getInput().getName() + " -[" + partitioner + "]-> "
+                    + transformation.getName() + " 只有一个通道，改为直连");
+            return new ForwardPartitioner<>();
+        }
+        return partitioner;
+    }
+}
@@ -0,0 +1,114 @@
+package org.mini.flink.api.datastream;
+
+import org.mini.flink.api.eventtime.WatermarkStrategy;
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.runtime.partitioner.StreamPartitioner;
+
+import java.io.Serializable;
+
+/**
+ * DataStream API 记录下来的一个转换操作，对应逻辑计划中的一个节点。
+ * <p>
+ * 转换只描述“做什么”，并行度、分区方式等在提交之前由 {@link StreamGraphOptimizer} 统一决定，
+ * 然后才生成 {@link org.mini.flink.runtime.jobgraph.JobGraph}。
+ *
+ * @param <T> 该转换输出的数据类型
+ */
+public class Transformation<T> {
+    // 用户没有设置并行度，由优化器决定
+    public static final int PARALLELISM_DEFAULT = -1;
+
+    private final int id;
+    private String name;
+    private final Serializable logic; // Source, Operator, 或 Sink
+    private final Transformation<?> input;
+    // 与上游之间的分区方式，为 null 表示用户没有指定，由优化器选择
+    private final StreamPartitioner<?> inputPartitioner;
+    private int parallelism = PARALLELISM_DEFAULT;
+    private WatermarkStrategy<?> watermarkStrategy;
+    // 为 null 表示沿用上游所在的槽共享组
+    private String slotSharingGroup;
+    // 输出数据的序列化器，为 null 表示类型未知，跨进程传输时按运行时的实际类型编码
+    private TypeSerializer<T> outputSerializer;
+
+    Transformation(int id, String name, Serializable logic, Transformation<?> input, StreamPartitioner<?> inputPartitioner) {
+        this.id = id;
+        this.name = name;
+        this.logic = logic;
+        this.input = input;
+        this.inputPartitioner = inputPartitioner;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void setName(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("算子名称不能为空");
+        }
+        this.name = name;
+    }
+
+    public Serializable getLogic() {
+        return logic;
+    }
+
+    /**
+     * @return 上游转换，Source 返回 null
+     */
+    public Transformation<?> getInput() {
+        return input;
+    }
+
+    public StreamPartitioner<?> getInputPartitioner() {
+        return inputPartitioner;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("并行度必须大于 0: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public WatermarkStrategy<?> getWatermarkStrategy() {
+        return watermarkStrategy;
+    }
+
+    void setWatermarkStrategy(WatermarkStrategy<?> watermarkStrategy) {
+        this.watermarkStrategy = watermarkStrategy;
+    }
+
+    public String getSlotSharingGroup() {
+        return slotSharingGroup;
+    }
+
+    void setSlotSharingGroup(String slotSharingGroup) {
+        if (slotSharingGroup == null || slotSharingGroup.isEmpty()) {
+            throw new IllegalArgumentException("槽共享组名称不能为空");
+        }
+        this.slotSharingGroup = slotSharingGroup;
+    }
+
+    public TypeSerializer<T> getOutputSerializer() {
+        return outputSerializer;
+    }
+
+    void setOutputSerializer(TypeSerializer<T> outputSerializer) {
+        this.outputSerializer = outputSerializer;
+    }
+
+    @Override
+    public String toString() {
+        return name + "#" + id;
+    }
+}
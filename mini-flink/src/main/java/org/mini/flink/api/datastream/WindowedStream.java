@@ -0,0 +1,49 @@
+package org.mini.flink.api.datastream;
+
+import org.mini.flink.api.AggregateFunction;
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.api.typeutils.TypeSerializers;
+import org.mini.flink.api.windowing.WindowAssigner;
+import org.mini.flink.api.windowing.WindowFunction;
+import org.mini.flink.runtime.operators.windowing.WindowOperator;
+
+/**
+ * 按键划分了窗口的数据流，通过 aggregate 指定每个窗口的增量聚合方式。
+ *
+ * @param <T> 流中的数据类型
+ * @param <K> 键的类型
+ */
+public class WindowedStream<T, K> {
+
+    private final KeyedStream<T, K> input;
+    private final WindowAssigner windowAssigner;
+
+    WindowedStream(KeyedStream<T, K> input, WindowAssigner windowAssigner) {
+        this.input = input;
+        this.windowAssigner = windowAssigner;
+    }
+
+    /**
+     * 每个窗口触发时输出聚合结果。
+     */
+    public <ACC, R> SingleOutputStreamOperator<R> aggregate(AggregateFunction<T, ACC, R> aggregateFunction) {
+        SingleOutputStreamOperator<R> result = aggregate(aggregateFunction, (key, window, value) -> value);
+        result.getTransformation().setOutputSerializer(
+                cast(TypeSerializers.extractFromFunction(aggregateFunction, AggregateFunction.class, 2)));
+        return result;
+    }
+
+    /**
+     * 每个窗口触发时，把键、窗口和聚合结果交给 windowFunction 生成输出。
+     */
+    public <ACC, R, OUT> SingleOutputStreamOperator<OUT> aggregate(AggregateFunction<T, ACC, R> aggregateFunction,
+                                                                   WindowFunction<K, R, OUT> windowFunction) {
+        return input.transform("Window", new WindowOperator<T, K, ACC, R, OUT>(windowAssigner, aggregateFunction, windowFunction),
+                TypeSerializers.extractFromFunction(windowFunction, WindowFunction.class, 2));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> TypeSerializer<R> cast(TypeSerializer<?> serializer) {
+        return (TypeSerializer<R>) serializer;
+    }
+}
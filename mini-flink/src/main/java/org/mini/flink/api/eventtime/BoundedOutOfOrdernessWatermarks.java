@@ -0,0 +1,31 @@
+package org.mini.flink.api.eventtime;
+
+/**
+ * 允许记录乱序到达一个固定时长的水位线生成器：水位线 = 已见过的最大时间戳 - 最大乱序时长 - 1。
+ * 最大乱序时长为 0 时适用于时间戳单调递增的输入。
+ * @param <T> 记录类型
+ */
+public class BoundedOutOfOrdernessWatermarks<T> implements WatermarkGenerator<T> {
+
+    private final long outOfOrdernessMillis;
+    // 已见过的最大时间戳，初始值保证第一次计算水位线时不会溢出
+    private long maxTimestamp;
+
+    public BoundedOutOfOrdernessWatermarks(long outOfOrdernessMillis) {
+        if (outOfOrdernessMillis < 0) {
+            throw new IllegalArgumentException("最大乱序时长不能为负数");
+        }
+        this.outOfOrdernessMillis = outOfOrdernessMillis;
+        this.maxTimestamp = Long.MIN_VALUE + outOfOrdernessMillis + 1;
+    }
+
+    @Override
+    public void onEvent(T event, long eventTimestamp, WatermarkOutput output) {
+        maxTimestamp = Math.max(maxTimestamp, eventTimestamp);
+    }
+
+    @Override
+    public void onPeriodicEmit(WatermarkOutput output) {
+        output.emitWatermark(new Watermark(maxTimestamp - outOfOrdernessMillis - 1));
+    }
+}
@@ -0,0 +1,19 @@
+package org.mini.flink.api.eventtime;
+
+import java.io.Serializable;
+
+/**
+ * 从记录中提取事件时间戳（毫秒）。
+ * @param <T> 记录类型
+ */
+@FunctionalInterface
+public interface TimestampAssigner<T> extends Serializable {
+
+    /** 记录没有时间戳 */
+    long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    /**
+     * @param recordTimestamp 记录原有的时间戳，没有时为 {@link #NO_TIMESTAMP}
+     */
+    long extractTimestamp(T element, long recordTimestamp);
+}
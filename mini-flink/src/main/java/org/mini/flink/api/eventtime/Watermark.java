@@ -0,0 +1,41 @@
+package org.mini.flink.api.eventtime;
+
+import java.io.Serializable;
+
+/**
+ * 水位线，表示事件时间已经推进到了 timestamp：之后不应再有时间戳小于等于它的记录到达。
+ * <p>
+ * 水位线由 Source 任务根据 {@link WatermarkStrategy} 生成，和检查点屏障一样作为事件在通道中传递。
+ * 有多个输入的任务取所有输入通道水位线的最小值作为自己的事件时间。
+ */
+public final class Watermark implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** 表示事件时间结束的水位线，有界输入结束时发送，触发所有剩余的定时器 */
+    public static final Watermark MAX_WATERMARK = new Watermark(Long.MAX_VALUE);
+
+    private final long timestamp;
+
+    public Watermark(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Watermark && ((Watermark) o).timestamp == timestamp;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(timestamp);
+    }
+
+    @Override
+    public String toString() {
+        return "Watermark{" + timestamp + "}";
+    }
+}
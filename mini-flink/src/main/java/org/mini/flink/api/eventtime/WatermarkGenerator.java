@@ -0,0 +1,20 @@
+package org.mini.flink.api.eventtime;
+
+/**
+ * 水位线生成器，每个 Source 子任务持有一个实例。
+ * <p>
+ * 两个方法都在 Source 任务的任务线程中调用，实现不需要考虑线程安全。
+ * @param <T> 记录类型
+ */
+public interface WatermarkGenerator<T> {
+
+    /**
+     * 每条记录分配时间戳之后调用，可以根据记录立即发出水位线（例如记录中带有结束标记）。
+     */
+    void onEvent(T event, long eventTimestamp, WatermarkOutput output);
+
+    /**
+     * 按 {@code ExecutionConfig#getAutoWatermarkInterval()} 周期性地调用。
+     */
+    void onPeriodicEmit(WatermarkOutput output);
+}
@@ -0,0 +1,12 @@
+package org.mini.flink.api.eventtime;
+
+/**
+ * {@link WatermarkGenerator} 发出水位线的出口。
+ */
+public interface WatermarkOutput {
+
+    /**
+     * 发出一个水位线。不比之前发出的水位线大的水位线会被忽略。
+     */
+    void emitWatermark(Watermark watermark);
+}
@@ -0,0 +1,57 @@
+package org.mini.flink.api.eventtime;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * Source 的事件时间策略：如何从记录中提取时间戳，以及如何生成水位线。
+ * <pre>
+ * sourceVertex.setWatermarkStrategy(
+ *         WatermarkStrategy.&lt;Event&gt;forBoundedOutOfOrderness(Duration.ofSeconds(2))
+ *                 .withTimestampAssigner((event, ts) -&gt; event.getTime()));
+ * </pre>
+ * @param <T> 记录类型
+ */
+public final class WatermarkStrategy<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long maxOutOfOrdernessMillis;
+    private final TimestampAssigner<T> timestampAssigner;
+
+    private WatermarkStrategy(long maxOutOfOrdernessMillis, TimestampAssigner<T> timestampAssigner) {
+        this.maxOutOfOrdernessMillis = maxOutOfOrdernessMillis;
+        this.timestampAssigner = timestampAssigner;
+    }
+
+    /**
+     * 记录最多乱序 maxOutOfOrderness 到达。
+     */
+    public static <T> WatermarkStrategy<T> forBoundedOutOfOrderness(Duration maxOutOfOrderness) {
+        return new WatermarkStrategy<>(maxOutOfOrderness.toMillis(), null);
+    }
+
+    /**
+     * 记录的时间戳单调递增。
+     */
+    public static <T> WatermarkStrategy<T> forMonotonousTimestamps() {
+        return new WatermarkStrategy<>(0, null);
+    }
+
+    public WatermarkStrategy<T> withTimestampAssigner(TimestampAssigner<T> timestampAssigner) {
+        return new WatermarkStrategy<>(maxOutOfOrdernessMillis, timestampAssigner);
+    }
+
+    /**
+     * @return 一个新的生成器，每个 Source 子任务调用一次
+     */
+    public WatermarkGenerator<T> createWatermarkGenerator() {
+        return new BoundedOutOfOrdernessWatermarks<>(maxOutOfOrdernessMillis);
+    }
+
+    public TimestampAssigner<T> getTimestampAssigner() {
+        if (timestampAssigner == null) {
+            throw new IllegalStateException("WatermarkStrategy 没有设置 TimestampAssigner");
+        }
+        return timestampAssigner;
+    }
+}
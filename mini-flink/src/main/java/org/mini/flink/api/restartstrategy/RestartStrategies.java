@@ -0,0 +1,155 @@
+package org.mini.flink.api.restartstrategy;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * 任务失败后的重启策略。JobManager 发现任务失败时，只取消失败任务所在的流水线区域，
+ * 按这里的策略等待一段时间后从最近完成的检查点恢复该区域；策略不再允许重启时作业失败。
+ * <pre>
+ * env.getConfig().setRestartStrategy(RestartStrategies.fixedDelayRestart(3, Duration.ofSeconds(1)));
+ * </pre>
+ */
+public final class RestartStrategies {
+
+    private RestartStrategies() {
+    }
+
+    /**
+     * 任何任务失败都直接导致作业失败。
+     */
+    public static RestartStrategyConfiguration noRestart() {
+        return NoRestartStrategyConfiguration.INSTANCE;
+    }
+
+    /**
+     * 每次失败后等待固定的时间再重启，最多重启 restartAttempts 次。
+     */
+    public static RestartStrategyConfiguration fixedDelayRestart(int restartAttempts, Duration delay) {
+        return new FixedDelayRestartStrategyConfiguration(restartAttempts, delay.toMillis());
+    }
+
+    /**
+     * 连续失败时等待时间按 backoffMultiplier 倍增长，直到 maxBackoff；
+     * 距上次失败超过 resetBackoffThreshold 后再失败，等待时间回到 initialBackoff。重启次数不设上限。
+     */
+    public static RestartStrategyConfiguration exponentialDelayRestart(Duration initialBackoff, Duration maxBackoff,
+                                                                       double backoffMultiplier,
+                                                                       Duration resetBackoffThreshold) {
+        return new ExponentialDelayRestartStrategyConfiguration(initialBackoff.toMillis(), maxBackoff.toMillis(),
+                backoffMultiplier, resetBackoffThreshold.toMillis());
+    }
+
+    /**
+     * 重启策略的配置，随作业一起提交给 JobManager。
+     */
+    public abstract static class RestartStrategyConfiguration implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        RestartStrategyConfiguration() {
+        }
+
+        public abstract String getDescription();
+
+        @Override
+        public String toString() {
+            return getDescription();
+        }
+    }
+
+    public static final class NoRestartStrategyConfiguration extends RestartStrategyConfiguration {
+        private static final long serialVersionUID = 1L;
+        private static final NoRestartStrategyConfiguration INSTANCE = new NoRestartStrategyConfiguration();
+
+        private NoRestartStrategyConfiguration() {
+        }
+
+        @Override
+        public String getDescription() {
+            return "不重启";
+        }
+
+        private Object readResolve() {
+            return INSTANCE;
+        }
+    }
+
+    public static final class FixedDelayRestartStrategyConfiguration extends RestartStrategyConfiguration {
+        private static final long serialVersionUID = 1L;
+
+        private final int restartAttempts;
+        private final long delayMillis;
+
+        FixedDelayRestartStrategyConfiguration(int restartAttempts, long delayMillis) {
+            if (restartAttempts < 0) {
+                throw new IllegalArgumentException("restartAttempts 不能为负数");
+            }
+            if (delayMillis < 0) {
+                throw new IllegalArgumentException("delay 不能为负数");
+            }
+            this.restartAttempts = restartAttempts;
+            this.delayMillis = delayMillis;
+        }
+
+        public int getRestartAttempts() {
+            return restartAttempts;
+        }
+
+        public long getDelayMillis() {
+            return delayMillis;
+        }
+
+        @Override
+        public String getDescription() {
+            return "固定间隔重启 (最多 " + restartAttempts + " 次，间隔 " + delayMillis + " ms)";
+        }
+    }
+
+    public static final class ExponentialDelayRestartStrategyConfiguration extends RestartStrategyConfiguration {
+        private static final long serialVersionUID = 1L;
+
+        private final long initialBackoffMillis;
+        private final long maxBackoffMillis;
+        private final double backoffMultiplier;
+        private final long resetBackoffThresholdMillis;
+
+        ExponentialDelayRestartStrategyConfiguration(long initialBackoffMillis, long maxBackoffMillis,
+                                                     double backoffMultiplier, long resetBackoffThresholdMillis) {
+            if (initialBackoffMillis < 0 || maxBackoffMillis < initialBackoffMillis) {
+                throw new IllegalArgumentException("需要 0 <= initialBackoff <= maxBackoff");
+            }
+            if (backoffMultiplier < 1.0) {
+                throw new IllegalArgumentException("backoffMultiplier 不能小于 1");
+            }
+            if (resetBackoffThresholdMillis <= 0) {
+                throw new IllegalArgumentException("resetBackoffThreshold 必须大于 0");
+            }
+            this.initialBackoffMillis = initialBackoffMillis;
+            this.maxBackoffMillis = maxBackoffMillis;
+            this.backoffMultiplier = backoffMultiplier;
+            this.resetBackoffThresholdMillis = resetBackoffThresholdMillis;
+        }
+
+        public long getInitialBackoffMillis() {
+            return initialBackoffMillis;
+        }
+
+        public long getMaxBackoffMillis() {
+            return maxBackoffMillis;
+        }
+
+        public double getBackoffMultiplier() {
+            return backoffMultiplier;
+        }
+
+        public long getResetBackoffThresholdMillis() {
+            return resetBackoffThresholdMillis;
+        }
+
+        @Override
+        public String getDescription() {
+            return "指数退避重启 (初始 " + initialBackoffMillis + " ms，最大 " + maxBackoffMillis + " ms，倍数 "
+                    + backoffMultiplier + "，" + resetBackoffThresholdMillis + " ms 内无失败则重置)";
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.mini.flink.api.state;
+
+/**
+ * 值类型为 int 的 {@link ValueState} 特化版本，值直接存放在 int 数组中，读写不会装箱。
+ */
+public interface IntValueState extends State {
+
+    /**
+     * @return 当前键的值，不存在时返回 0
+     */
+    int value();
+
+    void update(int value);
+
+    /**
+     * 把当前键的值加上 delta。
+     * @return 相加之后的值
+     */
+    int add(int delta);
+}
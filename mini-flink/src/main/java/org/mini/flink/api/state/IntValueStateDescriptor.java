@@ -0,0 +1,17 @@
+package org.mini.flink.api.state;
+
+/**
+ * {@link IntValueState} 的描述符。
+ */
+public class IntValueStateDescriptor extends StateDescriptor {
+    private static final long serialVersionUID = 1L;
+
+    public IntValueStateDescriptor(String name) {
+        super(name);
+    }
+
+    @Override
+    public Type getType() {
+        return Type.INT_VALUE;
+    }
+}
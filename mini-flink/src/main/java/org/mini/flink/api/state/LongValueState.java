@@ -0,0 +1,20 @@
+package org.mini.flink.api.state;
+
+/**
+ * 值类型为 long 的 {@link ValueState} 特化版本，值直接存放在 long 数组中，读写不会装箱。
+ */
+public interface LongValueState extends State {
+
+    /**
+     * @return 当前键的值，不存在时返回 0
+     */
+    long value();
+
+    void update(long value);
+
+    /**
+     * 把当前键的值加上 delta。
+     * @return 相加之后的值
+     */
+    long add(long delta);
+}
@@ -0,0 +1,17 @@
+package org.mini.flink.api.state;
+
+/**
+ * {@link LongValueState} 的描述符。
+ */
+public class LongValueStateDescriptor extends StateDescriptor {
+    private static final long serialVersionUID = 1L;
+
+    public LongValueStateDescriptor(String name) {
+        super(name);
+    }
+
+    @Override
+    public Type getType() {
+        return Type.LONG_VALUE;
+    }
+}
@@ -0,0 +1,26 @@
+package org.mini.flink.api.state;
+
+import java.util.Map;
+
+/**
+ * 每个键保存一个 Map 的状态。
+ * @param <UK> 用户 Map 的键类型
+ * @param <UV> 用户 Map 的值类型
+ */
+public interface MapState<UK, UV> extends State {
+
+    UV get(UK key);
+
+    void put(UK key, UV value);
+
+    void remove(UK key);
+
+    boolean contains(UK key);
+
+    /**
+     * @return 当前键下所有的映射，当前键没有状态时返回空集合
+     */
+    Iterable<Map.Entry<UK, UV>> entries();
+
+    boolean isEmpty();
+}
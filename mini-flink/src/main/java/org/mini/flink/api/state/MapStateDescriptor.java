@@ -0,0 +1,32 @@
+package org.mini.flink.api.state;
+
+/**
+ * {@link MapState} 的描述符。
+ */
+public class MapStateDescriptor<UK, UV> extends StateDescriptor {
+    private static final long serialVersionUID = 1L;
+
+    // Map 中的值是可变对象时的拷贝方式，值不可变（或只会被整体替换）时为 null
+    private final ValueCopier<UV> valueCopier;
+
+    public MapStateDescriptor(String name) {
+        this(name, null);
+    }
+
+    /**
+     * @param valueCopier Map 中的值会被原地修改时必须提供，否则正在异步进行的快照可能看到修改之后的值
+     */
+    public MapStateDescriptor(String name, ValueCopier<UV> valueCopier) {
+        super(name);
+        this.valueCopier = valueCopier;
+    }
+
+    public ValueCopier<UV> getValueCopier() {
+        return valueCopier;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.MAP;
+    }
+}
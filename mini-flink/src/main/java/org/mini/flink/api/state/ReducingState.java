@@ -0,0 +1,15 @@
+package org.mini.flink.api.state;
+
+/**
+ * 每个键保存一个归约结果的状态，新加入的值会立即通过 {@link org.mini.flink.api.ReduceFunction} 与已有结果合并。
+ * @param <T> 值的类型
+ */
+public interface ReducingState<T> extends State {
+
+    /**
+     * @return 当前键的归约结果，不存在时返回 null
+     */
+    T get();
+
+    void add(T value) throws Exception;
+}
@@ -0,0 +1,29 @@
+package org.mini.flink.api.state;
+
+import org.mini.flink.api.ReduceFunction;
+
+/**
+ * {@link ReducingState} 的描述符。
+ */
+public class ReducingStateDescriptor<T> extends StateDescriptor {
+    private static final long serialVersionUID = 1L;
+
+    private final ReduceFunction<T> reduceFunction;
+
+    public ReducingStateDescriptor(String name, ReduceFunction<T> reduceFunction) {
+        super(name);
+        if (reduceFunction == null) {
+            throw new NullPointerException("reduceFunction 不能为 null");
+        }
+        this.reduceFunction = reduceFunction;
+    }
+
+    public ReduceFunction<T> getReduceFunction() {
+        return reduceFunction;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.REDUCING;
+    }
+}
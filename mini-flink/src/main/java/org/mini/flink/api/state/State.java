@@ -0,0 +1,12 @@
+package org.mini.flink.api.state;
+
+/**
+ * 所有键控状态的父接口。状态总是作用于当前正在处理的记录的键。
+ */
+public interface State {
+
+    /**
+     * 删除当前键下的状态。
+     */
+    void clear();
+}
@@ -0,0 +1,35 @@
+package org.mini.flink.api.state;
+
+import java.io.Serializable;
+
+/**
+ * 状态描述符，用名称唯一标识一个算子中的一个状态。
+ * 同一个算子中以相同名称多次获取状态，得到的是同一个状态对象。
+ */
+public abstract class StateDescriptor implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Type {
+        VALUE, MAP, REDUCING, LONG_VALUE, INT_VALUE
+    }
+
+    private final String name;
+
+    protected StateDescriptor(String name) {
+        if (name == null) {
+            throw new NullPointerException("状态名称不能为 null");
+        }
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public abstract Type getType();
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{name='" + name + "'}";
+    }
+}
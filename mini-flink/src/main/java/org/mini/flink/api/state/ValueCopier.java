@@ -0,0 +1,13 @@
+package org.mini.flink.api.state;
+
+import java.io.Serializable;
+
+/**
+ * 状态值的拷贝方式。状态值是可变对象并且会被原地修改时，堆状态后端在快照仍在使用旧值的情况下，
+ * 先用它拷贝一份再交给算子修改，保证异步进行的快照看到的是快照时刻的值。
+ * @param <T> 状态值的类型
+ */
+@FunctionalInterface
+public interface ValueCopier<T> extends Serializable {
+    T copy(T value);
+}
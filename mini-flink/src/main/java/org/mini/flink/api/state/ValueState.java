@@ -0,0 +1,18 @@
+package org.mini.flink.api.state;
+
+/**
+ * 每个键保存一个值的状态。
+ * @param <T> 值的类型
+ */
+public interface ValueState<T> extends State {
+
+    /**
+     * @return 当前键的值，不存在时返回 null
+     */
+    T value();
+
+    /**
+     * 更新当前键的值，传入 null 等同于 {@link #clear()}。
+     */
+    void update(T value);
+}
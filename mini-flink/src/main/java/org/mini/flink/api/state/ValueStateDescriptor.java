@@ -0,0 +1,17 @@
+package org.mini.flink.api.state;
+
+/**
+ * {@link ValueState} 的描述符。
+ */
+public class ValueStateDescriptor<T> extends StateDescriptor {
+    private static final long serialVersionUID = 1L;
+
+    public ValueStateDescriptor(String name) {
+        super(name);
+    }
+
+    @Override
+    public Type getType() {
+        return Type.VALUE;
+    }
+}
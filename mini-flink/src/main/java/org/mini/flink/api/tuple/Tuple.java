@@ -0,0 +1,19 @@
+package org.mini.flink.api.tuple;
+
+import java.io.Serializable;
+
+/**
+ * 定长元组的基类，字段按位置访问。元组是可变的，字段是公有的，适合在算子之间传递多个值而不必定义新的类。
+ */
+public abstract class Tuple implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @return 元组的字段个数
+     */
+    public abstract int getArity();
+
+    public abstract <T> T getField(int position);
+
+    public abstract <T> void setField(T value, int position);
+}
@@ -0,0 +1,80 @@
+package org.mini.flink.api.tuple;
+
+import java.util.Objects;
+
+/**
+ * 两个字段的元组。
+ */
+public class Tuple2<T0, T1> extends Tuple {
+    private static final long serialVersionUID = 1L;
+
+    public T0 f0;
+    public T1 f1;
+
+    public Tuple2() {
+    }
+
+    public Tuple2(T0 f0, T1 f1) {
+        this.f0 = f0;
+        this.f1 = f1;
+    }
+
+    public static <T0, T1> Tuple2<T0, T1> of(T0 f0, T1 f1) {
+        return new Tuple2<>(f0, f1);
+    }
+
+    @Override
+    public int getArity() {
+        return 2;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getField(int position) {
+        switch (position) {
+            case 0:
+                return (T) f0;
+            case 1:
+                return (T) f1;
+            default:
+                throw new IndexOutOfBoundsException(String.valueOf(position));
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> void setField(T value, int position) {
+        switch (position) {
+            case 0:
+                f0 = (T0) value;
+                break;
+            case 1:
+                f1 = (T1) value;
+                break;
+            default:
+                throw new IndexOutOfBoundsException(String.valueOf(position));
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Tuple2)) {
+            return false;
+        }
+        Tuple2<?, ?> other = (Tuple2<?, ?>) o;
+        return Objects.equals(f0, other.f0) && Objects.equals(f1, other.f1);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(f0, f1);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + f0 + "," + f1 + ")";
+    }
+}
@@ -0,0 +1,87 @@
+package org.mini.flink.api.tuple;
+
+import java.util.Objects;
+
+/**
+ * 三个字段的元组。
+ */
+public class Tuple3<T0, T1, T2> extends Tuple {
+    private static final long serialVersionUID = 1L;
+
+    public T0 f0;
+    public T1 f1;
+    public T2 f2;
+
+    public Tuple3() {
+    }
+
+    public Tuple3(T0 f0, T1 f1, T2 f2) {
+        this.f0 = f0;
+        this.f1 = f1;
+        this.f2 = f2;
+    }
+
+    public static <T0, T1, T2> Tuple3<T0, T1, T2> of(T0 f0, T1 f1, T2 f2) {
+        return new Tuple3<>(f0, f1, f2);
+    }
+
+    @Override
+    public int getArity() {
+        return 3;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getField(int position) {
+        switch (position) {
+            case 0:
+                return (T) f0;
+            case 1:
+                return (T) f1;
+            case 2:
+                return (T) f2;
+            default:
+                throw new IndexOutOfBoundsException(String.valueOf(position));
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> void setField(T value, int position) {
+        switch (position) {
+            case 0:
+                f0 = (T0) value;
+                break;
+            case 1:
+                f1 = (T1) value;
+                break;
+            case 2:
+                f2 = (T2) value;
+                break;
+            default:
+                throw new IndexOutOfBoundsException(String.valueOf(position));
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Tuple3)) {
+            return false;
+        }
+        Tuple3<?, ?, ?> other = (Tuple3<?, ?, ?>) o;
+        return Objects.equals(f0, other.f0) && Objects.equals(f1, other.f1) && Objects.equals(f2, other.f2);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(f0, f1, f2);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + f0 + "," + f1 + "," + f2 + ")";
+    }
+}
@@ -0,0 +1,36 @@
+package org.mini.flink.api.typeutils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * 一种数据类型的二进制序列化器，用于记录跨进程传输和状态写入检查点。
+ * <p>
+ * 与 Java 序列化不同，序列化器事先知道数据的类型，写出的字节中不包含类名和字段描述，
+ * 编解码也不需要反射查找类的元数据。序列化器本身是可序列化的，随作业一起发送给 TaskManager。
+ * <p>
+ * 实现应当是无状态的，同一个实例可以被多个线程同时使用。
+ *
+ * @param <T> 序列化的数据类型
+ * @see TypeSerializers
+ */
+public abstract class TypeSerializer<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 把一个非 null 的值写入 target。
+     */
+    public abstract void serialize(T value, DataOutput target) throws IOException;
+
+    /**
+     * 读出 {@link #serialize} 写入的值。
+     */
+    public abstract T deserialize(DataInput source) throws IOException;
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,144 @@
+package org.mini.flink.api.typeutils;
+
+import org.mini.flink.api.tuple.Tuple;
+import org.mini.flink.api.typeutils.base.BooleanSerializer;
+import org.mini.flink.api.typeutils.base.BytePrimitiveArraySerializer;
+import org.mini.flink.api.typeutils.base.DoubleSerializer;
+import org.mini.flink.api.typeutils.base.IntSerializer;
+import org.mini.flink.api.typeutils.base.LongSerializer;
+import org.mini.flink.api.typeutils.base.StringSerializer;
+import org.mini.flink.api.typeutils.runtime.GenericSerializer;
+import org.mini.flink.api.typeutils.runtime.JavaSerializer;
+import org.mini.flink.api.typeutils.runtime.PojoSerializer;
+import org.mini.flink.api.typeutils.runtime.TupleSerializer;
+
+import java.io.Serializable;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * 为数据类型选择序列化器，以及从用户函数的泛型签名中推断输出类型。
+ * <ul>
+ *     <li>Integer、Long、Double、Boolean、String、byte[] 使用专门的序列化器；</li>
+ *     <li>元组的每个字段按各自的类型选择序列化器，类型未知的字段使用 {@link GenericSerializer}；</li>
+ *     <li>满足 {@link PojoSerializer#isPojo} 的类按字段序列化；</li>
+ *     <li>接口、抽象类和 Object 使用 {@link GenericSerializer}，运行时按实际类型编码；</li>
+ *     <li>其他 Serializable 类型退回到 Java 序列化。</li>
+ * </ul>
+ */
+public final class TypeSerializers {
+
+    private TypeSerializers() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> TypeSerializer<T> forClass(Class<T> type) {
+        return (TypeSerializer<T>) createSerializer(type);
+    }
+
+    /**
+     * 为字段类型各不相同的元组创建序列化器，例如
+     * {@code TypeSerializers.forTuple(Tuple2.class, StringSerializer.INSTANCE, LongSerializer.INSTANCE)}。
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T extends Tuple> TypeSerializer<T> forTuple(Class<? super T> tupleClass, TypeSerializer<?>... fieldSerializers) {
+        return new TupleSerializer(tupleClass, fieldSerializers);
+    }
+
+    private static TypeSerializer<?> createSerializer(Class<?> type) {
+        if (type == Integer.class || type == int.class) {
+            return IntSerializer.INSTANCE;
+        } else if (type == Long.class || type == long.class) {
+            return LongSerializer.INSTANCE;
+        } else if (type == Double.class || type == double.class) {
+            return DoubleSerializer.INSTANCE;
+        } else if (type == Boolean.class || type == boolean.class) {
+            return BooleanSerializer.INSTANCE;
+        } else if (type == String.class) {
+            return StringSerializer.INSTANCE;
+        } else if (type == byte[].class) {
+            return BytePrimitiveArraySerializer.INSTANCE;
+        } else if (Tuple.class.isAssignableFrom(type) && !Modifier.isAbstract(type.getModifiers())) {
+            return new TupleSerializer<>(type.asSubclass(Tuple.class), genericFields(type.asSubclass(Tuple.class)));
+        } else if (type == Object.class || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return GenericSerializer.INSTANCE;
+        } else if (PojoSerializer.isPojo(type)) {
+            return new PojoSerializer<>(type);
+        } else if (Serializable.class.isAssignableFrom(type)) {
+            return new JavaSerializer<>();
+        }
+        throw new IllegalArgumentException("无法序列化的类型: " + type.getName());
+    }
+
+    private static TypeSerializer<?>[] genericFields(Class<? extends Tuple> tupleClass) {
+        int arity;
+        try {
+            arity = tupleClass.getDeclaredConstructor().newInstance().getArity();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(tupleClass.getName() + " 没有可用的无参构造函数", e);
+        }
+        TypeSerializer<?>[] fieldSerializers = new TypeSerializer<?>[arity];
+        for (int i = 0; i < arity; i++) {
+            fieldSerializers[i] = GenericSerializer.INSTANCE;
+        }
+        return fieldSerializers;
+    }
+
+    /**
+     * 从用户函数实现的泛型接口中推断一个类型参数对应的序列化器，例如 {@code class Splitter implements
+     * Operator<String, Tuple2<String, Long>>} 的输出类型。
+     * <p>
+     * Lambda 表达式的泛型参数在编译后被擦除，无法推断，此时返回 null，由调用方决定如何处理
+     * （DataStream API 使用 {@link GenericSerializer}，也可以通过 {@code returns} 显式指定）。
+     *
+     * @param function 用户函数
+     * @param functionInterface 声明类型参数的接口，例如 {@code Operator.class}
+     * @param typeArgumentIndex 类型参数在接口中的位置
+     * @return 推断出的序列化器，无法推断或类型不可序列化时返回 null
+     */
+    public static TypeSerializer<?> extractFromFunction(Object function, Class<?> functionInterface, int typeArgumentIndex) {
+        Type type = findTypeArgument(function.getClass(), functionInterface, typeArgumentIndex);
+        try {
+            return type == null ? null : fromType(type);
+        } catch (IllegalArgumentException e) {
+            // 不可序列化的类型只要不跨进程传输也能运行，交给运行时的 GenericSerializer 报告错误
+            return null;
+        }
+    }
+
+    private static Type findTypeArgument(Class<?> clazz, Class<?> functionInterface, int typeArgumentIndex) {
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Type implemented : current.getGenericInterfaces()) {
+                if (implemented instanceof ParameterizedType
+                        && ((ParameterizedType) implemented).getRawType() == functionInterface) {
+                    return ((ParameterizedType) implemented).getActualTypeArguments()[typeArgumentIndex];
+                }
+            }
+        }
+        return null;
+    }
+
+    private static TypeSerializer<?> fromType(Type type) {
+        if (type instanceof Class) {
+            return createSerializer((Class<?>) type);
+        }
+        if (!(type instanceof ParameterizedType)) {
+            // 类型变量或通配符，具体类型在运行时才知道
+            return null;
+        }
+        ParameterizedType parameterized = (ParameterizedType) type;
+        Class<?> rawType = (Class<?>) parameterized.getRawType();
+        if (!Tuple.class.isAssignableFrom(rawType) || Modifier.isAbstract(rawType.getModifiers())) {
+            // List<String> 等参数化类型按原始类型处理
+            return createSerializer(rawType);
+        }
+        Type[] arguments = parameterized.getActualTypeArguments();
+        TypeSerializer<?>[] fieldSerializers = new TypeSerializer<?>[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            TypeSerializer<?> fieldSerializer = fromType(arguments[i]);
+            fieldSerializers[i] = fieldSerializer != null ? fieldSerializer : GenericSerializer.INSTANCE;
+        }
+        return forTuple(rawType.asSubclass(Tuple.class), fieldSerializers);
+    }
+}
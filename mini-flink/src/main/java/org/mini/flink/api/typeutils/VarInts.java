@@ -0,0 +1,65 @@
+package org.mini.flink.api.typeutils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 整数的 zigzag + 变长编码，绝对值小的整数只占 1 个字节，负数也不会占满 5 / 10 个字节。
+ */
+public final class VarInts {
+
+    private VarInts() {
+    }
+
+    public static void writeVarInt(int value, DataOutput target) throws IOException {
+        writeUnsignedVarInt((value << 1) ^ (value >> 31), target);
+    }
+
+    public static int readVarInt(DataInput source) throws IOException {
+        int value = readUnsignedVarInt(source);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 写入一个非负整数，例如长度，不做 zigzag 变换。
+     */
+    public static void writeUnsignedVarInt(int value, DataOutput target) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            target.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target.writeByte(value);
+    }
+
+    public static int readUnsignedVarInt(DataInput source) throws IOException {
+        int result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = source.readByte();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+    }
+
+    public static void writeVarLong(long value, DataOutput target) throws IOException {
+        value = (value << 1) ^ (value >> 63);
+        while ((value & ~0x7FL) != 0) {
+            target.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        target.writeByte((int) value);
+    }
+
+    public static long readVarLong(DataInput source) throws IOException {
+        long result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = source.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return (result >>> 1) ^ -(result & 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.mini.flink.api.typeutils.base;
+
+import org.mini.flink.api.typeutils.TypeSerializer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Boolean 的序列化器，固定 1 个字节。
+ */
+public final class BooleanSerializer extends TypeSerializer<Boolean> {
+    private static final long serialVersionUID = 1L;
+
+    public static final BooleanSerializer INSTANCE = new BooleanSerializer();
+
+    @Override
+    public void serialize(Boolean value, DataOutput target) throws IOException {
+        target.writeBoolean(value);
+    }
+
+    @Override
+    public Boolean deserialize(DataInput source) throws IOException {
+        return source.readBoolean();
+    }
+}
@@ -0,0 +1,30 @@
+package org.mini.flink.api.typeutils.base;
+
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.api.typeutils.VarInts;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * byte[] 的序列化器：变长编码的长度加上内容。
+ */
+public final class BytePrimitiveArraySerializer extends TypeSerializer<byte[]> {
+    private static final long serialVersionUID = 1L;
+
+    public static final BytePrimitiveArraySerializer INSTANCE = new BytePrimitiveArraySerializer();
+
+    @Override
+    public void serialize(byte[] value, DataOutput target) throws IOException {
+        VarInts.writeUnsignedVarInt(value.length, target);
+        target.write(value);
+    }
+
+    @Override
+    public byte[] deserialize(DataInput source) throws IOException {
+        byte[] value = new byte[VarInts.readUnsignedVarInt(source)];
+        source.readFully(value);
+        return value;
+    }
+}
@@ -0,0 +1,26 @@
+package org.mini.flink.api.typeutils.base;
+
+import org.mini.flink.api.typeutils.TypeSerializer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Double 的序列化器，固定 8 个字节。
+ */
+public final class DoubleSerializer extends TypeSerializer<Double> {
+    private static final long serialVersionUID = 1L;
+
+    public static final DoubleSerializer INSTANCE = new DoubleSerializer();
+
+    @Override
+    public void serialize(Double value, DataOutput target) throws IOException {
+        target.writeDouble(value);
+    }
+
+    @Override
+    public Double deserialize(DataInput source) throws IOException {
+        return source.readDouble();
+    }
+}
@@ -0,0 +1,27 @@
+package org.mini.flink.api.typeutils.base;
+
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.api.typeutils.VarInts;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Integer 的序列化器，使用变长编码。
+ */
+public final class IntSerializer extends TypeSerializer<Integer> {
+    private static final long serialVersionUID = 1L;
+
+    public static final IntSerializer INSTANCE = new IntSerializer();
+
+    @Override
+    public void serialize(Integer value, DataOutput target) throws IOException {
+        VarInts.writeVarInt(value, target);
+    }
+
+    @Override
+    public Integer deserialize(DataInput source) throws IOException {
+        return VarInts.readVarInt(source);
+    }
+}
@@ -0,0 +1,27 @@
+package org.mini.flink.api.typeutils.base;
+
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.api.typeutils.VarInts;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Long 的序列化器，使用变长编码。
+ */
+public final class LongSerializer extends TypeSerializer<Long> {
+    private static final long serialVersionUID = 1L;
+
+    public static final LongSerializer INSTANCE = new LongSerializer();
+
+    @Override
+    public void serialize(Long value, DataOutput target) throws IOException {
+        VarInts.writeVarLong(value, target);
+    }
+
+    @Override
+    public Long deserialize(DataInput source) throws IOException {
+        return VarInts.readVarLong(source);
+    }
+}
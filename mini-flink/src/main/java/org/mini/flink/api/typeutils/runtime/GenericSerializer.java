@@ -0,0 +1,142 @@
+package org.mini.flink.api.typeutils.runtime;
+
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.api.typeutils.VarInts;
+import org.mini.flink.api.typeutils.base.BytePrimitiveArraySerializer;
+import org.mini.flink.api.typeutils.base.StringSerializer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 事先不知道具体类型时使用的序列化器，每个值以一个字节的类型标记开头：
+ * <ul>
+ *     <li>常见的基本类型、String、byte[]、ArrayList 和 HashMap 使用紧凑的编码。只认这两个具体的类，
+ *     其他 List 和 Map 的实现（LinkedHashMap、TreeMap 等）按下面的规则处理，读出来仍然是原来的类型；</li>
+ *     <li>POJO 写入类名后由 {@link PojoSerializer} 逐个字段写出，比 Java 序列化少了整份类描述；</li>
+ *     <li>其他 Serializable 类型退回到 Java 序列化。</li>
+ * </ul>
+ * 类型已知时应直接使用对应的序列化器，连类型标记和类名也不必写出，见 {@link org.mini.flink.api.typeutils.TypeSerializers}。
+ */
+public final class GenericSerializer extends TypeSerializer<Object> {
+    private static final long serialVersionUID = 1L;
+
+    public static final GenericSerializer INSTANCE = new GenericSerializer();
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte TRUE = 5;
+    private static final byte FALSE = 6;
+    private static final byte BYTES = 7;
+    private static final byte LIST = 8;
+    private static final byte MAP = 9;
+    private static final byte POJO = 10;
+    private static final byte JAVA_OBJECT = 11;
+
+    @Override
+    public void serialize(Object value, DataOutput target) throws IOException {
+        if (value == null) {
+            target.writeByte(NULL);
+        } else if (value instanceof String) {
+            target.writeByte(STRING);
+            StringSerializer.INSTANCE.serialize((String) value, target);
+        } else if (value instanceof Integer) {
+            target.writeByte(INT);
+            VarInts.writeVarInt((Integer) value, target);
+        } else if (value instanceof Long) {
+            target.writeByte(LONG);
+            VarInts.writeVarLong((Long) value, target);
+        } else if (value instanceof Double) {
+            target.writeByte(DOUBLE);
+            target.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            target.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof byte[]) {
+            target.writeByte(BYTES);
+            BytePrimitiveArraySerializer.INSTANCE.serialize((byte[]) value, target);
+        } else if (value.getClass() == ArrayList.class) {
+            List<?> list = (List<?>) value;
+            target.writeByte(LIST);
+            VarInts.writeUnsignedVarInt(list.size(), target);
+            for (Object element : list) {
+                serialize(element, target);
+            }
+        } else if (value.getClass() == HashMap.class) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            target.writeByte(MAP);
+            VarInts.writeUnsignedVarInt(map.size(), target);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                serialize(entry.getKey(), target);
+                serialize(entry.getValue(), target);
+            }
+        } else {
+            @SuppressWarnings("unchecked")
+            PojoSerializer<Object> pojoSerializer = (PojoSerializer<Object>) PojoSerializer.lookup(value.getClass());
+            if (pojoSerializer != null) {
+                target.writeByte(POJO);
+                StringSerializer.INSTANCE.serialize(value.getClass().getName(), target);
+                pojoSerializer.serialize(value, target);
+            } else if (value instanceof Serializable) {
+                target.writeByte(JAVA_OBJECT);
+                JavaSerializer.INSTANCE.serialize(value, target);
+            } else {
+                throw new IOException("无法序列化的类型: " + value.getClass().getName());
+            }
+        }
+    }
+
+    @Override
+    public Object deserialize(DataInput source) throws IOException {
+        byte type = source.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return StringSerializer.INSTANCE.deserialize(source);
+            case INT:
+                return VarInts.readVarInt(source);
+            case LONG:
+                return VarInts.readVarLong(source);
+            case DOUBLE:
+                return source.readDouble();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case BYTES:
+                return BytePrimitiveArraySerializer.INSTANCE.deserialize(source);
+            case LIST: {
+                int size = VarInts.readUnsignedVarInt(source);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(deserialize(source));
+                }
+                return list;
+            }
+            case MAP: {
+                int size = VarInts.readUnsignedVarInt(source);
+                Map<Object, Object> map = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+                for (int i = 0; i < size; i++) {
+                    Object key = deserialize(source);
+                    map.put(key, deserialize(source));
+                }
+                return map;
+            }
+            case POJO:
+                return PojoSerializer.lookup(StringSerializer.INSTANCE.deserialize(source)).deserialize(source);
+            case JAVA_OBJECT:
+                return JavaSerializer.INSTANCE.deserialize(source);
+            default:
+                throw new IOException("未知的值类型: " + type);
+        }
+    }
+}
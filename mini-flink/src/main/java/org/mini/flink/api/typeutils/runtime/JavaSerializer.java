@@ -0,0 +1,37 @@
+package org.mini.flink.api.typeutils.runtime;
+
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.api.typeutils.VarInts;
+import org.mini.flink.util.InstantiationUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 退回到 Java 序列化的序列化器，用于既不是基本类型也不是 POJO 的 Serializable 类型。
+ */
+public final class JavaSerializer<T> extends TypeSerializer<T> {
+    private static final long serialVersionUID = 1L;
+
+    public static final JavaSerializer<Object> INSTANCE = new JavaSerializer<>();
+
+    @Override
+    public void serialize(T value, DataOutput target) throws IOException {
+        byte[] bytes = InstantiationUtil.serializeObject(value);
+        VarInts.writeUnsignedVarInt(bytes.length, target);
+        target.write(bytes);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(DataInput source) throws IOException {
+        byte[] bytes = new byte[VarInts.readUnsignedVarInt(source)];
+        source.readFully(bytes);
+        try {
+            return (T) InstantiationUtil.deserializeObject(bytes);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("无法反序列化对象", e);
+        }
+    }
+}
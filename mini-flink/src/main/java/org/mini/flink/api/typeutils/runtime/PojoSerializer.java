@@ -0,0 +1,423 @@
+package org.mini.flink.api.typeutils.runtime;
+
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.api.typeutils.VarInts;
+import org.mini.flink.api.typeutils.base.BooleanSerializer;
+import org.mini.flink.api.typeutils.base.BytePrimitiveArraySerializer;
+import org.mini.flink.api.typeutils.base.DoubleSerializer;
+import org.mini.flink.api.typeutils.base.IntSerializer;
+import org.mini.flink.api.typeutils.base.LongSerializer;
+import org.mini.flink.api.typeutils.base.StringSerializer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * POJO 的序列化器，按固定的顺序逐个写出对象的字段，不写类名和字段名。
+ * <p>
+ * 类的结构只在创建序列化器时通过反射分析一次：每个字段得到一个专门的访问器，基本类型字段直接用
+ * {@link Field#getInt} 等方法读写，不经过装箱；String、包装类型和 byte[] 字段带一个 null 标记后交给对应的序列化器；
+ * 其他字段交给 {@link GenericSerializer}。反射得到的对象不可序列化，序列化器发送到 TaskManager 后重新分析。
+ * <p>
+ * 满足以下条件的类被视为 POJO，见 {@link #isPojo}：
+ * <ul>
+ *     <li>是具体的类，不是接口、抽象类、枚举、数组，也不是 JDK 自带的类；</li>
+ *     <li>有无参构造函数；</li>
+ *     <li>没有通过 writeObject / readObject / writeReplace / readResolve 或 {@link Externalizable} 自定义序列化，
+ *     否则字段不能完整地表示对象。</li>
+ * </ul>
+ * 静态字段和 transient 字段不参与序列化，与 Java 序列化的语义相同。
+ */
+public final class PojoSerializer<T> extends TypeSerializer<T> {
+    private static final long serialVersionUID = 1L;
+
+    // 每个类只分析一次，不是 POJO 的类也记录下来，避免重复检查
+    private static final Map<Class<?>, PojoSerializer<?>> SERIALIZERS = new ConcurrentHashMap<>();
+    private static final Map<String, PojoSerializer<?>> SERIALIZERS_BY_NAME = new ConcurrentHashMap<>();
+    private static final PojoSerializer<?> NOT_POJO = new PojoSerializer<>(NotPojo.class);
+
+    private final Class<T> type;
+    private transient Constructor<T> constructor;
+    private transient FieldAccessor[] fields;
+
+    public PojoSerializer(Class<T> type) {
+        if (!isPojo(type)) {
+            throw new IllegalArgumentException(type.getName() + " 不是 POJO");
+        }
+        this.type = type;
+        initialize();
+    }
+
+    private void initialize() {
+        try {
+            constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(type.getName() + " 没有无参构造函数", e);
+        }
+        List<Field> declaredFields = new ArrayList<>();
+        collectFields(type, declaredFields);
+        fields = new FieldAccessor[declaredFields.size()];
+        for (int i = 0; i < fields.length; i++) {
+            Field field = declaredFields.get(i);
+            field.setAccessible(true);
+            fields[i] = createAccessor(field);
+        }
+    }
+
+    /**
+     * 按“父类在前，同一个类中按字段名排序”的顺序收集字段，保证两端的字段顺序一致。
+     */
+    private static void collectFields(Class<?> clazz, List<Field> result) {
+        if (clazz == null || clazz == Object.class) {
+            return;
+        }
+        collectFields(clazz.getSuperclass(), result);
+        Field[] declared = clazz.getDeclaredFields();
+        Arrays.sort(declared, Comparator.comparing(Field::getName));
+        for (Field field : declared) {
+            int modifiers = field.getModifiers();
+            if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                result.add(field);
+            }
+        }
+    }
+
+    @Override
+    public void serialize(T value, DataOutput target) throws IOException {
+        if (value.getClass() != type) {
+            // 子类的字段不在访问器中，按父类写出会静默地丢失数据
+            throw new IOException("记录的类型 " + value.getClass().getName() + " 与序列化器的类型 " + type.getName() + " 不同");
+        }
+        try {
+            for (FieldAccessor field : fields) {
+                field.write(value, target);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IOException("无法读取 " + type.getName() + " 的字段", e);
+        }
+    }
+
+    @Override
+    public T deserialize(DataInput source) throws IOException {
+        try {
+            T value = constructor.newInstance();
+            for (FieldAccessor field : fields) {
+                field.read(value, source);
+            }
+            return value;
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("无法创建 " + type.getName() + " 的实例", e);
+        }
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initialize();
+    }
+
+    @Override
+    public String toString() {
+        return "PojoSerializer{" + type.getName() + "}";
+    }
+
+    /**
+     * 判断一个类能否由 PojoSerializer 序列化。
+     */
+    public static boolean isPojo(Class<?> type) {
+        int modifiers = type.getModifiers();
+        if (type.isPrimitive() || type.isArray() || type.isInterface() || type.isEnum()
+                || Modifier.isAbstract(modifiers) || type.isSynthetic() || type.isAnonymousClass()) {
+            return false;
+        }
+        String name = type.getName();
+        if (name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.")
+                || Externalizable.class.isAssignableFrom(type)) {
+            return false;
+        }
+        try {
+            type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                switch (method.getName()) {
+                    case "writeObject":
+                    case "readObject":
+                    case "writeReplace":
+                    case "readResolve":
+                        return false;
+                    default:
+                        break;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 类的 POJO 序列化器，不是 POJO 时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PojoSerializer<T> lookup(Class<T> type) {
+        PojoSerializer<?> serializer = SERIALIZERS.get(type);
+        if (serializer == null) {
+            serializer = isPojo(type) ? new PojoSerializer<>(type) : NOT_POJO;
+            SERIALIZERS.put(type, serializer);
+        }
+        return serializer == NOT_POJO ? null : (PojoSerializer<T>) serializer;
+    }
+
+    /**
+     * 按类名查找 POJO 序列化器，用于读取带有类名的数据。
+     */
+    public static PojoSerializer<?> lookup(String className) throws IOException {
+        PojoSerializer<?> serializer = SERIALIZERS_BY_NAME.get(className);
+        if (serializer != null) {
+            return serializer;
+        }
+        try {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            serializer = lookup(Class.forName(className, false,
+                    classLoader != null ? classLoader : PojoSerializer.class.getClassLoader()));
+        } catch (ClassNotFoundException e) {
+            throw new IOException("找不到 POJO 类: " + className, e);
+        }
+        if (serializer == null) {
+            throw new IOException("类 " + className + " 不是 POJO");
+        }
+        SERIALIZERS_BY_NAME.put(className, serializer);
+        return serializer;
+    }
+
+    private static FieldAccessor createAccessor(Field field) {
+        Class<?> fieldType = field.getType();
+        if (fieldType == int.class) {
+            return new IntField(field);
+        } else if (fieldType == long.class) {
+            return new LongField(field);
+        } else if (fieldType == double.class) {
+            return new DoubleField(field);
+        } else if (fieldType == boolean.class) {
+            return new BooleanField(field);
+        } else if (fieldType == float.class) {
+            return new FloatField(field);
+        } else if (fieldType == short.class) {
+            return new ShortField(field);
+        } else if (fieldType == byte.class) {
+            return new ByteField(field);
+        } else if (fieldType == char.class) {
+            return new CharField(field);
+        } else if (fieldType == String.class) {
+            return new ObjectField(field, StringSerializer.INSTANCE);
+        } else if (fieldType == Integer.class) {
+            return new ObjectField(field, IntSerializer.INSTANCE);
+        } else if (fieldType == Long.class) {
+            return new ObjectField(field, LongSerializer.INSTANCE);
+        } else if (fieldType == Double.class) {
+            return new ObjectField(field, DoubleSerializer.INSTANCE);
+        } else if (fieldType == Boolean.class) {
+            return new ObjectField(field, BooleanSerializer.INSTANCE);
+        } else if (fieldType == byte[].class) {
+            return new ObjectField(field, BytePrimitiveArraySerializer.INSTANCE);
+        } else {
+            return new ObjectField(field, GenericSerializer.INSTANCE);
+        }
+    }
+
+    /**
+     * 一个字段的读写方式，创建序列化器时确定。
+     */
+    private abstract static class FieldAccessor {
+        final Field field;
+
+        FieldAccessor(Field field) {
+            this.field = field;
+        }
+
+        abstract void write(Object object, DataOutput target) throws IOException, IllegalAccessException;
+
+        abstract void read(Object object, DataInput source) throws IOException, IllegalAccessException;
+    }
+
+    private static final class IntField extends FieldAccessor {
+        IntField(Field field) {
+            super(field);
+        }
+
+        @Override
+        void write(Object object, DataOutput target) throws IOException, IllegalAccessException {
+            VarInts.writeVarInt(field.getInt(object), target);
+        }
+
+        @Override
+        void read(Object object, DataInput source) throws IOException, IllegalAccessException {
+            field.setInt(object, VarInts.readVarInt(source));
+        }
+    }
+
+    private static final class LongField extends FieldAccessor {
+        LongField(Field field) {
+            super(field);
+        }
+
+        @Override
+        void write(Object object, DataOutput target) throws IOException, IllegalAccessException {
+            VarInts.writeVarLong(field.getLong(object), target);
+        }
+
+        @Override
+        void read(Object object, DataInput source) throws IOException, IllegalAccessException {
+            field.setLong(object, VarInts.readVarLong(source));
+        }
+    }
+
+    private static final class DoubleField extends FieldAccessor {
+        DoubleField(Field field) {
+            super(field);
+        }
+
+        @Override
+        void write(Object object, DataOutput target) throws IOException, IllegalAccessException {
+            target.writeDouble(field.getDouble(object));
+        }
+
+        @Override
+        void read(Object object, DataInput source) throws IOException, IllegalAccessException {
+            field.setDouble(object, source.readDouble());
+        }
+    }
+
+    private static final class BooleanField extends FieldAccessor {
+        BooleanField(Field field) {
+            super(field);
+        }
+
+        @Override
+        void write(Object object, DataOutput target) throws IOException, IllegalAccessException {
+            target.writeBoolean(field.getBoolean(object));
+        }
+
+        @Override
+        void read(Object object, DataInput source) throws IOException, IllegalAccessException {
+            field.setBoolean(object, source.readBoolean());
+        }
+    }
+
+    private static final class FloatField extends FieldAccessor {
+        FloatField(Field field) {
+            super(field);
+        }
+
+        @Override
+        void write(Object object, DataOutput target) throws IOException, IllegalAccessException {
+            target.writeFloat(field.getFloat(object));
+        }
+
+        @Override
+        void read(Object object, DataInput source) throws IOException, IllegalAccessException {
+            field.setFloat(object, source.readFloat());
+        }
+    }
+
+    private static final class ShortField extends FieldAccessor {
+        ShortField(Field field) {
+            super(field);
+        }
+
+        @Override
+        void write(Object object, DataOutput target) throws IOException, IllegalAccessException {
+            target.writeShort(field.getShort(object));
+        }
+
+        @Override
+        void read(Object object, DataInput source) throws IOException, IllegalAccessException {
+            field.setShort(object, source.readShort());
+        }
+    }
+
+    private static final class ByteField extends FieldAccessor {
+        ByteField(Field field) {
+            super(field);
+        }
+
+        @Override
+        void write(Object object, DataOutput target) throws IOException, IllegalAccessException {
+            target.writeByte(field.getByte(object));
+        }
+
+        @Override
+        void read(Object object, DataInput source) throws IOException, IllegalAccessException {
+            field.setByte(object, source.readByte());
+        }
+    }
+
+    private static final class CharField extends FieldAccessor {
+        CharField(Field field) {
+            super(field);
+        }
+
+        @Override
+        void write(Object object, DataOutput target) throws IOException, IllegalAccessException {
+            target.writeChar(field.getChar(object));
+        }
+
+        @Override
+        void read(Object object, DataInput source) throws IOException, IllegalAccessException {
+            field.setChar(object, source.readChar());
+        }
+    }
+
+    /**
+     * 引用类型的字段：一个字节的 null 标记，非 null 时由字段类型对应的序列化器写出。
+     */
+    private static final class ObjectField extends FieldAccessor {
+        private final TypeSerializer<Object> serializer;
+
+        @SuppressWarnings("unchecked")
+        ObjectField(Field field, TypeSerializer<?> serializer) {
+            super(field);
+            this.serializer = (TypeSerializer<Object>) serializer;
+        }
+
+        @Override
+        void write(Object object, DataOutput target) throws IOException, IllegalAccessException {
+            Object value = field.get(object);
+            if (value == null) {
+                target.writeBoolean(false);
+            } else {
+                target.writeBoolean(true);
+                serializer.serialize(value, target);
+            }
+        }
+
+        @Override
+        void read(Object object, DataInput source) throws IOException, IllegalAccessException {
+            field.set(object, source.readBoolean() ? serializer.deserialize(source) : null);
+        }
+    }
+
+    /**
+     * 缓存中“不是 POJO”的占位，它本身满足 POJO 的条件。
+     */
+    private static final class NotPojo {
+    }
+}
@@ -0,0 +1,86 @@
+package org.mini.flink.api.typeutils.runtime;
+
+import org.mini.flink.api.tuple.Tuple;
+import org.mini.flink.api.typeutils.TypeSerializer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+
+/**
+ * 元组的序列化器，每个字段有自己的序列化器，字段前带一个字节的 null 标记。
+ * 字段类型未知时使用 {@link GenericSerializer}。
+ */
+public final class TupleSerializer<T extends Tuple> extends TypeSerializer<T> {
+    private static final long serialVersionUID = 1L;
+
+    private final Class<T> tupleClass;
+    private final TypeSerializer<Object>[] fieldSerializers;
+    private transient Constructor<T> constructor;
+
+    @SuppressWarnings("unchecked")
+    public TupleSerializer(Class<T> tupleClass, TypeSerializer<?>[] fieldSerializers) {
+        this.tupleClass = tupleClass;
+        this.fieldSerializers = (TypeSerializer<Object>[]) fieldSerializers.clone();
+        initialize();
+        int arity = createInstance().getArity();
+        if (arity != fieldSerializers.length) {
+            throw new IllegalArgumentException(tupleClass.getSimpleName() + " 有 " + arity + " 个字段，但给出了 "
+                    + fieldSerializers.length + " 个序列化器");
+        }
+    }
+
+    private void initialize() {
+        try {
+            constructor = tupleClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(tupleClass.getName() + " 没有无参构造函数", e);
+        }
+    }
+
+    private T createInstance() {
+        try {
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法创建 " + tupleClass.getName() + " 的实例", e);
+        }
+    }
+
+    @Override
+    public void serialize(T value, DataOutput target) throws IOException {
+        for (int i = 0; i < fieldSerializers.length; i++) {
+            Object field = value.getField(i);
+            if (field == null) {
+                target.writeBoolean(false);
+            } else {
+                target.writeBoolean(true);
+                fieldSerializers[i].serialize(field, target);
+            }
+        }
+    }
+
+    @Override
+    public T deserialize(DataInput source) throws IOException {
+        T tuple = createInstance();
+        for (int i = 0; i < fieldSerializers.length; i++) {
+            if (source.readBoolean()) {
+                tuple.setField(fieldSerializers[i].deserialize(source), i);
+            }
+        }
+        return tuple;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initialize();
+    }
+
+    @Override
+    public String toString() {
+        return "TupleSerializer{" + tupleClass.getSimpleName() + Arrays.toString(fieldSerializers) + "}";
+    }
+}
@@ -0,0 +1,45 @@
+package org.mini.flink.api.windowing;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * 事件时间会话窗口：每条记录先得到窗口 [timestamp, timestamp + gap)，
+ * 与同一个键上重叠的窗口合并，间隔超过 gap 没有记录时会话结束。
+ */
+public class EventTimeSessionWindows extends WindowAssigner {
+    private static final long serialVersionUID = 1L;
+
+    private final long gap;
+
+    private EventTimeSessionWindows(long gap) {
+        if (gap <= 0) {
+            throw new IllegalArgumentException("会话间隔必须大于 0");
+        }
+        this.gap = gap;
+    }
+
+    public static EventTimeSessionWindows withGap(Duration gap) {
+        return new EventTimeSessionWindows(gap.toMillis());
+    }
+
+    @Override
+    public Collection<TimeWindow> assignWindows(long timestamp) {
+        return Collections.singletonList(new TimeWindow(timestamp, timestamp + gap));
+    }
+
+    @Override
+    public boolean isMerging() {
+        return true;
+    }
+
+    public long getGap() {
+        return gap;
+    }
+
+    @Override
+    public String toString() {
+        return "EventTimeSessionWindows{gap=" + gap + "}";
+    }
+}
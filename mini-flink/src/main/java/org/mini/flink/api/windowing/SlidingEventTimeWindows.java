@@ -0,0 +1,57 @@
+package org.mini.flink.api.windowing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 滑动事件时间窗口：窗口长度为 size，每隔 slide 开始一个新窗口，窗口按 epoch 对齐。
+ * 一条记录属于 size / slide 个窗口。
+ */
+public class SlidingEventTimeWindows extends WindowAssigner {
+    private static final long serialVersionUID = 1L;
+
+    private final long size;
+    private final long slide;
+
+    protected SlidingEventTimeWindows(long size, long slide) {
+        if (size <= 0 || slide <= 0) {
+            throw new IllegalArgumentException("窗口长度和滑动步长必须大于 0");
+        }
+        this.size = size;
+        this.slide = slide;
+    }
+
+    public static SlidingEventTimeWindows of(Duration size, Duration slide) {
+        return new SlidingEventTimeWindows(size.toMillis(), slide.toMillis());
+    }
+
+    @Override
+    public Collection<TimeWindow> assignWindows(long timestamp) {
+        List<TimeWindow> windows = new ArrayList<>((int) (size / slide) + 1);
+        long lastStart = timestamp - Math.floorMod(timestamp, slide);
+        for (long start = lastStart; start > timestamp - size; start -= slide) {
+            windows.add(new TimeWindow(start, start + size));
+        }
+        return windows;
+    }
+
+    @Override
+    public boolean isMerging() {
+        return false;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getSlide() {
+        return slide;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{size=" + size + ", slide=" + slide + "}";
+    }
+}
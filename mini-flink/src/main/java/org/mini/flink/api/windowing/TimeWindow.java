@@ -0,0 +1,69 @@
+package org.mini.flink.api.windowing;
+
+import java.io.Serializable;
+
+/**
+ * 时间窗口 [start, end)，包含 start，不包含 end。
+ */
+public final class TimeWindow implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long start;
+    private final long end;
+
+    public TimeWindow(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * @return 窗口中最大的时间戳，水位线越过它时窗口触发
+     */
+    public long maxTimestamp() {
+        return end - 1;
+    }
+
+    /**
+     * @return 两个窗口重叠或首尾相接
+     */
+    public boolean intersects(TimeWindow other) {
+        return start <= other.end && end >= other.start;
+    }
+
+    /**
+     * @return 同时覆盖两个窗口的最小窗口
+     */
+    public TimeWindow cover(TimeWindow other) {
+        return new TimeWindow(Math.min(start, other.start), Math.max(end, other.end));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TimeWindow)) {
+            return false;
+        }
+        TimeWindow that = (TimeWindow) o;
+        return start == that.start && end == that.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(start) + Long.hashCode(end);
+    }
+
+    @Override
+    public String toString() {
+        return "TimeWindow{start=" + start + ", end=" + end + "}";
+    }
+}
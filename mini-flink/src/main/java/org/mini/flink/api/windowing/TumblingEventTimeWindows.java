@@ -0,0 +1,23 @@
+package org.mini.flink.api.windowing;
+
+import java.time.Duration;
+
+/**
+ * 滚动事件时间窗口：首尾相接、互不重叠的固定长度窗口，即滑动步长等于窗口长度的滑动窗口。
+ */
+public class TumblingEventTimeWindows extends SlidingEventTimeWindows {
+    private static final long serialVersionUID = 1L;
+
+    private TumblingEventTimeWindows(long size) {
+        super(size, size);
+    }
+
+    public static TumblingEventTimeWindows of(Duration size) {
+        return new TumblingEventTimeWindows(size.toMillis());
+    }
+
+    @Override
+    public String toString() {
+        return "TumblingEventTimeWindows{size=" + getSize() + "}";
+    }
+}
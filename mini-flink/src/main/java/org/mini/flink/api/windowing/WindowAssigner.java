@@ -0,0 +1,21 @@
+package org.mini.flink.api.windowing;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * 决定一条记录属于哪些事件时间窗口。
+ */
+public abstract class WindowAssigner implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @return 时间戳为 timestamp 的记录所属的所有窗口
+     */
+    public abstract Collection<TimeWindow> assignWindows(long timestamp);
+
+    /**
+     * @return 窗口之间是否会合并（例如会话窗口）
+     */
+    public abstract boolean isMerging();
+}
@@ -0,0 +1,15 @@
+package org.mini.flink.api.windowing;
+
+import java.io.Serializable;
+
+/**
+ * 窗口触发时，把键、窗口和聚合结果组合成输出记录。
+ *
+ * @param <KEY> 键的类型
+ * @param <IN>  聚合结果的类型
+ * @param <OUT> 输出数据类型
+ */
+@FunctionalInterface
+public interface WindowFunction<KEY, IN, OUT> extends Serializable {
+    OUT apply(KEY key, TimeWindow window, IN aggregate) throws Exception;
+}
@@ -0,0 +1,136 @@
+package org.mini.flink.client;
+
+import org.mini.flink.api.Collector;
+import org.mini.flink.api.RichFunction;
+import org.mini.flink.api.RuntimeContext;
+import org.mini.flink.api.Sink;
+import org.mini.flink.api.Source;
+import org.mini.flink.api.datastream.StreamExecutionEnvironment;
+import org.mini.flink.runtime.jobmanager.JobManager;
+import org.mini.flink.runtime.jobmanager.JobManagerEndpoint;
+import org.mini.flink.runtime.taskmanager.TaskManagerGateway;
+import org.mini.flink.runtime.taskmanager.TaskManagerRunner;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * 在本机上启动一个 JobManager 和若干个独立进程中的 TaskManager，运行一个按键计数的有界作业。
+ * Source 和计数算子分布在不同的 TaskManager 上，按键分区的数据经过 TCP 数据通道交换，检查点的触发和确认经过控制连接。
+ * <pre>
+ * java -cp target/classes org.mini.flink.client.MultiProcessExample [TaskManager 数] [每个 TaskManager 的槽数] [每个 Source 的记录数] [运行秒数]
+ * </pre>
+ * 下游任务不会因为 Source 结束而结束，作业运行给定的时间后被取消。每个 Sink 关闭时在所在 TaskManager 进程的日志中
+ * 打印收到的记录数，运行时间足够长时，所有 Sink 的记录数之和等于所有 Source 发送的记录数。
+ */
+public class MultiProcessExample {
+    private static final Logger LOG = Logger.getLogger(MultiProcessExample.class.getName());
+
+    /**
+     * 发送给定数量的递增数字。
+     */
+    public static class NumberSource implements Source<Long> {
+        private static final long serialVersionUID = 1L;
+        private final long numberOfRecords;
+
+        public NumberSource(long numberOfRecords) {
+            this.numberOfRecords = numberOfRecords;
+        }
+
+        @Override
+        public void run(Collector<Long> collector) {
+            for (long i = 0; i < numberOfRecords; i++) {
+                collector.collect(i);
+            }
+        }
+    }
+
+    /**
+     * 统计收到的记录数，任务关闭时打印。
+     */
+    public static class CountingSink implements Sink<Long>, RichFunction {
+        private static final long serialVersionUID = 1L;
+        private transient RuntimeContext runtimeContext;
+        private transient long count;
+
+        @Override
+        public void open(RuntimeContext runtimeContext) {
+            this.runtimeContext = runtimeContext;
+        }
+
+        @Override
+        public void invoke(Long value) {
+            count++;
+        }
+
+        @Override
+        public void close() {
+            LOG.info("Sink (" + (runtimeContext.getIndexOfThisSubtask() + 1) + ") 共收到 " + count + " 条记录。");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int numberOfTaskManagers = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int slotsPerTaskManager = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        long recordsPerSource = args.length > 2 ? Long.parseLong(args[2]) : 1_000_000L;
+        long runSeconds = args.length > 3 ? Long.parseLong(args[3]) : 10;
+
+        // 1. 启动 JobManager 和它的控制端口，JobManager 本身不带 TaskManager
+        JobManager jobManager = new JobManager();
+        JobManagerEndpoint endpoint = new JobManagerEndpoint(jobManager, "127.0.0.1", 0);
+        endpoint.start();
+
+        // 2. 以相同的类路径启动 TaskManager 进程，它们连接 JobManager 并注册
+        List<Process> processes = new ArrayList<>();
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        for (int i = 0; i < numberOfTaskManagers; i++) {
+            processes.add(new ProcessBuilder(java, "-Dfile.encoding=UTF-8", "-cp", System.getProperty("java.class.path"),
+                    TaskManagerRunner.class.getName(),
+                    "--jobmanager", "127.0.0.1:" + endpoint.getAddress().getPort(),
+                    "--slots", String.valueOf(slotsPerTaskManager))
+                    .inheritIO()
+                    .start());
+        }
+        if (!jobManager.waitForTaskManagers(numberOfTaskManagers, TimeUnit.SECONDS.toMillis(30))) {
+            throw new IllegalStateException("TaskManager 没有在 30 秒内全部注册");
+        }
+
+        // 3. 占满所有槽，Source 与计数算子之间按键分区，大部分数据需要跨进程传输
+        int parallelism = numberOfTaskManagers * slotsPerTaskManager;
+        StreamExecutionEnvironment env = new StreamExecutionEnvironment().setParallelism(parallelism);
+        env.getCheckpointConfig().setCheckpointInterval(1000);
+        env.addSource(new NumberSource(recordsPerSource), "NumberSource")
+                .keyBy(value -> value % 1000)
+                .reduce((a, b) -> a + b).name("Sum")
+                .addSink(new CountingSink()).name("CountingSink");
+        LOG.info("执行计划:\n" + env.getExecutionPlan());
+
+        env.execute(jobManager, "MultiProcess Job").join();
+        LOG.info("作业已部署到 " + numberOfTaskManagers + " 个 TaskManager 进程，所有 Source 共发送 "
+                + recordsPerSource * parallelism + " 条记录，" + runSeconds + " 秒后取消作业。");
+        TimeUnit.SECONDS.sleep(runSeconds);
+
+        // 4. 取消作业，所有任务关闭、槽被释放后关闭 TaskManager 进程
+        jobManager.cancelJob();
+        while (availableSlots(jobManager) < parallelism) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        jobManager.shutdown();
+        endpoint.close();
+        for (Process process : processes) {
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+        System.exit(0);
+    }
+
+    private static int availableSlots(JobManager jobManager) {
+        int available = 0;
+        for (TaskManagerGateway taskManager : jobManager.getTaskManagers()) {
+            available += taskManager.getNumberOfAvailableSlots();
+        }
+        return available;
+    }
+}
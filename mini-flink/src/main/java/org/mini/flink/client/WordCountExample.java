@@ -1,15 +1,13 @@
 package org.mini.flink.client;
 
 import org.mini.flink.api.*;
-import org.mini.flink.runtime.jobgraph.JobGraph;
-import org.mini.flink.runtime.jobgraph.JobVertex;
+import org.mini.flink.api.datastream.StreamExecutionEnvironment;
+import org.mini.flink.api.state.LongValueState;
+import org.mini.flink.api.state.LongValueStateDescriptor;
 import org.mini.flink.runtime.jobmanager.JobManager;
-import org.mini.flink.runtime.state.Stateful;
 import org.mini.flink.runtime.taskmanager.TaskManager;
 
-import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
@@ -54,28 +52,20 @@ public class WordCountExample {
     }
 
     /**
-     * Operator: 单词计数，这是一个有状态的算子
+     * Operator: 单词计数，这是一个有状态的算子。
+     * 输入按单词分区，计数保存在以单词为键的 long 类型键控状态中，更新时不会装箱。
      */
-    public static class WordCounter implements Operator<String, String>, Stateful {
-        private Map<String, Object> state;
+    public static class WordCounter implements Operator<String, String>, RichFunction {
+        private transient LongValueState count;
 
         @Override
-        public void initializeState(Map<String, Object> state) {
-            this.state = state;
-        }
-
-        @Override
-        public Map<String, Object> snapshotState() {
-            // 创建状态的深拷贝用于快照
-            return new ConcurrentHashMap<>(this.state);
+        public void open(RuntimeContext runtimeContext) {
+            this.count = runtimeContext.getLongState(new LongValueStateDescriptor("count"));
         }
 
         @Override
         public void process(String word, Collector<String> collector) {
-            Integer count = (Integer) state.getOrDefault(word, 0);
-            count++;
-            state.put(word, count);
-            collector.collect(word + ": " + count);
+            collector.collect(word + ": " + count.add(1));
         }
     }
 
@@ -94,32 +84,31 @@ public class WordCountExample {
         TaskManager taskManager = new TaskManager(4); // 4个任务槽
         JobManager jobManager = new JobManager(taskManager);
 
-        // 2. 构建作业图 (JobGraph)
-        JobGraph jobGraph = new JobGraph("WordCount Job");
-
-        // 创建 Source 顶点
-        JobVertex sourceVertex = new JobVertex("SentenceSource", new SentenceSource(), 1);
-        // 创建 Splitter 顶点
-        JobVertex splitterVertex = new JobVertex("Splitter", new Splitter(), 2);
-        // 创建 Counter 顶点
-        JobVertex counterVertex = new JobVertex("WordCounter", new WordCounter(), 2);
-        // 创建 Sink 顶点
-        JobVertex sinkVertex = new JobVertex("ConsoleSink", new ConsoleSink(), 1);
-
-        jobGraph.addVertex(sourceVertex);
-        jobGraph.addVertex(splitterVertex);
-        jobGraph.addVertex(counterVertex);
-        jobGraph.addVertex(sinkVertex);
-
-        // 连接顶点，形成DAG
-        jobGraph.addEdge(sourceVertex, splitterVertex);
-        jobGraph.addEdge(splitterVertex, counterVertex);
-        jobGraph.addEdge(counterVertex, sinkVertex);
+        // 2. 通过 DataStream API 描述作业，提交时由优化器决定并行度、分区方式并生成作业图
+        StreamExecutionEnvironment env = new StreamExecutionEnvironment();
+        env.setParallelism(2);
+
+        env.addSource(new SentenceSource(), "SentenceSource").setParallelism(1)
+                // 没有设置并行度，沿用 Source 的并行度并与 Source 链接在一起
+                .flatMap(new Splitter()).name("Splitter")
+                // 按单词分区，保证同一个单词总是由同一个 WordCounter 实例计数
+                .keyBy(word -> word)
+                .process(new WordCounter()).name("WordCounter")
+                // 与 WordCounter 并行度相同，两者会被链接到同一个任务中执行
+                .addSink(new ConsoleSink()).name("ConsoleSink");
+
+        // 检查点持久化到本地目录，重新运行示例时单词计数会从最近的检查点继续
+        env.getCheckpointConfig().setCheckpointStorageDirectory(
+                System.getProperty("java.io.tmpdir") + "/mini-flink-checkpoints/word-count");
+        env.getCheckpointConfig().enableIncrementalCheckpoints(true);
+        LOG.info("执行计划:\n" + env.getExecutionPlan());
 
         // 3. 提交作业
-        jobManager.submitJob(jobGraph).join(); // join() 会阻塞直到作业部署完成
+        env.execute(jobManager, "WordCount Job").join(); // join() 会阻塞直到作业部署完成
 
         LOG.info("作业已部署，正在运行中... (程序将持续运行，可手动停止)");
+        // 每 10 秒打印一次各任务的空闲、反压和繁忙时间占比
+        taskManager.startBackPressureMonitor(10000);
 
         // 保持主线程存活，以便观察
         Thread.currentThread().join();
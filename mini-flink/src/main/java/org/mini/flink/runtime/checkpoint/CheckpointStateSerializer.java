@@ -0,0 +1,233 @@
+package org.mini.flink.runtime.checkpoint;
+
+import org.mini.flink.api.typeutils.runtime.GenericSerializer;
+import org.mini.flink.api.typeutils.runtime.PojoSerializer;
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 检查点文件的二进制编码。
+ * <p>
+ * 文件的结构（算子、状态名称、通道下标）直接写出，状态中的值交给 {@link GenericSerializer}：
+ * 常见类型用一个字节的类型标记加上紧凑的编码写出，不带类名等元数据；POJO 只写一次类名，
+ * 字段由 {@link PojoSerializer} 逐个写出；其他类型退化为 Java 序列化。
+ * 版本 4 之前的文件使用自己的一套类型标记，仍然可以读取。
+ */
+public final class CheckpointStateSerializer {
+
+    private static final int TASK_STATE_MAGIC = 0x4D465453; // "MFTS"
+    // 版本 2 增加了增量键控状态的基准检查点和被删除的键，版本 3 增加了 POJO 类型，
+    // 版本 4 的状态值改由 GenericSerializer 编码
+    private static final int FORMAT_VERSION = 4;
+    private static final int GENERIC_SERIALIZER_VERSION = 4;
+
+    // 版本 4 之前的类型标记，只用于读取
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_BOOLEAN = 5;
+    private static final byte TYPE_MAP = 6;
+    private static final byte TYPE_LIST = 7;
+    private static final byte TYPE_JAVA_SERIALIZED = 8;
+    private static final byte TYPE_POJO = 9;
+
+    private CheckpointStateSerializer() {
+    }
+
+    public static void writeTaskState(TaskStateSnapshot snapshot, DataOutputStream out) throws IOException {
+        out.writeInt(TASK_STATE_MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(snapshot.getSubtaskIndex());
+        writeNamedStates(snapshot.getOperatorStates(), out);
+        writeNamedStates(snapshot.getKeyedStates(), out);
+
+        Map<Integer, List<Object>> channelState = snapshot.getInputChannelState();
+        out.writeInt(channelState.size());
+        for (Map.Entry<Integer, List<Object>> entry : channelState.entrySet()) {
+            out.writeInt(entry.getKey());
+            writeList(entry.getValue(), out);
+        }
+
+        out.writeLong(snapshot.getKeyedStateBaseCheckpointId());
+        Map<String, Map<String, List<Object>>> removals = snapshot.getKeyedStateRemovals();
+        out.writeInt(removals.size());
+        for (Map.Entry<String, Map<String, List<Object>>> operator : removals.entrySet()) {
+            writeString(operator.getKey(), out);
+            out.writeInt(operator.getValue().size());
+            for (Map.Entry<String, List<Object>> state : operator.getValue().entrySet()) {
+                writeString(state.getKey(), out);
+                writeList(state.getValue(), out);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static TaskStateSnapshot readTaskState(DataInputStream in) throws IOException {
+        if (in.readInt() != TASK_STATE_MAGIC) {
+            throw new IOException("不是有效的任务状态文件");
+        }
+        int version = in.readInt();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("不支持的任务状态文件版本: " + version);
+        }
+        int subtaskIndex = in.readInt();
+        Map<String, Map<String, Object>> operatorStates = readNamedStates(in, version);
+        Map<String, Map<String, Object>> keyedStates = readNamedStates(in, version);
+
+        int channels = in.readInt();
+        Map<Integer, List<Object>> channelState = new HashMap<>();
+        for (int i = 0; i < channels; i++) {
+            int channelIndex = in.readInt();
+            channelState.put(channelIndex, version >= GENERIC_SERIALIZER_VERSION
+                    ? readList(in) : (List<Object>) readLegacyValue(in));
+        }
+        if (version == 1) {
+            return new TaskStateSnapshot(subtaskIndex, operatorStates, keyedStates, channelState);
+        }
+
+        long baseCheckpointId = in.readLong();
+        int operators = in.readInt();
+        Map<String, Map<String, List<Object>>> removals = new LinkedHashMap<>();
+        for (int i = 0; i < operators; i++) {
+            String name = readString(in);
+            if (version < GENERIC_SERIALIZER_VERSION) {
+                removals.put(name, (Map<String, List<Object>>) readLegacyValue(in));
+                continue;
+            }
+            int states = in.readInt();
+            Map<String, List<Object>> removed = new LinkedHashMap<>();
+            for (int j = 0; j < states; j++) {
+                String stateName = readString(in);
+                removed.put(stateName, readList(in));
+            }
+            removals.put(name, removed);
+        }
+        return new TaskStateSnapshot(subtaskIndex, operatorStates, keyedStates, channelState, baseCheckpointId, removals);
+    }
+
+    private static void writeNamedStates(Map<String, Map<String, Object>> states, DataOutputStream out) throws IOException {
+        out.writeInt(states.size());
+        for (Map.Entry<String, Map<String, Object>> operator : states.entrySet()) {
+            writeString(operator.getKey(), out);
+            out.writeInt(operator.getValue().size());
+            for (Map.Entry<String, Object> state : operator.getValue().entrySet()) {
+                writeString(state.getKey(), out);
+                GenericSerializer.INSTANCE.serialize(state.getValue(), out);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map<String, Object>> readNamedStates(DataInputStream in, int version) throws IOException {
+        int size = in.readInt();
+        Map<String, Map<String, Object>> states = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String name = readString(in);
+            if (version < GENERIC_SERIALIZER_VERSION) {
+                states.put(name, (Map<String, Object>) readLegacyValue(in));
+                continue;
+            }
+            int values = in.readInt();
+            Map<String, Object> operatorStates = new LinkedHashMap<>();
+            for (int j = 0; j < values; j++) {
+                String stateName = readString(in);
+                operatorStates.put(stateName, GenericSerializer.INSTANCE.deserialize(in));
+            }
+            states.put(name, operatorStates);
+        }
+        return states;
+    }
+
+    private static void writeList(List<Object> values, DataOutputStream out) throws IOException {
+        out.writeInt(values.size());
+        for (Object value : values) {
+            GenericSerializer.INSTANCE.serialize(value, out);
+        }
+    }
+
+    private static List<Object> readList(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<Object> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(GenericSerializer.INSTANCE.deserialize(in));
+        }
+        return values;
+    }
+
+    /**
+     * 读取版本 4 之前写出的值。写出时不区分 Map 和 List 的具体类型，只能读成 HashMap 和 ArrayList。
+     */
+    private static Object readLegacyValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return readString(in);
+            case TYPE_INT:
+                return in.readInt();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_MAP: {
+                int size = in.readInt();
+                Map<Object, Object> map = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+                for (int i = 0; i < size; i++) {
+                    Object key = readLegacyValue(in);
+                    map.put(key, readLegacyValue(in));
+                }
+                return map;
+            }
+            case TYPE_LIST: {
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readLegacyValue(in));
+                }
+                return list;
+            }
+            case TYPE_JAVA_SERIALIZED: {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return objectIn.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("无法反序列化状态", e);
+                }
+            }
+            case TYPE_POJO:
+                return PojoSerializer.lookup(readString(in)).deserialize(in);
+            default:
+                throw new IOException("未知的状态类型标记: " + type);
+        }
+    }
+
+    private static void writeString(String value, DataOutputStream out) throws IOException {
+        // 不使用 writeUTF，它限制字符串编码后不能超过 64KB
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
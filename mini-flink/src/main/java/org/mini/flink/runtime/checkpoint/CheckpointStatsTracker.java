@@ -0,0 +1,58 @@
+package org.mini.flink.runtime.checkpoint;
+
+import org.mini.flink.runtime.metrics.Counter;
+import org.mini.flink.runtime.metrics.Gauge;
+import org.mini.flink.runtime.metrics.Histogram;
+import org.mini.flink.runtime.metrics.LogLinearHistogram;
+import org.mini.flink.runtime.metrics.MetricGroup;
+import org.mini.flink.runtime.metrics.ThreadSafeCounter;
+
+/**
+ * 统计一个作业的检查点，并把结果注册为作业指标组中的指标：
+ * <ul>
+ *     <li>numberOfCompletedCheckpoints / numberOfFailedCheckpoints：完成和失败（超时）的检查点个数；</li>
+ *     <li>checkpointDuration：从触发到所有任务确认并持久化完成的耗时分布，单位毫秒；</li>
+ *     <li>checkpointStateSize：持久化的状态大小分布，单位字节，没有配置持久化存储时不记录；</li>
+ *     <li>lastCheckpointDuration / lastCheckpointSize / lastCompletedCheckpointId：最近完成的检查点，没有时为 -1。</li>
+ * </ul>
+ * 检查点可能在不同的线程中完成，所有方法都是线程安全的。
+ */
+public class CheckpointStatsTracker {
+
+    private final Counter numberOfCompletedCheckpoints;
+    private final Counter numberOfFailedCheckpoints;
+    private final Histogram checkpointDuration;
+    private final Histogram checkpointStateSize;
+    private volatile long lastCheckpointDuration = -1;
+    private volatile long lastCheckpointSize = -1;
+    private volatile long lastCompletedCheckpointId = -1;
+
+    public CheckpointStatsTracker(MetricGroup metricGroup) {
+        this.numberOfCompletedCheckpoints = metricGroup.counter("numberOfCompletedCheckpoints", new ThreadSafeCounter());
+        this.numberOfFailedCheckpoints = metricGroup.counter("numberOfFailedCheckpoints", new ThreadSafeCounter());
+        this.checkpointDuration = metricGroup.histogram("checkpointDuration", new LogLinearHistogram());
+        this.checkpointStateSize = metricGroup.histogram("checkpointStateSize", new LogLinearHistogram());
+        metricGroup.gauge("lastCheckpointDuration", (Gauge<Long>) () -> lastCheckpointDuration);
+        metricGroup.gauge("lastCheckpointSize", (Gauge<Long>) () -> lastCheckpointSize);
+        metricGroup.gauge("lastCompletedCheckpointId", (Gauge<Long>) () -> lastCompletedCheckpointId);
+    }
+
+    /**
+     * @param durationMillis 从触发到完成的耗时
+     * @param stateSize 持久化的状态大小，没有持久化时为 -1
+     */
+    public void reportCompletedCheckpoint(long checkpointId, long durationMillis, long stateSize) {
+        numberOfCompletedCheckpoints.inc();
+        checkpointDuration.update(durationMillis);
+        lastCheckpointDuration = durationMillis;
+        if (stateSize >= 0) {
+            checkpointStateSize.update(stateSize);
+        }
+        lastCheckpointSize = stateSize;
+        lastCompletedCheckpointId = checkpointId;
+    }
+
+    public void reportFailedCheckpoint(long checkpointId) {
+        numberOfFailedCheckpoints.inc();
+    }
+}
@@ -0,0 +1,39 @@
+package org.mini.flink.runtime.checkpoint;
+
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 一个已经完成并持久化的检查点。
+ */
+public class CompletedCheckpoint {
+    private final long checkpointId;
+    private final long timestamp;
+    // Key: 任务名称, Value: 该任务的快照
+    private final Map<String, TaskStateSnapshot> taskStates;
+
+    public CompletedCheckpoint(long checkpointId, long timestamp, Map<String, TaskStateSnapshot> taskStates) {
+        this.checkpointId = checkpointId;
+        this.timestamp = timestamp;
+        this.taskStates = Collections.unmodifiableMap(taskStates);
+    }
+
+    public long getCheckpointId() {
+        return checkpointId;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Map<String, TaskStateSnapshot> getTaskStates() {
+        return taskStates;
+    }
+
+    @Override
+    public String toString() {
+        return "CompletedCheckpoint{checkpointId=" + checkpointId + ", tasks=" + taskStates.size() + "}";
+    }
+}
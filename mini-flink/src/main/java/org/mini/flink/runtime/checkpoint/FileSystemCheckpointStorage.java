@@ -0,0 +1,357 @@
+package org.mini.flink.runtime.checkpoint;
+
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * 把检查点持久化到本地文件系统。
+ * <p>
+ * 目录结构：
+ * <pre>
+ * checkpointDirectory/
+ *   chk-1/
+ *     task-0.state    每个任务一个文件，二进制编码见 {@link CheckpointStateSerializer}
+ *     task-1.state
+ *     _metadata       检查点 ID、时间戳、任务名称到状态文件的映射，以及引用的基准检查点
+ *   chk-2/
+ *     ...
+ * </pre>
+ * {@code _metadata} 总是在所有任务文件写完之后，先写到临时文件再原子地重命名，
+ * 因此只有带 {@code _metadata} 的目录才是完整的检查点，写到一半崩溃留下的目录在恢复时会被忽略。
+ * <p>
+ * 增量检查点的任务文件只包含相对于基准检查点的变化。读取时沿着基准一路回放到全量检查点，
+ * 因此被保留的检查点所（间接）引用的基准检查点即使超出保留数量也不会被删除。
+ * <p>
+ * 持久化成功后协调器立即通知任务，任务之后的增量快照就可能以它为基准，而此时还有检查点在进行中：
+ * 在 C2 完成之后、C3 持久化之前触发的 C4 基于 C2，C3 的持久化却会因为超出保留数量删除 C2。
+ * 因此开启增量检查点时，持久化过的检查点在确认不会再被用作基准之前也不会被删除，
+ * 即之后持久化的某个检查点中，所有在它上面有键控状态的任务都已经基于更新的检查点做增量快照。
+ * 引用的基准检查点不存在时持久化直接失败，不会写出一个无法恢复的检查点。
+ * <p>
+ * {@link #persist} 只由检查点协调器的 I/O 线程调用，基准的记录不需要同步。
+ */
+public class FileSystemCheckpointStorage {
+    private static final Logger LOG = Logger.getLogger(FileSystemCheckpointStorage.class.getName());
+
+    private static final String CHECKPOINT_DIR_PREFIX = "chk-";
+    private static final String METADATA_FILE_NAME = "_metadata";
+    private static final int METADATA_MAGIC = 0x4D46434B; // "MFCK"
+    // 版本 2 增加了引用的基准检查点列表
+    private static final int METADATA_VERSION = 2;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final Path checkpointDirectory;
+    private final int maxRetainedCheckpoints;
+    private final boolean incrementalCheckpoints;
+    // 可能仍被之后的增量检查点用作基准的检查点。Key: 检查点 ID, Value: 在该检查点上有键控状态的任务
+    private final TreeMap<Long, Set<String>> basesInUse = new TreeMap<>();
+
+    public FileSystemCheckpointStorage(String checkpointDirectory, int maxRetainedCheckpoints) {
+        this(checkpointDirectory, maxRetainedCheckpoints, false);
+    }
+
+    /**
+     * @param incrementalCheckpoints 任务是否做增量快照，决定持久化的检查点是否需要作为基准保留
+     */
+    public FileSystemCheckpointStorage(String checkpointDirectory, int maxRetainedCheckpoints,
+                                       boolean incrementalCheckpoints) {
+        if (maxRetainedCheckpoints <= 0) {
+            throw new IllegalArgumentException("保留的检查点数量必须大于 0");
+        }
+        this.checkpointDirectory = Paths.get(checkpointDirectory);
+        this.maxRetainedCheckpoints = maxRetainedCheckpoints;
+        this.incrementalCheckpoints = incrementalCheckpoints;
+    }
+
+    /**
+     * 持久化一个所有任务都已确认的检查点，并删除超出保留数量的旧检查点。
+     * @return 所有任务状态文件的总字节数
+     * @throws IOException 写入失败，或者增量状态引用的基准检查点已经不存在
+     */
+    public long persist(long checkpointId, Map<String, TaskStateSnapshot> taskStates) throws IOException {
+        for (TaskStateSnapshot state : taskStates.values()) {
+            if (state.isIncremental() && !isCompleted(state.getKeyedStateBaseCheckpointId())) {
+                throw new IOException("检查点 " + checkpointId + " 引用的基准检查点 "
+                        + state.getKeyedStateBaseCheckpointId() + " 不存在");
+            }
+        }
+        Path dir = checkpointDirectory.resolve(CHECKPOINT_DIR_PREFIX + checkpointId);
+        Files.createDirectories(dir);
+
+        Map<String, String> taskFiles = new LinkedHashMap<>();
+        Set<Long> referencedCheckpoints = new TreeSet<>();
+        int fileIndex = 0;
+        long stateSize = 0;
+        for (Map.Entry<String, TaskStateSnapshot> entry : taskStates.entrySet()) {
+            // 任务名称中可能包含 "/" 等字符，文件名只用序号，映射关系记录在元数据中
+            String fileName = "task-" + (fileIndex++) + ".state";
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(dir.resolve(fileName)), IO_BUFFER_SIZE))) {
+                CheckpointStateSerializer.writeTaskState(entry.getValue(), out);
+                stateSize += out.size();
+            }
+            taskFiles.put(entry.getKey(), fileName);
+            if (entry.getValue().isIncremental()) {
+                referencedCheckpoints.add(entry.getValue().getKeyedStateBaseCheckpointId());
+            }
+        }
+
+        Path tmpMetadata = dir.resolve(METADATA_FILE_NAME + ".inprogress");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpMetadata)))) {
+            out.writeInt(METADATA_MAGIC);
+            out.writeInt(METADATA_VERSION);
+            out.writeLong(checkpointId);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(taskFiles.size());
+            for (Map.Entry<String, String> entry : taskFiles.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue());
+            }
+            out.writeInt(referencedCheckpoints.size());
+            for (long referenced : referencedCheckpoints) {
+                out.writeLong(referenced);
+            }
+        }
+        Files.move(tmpMetadata, dir.resolve(METADATA_FILE_NAME), StandardCopyOption.ATOMIC_MOVE);
+        LOG.info("检查点 " + checkpointId + " 已持久化到 " + dir
+                + (referencedCheckpoints.isEmpty() ? "" : "，增量基于检查点 " + referencedCheckpoints));
+
+        if (incrementalCheckpoints) {
+            releaseBases(checkpointId, taskStates);
+        }
+        discardOldCheckpoints();
+        return stateSize;
+    }
+
+    /**
+     * 刚持久化的检查点 checkpointId 之后可能被用作基准；更早的基准中，
+     * 所有在它上面有键控状态的任务都已经在 checkpointId 中基于更新的检查点做了增量快照的，不会再被使用。
+     * 任务的基准总是它收到通知的最近一个检查点，只会向前推进。做全量快照的任务不能说明它之后的基准，
+     * 所以相应的基准继续保留到下一个检查点。
+     */
+    private void releaseBases(long checkpointId, Map<String, TaskStateSnapshot> taskStates) {
+        Iterator<Map.Entry<Long, Set<String>>> it = basesInUse.headMap(checkpointId).entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Set<String>> base = it.next();
+            boolean released = true;
+            for (String taskName : base.getValue()) {
+                TaskStateSnapshot state = taskStates.get(taskName);
+                if (state == null || !state.isIncremental() || state.getKeyedStateBaseCheckpointId() <= base.getKey()) {
+                    released = false;
+                    break;
+                }
+            }
+            if (released) {
+                it.remove();
+            }
+        }
+        // 任务只有在某个检查点上做过键控状态快照，才可能以这个检查点为基准
+        Set<String> keyedTasks = new HashSet<>();
+        for (Map.Entry<String, TaskStateSnapshot> entry : taskStates.entrySet()) {
+            if (!entry.getValue().getKeyedStates().isEmpty()) {
+                keyedTasks.add(entry.getKey());
+            }
+        }
+        if (!keyedTasks.isEmpty()) {
+            basesInUse.put(checkpointId, keyedTasks);
+        }
+    }
+
+    /**
+     * @return 最近一个完整的检查点，目录中没有完整的检查点时返回 null
+     * @throws IOException 有完整的检查点，但是都无法读取；此时从空状态启动会悄悄丢失状态
+     */
+    public CompletedCheckpoint loadLatestCheckpoint() throws IOException {
+        List<Long> checkpointIds = listCheckpointIds();
+        IOException failure = null;
+        for (int i = checkpointIds.size() - 1; i >= 0; i--) {
+            Path dir = checkpointDirectory.resolve(CHECKPOINT_DIR_PREFIX + checkpointIds.get(i));
+            if (!Files.exists(dir.resolve(METADATA_FILE_NAME))) {
+                continue;
+            }
+            try {
+                return loadCheckpoint(checkpointIds.get(i), new HashMap<>());
+            } catch (IOException e) {
+                LOG.warning("读取检查点 " + dir + " 失败，尝试更早的检查点: " + e.getMessage());
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw new IOException("检查点目录 " + checkpointDirectory + " 中的检查点都无法读取", failure);
+        }
+        return null;
+    }
+
+    /**
+     * 读取一个检查点，增量的键控状态会叠加到基准检查点上，返回的任务状态都是全量的。
+     * @param resolved 本次读取中已经解析过的检查点，同一条增量链上的基准只读取一次
+     */
+    private CompletedCheckpoint loadCheckpoint(long id, Map<Long, CompletedCheckpoint> resolved) throws IOException {
+        CompletedCheckpoint cached = resolved.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        Path dir = checkpointDirectory.resolve(CHECKPOINT_DIR_PREFIX + id);
+        CheckpointMetadata metadata = readMetadata(dir);
+
+        Map<String, TaskStateSnapshot> taskStates = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : metadata.taskFiles.entrySet()) {
+            TaskStateSnapshot state;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Files.newInputStream(dir.resolve(entry.getValue())), IO_BUFFER_SIZE))) {
+                state = CheckpointStateSerializer.readTaskState(in);
+            }
+            if (state.isIncremental()) {
+                long baseId = state.getKeyedStateBaseCheckpointId();
+                if (baseId >= id) {
+                    throw new IOException("检查点 " + id + " 引用了无效的基准检查点 " + baseId);
+                }
+                TaskStateSnapshot base = loadCheckpoint(baseId, resolved).getTaskStates().get(entry.getKey());
+                if (base == null) {
+                    throw new IOException("基准检查点 " + baseId + " 中缺少任务 [" + entry.getKey() + "] 的状态");
+                }
+                state = state.applyTo(base);
+            }
+            taskStates.put(entry.getKey(), state);
+        }
+        CompletedCheckpoint checkpoint = new CompletedCheckpoint(metadata.checkpointId, metadata.timestamp, taskStates);
+        resolved.put(id, checkpoint);
+        return checkpoint;
+    }
+
+    private static CheckpointMetadata readMetadata(Path dir) throws IOException {
+        CheckpointMetadata metadata = new CheckpointMetadata();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(dir.resolve(METADATA_FILE_NAME))))) {
+            if (in.readInt() != METADATA_MAGIC) {
+                throw new IOException("不是有效的检查点元数据文件");
+            }
+            int version = in.readInt();
+            if (version != 1 && version != METADATA_VERSION) {
+                throw new IOException("不支持的检查点元数据版本: " + version);
+            }
+            metadata.checkpointId = in.readLong();
+            metadata.timestamp = in.readLong();
+            int tasks = in.readInt();
+            for (int i = 0; i < tasks; i++) {
+                String taskName = in.readUTF();
+                metadata.taskFiles.put(taskName, in.readUTF());
+            }
+            if (version >= 2) {
+                int references = in.readInt();
+                for (int i = 0; i < references; i++) {
+                    metadata.referencedCheckpoints.add(in.readLong());
+                }
+            }
+        }
+        return metadata;
+    }
+
+    private boolean isCompleted(long checkpointId) {
+        return Files.exists(checkpointDirectory.resolve(CHECKPOINT_DIR_PREFIX + checkpointId).resolve(METADATA_FILE_NAME));
+    }
+
+    /**
+     * 只保留最近的 maxRetainedCheckpoints 个完整检查点、仍可能被用作基准的检查点，
+     * 以及它们通过增量链引用的基准检查点，更早的其他检查点以及未完成的目录都会被删除。
+     */
+    private void discardOldCheckpoints() throws IOException {
+        List<Long> completed = new ArrayList<>();
+        for (long checkpointId : listCheckpointIds()) {
+            if (isCompleted(checkpointId)) {
+                completed.add(checkpointId);
+            }
+        }
+        if (completed.size() <= maxRetainedCheckpoints) {
+            return;
+        }
+        long oldestRetained = completed.get(completed.size() - maxRetainedCheckpoints);
+        Set<Long> referenced = new HashSet<>(basesInUse.keySet());
+        List<Long> toVisit = new ArrayList<>(completed.subList(completed.size() - maxRetainedCheckpoints, completed.size()));
+        toVisit.addAll(basesInUse.keySet());
+        while (!toVisit.isEmpty()) {
+            long checkpointId = toVisit.remove(toVisit.size() - 1);
+            Path dir = checkpointDirectory.resolve(CHECKPOINT_DIR_PREFIX + checkpointId);
+            if (!Files.exists(dir.resolve(METADATA_FILE_NAME))) {
+                continue;
+            }
+            for (long base : readMetadata(dir).referencedCheckpoints) {
+                if (referenced.add(base)) {
+                    toVisit.add(base);
+                }
+            }
+        }
+        for (long checkpointId : listCheckpointIds()) {
+            if (checkpointId < oldestRetained && !referenced.contains(checkpointId)) {
+                deleteRecursively(checkpointDirectory.resolve(CHECKPOINT_DIR_PREFIX + checkpointId));
+            }
+        }
+    }
+
+    private List<Long> listCheckpointIds() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        if (!Files.isDirectory(checkpointDirectory)) {
+            return ids;
+        }
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(checkpointDirectory, CHECKPOINT_DIR_PREFIX + "*")) {
+            for (Path dir : dirs) {
+                try {
+                    ids.add(Long.parseLong(dir.getFileName().toString().substring(CHECKPOINT_DIR_PREFIX.length())));
+                } catch (NumberFormatException ignored) {
+                    // 不是检查点目录
+                }
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> paths = Files.walk(path)) {
+            List<Path> toDelete = new ArrayList<>();
+            paths.sorted(Comparator.reverseOrder()).forEach(toDelete::add);
+            for (Path p : toDelete) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    public Path getCheckpointDirectory() {
+        return checkpointDirectory;
+    }
+
+    private static class CheckpointMetadata {
+        long checkpointId;
+        long timestamp;
+        // Key: 任务名称, Value: 状态文件名
+        final Map<String, String> taskFiles = new LinkedHashMap<>();
+        // 增量任务状态所基于的检查点
+        final Set<Long> referencedCheckpoints = new TreeSet<>();
+    }
+}
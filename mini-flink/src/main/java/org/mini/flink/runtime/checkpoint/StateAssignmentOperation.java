@@ -0,0 +1,75 @@
+package org.mini.flink.runtime.checkpoint;
+
+import org.mini.flink.runtime.state.KeyGroupRangeAssignment;
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 把一个已完成检查点中的状态重新分配给新部署的任务。
+ * <ul>
+ *     <li>算子状态（{@code Stateful}）按算子名称和子任务下标对应，要求并行度不变；</li>
+ *     <li>键控状态按键重新分配：汇总该算子所有子任务的键控状态，只保留按键组划分后属于当前子任务的键，
+ *     因此修改并行度之后也能正确恢复；</li>
+ *     <li>通道状态（非对齐检查点的在途数据）按任务名称对应，只在作业拓扑不变时有意义。</li>
+ * </ul>
+ */
+public class StateAssignmentOperation {
+
+    private final CompletedCheckpoint checkpoint;
+
+    public StateAssignmentOperation(CompletedCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * @param operatorNames 任务中按链上顺序排列的算子名称，第一个是链头
+     * @param maxParallelism 链头的输入按键分区时为分区器的最大并行度，否则为 -1
+     * @return 分配给该任务的状态，没有任何可恢复的状态时返回 null
+     */
+    public TaskStateSnapshot assignTaskState(String taskName, List<String> operatorNames, int subtaskIndex,
+                                             int parallelism, int maxParallelism) {
+        Map<String, Map<String, Object>> operatorStates = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> keyedStates = new LinkedHashMap<>();
+        String headName = operatorNames.get(0);
+
+        for (TaskStateSnapshot snapshot : checkpoint.getTaskStates().values()) {
+            if (snapshot.getSubtaskIndex() == subtaskIndex) {
+                for (String operatorName : operatorNames) {
+                    Map<String, Object> state = snapshot.getOperatorStates().get(operatorName);
+                    if (state != null) {
+                        operatorStates.put(operatorName, state);
+                    }
+                }
+            }
+            Map<String, Object> keyedState = snapshot.getKeyedStates().get(headName);
+            if (keyedState != null && maxParallelism > 0) {
+                Map<String, Object> assigned = keyedStates.computeIfAbsent(headName, k -> new LinkedHashMap<>());
+                for (Map.Entry<String, Object> entry : keyedState.entrySet()) {
+                    assignKeys((Map<?, ?>) entry.getValue(), subtaskIndex, parallelism, maxParallelism,
+                            assigned, entry.getKey());
+                }
+            }
+        }
+
+        TaskStateSnapshot previous = checkpoint.getTaskStates().get(taskName);
+        Map<Integer, List<Object>> channelState = previous != null ? previous.getInputChannelState() : null;
+
+        TaskStateSnapshot assigned = new TaskStateSnapshot(subtaskIndex, operatorStates, keyedStates, channelState);
+        return assigned.isEmpty() ? null : assigned;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void assignKeys(Map<?, ?> entries, int subtaskIndex, int parallelism, int maxParallelism,
+                                   Map<String, Object> assigned, String stateName) {
+        Map<Object, Object> target = (Map<Object, Object>) assigned.computeIfAbsent(stateName, k -> new HashMap<>());
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            if (KeyGroupRangeAssignment.assignKeyToParallelOperator(entry.getKey(), maxParallelism, parallelism) == subtaskIndex) {
+                target.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+}
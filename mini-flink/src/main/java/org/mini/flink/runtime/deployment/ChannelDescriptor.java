@@ -0,0 +1,77 @@
+package org.mini.flink.runtime.deployment;
+
+import org.mini.flink.runtime.stream.ChannelType;
+
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+
+/**
+ * 描述一个通道的一端。上下游任务用同一个通道 ID 找到同一个通道：
+ * 两端在同一个 TaskManager 中时是进程内通道，否则是跨进程通道。
+ */
+public class ChannelDescriptor implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int channelId;
+    private final ChannelType channelType;
+    private final int capacity;
+    // 跨进程通道的发送端需要知道下游 TaskManager 的数据地址
+    private final InetSocketAddress consumerAddress;
+    private final boolean remote;
+
+    private ChannelDescriptor(int channelId, ChannelType channelType, int capacity,
+                              InetSocketAddress consumerAddress, boolean remote) {
+        this.channelId = channelId;
+        this.channelType = channelType;
+        this.capacity = capacity;
+        this.consumerAddress = consumerAddress;
+        this.remote = remote;
+    }
+
+    /**
+     * 上下游部署在同一个 TaskManager 中的通道。
+     */
+    public static ChannelDescriptor local(int channelId, ChannelType channelType, int capacity) {
+        return new ChannelDescriptor(channelId, channelType, capacity, null, false);
+    }
+
+    /**
+     * 跨进程通道的发送端。
+     * @param consumerAddress 下游 TaskManager 的数据地址
+     */
+    public static ChannelDescriptor remoteOutput(int channelId, InetSocketAddress consumerAddress) {
+        return new ChannelDescriptor(channelId, null, 0, consumerAddress, true);
+    }
+
+    /**
+     * 跨进程通道的接收端。
+     */
+    public static ChannelDescriptor remoteInput(int channelId) {
+        return new ChannelDescriptor(channelId, null, 0, null, true);
+    }
+
+    public int getChannelId() {
+        return channelId;
+    }
+
+    public ChannelType getChannelType() {
+        return channelType;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public InetSocketAddress getConsumerAddress() {
+        return consumerAddress;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    @Override
+    public String toString() {
+        return "Channel{" + channelId + (remote ? ", remote" + (consumerAddress != null ? " -> " + consumerAddress : "") : "") + "}";
+    }
+}
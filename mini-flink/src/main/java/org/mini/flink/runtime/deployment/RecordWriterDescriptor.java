@@ -0,0 +1,38 @@
+package org.mini.flink.runtime.deployment;
+
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.runtime.partitioner.StreamPartitioner;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 描述任务的一条输出边：分区器、记录的序列化器以及这条边在当前子任务上连接的所有下游通道，按下游子任务的顺序排列。
+ */
+public class RecordWriterDescriptor implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final StreamPartitioner<Object> partitioner;
+    private final List<ChannelDescriptor> channels;
+    // 跨进程通道按它编码记录，为 null 表示记录类型未知
+    private final TypeSerializer<?> recordSerializer;
+
+    public RecordWriterDescriptor(StreamPartitioner<Object> partitioner, List<ChannelDescriptor> channels,
+                                  TypeSerializer<?> recordSerializer) {
+        this.partitioner = partitioner;
+        this.channels = channels;
+        this.recordSerializer = recordSerializer;
+    }
+
+    public StreamPartitioner<Object> getPartitioner() {
+        return partitioner;
+    }
+
+    public List<ChannelDescriptor> getChannels() {
+        return channels;
+    }
+
+    public TypeSerializer<?> getRecordSerializer() {
+        return recordSerializer;
+    }
+}
@@ -0,0 +1,126 @@
+package org.mini.flink.runtime.deployment;
+
+import org.mini.flink.api.KeySelector;
+import org.mini.flink.api.eventtime.WatermarkStrategy;
+import org.mini.flink.runtime.jobgraph.CheckpointConfig;
+import org.mini.flink.runtime.jobgraph.ExecutionConfig;
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * JobManager 部署一个任务时发给 TaskManager 的全部信息。
+ * 它是可序列化的，TaskManager 在另一个进程中时通过网络发送，TaskManager 据此在本地创建通道和 {@link org.mini.flink.runtime.stream.StreamTask}。
+ */
+public class TaskDeploymentDescriptor implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String jobId;
+    private final String jobName;
+    // 任务所属的算子链的名称，即不带并行实例序号的任务名称，例如 Source -> Map
+    private final String vertexName;
+    private final String taskName;
+    private final int subtaskIndex;
+    private final int parallelism;
+    private final LinkedHashMap<String, Serializable> chainedOperators;
+    private final KeySelector<?, ?> inputKeySelector;
+    private final WatermarkStrategy<?> watermarkStrategy;
+    private final List<ChannelDescriptor> inputChannels;
+    private final List<RecordWriterDescriptor> outputs;
+    private final ExecutionConfig executionConfig;
+    private final CheckpointConfig checkpointConfig;
+    private final TaskStateSnapshot restoredState;
+    private final int slotIndex;
+    private final String slotSharingGroup;
+
+    public TaskDeploymentDescriptor(String jobId, String jobName, String vertexName, String taskName,
+                                    int subtaskIndex, int parallelism,
+                                    LinkedHashMap<String, Serializable> chainedOperators, KeySelector<?, ?> inputKeySelector,
+                                    WatermarkStrategy<?> watermarkStrategy, List<ChannelDescriptor> inputChannels,
+                                    List<RecordWriterDescriptor> outputs, ExecutionConfig executionConfig,
+                                    CheckpointConfig checkpointConfig, TaskStateSnapshot restoredState,
+                                    int slotIndex, String slotSharingGroup) {
+        this.jobId = jobId;
+        this.jobName = jobName;
+        this.vertexName = vertexName;
+        this.taskName = taskName;
+        this.subtaskIndex = subtaskIndex;
+        this.parallelism = parallelism;
+        this.chainedOperators = chainedOperators;
+        this.inputKeySelector = inputKeySelector;
+        this.watermarkStrategy = watermarkStrategy;
+        this.inputChannels = inputChannels;
+        this.outputs = outputs;
+        this.executionConfig = executionConfig;
+        this.checkpointConfig = checkpointConfig;
+        this.restoredState = restoredState;
+        this.slotIndex = slotIndex;
+        this.slotSharingGroup = slotSharingGroup;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public String getVertexName() {
+        return vertexName;
+    }
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    public int getSubtaskIndex() {
+        return subtaskIndex;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public LinkedHashMap<String, Serializable> getChainedOperators() {
+        return chainedOperators;
+    }
+
+    public KeySelector<?, ?> getInputKeySelector() {
+        return inputKeySelector;
+    }
+
+    public WatermarkStrategy<?> getWatermarkStrategy() {
+        return watermarkStrategy;
+    }
+
+    public List<ChannelDescriptor> getInputChannels() {
+        return inputChannels;
+    }
+
+    public List<RecordWriterDescriptor> getOutputs() {
+        return outputs;
+    }
+
+    public ExecutionConfig getExecutionConfig() {
+        return executionConfig;
+    }
+
+    public CheckpointConfig getCheckpointConfig() {
+        return checkpointConfig;
+    }
+
+    public TaskStateSnapshot getRestoredState() {
+        return restoredState;
+    }
+
+    public int getSlotIndex() {
+        return slotIndex;
+    }
+
+    public String getSlotSharingGroup() {
+        return slotSharingGroup;
+    }
+}
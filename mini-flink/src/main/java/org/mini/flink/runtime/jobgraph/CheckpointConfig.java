@@ -0,0 +1,163 @@
+package org.mini.flink.runtime.jobgraph;
+
+import java.io.Serializable;
+
+/**
+ * 作业的检查点配置。
+ */
+public class CheckpointConfig implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** 两次检查点之间的间隔 */
+    private long checkpointInterval = 5000;
+
+    /** 检查点的超时时间（毫秒），超时仍未收到所有任务确认的检查点被放弃 */
+    private long checkpointTimeout = 10_000;
+
+    /**
+     * 同时进行中的检查点数量上限，包括已收到所有确认、正在持久化的检查点。
+     * 达到上限时周期性的触发被推迟，直到有检查点结束，而不是让检查点越积越多。
+     */
+    private int maxConcurrentCheckpoints = 1;
+
+    /**
+     * 上一个检查点结束（完成或失败）后，至少间隔多久（毫秒）才触发下一个检查点。
+     * 检查点耗时接近触发间隔时，保证任务在两个检查点之间有时间处理数据。
+     */
+    private long minPauseBetweenCheckpoints = 0;
+
+    /**
+     * 是否启用非对齐检查点。
+     * 对齐模式下，已经收到屏障的通道会被阻塞，直到所有通道的屏障都到齐；
+     * 非对齐模式下，屏障越过通道中积压的数据，收到第一个屏障就立即快照并向下游转发屏障，
+     * 被越过的数据和其余通道在屏障之前的在途数据作为通道状态一起保存，
+     * 因此在反压严重时检查点延迟也不会因为等待积压的数据被处理而无限增长。
+     */
+    private boolean unalignedCheckpointsEnabled = false;
+
+    /**
+     * 非对齐检查点中一个任务最多保存多少条在途记录。在途数据保存在任务的内存中，
+     * 某个通道的屏障迟迟不到时会一直增长，超过上限时任务放弃这个检查点，由它超时失败。
+     */
+    private int maxInFlightRecords = 100_000;
+
+    /** 检查点的持久化目录，为 null 时检查点只保存在内存中，作业重启后无法恢复 */
+    private String checkpointStorageDirectory;
+
+    /** 持久化目录中最多保留的已完成检查点数量 */
+    private int maxRetainedCheckpoints = 1;
+
+    /**
+     * 是否启用增量检查点。启用后键控状态只快照自上一个完成的检查点以来被写入或删除的键，
+     * 检查点的大小和耗时与更新量成正比，而不是与状态总量成正比。
+     * 只有配置了持久化目录时增量才有意义，恢复时需要沿着增量链回放到最近的全量检查点。
+     */
+    private boolean incrementalCheckpointsEnabled = false;
+
+    /** 启用增量检查点时，每隔多少个检查点做一次全量快照，以限制恢复时需要回放的增量链长度 */
+    private int fullCheckpointInterval = 10;
+
+    public long getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public void setCheckpointInterval(long checkpointInterval) {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("检查点间隔必须大于 0");
+        }
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public long getCheckpointTimeout() {
+        return checkpointTimeout;
+    }
+
+    public void setCheckpointTimeout(long checkpointTimeout) {
+        if (checkpointTimeout <= 0) {
+            throw new IllegalArgumentException("检查点超时时间必须大于 0");
+        }
+        this.checkpointTimeout = checkpointTimeout;
+    }
+
+    public int getMaxConcurrentCheckpoints() {
+        return maxConcurrentCheckpoints;
+    }
+
+    public void setMaxConcurrentCheckpoints(int maxConcurrentCheckpoints) {
+        if (maxConcurrentCheckpoints <= 0) {
+            throw new IllegalArgumentException("同时进行的检查点数量必须大于 0");
+        }
+        this.maxConcurrentCheckpoints = maxConcurrentCheckpoints;
+    }
+
+    public long getMinPauseBetweenCheckpoints() {
+        return minPauseBetweenCheckpoints;
+    }
+
+    public void setMinPauseBetweenCheckpoints(long minPauseBetweenCheckpoints) {
+        if (minPauseBetweenCheckpoints < 0) {
+            throw new IllegalArgumentException("检查点之间的最小间隔不能小于 0");
+        }
+        this.minPauseBetweenCheckpoints = minPauseBetweenCheckpoints;
+    }
+
+    public boolean isUnalignedCheckpointsEnabled() {
+        return unalignedCheckpointsEnabled;
+    }
+
+    public void enableUnalignedCheckpoints(boolean enabled) {
+        this.unalignedCheckpointsEnabled = enabled;
+    }
+
+    public int getMaxInFlightRecords() {
+        return maxInFlightRecords;
+    }
+
+    public void setMaxInFlightRecords(int maxInFlightRecords) {
+        if (maxInFlightRecords <= 0) {
+            throw new IllegalArgumentException("在途记录的数量上限必须大于 0");
+        }
+        this.maxInFlightRecords = maxInFlightRecords;
+    }
+
+    public String getCheckpointStorageDirectory() {
+        return checkpointStorageDirectory;
+    }
+
+    /**
+     * 设置检查点的持久化目录。设置之后，提交作业时会自动从目录中最近的检查点恢复状态。
+     */
+    public void setCheckpointStorageDirectory(String checkpointStorageDirectory) {
+        this.checkpointStorageDirectory = checkpointStorageDirectory;
+    }
+
+    public int getMaxRetainedCheckpoints() {
+        return maxRetainedCheckpoints;
+    }
+
+    public void setMaxRetainedCheckpoints(int maxRetainedCheckpoints) {
+        if (maxRetainedCheckpoints <= 0) {
+            throw new IllegalArgumentException("保留的检查点数量必须大于 0");
+        }
+        this.maxRetainedCheckpoints = maxRetainedCheckpoints;
+    }
+
+    public boolean isIncrementalCheckpointsEnabled() {
+        return incrementalCheckpointsEnabled;
+    }
+
+    public void enableIncrementalCheckpoints(boolean enabled) {
+        this.incrementalCheckpointsEnabled = enabled;
+    }
+
+    public int getFullCheckpointInterval() {
+        return fullCheckpointInterval;
+    }
+
+    public void setFullCheckpointInterval(int fullCheckpointInterval) {
+        if (fullCheckpointInterval <= 0) {
+            throw new IllegalArgumentException("全量检查点间隔必须大于 0");
+        }
+        this.fullCheckpointInterval = fullCheckpointInterval;
+    }
+}
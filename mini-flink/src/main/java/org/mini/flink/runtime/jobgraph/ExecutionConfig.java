@@ -0,0 +1,120 @@
+package org.mini.flink.runtime.jobgraph;
+
+import org.mini.flink.api.restartstrategy.RestartStrategies;
+
+import java.io.Serializable;
+
+/**
+ * 作业的运行时配置。
+ */
+public class ExecutionConfig implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 输出缓冲的超时时间（毫秒）。
+     * 记录先攒进固定大小的缓冲再整体写入通道，缓冲写满或超时都会触发发送：
+     * 大于 0 表示最多等待这么久；0 表示每条记录都立即发送（延迟最低）；-1 表示只在缓冲写满时发送（吞吐最高）。
+     */
+    private long bufferTimeout = 100;
+
+    /** 每个缓冲最多容纳的记录数 */
+    private int bufferSize = 64;
+
+    /** 每个通道最多能容纳的缓冲数，决定了反压前每个通道可以积压多少数据 */
+    private int buffersPerChannel = 16;
+
+    /** Source 周期性生成水位线的间隔（毫秒），只对设置了 WatermarkStrategy 的 Source 生效 */
+    private long autoWatermarkInterval = 200;
+
+    /**
+     * Source 发送延迟标记的间隔（毫秒），0 表示不跟踪延迟。
+     * 标记与记录走同样的通道、排在同样的缓冲之后，没有下游的任务据此统计端到端延迟，见 LatencyMarker。
+     */
+    private long latencyTrackingInterval = 0;
+
+    /**
+     * TaskManager 空闲槽不足时，作业排队等待槽被释放的最长时间（毫秒）。
+     * 0 表示不排队，槽不足时立即拒绝部署。
+     */
+    private long slotRequestTimeout = 0;
+
+    /** 任务失败后的重启策略，默认不重启，任务失败即作业失败 */
+    private RestartStrategies.RestartStrategyConfiguration restartStrategy = RestartStrategies.noRestart();
+
+    public long getBufferTimeout() {
+        return bufferTimeout;
+    }
+
+    public void setBufferTimeout(long bufferTimeout) {
+        if (bufferTimeout < -1) {
+            throw new IllegalArgumentException("bufferTimeout 只能是 -1、0 或正数");
+        }
+        this.bufferTimeout = bufferTimeout;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize 必须大于 0");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    public int getBuffersPerChannel() {
+        return buffersPerChannel;
+    }
+
+    public void setBuffersPerChannel(int buffersPerChannel) {
+        if (buffersPerChannel <= 0) {
+            throw new IllegalArgumentException("buffersPerChannel 必须大于 0");
+        }
+        this.buffersPerChannel = buffersPerChannel;
+    }
+
+    public long getLatencyTrackingInterval() {
+        return latencyTrackingInterval;
+    }
+
+    public void setLatencyTrackingInterval(long latencyTrackingInterval) {
+        if (latencyTrackingInterval < 0) {
+            throw new IllegalArgumentException("latencyTrackingInterval 不能小于 0");
+        }
+        this.latencyTrackingInterval = latencyTrackingInterval;
+    }
+
+    public long getAutoWatermarkInterval() {
+        return autoWatermarkInterval;
+    }
+
+    public void setAutoWatermarkInterval(long autoWatermarkInterval) {
+        if (autoWatermarkInterval <= 0) {
+            throw new IllegalArgumentException("autoWatermarkInterval 必须大于 0");
+        }
+        this.autoWatermarkInterval = autoWatermarkInterval;
+    }
+
+    public long getSlotRequestTimeout() {
+        return slotRequestTimeout;
+    }
+
+    public void setSlotRequestTimeout(long slotRequestTimeout) {
+        if (slotRequestTimeout < 0) {
+            throw new IllegalArgumentException("slotRequestTimeout 不能为负数");
+        }
+        this.slotRequestTimeout = slotRequestTimeout;
+    }
+
+    public RestartStrategies.RestartStrategyConfiguration getRestartStrategy() {
+        return restartStrategy;
+    }
+
+    public void setRestartStrategy(RestartStrategies.RestartStrategyConfiguration restartStrategy) {
+        if (restartStrategy == null) {
+            throw new IllegalArgumentException("restartStrategy 不能为 null");
+        }
+        this.restartStrategy = restartStrategy;
+    }
+}
@@ -0,0 +1,57 @@
+package org.mini.flink.runtime.jobgraph;
+
+import org.mini.flink.runtime.partitioner.StreamPartitioner;
+import org.mini.flink.runtime.stream.ChannelType;
+
+import java.io.Serializable;
+
+/**
+ * 作业图中的一条边，连接上游顶点和下游顶点，并声明数据在两者之间如何分区。
+ */
+public class JobEdge implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String sourceVertexId;
+    private final String targetVertexId;
+    private final StreamPartitioner<?> partitioner;
+    private ChannelType channelType = ChannelType.BLOCKING_QUEUE;
+
+    public JobEdge(String sourceVertexId, String targetVertexId, StreamPartitioner<?> partitioner) {
+        this.sourceVertexId = sourceVertexId;
+        this.targetVertexId = targetVertexId;
+        this.partitioner = partitioner;
+    }
+
+    public String getSourceVertexId() {
+        return sourceVertexId;
+    }
+
+    public String getTargetVertexId() {
+        return targetVertexId;
+    }
+
+    public StreamPartitioner<?> getPartitioner() {
+        return partitioner;
+    }
+
+    public ChannelType getChannelType() {
+        return channelType;
+    }
+
+    /**
+     * 设置这条边上数据通道的实现类型。
+     * @return 当前边，便于链式调用
+     */
+    public JobEdge setChannelType(ChannelType channelType) {
+        if (channelType == null) {
+            throw new NullPointerException("channelType 不能为 null");
+        }
+        this.channelType = channelType;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return sourceVertexId + " -[" + partitioner + "]-> " + targetVertexId;
+    }
+}
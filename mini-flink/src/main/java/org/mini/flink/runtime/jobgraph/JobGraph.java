@@ -1,5 +1,11 @@
 package org.mini.flink.runtime.jobgraph;
 
+import org.mini.flink.api.Sink;
+import org.mini.flink.api.Source;
+import org.mini.flink.runtime.partitioner.ForwardPartitioner;
+import org.mini.flink.runtime.partitioner.KeyGroupStreamPartitioner;
+import org.mini.flink.runtime.partitioner.RebalancePartitioner;
+import org.mini.flink.runtime.partitioner.StreamPartitioner;
 
 import java.io.Serializable;
 import java.util.*;
@@ -13,19 +19,58 @@ public class JobGraph implements Serializable {
     private final String jobId = UUID.randomUUID().toString();
     private final String jobName;
     private final List<JobVertex> vertices = new ArrayList<>();
-    // 使用邻接表表示DAG, key 是上游 vertex id, value 是下游 vertex id 列表
-    private final Map<String, List<String>> edges = new HashMap<>();
+    // 使用邻接表表示DAG, key 是上游 vertex id, value 是该顶点的所有输出边
+    private final Map<String, List<JobEdge>> edges = new HashMap<>();
+    private final ExecutionConfig executionConfig;
+    private final CheckpointConfig checkpointConfig;
+    // 是否允许把直连的算子链接到同一个任务中执行
+    private boolean chainingEnabled = true;
 
     public JobGraph(String jobName) {
+        this(jobName, new ExecutionConfig(), new CheckpointConfig());
+    }
+
+    /**
+     * 使用给定的配置创建作业图，供 {@link org.mini.flink.api.datastream.StreamExecutionEnvironment} 生成作业图时使用。
+     */
+    public JobGraph(String jobName, ExecutionConfig executionConfig, CheckpointConfig checkpointConfig) {
         this.jobName = jobName;
+        this.executionConfig = executionConfig;
+        this.checkpointConfig = checkpointConfig;
     }
 
     public void addVertex(JobVertex vertex) {
         vertices.add(vertex);
     }
 
-    public void addEdge(JobVertex upstream, JobVertex downstream) {
-        edges.computeIfAbsent(upstream.getId(), k -> new ArrayList<>()).add(downstream.getId());
+    /**
+     * 连接两个顶点，使用默认的分区方式：并行度相同时直连 (forward)，否则轮询 (rebalance)。
+     * @return 新建的边，可以继续设置通道类型等属性
+     */
+    public JobEdge addEdge(JobVertex upstream, JobVertex downstream) {
+        StreamPartitioner<?> partitioner = upstream.getParallelism() == downstream.getParallelism()
+                ? new ForwardPartitioner<>()
+                : new RebalancePartitioner<>();
+        return addEdge(upstream, downstream, partitioner);
+    }
+
+    /**
+     * 使用指定的分区器连接两个顶点。
+     * @return 新建的边，可以继续设置通道类型等属性
+     */
+    public JobEdge addEdge(JobVertex upstream, JobVertex downstream, StreamPartitioner<?> partitioner) {
+        if (partitioner.isPointwise() && upstream.getParallelism() != downstream.getParallelism()) {
+            throw new IllegalArgumentException(String.format(
+                    "直连分区要求上下游并行度相同: %s(%d) -> %s(%d)",
+                    upstream.getName(), upstream.getParallelism(), downstream.getName(), downstream.getParallelism()));
+        }
+        if (partitioner instanceof KeyGroupStreamPartitioner
+                && ((KeyGroupStreamPartitioner<?, ?>) partitioner).getMaxParallelism() < downstream.getParallelism()) {
+            throw new IllegalArgumentException("下游并行度不能超过按键分区的最大并行度: " + downstream.getName());
+        }
+        JobEdge edge = new JobEdge(upstream.getId(), downstream.getId(), partitioner);
+        edges.computeIfAbsent(upstream.getId(), k -> new ArrayList<>()).add(edge);
+        return edge;
     }
 
     public String getJobId() {
@@ -36,11 +81,78 @@ public class JobGraph implements Serializable {
         return jobName;
     }
 
+    public ExecutionConfig getExecutionConfig() {
+        return executionConfig;
+    }
+
+    public CheckpointConfig getCheckpointConfig() {
+        return checkpointConfig;
+    }
+
     public List<JobVertex> getVertices() {
         return Collections.unmodifiableList(vertices);
     }
 
+    public JobVertex getVertex(String vertexId) {
+        for (JobVertex vertex : vertices) {
+            if (vertex.getId().equals(vertexId)) {
+                return vertex;
+            }
+        }
+        return null;
+    }
+
+    public List<JobEdge> getOutputEdges(String vertexId) {
+        return Collections.unmodifiableList(edges.getOrDefault(vertexId, Collections.emptyList()));
+    }
+
+    public List<JobEdge> getInputEdges(String vertexId) {
+        List<JobEdge> inputEdges = new ArrayList<>();
+        for (List<JobEdge> outputEdges : edges.values()) {
+            for (JobEdge edge : outputEdges) {
+                if (edge.getTargetVertexId().equals(vertexId)) {
+                    inputEdges.add(edge);
+                }
+            }
+        }
+        return inputEdges;
+    }
+
+    public boolean isChainingEnabled() {
+        return chainingEnabled;
+    }
+
+    /**
+     * 关闭算子链接，每个顶点都单独作为一个任务运行。
+     */
+    public void disableOperatorChaining() {
+        this.chainingEnabled = false;
+    }
+
+    /**
+     * 一条边可以被链接的条件：直连分区且上下游并行度相同、上游只有这一条输出边、下游只有这一条输入边，
+     * 上下游在同一个槽共享组中，并且上游不是 Sink、下游不是 Source。
+     */
+    public boolean isChainable(JobEdge edge) {
+        if (!chainingEnabled) {
+            return false;
+        }
+        JobVertex upstream = getVertex(edge.getSourceVertexId());
+        JobVertex downstream = getVertex(edge.getTargetVertexId());
+        return edge.getPartitioner().isPointwise()
+                && upstream.getParallelism() == downstream.getParallelism()
+                && getOutputEdges(upstream.getId()).size() == 1
+                && getInputEdges(downstream.getId()).size() == 1
+                && upstream.getSlotSharingGroup().equals(downstream.getSlotSharingGroup())
+                && !(upstream.getLogic() instanceof Sink)
+                && !(downstream.getLogic() instanceof Source);
+    }
+
     public List<String> getDownstreamVertexIds(String vertexId) {
-        return edges.getOrDefault(vertexId, Collections.emptyList());
+        List<String> downstreamIds = new ArrayList<>();
+        for (JobEdge edge : getOutputEdges(vertexId)) {
+            downstreamIds.add(edge.getTargetVertexId());
+        }
+        return downstreamIds;
     }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package org.mini.flink.runtime.jobgraph;
 
+import org.mini.flink.api.eventtime.WatermarkStrategy;
+import org.mini.flink.api.typeutils.TypeSerializer;
+
 import java.io.Serializable;
 import java.util.UUID;
 
@@ -8,11 +11,18 @@ import java.util.UUID;
  */
 public class JobVertex implements Serializable {
     private static final long serialVersionUID = 1L;
+    public static final String DEFAULT_SLOT_SHARING_GROUP = "default";
 
     private final String id = UUID.randomUUID().toString();
     private final String name;
     private final Serializable logic; // 持有 Source, Operator, 或 Sink 的逻辑
     private final int parallelism;
+    // 只对 Source 顶点有意义
+    private WatermarkStrategy<?> watermarkStrategy;
+    // 同一个槽共享组中每个顶点的一个并行实例共用一个任务槽
+    private String slotSharingGroup = DEFAULT_SLOT_SHARING_GROUP;
+    // 输出数据的序列化器，为 null 时跨进程传输按运行时的实际类型编码
+    private TypeSerializer<?> outputSerializer;
 
     public JobVertex(String name, Serializable logic, int parallelism) {
         this.name = name;
@@ -35,4 +45,44 @@ public class JobVertex implements Serializable {
     public int getParallelism() {
         return parallelism;
     }
+
+    public WatermarkStrategy<?> getWatermarkStrategy() {
+        return watermarkStrategy;
+    }
+
+    /**
+     * 为 Source 顶点设置事件时间策略：为每条记录分配时间戳，并周期性地生成水位线。
+     */
+    public JobVertex setWatermarkStrategy(WatermarkStrategy<?> watermarkStrategy) {
+        this.watermarkStrategy = watermarkStrategy;
+        return this;
+    }
+
+    public String getSlotSharingGroup() {
+        return slotSharingGroup;
+    }
+
+    /**
+     * 设置顶点所在的槽共享组。作业需要的槽数是每个槽共享组中最大并行度之和；
+     * 不同组的顶点不会被链接到一起，也不会共用任务槽。
+     */
+    public JobVertex setSlotSharingGroup(String slotSharingGroup) {
+        if (slotSharingGroup == null || slotSharingGroup.isEmpty()) {
+            throw new IllegalArgumentException("槽共享组名称不能为空");
+        }
+        this.slotSharingGroup = slotSharingGroup;
+        return this;
+    }
+
+    public TypeSerializer<?> getOutputSerializer() {
+        return outputSerializer;
+    }
+
+    /**
+     * 设置顶点输出数据的序列化器，发往其他 TaskManager 的记录按它编码；同一进程内的通道直接传递对象，不受影响。
+     */
+    public JobVertex setOutputSerializer(TypeSerializer<?> outputSerializer) {
+        this.outputSerializer = outputSerializer;
+        return this;
+    }
 }
\ No newline at end of file
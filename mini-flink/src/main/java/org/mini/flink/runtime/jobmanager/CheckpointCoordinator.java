@@ -1,32 +1,127 @@
 package org.mini.flink.runtime.jobmanager;
 
+import org.mini.flink.runtime.checkpoint.CheckpointStatsTracker;
+import org.mini.flink.runtime.checkpoint.CompletedCheckpoint;
+import org.mini.flink.runtime.checkpoint.FileSystemCheckpointStorage;
+import org.mini.flink.runtime.jobgraph.CheckpointConfig;
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+import org.mini.flink.util.InstantiationUtil;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * 检查点协调器，由 JobManager 持有，负责触发和管理检查点。
+ * <p>
+ * 协调器不为等待确认占用线程：触发、任务的确认和超时都是投递给同一个调度线程的任务，检查点在收到最后一个确认时
+ * 由回调完成，超时由一次性的定时任务放弃。持久化和通知任务在另一个 I/O 线程中进行。
+ * 周期性的触发受 {@link CheckpointConfig} 中同时进行的检查点数量上限和检查点之间最小间隔的约束。
  */
 public class CheckpointCoordinator {
     private static final Logger LOG = Logger.getLogger(CheckpointCoordinator.class.getName());
 
-    // 【JUC知识点】: ScheduledExecutorService 用于周期性地触发检查点。
-    private final ScheduledExecutorService checkpointTrigger;
-    // 【JUC知识点】: ConcurrentHashMap 用于存储每个正在进行的检查点的状态。
-    // Key 是 checkpointId，Value 是一个 CountDownLatch，用于等待所有任务完成快照。
-    private final ConcurrentMap<Long, CheckpointStatus> pendingCheckpoints;
+    // 【JUC知识点】: 协调器的状态只在这一个调度线程中访问，触发、确认、超时依次执行，不需要加锁；
+    // 等待确认时不占用任何线程，超时用 schedule 的一次性任务实现，取代每个检查点一个阻塞在 latch 上的线程。
+    private final ScheduledExecutorService coordinatorExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Checkpoint-Coordinator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 持久化检查点和通知任务涉及文件和网络 I/O，在单独的线程中按完成顺序串行执行，不会拖慢确认的处理
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Checkpoint-IO");
+        thread.setDaemon(true);
+        return thread;
+    });
     private final JobManager jobManager;
+
+    // 以下字段只在协调线程中访问
+    // 正在进行的检查点，包括已收到所有确认、正在持久化的检查点
+    private final Map<Long, PendingCheckpoint> pendingCheckpoints = new HashMap<>();
     private long lastCheckpointId = 0;
+    private boolean running;
+    private long checkpointIntervalNanos;
+    private long checkpointTimeoutMillis;
+    private int maxConcurrentCheckpoints;
+    private long minPauseNanos;
+    private ScheduledFuture<?> triggerFuture;
+    // 触发时正在进行的检查点已达上限，有检查点结束时再补触发一次
+    private boolean triggerWaitingForSlot;
+    private long lastCheckpointEndNanos;
+
+    // 检查点的持久化存储，为 null 时完成的检查点不会被持久化
+    private volatile FileSystemCheckpointStorage checkpointStorage;
+    // 最近一个完成的检查点，没有配置持久化存储时故障恢复从这里读取状态
+    private volatile CompletedCheckpoint latestCompletedCheckpoint;
+    // 当前作业的检查点统计，由 JobManager 在部署作业时设置
+    private volatile CheckpointStatsTracker statsTracker;
 
     public CheckpointCoordinator(JobManager jobManager) {
         this.jobManager = jobManager;
-        this.checkpointTrigger = Executors.newSingleThreadScheduledExecutor();
-        this.pendingCheckpoints = new ConcurrentHashMap<>();
     }
 
-    public void start(long intervalMillis) {
-        checkpointTrigger.scheduleAtFixedRate(this::triggerCheckpoint, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
-        LOG.info("检查点协调器已启动，每 " + intervalMillis + "ms 触发一次检查点。");
+    /**
+     * 按检查点配置开始周期性地触发检查点。已经启动时以新的配置重新开始。
+     */
+    public void start(CheckpointConfig config) {
+        long interval = config.getCheckpointInterval();
+        long timeout = config.getCheckpointTimeout();
+        int maxConcurrent = config.getMaxConcurrentCheckpoints();
+        long minPause = config.getMinPauseBetweenCheckpoints();
+        runInCoordinator(() -> {
+            cancelTrigger();
+            running = true;
+            checkpointIntervalNanos = TimeUnit.MILLISECONDS.toNanos(interval);
+            checkpointTimeoutMillis = timeout;
+            maxConcurrentCheckpoints = maxConcurrent;
+            minPauseNanos = TimeUnit.MILLISECONDS.toNanos(minPause);
+            // 第一个检查点不受最小间隔的约束
+            lastCheckpointEndNanos = System.nanoTime() - minPauseNanos;
+            scheduleTrigger(checkpointIntervalNanos);
+        }, "启动检查点协调器");
+        LOG.info(String.format("检查点协调器已启动，每 %dms 触发一次检查点，超时 %dms，最多同时进行 %d 个，间隔至少 %dms。",
+                interval, timeout, maxConcurrent, minPause));
+    }
+
+    private void scheduleTrigger(long delayNanos) {
+        triggerFuture = schedule(this::onTriggerTimer, delayNanos, TimeUnit.NANOSECONDS, "触发检查点");
+    }
+
+    private void cancelTrigger() {
+        if (triggerFuture != null) {
+            triggerFuture.cancel(false);
+            triggerFuture = null;
+        }
+        triggerWaitingForSlot = false;
+    }
+
+    private void onTriggerTimer() {
+        triggerFuture = null;
+        if (!running) {
+            return;
+        }
+        if (pendingCheckpoints.size() >= maxConcurrentCheckpoints) {
+            LOG.info(String.format("已有 %d 个检查点在进行中，推迟触发下一个检查点。", pendingCheckpoints.size()));
+            triggerWaitingForSlot = true;
+            return;
+        }
+        long remainingPause = remainingPauseNanos();
+        if (remainingPause > 0) {
+            scheduleTrigger(remainingPause);
+            return;
+        }
+        triggerCheckpoint();
+        scheduleTrigger(checkpointIntervalNanos);
+    }
+
+    private long remainingPauseNanos() {
+        return lastCheckpointEndNanos + minPauseNanos - System.nanoTime();
     }
 
     private void triggerCheckpoint() {
@@ -34,72 +129,253 @@ public class CheckpointCoordinator {
         int totalTasks = jobManager.getTotalTasks();
         LOG.info(String.format("正在触发检查点 %d，需要 %d 个任务确认。", checkpointId, totalTasks));
 
-        // 【JUC知识点】: CountDownLatch 是完美的工具，用于等待一组异步事件的完成。
-        // 这里我们等待所有任务都报告它们完成了对该 checkpointId 的快照。
-        CountDownLatch latch = new CountDownLatch(totalTasks);
-        CheckpointStatus status = new CheckpointStatus(latch);
-        pendingCheckpoints.put(checkpointId, status);
+        PendingCheckpoint checkpoint = new PendingCheckpoint(checkpointId, totalTasks, System.nanoTime());
+        checkpoint.timeoutFuture = schedule(() -> expireCheckpoint(checkpointId),
+                checkpointTimeoutMillis, TimeUnit.MILLISECONDS, "检查点 " + checkpointId + " 超时");
+        pendingCheckpoints.put(checkpointId, checkpoint);
 
+        // 只是向 Source 任务投递邮件或发送消息，不等待任务执行
         jobManager.triggerCheckpoint(checkpointId);
+    }
+
+    /**
+     * 任务确认检查点，可以在任意线程中调用，不会阻塞调用者。
+     */
+    public void acknowledgeCheckpoint(long checkpointId, String taskName, TaskStateSnapshot stateSnapshot) {
+        runInCoordinator(() -> receiveAcknowledge(checkpointId, taskName, stateSnapshot),
+                "处理检查点 " + checkpointId + " 的确认");
+    }
 
-        // 异步等待结果
-        CompletableFuture.runAsync(() -> {
+    private void receiveAcknowledge(long checkpointId, String taskName, TaskStateSnapshot stateSnapshot) {
+        PendingCheckpoint checkpoint = pendingCheckpoints.get(checkpointId);
+        if (checkpoint == null || checkpoint.isFullyAcknowledged()) {
+            LOG.warning(String.format("收到对未知或已过期检查点 %d 的确认，来自任务 [%s]。", checkpointId, taskName));
+            return;
+        }
+        LOG.info(String.format("收到任务 [%s] 对检查点 %d 的确认。", taskName, checkpointId));
+        if (!checkpoint.acknowledge(taskName, stateSnapshot)) {
+            LOG.warning(String.format("任务 [%s] 重复确认了检查点 %d，忽略。", taskName, checkpointId));
+            return;
+        }
+        if (checkpoint.isFullyAcknowledged()) {
+            completePendingCheckpoint(checkpoint);
+        }
+    }
+
+    private void completePendingCheckpoint(PendingCheckpoint checkpoint) {
+        long checkpointId = checkpoint.checkpointId;
+        checkpoint.timeoutFuture.cancel(false);
+        LOG.info("检查点 " + checkpointId + " 已成功完成！所有任务已确认。");
+        LOG.info("检查点 " + checkpointId + " 包含 " + checkpoint.taskStates.size() + " 个任务的状态快照: "
+                + checkpoint.taskStates);
+        onCheckpointCompleted(new CompletedCheckpoint(checkpointId, System.currentTimeMillis(),
+                new HashMap<>(checkpoint.taskStates)));
+        try {
+            ioExecutor.execute(() -> finalizeCheckpoint(checkpoint));
+        } catch (RejectedExecutionException e) {
+            LOG.info("检查点协调器已关闭，检查点 " + checkpointId + " 不再持久化。");
+        }
+    }
+
+    /**
+     * 在 I/O 线程中持久化已完成的检查点并通知任务，结束后回到协调线程释放它占用的并发名额。
+     */
+    private void finalizeCheckpoint(PendingCheckpoint checkpoint) {
+        long checkpointId = checkpoint.checkpointId;
+        try {
+            if (checkpoint.discarded) {
+                return;
+            }
+            CheckpointStatsTracker tracker = statsTracker;
+            long stateSize;
             try {
-                // 设置一个超时时间，防止无限等待
-                boolean allAcknowledged = latch.await(10, TimeUnit.SECONDS);
-                if (allAcknowledged) {
-                    LOG.info("检查点 " + checkpointId + " 已成功完成！所有任务已确认。");
-                    LOG.info("完成的状态快照: " + status.getCheckpointState());
-                } else {
-                    LOG.warning("检查点 " + checkpointId + " 超时！未能收到所有任务的确认。");
+                stateSize = persistCheckpoint(checkpointId, checkpoint.taskStates);
+            } catch (IOException e) {
+                // 持久化失败的检查点不能用于恢复，也不能作为之后增量检查点的基准，按失败的检查点统计
+                LOG.severe("检查点 " + checkpointId + " 持久化失败: " + e.getMessage());
+                if (tracker != null) {
+                    tracker.reportFailedCheckpoint(checkpointId);
                 }
-            } catch (InterruptedException e) {
-                LOG.warning("检查点 " + checkpointId + " 等待过程被中断。");
-                Thread.currentThread().interrupt();
-            } finally {
-                pendingCheckpoints.remove(checkpointId);
+                return;
+            }
+            if (stateSize >= 0 && !checkpoint.discarded) {
+                // 只有持久化成功的检查点才能作为之后增量检查点的基准
+                jobManager.notifyCheckpointComplete(checkpointId);
+            }
+            if (tracker != null) {
+                tracker.reportCompletedCheckpoint(checkpointId,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - checkpoint.triggerNanos), stateSize);
             }
-        });
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "检查点 " + checkpointId + " 完成后的处理失败", e);
+        } finally {
+            runInCoordinator(() -> onCheckpointEnded(checkpointId), "结束检查点 " + checkpointId);
+        }
     }
 
-    public void acknowledgeCheckpoint(long checkpointId, String taskName, Map<String, Object> stateSnapshot) {
-        CheckpointStatus status = pendingCheckpoints.get(checkpointId);
-        if (status != null) {
-            LOG.info(String.format("收到任务 [%s] 对检查点 %d 的确认。", taskName, checkpointId));
-            if (stateSnapshot != null) {
-                status.addState(taskName, stateSnapshot);
-            }
-            status.getLatch().countDown(); // 一个任务完成，latch 减一
-        } else {
-            LOG.warning(String.format("收到对未知或已过期检查点 %d 的确认，来自任务 [%s]。", checkpointId, taskName));
+    private void expireCheckpoint(long checkpointId) {
+        PendingCheckpoint checkpoint = pendingCheckpoints.get(checkpointId);
+        if (checkpoint == null || checkpoint.isFullyAcknowledged()) {
+            return;
+        }
+        LOG.warning(String.format("检查点 %d 超时！只收到了 %d/%d 个任务的确认。",
+                checkpointId, checkpoint.acknowledgedTasks.size(), checkpoint.numberOfTasks));
+        checkpoint.discarded = true;
+        CheckpointStatsTracker tracker = statsTracker;
+        if (tracker != null) {
+            tracker.reportFailedCheckpoint(checkpointId);
+        }
+        onCheckpointEnded(checkpointId);
+    }
+
+    private void onCheckpointEnded(long checkpointId) {
+        if (pendingCheckpoints.remove(checkpointId) == null) {
+            // 协调器已经停止，检查点已被丢弃
+            return;
+        }
+        lastCheckpointEndNanos = System.nanoTime();
+        if (running && triggerWaitingForSlot) {
+            triggerWaitingForSlot = false;
+            scheduleTrigger(Math.max(0, remainingPauseNanos()));
+        }
+    }
+
+    /**
+     * @return 持久化的状态大小；没有配置持久化存储时返回 -1
+     * @throws IOException 写入持久化存储失败
+     */
+    private long persistCheckpoint(long checkpointId, Map<String, TaskStateSnapshot> taskStates) throws IOException {
+        FileSystemCheckpointStorage storage = checkpointStorage;
+        if (storage == null) {
+            return -1;
+        }
+        return storage.persist(checkpointId, taskStates);
+    }
+
+    private void onCheckpointCompleted(CompletedCheckpoint checkpoint) {
+        // 同时进行的检查点可能乱序完成，晚完成的旧检查点不能覆盖新的
+        CompletedCheckpoint latest = latestCompletedCheckpoint;
+        if (latest == null || latest.getCheckpointId() < checkpoint.getCheckpointId()) {
+            latestCompletedCheckpoint = checkpoint;
+        }
+    }
+
+    /**
+     * 故障恢复时读取最近完成的检查点。配置了持久化存储时从存储加载，这样增量检查点会被合并为全量状态；
+     * 否则任务总是做全量快照，使用内存中检查点的一份深拷贝，恢复的任务修改状态对象不会影响检查点本身。
+     * @return 没有完成过任何检查点时返回 null
+     */
+    public CompletedCheckpoint getLatestCompletedCheckpoint() throws IOException {
+        FileSystemCheckpointStorage storage = checkpointStorage;
+        if (storage != null) {
+            return storage.loadLatestCheckpoint();
+        }
+        CompletedCheckpoint latest = latestCompletedCheckpoint;
+        if (latest == null) {
+            return null;
         }
+        return new CompletedCheckpoint(latest.getCheckpointId(), latest.getTimestamp(),
+                InstantiationUtil.clone(new HashMap<>(latest.getTaskStates())));
     }
 
+    public void setCheckpointStorage(FileSystemCheckpointStorage checkpointStorage) {
+        this.checkpointStorage = checkpointStorage;
+    }
+
+    public void setStatsTracker(CheckpointStatsTracker statsTracker) {
+        this.statsTracker = statsTracker;
+    }
+
+    /**
+     * 从检查点恢复后调用，之后触发的检查点 ID 从恢复的检查点 ID 继续递增，不会覆盖已有的检查点。
+     */
+    public void restoreCheckpointId(long checkpointId) {
+        runInCoordinator(() -> lastCheckpointId = Math.max(lastCheckpointId, checkpointId), "恢复检查点 ID");
+    }
+
+    /**
+     * 停止触发检查点并丢弃所有进行中的检查点，之后可以通过 {@link #start} 重新开始。
+     */
     public void stop() {
-        checkpointTrigger.shutdownNow();
+        runInCoordinator(() -> {
+            running = false;
+            cancelTrigger();
+            for (PendingCheckpoint checkpoint : pendingCheckpoints.values()) {
+                checkpoint.discarded = true;
+                checkpoint.timeoutFuture.cancel(false);
+            }
+            pendingCheckpoints.clear();
+        }, "停止检查点协调器");
     }
 
     /**
-     * 内部类，用于保存单个检查点的状态
+     * 停止协调器并释放它的线程，已经在持久化的检查点会写完。
      */
-    private static class CheckpointStatus {
-        private final CountDownLatch latch;
-        private final Map<String, Map<String, Object>> checkpointState = new ConcurrentHashMap<>();
+    public void shutdown() {
+        stop();
+        coordinatorExecutor.shutdown();
+        ioExecutor.shutdown();
+    }
 
-        CheckpointStatus(CountDownLatch latch) {
-            this.latch = latch;
+    private void runInCoordinator(Runnable action, String description) {
+        try {
+            coordinatorExecutor.execute(guarded(action, description));
+        } catch (RejectedExecutionException e) {
+            LOG.fine("检查点协调器已关闭，忽略: " + description);
         }
+    }
+
+    private ScheduledFuture<?> schedule(Runnable action, long delay, TimeUnit unit, String description) {
+        return coordinatorExecutor.schedule(guarded(action, description), delay, unit);
+    }
 
-        CountDownLatch getLatch() {
-            return latch;
+    /**
+     * 提交给执行器的任务抛出的异常只会保存在它的 Future 中，这里改为记录日志，协调线程继续处理之后的任务。
+     */
+    private static Runnable guarded(Runnable action, String description) {
+        return () -> {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "检查点协调器执行 [" + description + "] 失败", e);
+            }
+        };
+    }
+
+    /**
+     * 一个正在进行的检查点。确认只在协调线程中记录，全部确认后状态交给 I/O 线程，不再修改。
+     */
+    private static class PendingCheckpoint {
+        private final long checkpointId;
+        private final int numberOfTasks;
+        private final long triggerNanos;
+        private final Map<String, TaskStateSnapshot> taskStates = new HashMap<>();
+        private final Set<String> acknowledgedTasks = new HashSet<>();
+        private ScheduledFuture<?> timeoutFuture;
+        // 超时或协调器停止时置位，I/O 线程据此跳过持久化和通知
+        private volatile boolean discarded;
+
+        PendingCheckpoint(long checkpointId, int numberOfTasks, long triggerNanos) {
+            this.checkpointId = checkpointId;
+            this.numberOfTasks = numberOfTasks;
+            this.triggerNanos = triggerNanos;
         }
 
-        void addState(String taskName, Map<String, Object> state) {
-            checkpointState.put(taskName, state);
+        /**
+         * @return 是否是该任务的第一次确认
+         */
+        boolean acknowledge(String taskName, TaskStateSnapshot stateSnapshot) {
+            if (!acknowledgedTasks.add(taskName)) {
+                return false;
+            }
+            if (stateSnapshot != null) {
+                taskStates.put(taskName, stateSnapshot);
+            }
+            return true;
         }
 
-        Map<String, Map<String, Object>> getCheckpointState() {
-            return checkpointState;
+        boolean isFullyAcknowledged() {
+            return acknowledgedTasks.size() >= numberOfTasks;
         }
     }
-}
\ No newline at end of file
+}
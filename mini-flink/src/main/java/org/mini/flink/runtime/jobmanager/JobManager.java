@@ -1,34 +1,171 @@
 package org.mini.flink.runtime.jobmanager;
 
+import org.mini.flink.api.Source;
+import org.mini.flink.runtime.checkpoint.CheckpointStatsTracker;
+import org.mini.flink.runtime.checkpoint.CompletedCheckpoint;
+import org.mini.flink.runtime.checkpoint.FileSystemCheckpointStorage;
+import org.mini.flink.runtime.checkpoint.StateAssignmentOperation;
+import org.mini.flink.runtime.deployment.ChannelDescriptor;
+import org.mini.flink.runtime.deployment.RecordWriterDescriptor;
+import org.mini.flink.runtime.deployment.TaskDeploymentDescriptor;
+import org.mini.flink.runtime.jobgraph.CheckpointConfig;
+import org.mini.flink.runtime.jobgraph.ExecutionConfig;
+import org.mini.flink.runtime.jobgraph.JobEdge;
 import org.mini.flink.runtime.jobgraph.JobGraph;
 import org.mini.flink.runtime.jobgraph.JobVertex;
+import org.mini.flink.runtime.jobmanager.failover.PipelinedRegions;
+import org.mini.flink.runtime.jobmanager.failover.RestartBackoffTimeStrategy;
+import org.mini.flink.runtime.metrics.MetricGroup;
+import org.mini.flink.runtime.metrics.MetricRegistry;
+import org.mini.flink.runtime.partitioner.KeyGroupStreamPartitioner;
+import org.mini.flink.runtime.partitioner.StreamPartitioner;
 import org.mini.flink.runtime.state.CheckpointBarrier;
-import org.mini.flink.runtime.stream.DataChannel;
-import org.mini.flink.runtime.stream.StreamTask;
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+import org.mini.flink.runtime.taskmanager.CheckpointResponder;
+import org.mini.flink.runtime.taskmanager.LocalTaskManagerGateway;
+import org.mini.flink.runtime.taskmanager.TaskFailureListener;
 import org.mini.flink.runtime.taskmanager.TaskManager;
+import org.mini.flink.runtime.taskmanager.TaskManagerGateway;
+import org.mini.flink.util.InstantiationUtil;
 
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.InetSocketAddress;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * JobManager 是 mini-flink 的大脑，负责接收作业、生成执行计划、调度任务和协调检查点。
+ * <p>
+ * JobManager 通过 {@link TaskManagerGateway} 使用任意多个 TaskManager：同一个进程中的 TaskManager 直接调用，
+ * 其他进程中的 TaskManager 通过 {@link JobManagerEndpoint} 注册上来。部署时上下游子任务在同一个 TaskManager 中的通道
+ * 是进程内通道，否则是跨进程的 TCP 通道。
+ * <p>
+ * 任务失败时，JobManager 只取消失败任务所在的流水线区域（见 {@link PipelinedRegions}），按作业配置的重启策略
+ * 等待一段时间后，从最近完成的检查点恢复这个区域的状态并把它重新部署到原来的槽中，其他区域不受影响；
+ * 重启策略不再允许重启时，作业失败并释放所有槽。
+ * <p>
+ * 作业的检查点统计注册在 {@code jobmanager -> 作业} 的 {@link MetricGroup} 中，见 {@link CheckpointStatsTracker}。
  */
-public class JobManager {
+public class JobManager implements CheckpointResponder, TaskFailureListener {
     private static final Logger LOG = Logger.getLogger(JobManager.class.getName());
-    private final TaskManager taskManager;
+    // 每个通道中除数据缓冲外为事件预留的容量
+    private static final int EVENT_CAPACITY = 8;
+    private final List<TaskManagerGateway> taskManagers = new CopyOnWriteArrayList<>();
     private final CheckpointCoordinator checkpointCoordinator;
     private JobGraph currentJob;
-    private final Map<String, List<DataChannel>> taskInputChannels = new ConcurrentHashMap<>();
+    // 所有 Source 任务及其所在的 TaskManager，Key 为任务名称，检查点屏障从这里注入
+    private final Map<String, TaskManagerGateway> sourceTasks = new ConcurrentHashMap<>();
+    // 部署了当前作业任务的 TaskManager，检查点完成的通知发往这里
+    private final Set<TaskManagerGateway> jobTaskManagers = new CopyOnWriteArraySet<>();
     private final AtomicInteger totalTasksCounter = new AtomicInteger(0);
+    // 【JUC知识点】: 跨 TaskManager 的槽分配用 JobManager 自己的锁串行化，
+    // 任何 TaskManager 释放槽时通过 Condition 唤醒排队的作业。
+    private final ReentrantLock slotLock = new ReentrantLock();
+    private final Condition slotReleased = slotLock.newCondition();
 
-    public JobManager(TaskManager taskManager) {
-        this.taskManager = taskManager;
+    // 以下字段描述当前作业的部署，故障恢复时据此找出需要重启的任务、它们的位置和通道
+    private List<List<JobVertex>> jobChains;
+    private Map<String, List<AllocatedSlot>> jobSlots;
+    private PipelinedRegions pipelinedRegions;
+    // Key: 任务名称, Value: 任务所在的槽
+    private final Map<String, AllocatedSlot> taskSlots = new ConcurrentHashMap<>();
+    // Key: 任务名称, Value: 任务的所有输入输出通道，取消任务时一起释放
+    private final Map<String, List<Integer>> taskChannels = new ConcurrentHashMap<>();
+    // 通道 ID 在作业的生命周期内一直递增，重新部署的任务不会复用旧通道的 ID
+    private int nextChannelId;
+    private RestartBackoffTimeStrategy restartStrategy;
+    // 已被取消、正在等待重新部署的任务，它们在取消前汇报的失败不会再次触发重启
+    private final Set<String> restartingTasks = ConcurrentHashMap.newKeySet();
+    private volatile boolean jobTerminated;
+    private volatile CompletableFuture<Void> terminationFuture = new CompletableFuture<>();
+    private final MetricGroup metricGroup = new MetricGroup(MetricRegistry.getDefault(), "jobmanager");
+    // 当前作业的指标组，作业结束或提交新作业时关闭
+    private volatile MetricGroup jobMetricGroup;
+    // 【JUC知识点】: 故障处理都在这个单线程的调度执行器中串行执行，多个任务同时失败时不会互相干扰；
+    // 重启的等待时间用 schedule 实现，等待期间不占用线程。
+    private final ScheduledExecutorService failoverExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "JobManager-Failover");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 创建一个还没有 TaskManager 的 JobManager，TaskManager 之后通过 {@link #registerTaskManager} 注册。
+     */
+    public JobManager() {
         this.checkpointCoordinator = new CheckpointCoordinator(this);
     }
 
+    /**
+     * 创建使用同一个进程中的 TaskManager 的 JobManager。
+     */
+    public JobManager(TaskManager taskManager) {
+        this();
+        registerTaskManager(new LocalTaskManagerGateway(taskManager, this, this));
+    }
+
+    public void registerTaskManager(TaskManagerGateway taskManager) {
+        taskManager.setSlotReleaseListener(this::onSlotReleased);
+        taskManagers.add(taskManager);
+        LOG.info("TaskManager [" + taskManager.getTaskManagerId() + "] 已注册，拥有 "
+                + taskManager.getNumberOfSlots() + " 个任务槽。");
+        onSlotReleased();
+    }
+
+    /**
+     * 等待至少 count 个 TaskManager 注册。
+     * @return 超时前是否已经有足够的 TaskManager
+     */
+    public boolean waitForTaskManagers(int count, long timeoutMillis) throws InterruptedException {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        slotLock.lock();
+        try {
+            while (taskManagers.size() < count) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = slotReleased.awaitNanos(remainingNanos);
+            }
+            return true;
+        } finally {
+            slotLock.unlock();
+        }
+    }
+
+    /**
+     * TaskManager 注销时调用，例如它所在的进程退出了。
+     */
+    public void unregisterTaskManager(TaskManagerGateway taskManager) {
+        if (taskManagers.remove(taskManager)) {
+            LOG.warning("TaskManager [" + taskManager.getTaskManagerId() + "] 已注销。");
+        }
+    }
+
+    public List<TaskManagerGateway> getTaskManagers() {
+        return Collections.unmodifiableList(taskManagers);
+    }
+
+    private void onSlotReleased() {
+        slotLock.lock();
+        try {
+            slotReleased.signalAll();
+        } finally {
+            slotLock.unlock();
+        }
+    }
+
     /**
      * 提交作业
      * @param jobGraph 作业图
@@ -44,67 +181,391 @@ public class JobManager {
         // 在真实 Flink 中，它用于跟踪整个作业的生命周期（完成、失败）。
         return CompletableFuture.runAsync(() -> {
             try {
-                deployJob();
-                checkpointCoordinator.start(5000); // 启动检查点，每5秒一次
+                CompletedCheckpoint restoredCheckpoint = restoreLatestCheckpoint(jobGraph.getCheckpointConfig());
+                deployJob(restoredCheckpoint);
+                checkpointCoordinator.start(jobGraph.getCheckpointConfig());
             } catch (Exception e) {
                 throw new RuntimeException("部署作业失败!", e);
             }
         });
     }
 
-    // JobManager.java
+    /**
+     * 配置了检查点持久化目录时，打开检查点存储并加载其中最近的完整检查点。
+     * @return 需要恢复的检查点，没有时返回 null
+     */
+    private CompletedCheckpoint restoreLatestCheckpoint(CheckpointConfig checkpointConfig) throws IOException {
+        String directory = checkpointConfig.getCheckpointStorageDirectory();
+        if (directory == null) {
+            return null;
+        }
+        FileSystemCheckpointStorage storage =
+                new FileSystemCheckpointStorage(directory, checkpointConfig.getMaxRetainedCheckpoints(),
+                        checkpointConfig.isIncrementalCheckpointsEnabled());
+        checkpointCoordinator.setCheckpointStorage(storage);
+
+        long start = System.nanoTime();
+        CompletedCheckpoint checkpoint = storage.loadLatestCheckpoint();
+        if (checkpoint == null) {
+            LOG.info("检查点目录 " + directory + " 中没有可恢复的检查点，作业将从空状态启动。");
+            return null;
+        }
+        checkpointCoordinator.restoreCheckpointId(checkpoint.getCheckpointId());
+        LOG.info(String.format("从检查点 %d 恢复作业状态，读取耗时 %d ms。",
+                checkpoint.getCheckpointId(), (System.nanoTime() - start) / 1_000_000));
+        return checkpoint;
+    }
 
-    private void deployJob() throws Exception {
+    private void deployJob(CompletedCheckpoint restoredCheckpoint) throws Exception {
         LOG.info("开始部署作业: " + currentJob.getJobName());
-        taskInputChannels.clear();
+        sourceTasks.clear();
+        jobTaskManagers.clear();
         totalTasksCounter.set(0);
+        taskSlots.clear();
+        taskChannels.clear();
+        restartingTasks.clear();
+        nextChannelId = 0;
+        pipelinedRegions = new PipelinedRegions();
+        restartStrategy = RestartBackoffTimeStrategy.create(currentJob.getExecutionConfig().getRestartStrategy());
+        jobTerminated = false;
+        terminationFuture = new CompletableFuture<>();
+        closeJobMetricGroup();
+        jobMetricGroup = metricGroup.addGroup("job_name", currentJob.getJobName());
+        checkpointCoordinator.setStatsTracker(new CheckpointStatsTracker(jobMetricGroup));
+
+        // 步骤1: 把可以链接的顶点融合成算子链，每条链最终对应一组任务
+        List<List<JobVertex>> chains = buildChains();
 
-        // Key: 上游 Vertex ID, Value: 一个包含所有输出通道的列表
-        Map<String, List<DataChannel>> vertexOutputChannelMap = new HashMap<>();
+        // 步骤2: 按槽共享组申请任务槽，槽不足时排队或拒绝部署
+        Map<String, List<AllocatedSlot>> slotsByGroup = allocateSlots(chains);
+        jobChains = chains;
+        jobSlots = slotsByGroup;
+        try {
+            deployTasks(chains, slotsByGroup, restoredCheckpoint, null);
+        } catch (Exception e) {
+            releaseSlots(currentJob.getJobId());
+            throw e;
+        }
+        LOG.info("作业被划分为 " + pipelinedRegions.getRegions().size() + " 个流水线区域，重启策略: "
+                + currentJob.getExecutionConfig().getRestartStrategy() + "。");
+    }
 
-        // 步骤1: 预先创建好所有通道并建立连接关系
-        // 这个循环会填充 taskInputChannels 和 vertexOutputChannelMap
+    /**
+     * @param tasksToDeploy 只部署这些任务，为 null 时部署作业的所有任务并划分流水线区域。
+     *                      只部署一部分任务时它们必须组成完整的流水线区域，不会与其他任务之间有通道
+     */
+    private void deployTasks(List<List<JobVertex>> chains, Map<String, List<AllocatedSlot>> slotsByGroup,
+                             CompletedCheckpoint restoredCheckpoint, Set<String> tasksToDeploy) throws Exception {
+        ExecutionConfig executionConfig = currentJob.getExecutionConfig();
+        // Key: 下游子任务 (vertexId#subtaskIndex), Value: 该子任务的所有输入通道
+        Map<String, List<ChannelDescriptor>> taskInputChannels = new HashMap<>();
+        // Key: 上游子任务 (vertexId#subtaskIndex), Value: 该子任务的所有记录写出器（每条输出边一个）
+        Map<String, List<RecordWriterDescriptor>> taskRecordWriters = new HashMap<>();
+        // 每个顶点所在的槽共享组由它所在的链的链头决定
+        Map<String, String> vertexSlotSharingGroups = new HashMap<>();
+        // 每个顶点所在的链，用于得到通道两端的任务名称
+        Map<String, List<JobVertex>> vertexChains = new HashMap<>();
+        for (List<JobVertex> chain : chains) {
+            for (JobVertex vertex : chain) {
+                vertexSlotSharingGroups.put(vertex.getId(), chain.get(0).getSlotSharingGroup());
+                vertexChains.put(vertex.getId(), chain);
+            }
+        }
+        // Key: 任务名称, Value: 本次分配的、与该任务相连的通道
+        Map<String, List<Integer>> channelsByTask = new HashMap<>();
+
+        // 步骤3: 预先为链与链之间的边分配好所有通道并建立连接关系
+        // 每对 (上游子任务, 下游子任务) 之间都有一个专用的通道，每个通道恰好只有一个生产者和一个消费者。
+        // 两端在同一个 TaskManager 中时使用进程内通道，否则使用跨进程通道
         for (JobVertex upstreamVertex : currentJob.getVertices()) {
-            List<DataChannel> allOutputsForUpstream = new ArrayList<>();
-            vertexOutputChannelMap.put(upstreamVertex.getId(), allOutputsForUpstream);
-
-            List<String> downstreamVertexIds = currentJob.getDownstreamVertexIds(upstreamVertex.getId());
-            for (String downstreamVertexId : downstreamVertexIds) {
-                JobVertex downstreamVertex = currentJob.getVertices().stream()
-                        .filter(v -> v.getId().equals(downstreamVertexId))
-                        .findFirst()
-                        .orElseThrow(() -> new Exception("找不到下游顶点: " + downstreamVertexId));
-
-                // 为每个下游任务的并行实例创建一个专用的输入通道
-                for (int i = 0; i < downstreamVertex.getParallelism(); i++) {
-                    DataChannel channel = new DataChannel(1024);
-                    // 将新通道添加到上游顶点的总输出列表中（用于广播）
-                    allOutputsForUpstream.add(channel);
-
-                    // 记录这个通道是哪个具体下游任务的输入
-                    String downstreamTaskKey = downstreamVertexId + "#" + i;
-                    taskInputChannels.computeIfAbsent(downstreamTaskKey, k -> new ArrayList<>()).add(channel);
+            for (JobEdge edge : currentJob.getOutputEdges(upstreamVertex.getId())) {
+                if (isChainable(edge)) {
+                    // 链内的边不需要通道，记录通过方法调用直接传给下一个算子
+                    continue;
+                }
+                JobVertex downstreamVertex = currentJob.getVertex(edge.getTargetVertexId());
+                if (downstreamVertex == null) {
+                    throw new Exception("找不到下游顶点: " + edge.getTargetVertexId());
+                }
+                for (int i = 0; i < upstreamVertex.getParallelism(); i++) {
+                    @SuppressWarnings("unchecked")
+                    StreamPartitioner<Object> partitioner = (StreamPartitioner<Object>) edge.getPartitioner().copy();
+                    // 直连分区下，上游第 i 个子任务只连接下游第 i 个子任务
+                    int firstTarget = partitioner.isPointwise() ? i : 0;
+                    int lastTarget = partitioner.isPointwise() ? i : downstreamVertex.getParallelism() - 1;
+
+                    TaskManagerGateway producer =
+                            slotsByGroup.get(vertexSlotSharingGroups.get(upstreamVertex.getId())).get(i).getTaskManager();
+                    String producerTask = taskName(vertexChains.get(upstreamVertex.getId()), i);
+                    List<ChannelDescriptor> writerChannels = new ArrayList<>();
+                    for (int j = firstTarget; j <= lastTarget; j++) {
+                        TaskManagerGateway consumer =
+                                slotsByGroup.get(vertexSlotSharingGroups.get(downstreamVertex.getId())).get(j).getTaskManager();
+                        String consumerTask = taskName(vertexChains.get(downstreamVertex.getId()), j);
+                        int channelId = nextChannelId++;
+                        channelsByTask.computeIfAbsent(producerTask, k -> new ArrayList<>()).add(channelId);
+                        channelsByTask.computeIfAbsent(consumerTask, k -> new ArrayList<>()).add(channelId);
+                        if (tasksToDeploy == null) {
+                            pipelinedRegions.connect(producerTask, consumerTask);
+                        }
+                        ChannelDescriptor producerSide;
+                        ChannelDescriptor consumerSide;
+                        if (producer == consumer) {
+                            // 缓冲的数量由信用控制，通道只需额外预留少量空间给检查点屏障等事件
+                            producerSide = ChannelDescriptor.local(channelId, edge.getChannelType(),
+                                    executionConfig.getBuffersPerChannel() + EVENT_CAPACITY);
+                            consumerSide = producerSide;
+                        } else {
+                            producerSide = ChannelDescriptor.remoteOutput(channelId, getDataAddress(consumer));
+                            consumerSide = ChannelDescriptor.remoteInput(channelId);
+                        }
+                        writerChannels.add(producerSide);
+
+                        // 记录这个通道是哪个具体下游任务的输入
+                        String downstreamTaskKey = downstreamVertex.getId() + "#" + j;
+                        taskInputChannels.computeIfAbsent(downstreamTaskKey, k -> new ArrayList<>()).add(consumerSide);
+                    }
+
+                    String upstreamTaskKey = upstreamVertex.getId() + "#" + i;
+                    taskRecordWriters.computeIfAbsent(upstreamTaskKey, k -> new ArrayList<>())
+                            .add(new RecordWriterDescriptor(partitioner, writerChannels, upstreamVertex.getOutputSerializer()));
                 }
             }
         }
 
-        // 步骤2: 根据建立好的连接关系来部署任务
-        for (JobVertex vertex : currentJob.getVertices()) {
-            for (int i = 0; i < vertex.getParallelism(); i++) {
-                String taskName = vertex.getName() + " (" + (i + 1) + "/" + vertex.getParallelism() + ")";
-                String taskKey = vertex.getId() + "#" + i;
+        // 步骤4: 根据建立好的连接关系来部署任务，每条链的每个并行实例是一个任务，
+        // 同一个槽共享组中各条链的第 i 个实例部署到该组的第 i 个槽中，组成一条流水线切片
+        StateAssignmentOperation stateAssignment =
+                restoredCheckpoint != null ? new StateAssignmentOperation(restoredCheckpoint) : null;
+        int deployedTasks = 0;
+        for (List<JobVertex> chain : chains) {
+            JobVertex head = chain.get(0);
+            JobVertex tail = chain.get(chain.size() - 1);
+            List<String> operatorNames = new ArrayList<>();
+            for (JobVertex vertex : chain) {
+                operatorNames.add(vertex.getName());
+            }
+            KeyGroupStreamPartitioner<?, ?> inputKeyPartitioner = getInputKeyPartitioner(head);
+
+            for (int i = 0; i < head.getParallelism(); i++) {
+                String taskName = taskName(chain, i);
+                if (tasksToDeploy != null && !tasksToDeploy.contains(taskName)) {
+                    continue;
+                }
+
+                // 输入来自链头，输出来自链尾
+                List<ChannelDescriptor> inputs = taskInputChannels.getOrDefault(head.getId() + "#" + i, Collections.emptyList());
+                List<RecordWriterDescriptor> outputs = taskRecordWriters.getOrDefault(tail.getId() + "#" + i, Collections.emptyList());
+
+                // 每个子任务持有一份独立的用户逻辑副本，避免并行实例之间共享状态
+                LinkedHashMap<String, Serializable> chainedOperators = new LinkedHashMap<>();
+                for (JobVertex vertex : chain) {
+                    chainedOperators.put(vertex.getName(), InstantiationUtil.clone(vertex.getLogic()));
+                }
+                TaskStateSnapshot restoredState = stateAssignment == null ? null
+                        : stateAssignment.assignTaskState(taskName, operatorNames, i, head.getParallelism(),
+                        inputKeyPartitioner != null ? inputKeyPartitioner.getMaxParallelism() : -1);
+                AllocatedSlot slot = slotsByGroup.get(head.getSlotSharingGroup()).get(i);
+                TaskDeploymentDescriptor deployment = new TaskDeploymentDescriptor(currentJob.getJobId(),
+                        currentJob.getJobName(), chainName(chain), taskName, i, head.getParallelism(), chainedOperators,
+                        inputKeyPartitioner != null ? inputKeyPartitioner.getKeySelector() : null,
+                        head.getWatermarkStrategy(), new ArrayList<>(inputs), new ArrayList<>(outputs), executionConfig,
+                        currentJob.getCheckpointConfig(), restoredState, slot.getSlotIndex(), head.getSlotSharingGroup());
+                taskSlots.put(taskName, slot);
+                taskChannels.put(taskName, channelsByTask.getOrDefault(taskName, Collections.emptyList()));
+                if (tasksToDeploy == null) {
+                    pipelinedRegions.addTask(taskName);
+                    totalTasksCounter.incrementAndGet();
+                }
+                slot.getTaskManager().submitTask(deployment);
+                if (head.getLogic() instanceof Source) {
+                    sourceTasks.put(taskName, slot.getTaskManager());
+                }
+                jobTaskManagers.add(slot.getTaskManager());
+                deployedTasks++;
+            }
+        }
+
+        if (tasksToDeploy == null) {
+            LOG.info("作业部署完成，总共启动 " + deployedTasks + " 个任务实例。");
+        } else {
+            LOG.info("重新部署了 " + deployedTasks + " 个任务实例。");
+        }
+    }
+
+    /**
+     * 链的第 i 个并行实例对应的任务名称，例如 {@code Source -> Map (1/4)}，在作业内唯一，重新部署时保持不变。
+     */
+    private static String taskName(List<JobVertex> chain, int subtaskIndex) {
+        return chainName(chain) + " (" + (subtaskIndex + 1) + "/" + chain.get(0).getParallelism() + ")";
+    }
+
+    /**
+     * 链上所有顶点的名称，例如 {@code Source -> Map}，是链的所有并行实例共用的名称。
+     */
+    private static String chainName(List<JobVertex> chain) {
+        StringJoiner chainName = new StringJoiner(" -> ");
+        for (JobVertex vertex : chain) {
+            chainName.add(vertex.getName());
+        }
+        return chainName.toString();
+    }
+
+    private static InetSocketAddress getDataAddress(TaskManagerGateway taskManager) {
+        InetSocketAddress address = taskManager.getDataAddress();
+        if (address == null) {
+            throw new IllegalStateException("TaskManager [" + taskManager.getTaskManagerId()
+                    + "] 没有监听数据端口，无法与其他 TaskManager 交换数据");
+        }
+        return address;
+    }
+
+    /**
+     * 每个槽共享组需要的槽数等于组内最大的并行度，作业需要的槽数是所有组之和。
+     * @return Key: 槽共享组, Value: 分配给该组的槽，第 i 个槽承载组内每条链的第 i 个并行实例
+     */
+    private Map<String, List<AllocatedSlot>> allocateSlots(List<List<JobVertex>> chains) throws Exception {
+        Map<String, Integer> slotsPerGroup = new LinkedHashMap<>();
+        for (List<JobVertex> chain : chains) {
+            JobVertex head = chain.get(0);
+            slotsPerGroup.merge(head.getSlotSharingGroup(), head.getParallelism(), Math::max);
+        }
+        int required = 0;
+        for (int slots : slotsPerGroup.values()) {
+            required += slots;
+        }
+        List<AllocatedSlot> allocated = allocateSlots(currentJob.getJobId(), required,
+                currentJob.getExecutionConfig().getSlotRequestTimeout());
+        if (allocated == null) {
+            int totalSlots = 0;
+            int availableSlots = 0;
+            for (TaskManagerGateway taskManager : taskManagers) {
+                totalSlots += taskManager.getNumberOfSlots();
+                availableSlots += taskManager.getNumberOfAvailableSlots();
+            }
+            throw new NoResourceAvailableException(String.format(
+                    "作业 [%s] 需要 %d 个任务槽 %s，%d 个 TaskManager 共有 %d 个、空闲 %d 个",
+                    currentJob.getJobName(), required, slotsPerGroup, taskManagers.size(), totalSlots, availableSlots));
+        }
+        Map<String, List<AllocatedSlot>> slotsByGroup = new HashMap<>();
+        int next = 0;
+        for (Map.Entry<String, Integer> entry : slotsPerGroup.entrySet()) {
+            slotsByGroup.put(entry.getKey(), allocated.subList(next, next + entry.getValue()));
+            next += entry.getValue();
+        }
+        LOG.info("作业 [" + currentJob.getJobName() + "] 按槽共享组占用任务槽: " + slotsPerGroup);
+        return slotsByGroup;
+    }
+
+    /**
+     * 从所有 TaskManager 中为作业申请槽，“全有或全无”：按注册顺序依次占满每个 TaskManager 的空闲槽。
+     * @param timeoutMillis 空闲槽不足时最多等待的时间，0 表示不等待
+     * @return 分配给作业的槽；超时仍不足时返回 null，此时不占用任何槽
+     */
+    private List<AllocatedSlot> allocateSlots(String jobId, int count, long timeoutMillis) throws Exception {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        slotLock.lock();
+        try {
+            while (true) {
+                int totalSlots = 0;
+                int availableSlots = 0;
+                for (TaskManagerGateway taskManager : taskManagers) {
+                    totalSlots += taskManager.getNumberOfSlots();
+                    availableSlots += taskManager.getNumberOfAvailableSlots();
+                }
+                if (count > totalSlots && remainingNanos <= 0) {
+                    return null;
+                }
+                if (availableSlots >= count) {
+                    List<AllocatedSlot> allocated = tryAllocateSlots(jobId, count);
+                    if (allocated != null) {
+                        LOG.info("为作业 " + jobId + " 分配了 " + count + " 个任务槽，剩余空闲 "
+                                + (availableSlots - count) + " 个。");
+                        return allocated;
+                    }
+                }
+                if (remainingNanos <= 0) {
+                    return null;
+                }
+                LOG.info("作业 " + jobId + " 需要 " + count + " 个任务槽，当前只有 " + availableSlots + " 个空闲，排队等待中...");
+                remainingNanos = slotReleased.awaitNanos(remainingNanos);
+            }
+        } finally {
+            slotLock.unlock();
+        }
+    }
+
+    private List<AllocatedSlot> tryAllocateSlots(String jobId, int count) throws Exception {
+        List<AllocatedSlot> allocated = new ArrayList<>(count);
+        List<TaskManagerGateway> usedTaskManagers = new ArrayList<>();
+        for (TaskManagerGateway taskManager : taskManagers) {
+            int requested = Math.min(count - allocated.size(), taskManager.getNumberOfAvailableSlots());
+            if (requested <= 0) {
+                continue;
+            }
+            List<Integer> slotIndexes = taskManager.allocateSlots(jobId, requested);
+            if (slotIndexes == null) {
+                // 可用槽数是 TaskManager 之前汇报的，期间槽已被占用，退回已经拿到的槽
+                for (TaskManagerGateway used : usedTaskManagers) {
+                    used.releaseSlots(jobId);
+                }
+                return null;
+            }
+            usedTaskManagers.add(taskManager);
+            for (int slotIndex : slotIndexes) {
+                allocated.add(new AllocatedSlot(taskManager, slotIndex));
+            }
+        }
+        return allocated;
+    }
 
-                // 获取当前任务实例的所有输入和输出通道
-                List<DataChannel> inputs = taskInputChannels.getOrDefault(taskKey, Collections.emptyList());
-                List<DataChannel> outputs = vertexOutputChannelMap.get(vertex.getId());
+    /**
+     * 从每个链头出发，沿着可链接的边把顶点串成算子链。
+     */
+    private List<List<JobVertex>> buildChains() {
+        List<List<JobVertex>> chains = new ArrayList<>();
+        for (JobVertex vertex : currentJob.getVertices()) {
+            List<JobEdge> inputEdges = currentJob.getInputEdges(vertex.getId());
+            if (inputEdges.size() == 1 && isChainable(inputEdges.get(0))) {
+                // 不是链头，会在它的上游所在的链中被处理
+                continue;
+            }
+            List<JobVertex> chain = new ArrayList<>();
+            JobVertex current = vertex;
+            while (true) {
+                chain.add(current);
+                List<JobEdge> outputEdges = currentJob.getOutputEdges(current.getId());
+                if (outputEdges.size() != 1 || !isChainable(outputEdges.get(0))) {
+                    break;
+                }
+                current = currentJob.getVertex(outputEdges.get(0).getTargetVertexId());
+            }
+            if (chain.size() > 1) {
+                LOG.info("链接算子: " + chain.stream().map(JobVertex::getName).collect(Collectors.joining(" -> ")));
+            }
+            chains.add(chain);
+        }
+        return chains;
+    }
 
-                StreamTask task = new StreamTask(taskName, vertex.getLogic(), inputs, outputs, this);
-                taskManager.submitTask(task);
-                totalTasksCounter.incrementAndGet();
+    /**
+     * 顶点的所有输入边都按键分区时，返回其中第一条边的分区器，用于提取键和分配键控状态；否则返回 null。
+     */
+    private KeyGroupStreamPartitioner<?, ?> getInputKeyPartitioner(JobVertex vertex) {
+        KeyGroupStreamPartitioner<?, ?> keyPartitioner = null;
+        for (JobEdge edge : currentJob.getInputEdges(vertex.getId())) {
+            if (!(edge.getPartitioner() instanceof KeyGroupStreamPartitioner)) {
+                return null;
+            }
+            if (keyPartitioner == null) {
+                keyPartitioner = (KeyGroupStreamPartitioner<?, ?>) edge.getPartitioner();
             }
         }
+        return keyPartitioner;
+    }
 
-        LOG.info("作业部署完成，总共启动 " + totalTasksCounter.get() + " 个任务实例。");
+    private boolean isChainable(JobEdge edge) {
+        return currentJob.isChainable(edge);
     }
 
     public int getTotalTasks() {
@@ -115,38 +576,177 @@ public class JobManager {
         LOG.info("JobManager 正在向源任务注入检查点屏障: " + checkpointId);
         CheckpointBarrier barrier = new CheckpointBarrier(checkpointId);
 
-        // 找到所有 source 任务并注入 barrier
-        for (JobVertex vertex : currentJob.getVertices()) {
-            if (vertex.getLogic() instanceof org.mini.flink.api.Source) {
-                // 在 mini-flink 中，Source 的输出 channel 就是下游的输入 channel
-                List<DataChannel> sourceOutputChannels = findSourceOutputChannels(vertex.getId());
-                for (DataChannel channel : sourceOutputChannels) {
-                    // 模拟注入，真实 Flink 中有专门的 RPC 调用
-                    channel.broadcastBarrier(barrier);
-                }
-            }
+        // 由每个 Source 任务自己快照并把屏障发往它的所有下游，屏障排在已发送的数据之后，不会丢弃任何在途数据。
+        // 触发只是向任务的邮箱投递一封邮件，不会等待任务执行，一个被反压的 Source 不会拖慢其他 Source
+        for (Map.Entry<String, TaskManagerGateway> sourceTask : sourceTasks.entrySet()) {
+            sourceTask.getValue().triggerCheckpoint(currentJob.getJobId(), sourceTask.getKey(), barrier);
         }
     }
 
-    private List<DataChannel> findSourceOutputChannels(String sourceVertexId) {
-        List<String> downstreamIds = currentJob.getDownstreamVertexIds(sourceVertexId);
-        List<DataChannel> channels = new ArrayList<>();
-        if (!downstreamIds.isEmpty()) {
-            // 在我们的简化模型中，一个上游对应一个输出channel，这个channel被所有下游共享
-            // 所以我们只需要找到一个下游，获取它的输入channel即可
-            String firstDownstreamId = downstreamIds.get(0);
-            channels.addAll(taskInputChannels.get(firstDownstreamId));
+    @Override
+    public void acknowledgeCheckpoint(long checkpointId, String taskName, TaskStateSnapshot stateSnapshot) {
+        checkpointCoordinator.acknowledgeCheckpoint(checkpointId, taskName, stateSnapshot);
+    }
+
+    /**
+     * 任务失败时由 TaskManager 调用，可以在任意线程中调用，故障处理在 JobManager 的故障处理线程中异步进行。
+     */
+    @Override
+    public void notifyTaskFailure(String jobId, String taskName, Throwable cause) {
+        failoverExecutor.execute(() -> handleTaskFailure(jobId, taskName, cause));
+    }
+
+    private void handleTaskFailure(String jobId, String taskName, Throwable cause) {
+        if (currentJob == null || !currentJob.getJobId().equals(jobId) || jobTerminated) {
+            LOG.info("忽略已结束的作业 " + jobId + " 的任务 [" + taskName + "] 的失败: " + cause);
+            return;
+        }
+        if (restartingTasks.contains(taskName)) {
+            LOG.info("任务 [" + taskName + "] 所在的区域已在重启中，忽略它的失败: " + cause);
+            return;
         }
-        return channels;
+        Set<String> region = pipelinedRegions.getRegion(taskName);
+        if (region == null) {
+            LOG.warning("作业中没有任务 [" + taskName + "]，忽略它的失败: " + cause);
+            return;
+        }
+        LOG.warning("任务 [" + taskName + "] 失败: " + cause);
+        restartStrategy.notifyFailure(cause);
+        if (!restartStrategy.canRestart()) {
+            failJob(new RuntimeException("任务 [" + taskName + "] 失败，重启策略 " + restartStrategy + " 不允许继续重启", cause));
+            return;
+        }
+
+        long failureTimestamp = System.nanoTime();
+        restartingTasks.addAll(region);
+        try {
+            cancelTasks(region);
+        } catch (Exception e) {
+            failJob(new RuntimeException("取消任务 [" + taskName + "] 所在的流水线区域失败", e));
+            return;
+        }
+        long backoffTime = restartStrategy.getBackoffTime();
+        LOG.info("已取消任务 [" + taskName + "] 所在的流水线区域中的 " + region.size() + " 个任务，"
+                + backoffTime + " ms 后从最近完成的检查点重启。");
+        failoverExecutor.schedule(() -> restartTasks(region, failureTimestamp), backoffTime, TimeUnit.MILLISECONDS);
     }
 
-    public void acknowledgeCheckpoint(long checkpointId, String taskName, Map<String, Object> stateSnapshot) {
-        checkpointCoordinator.acknowledgeCheckpoint(checkpointId, taskName, stateSnapshot);
+    /**
+     * 取消一组任务并释放它们之间的通道，任务所在的槽仍由作业占用，之后原样部署回去。
+     */
+    private void cancelTasks(Set<String> tasks) throws Exception {
+        Map<TaskManagerGateway, List<Integer>> channelsByTaskManager = new LinkedHashMap<>();
+        for (String task : tasks) {
+            sourceTasks.remove(task);
+            channelsByTaskManager.computeIfAbsent(taskSlots.get(task).getTaskManager(), k -> new ArrayList<>())
+                    .addAll(taskChannels.get(task));
+        }
+        for (Map.Entry<TaskManagerGateway, List<Integer>> entry : channelsByTaskManager.entrySet()) {
+            entry.getKey().cancelTasks(currentJob.getJobId(), tasks, entry.getValue());
+        }
+    }
+
+    private void restartTasks(Set<String> tasks, long failureTimestamp) {
+        if (jobTerminated) {
+            return;
+        }
+        try {
+            CompletedCheckpoint checkpoint = checkpointCoordinator.getLatestCompletedCheckpoint();
+            LOG.info(checkpoint == null ? "没有完成的检查点，重启的任务从空状态开始。"
+                    : "重启的任务从检查点 " + checkpoint.getCheckpointId() + " 恢复状态。");
+            deployTasks(jobChains, jobSlots, checkpoint, tasks);
+            restartingTasks.removeAll(tasks);
+            LOG.info(String.format("流水线区域恢复完成，从任务失败到重新部署耗时 %d ms。",
+                    (System.nanoTime() - failureTimestamp) / 1_000_000));
+        } catch (Exception e) {
+            failJob(new RuntimeException("重新部署流水线区域失败", e));
+        }
+    }
+
+    /**
+     * 作业无法继续运行：停止触发检查点并释放所有槽，作业的终止 Future 以失败结束。
+     */
+    private void failJob(Throwable cause) {
+        LOG.severe("作业 [" + currentJob.getJobName() + "] 失败: " + cause);
+        jobTerminated = true;
+        checkpointCoordinator.stop();
+        releaseSlots(currentJob.getJobId());
+        closeJobMetricGroup();
+        terminationFuture.completeExceptionally(cause);
+    }
+
+    /**
+     * @return 当前作业结束时完成的 Future：作业被取消时正常完成，任务失败且不再重启时以失败结束
+     */
+    public CompletableFuture<Void> getTerminationFuture() {
+        return terminationFuture;
+    }
+
+    /**
+     * 通知所有任务检查点已经完成并持久化。
+     */
+    public void notifyCheckpointComplete(long checkpointId) {
+        for (TaskManagerGateway taskManager : jobTaskManagers) {
+            taskManager.notifyCheckpointComplete(currentJob.getJobId(), checkpointId);
+        }
+    }
+
+    /**
+     * 停止当前作业的所有任务并释放它占用的任务槽，排队中的作业因此可以部署。
+     */
+    public void cancelJob() {
+        if (currentJob == null) {
+            return;
+        }
+        LOG.info("取消作业: " + currentJob.getJobName());
+        jobTerminated = true;
+        checkpointCoordinator.stop();
+        releaseSlots(currentJob.getJobId());
+        closeJobMetricGroup();
+        terminationFuture.complete(null);
+    }
+
+    private void closeJobMetricGroup() {
+        MetricGroup group = jobMetricGroup;
+        if (group != null) {
+            group.close();
+        }
+    }
+
+    private void releaseSlots(String jobId) {
+        for (TaskManagerGateway taskManager : taskManagers) {
+            taskManager.releaseSlots(jobId);
+        }
     }
 
     public void shutdown() {
         LOG.info("JobManager 正在关闭...");
-        checkpointCoordinator.stop();
-        taskManager.shutdown();
+        checkpointCoordinator.shutdown();
+        failoverExecutor.shutdownNow();
+        for (TaskManagerGateway taskManager : taskManagers) {
+            taskManager.shutdown();
+        }
+        metricGroup.close();
+    }
+
+    /**
+     * 分配给作业的一个槽：所在的 TaskManager 和槽在其中的下标。
+     */
+    private static class AllocatedSlot {
+        private final TaskManagerGateway taskManager;
+        private final int slotIndex;
+
+        AllocatedSlot(TaskManagerGateway taskManager, int slotIndex) {
+            this.taskManager = taskManager;
+            this.slotIndex = slotIndex;
+        }
+
+        TaskManagerGateway getTaskManager() {
+            return taskManager;
+        }
+
+        int getSlotIndex() {
+            return slotIndex;
+        }
     }
 }
\ No newline at end of file
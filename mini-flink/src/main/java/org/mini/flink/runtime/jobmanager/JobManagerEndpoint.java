@@ -0,0 +1,103 @@
+package org.mini.flink.runtime.jobmanager;
+
+import org.mini.flink.runtime.rpc.JobManagerMessages;
+import org.mini.flink.runtime.rpc.RpcConnection;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.logging.Logger;
+
+/**
+ * JobManager 的控制端口，其他进程中的 TaskManager 连接到这里注册自己，
+ * 之后的部署、检查点触发和确认都走这条连接。
+ */
+public class JobManagerEndpoint {
+    private static final Logger LOG = Logger.getLogger(JobManagerEndpoint.class.getName());
+
+    private final JobManager jobManager;
+    private final ServerSocket server;
+    private final Thread acceptor;
+
+    /**
+     * @param port 0 表示随机选择一个空闲端口
+     */
+    public JobManagerEndpoint(JobManager jobManager, String host, int port) throws IOException {
+        this.jobManager = jobManager;
+        this.server = new ServerSocket();
+        this.server.bind(new InetSocketAddress(host, port));
+        this.acceptor = new Thread(this::acceptLoop, "JobManagerEndpoint-" + server.getLocalPort());
+        this.acceptor.setDaemon(true);
+    }
+
+    public void start() {
+        acceptor.start();
+        LOG.info("JobManager 控制端口已在 " + getAddress() + " 上监听。");
+    }
+
+    public InetSocketAddress getAddress() {
+        return new InetSocketAddress(server.getInetAddress().getHostAddress(), server.getLocalPort());
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                RpcConnection connection = new RpcConnection(socket, String.valueOf(socket.getRemoteSocketAddress()));
+                connection.start(new TaskManagerSession(connection)::handle);
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    LOG.warning("接受 TaskManager 连接失败: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public void close() {
+        try {
+            server.close();
+        } catch (IOException ignored) {
+            // 关闭失败时没有需要清理的资源
+        }
+    }
+
+    /**
+     * 一条 TaskManager 连接上的消息处理，第一条消息必须是注册。
+     */
+    private class TaskManagerSession {
+        private final RpcConnection connection;
+        private RemoteTaskManagerGateway gateway;
+
+        TaskManagerSession(RpcConnection connection) {
+            this.connection = connection;
+        }
+
+        Object handle(Object message) {
+            if (message instanceof JobManagerMessages.RegisterTaskManager) {
+                JobManagerMessages.RegisterTaskManager registration = (JobManagerMessages.RegisterTaskManager) message;
+                gateway = new RemoteTaskManagerGateway(connection, registration.getTaskManagerId(),
+                        registration.getNumberOfSlots(), registration.getDataAddress());
+                RemoteTaskManagerGateway registered = gateway;
+                connection.setCloseListener(() -> jobManager.unregisterTaskManager(registered));
+                jobManager.registerTaskManager(gateway);
+                return Boolean.TRUE;
+            }
+            if (gateway == null) {
+                throw new IllegalStateException("TaskManager 尚未注册: " + message);
+            }
+            if (message instanceof JobManagerMessages.AcknowledgeCheckpoint) {
+                JobManagerMessages.AcknowledgeCheckpoint ack = (JobManagerMessages.AcknowledgeCheckpoint) message;
+                jobManager.acknowledgeCheckpoint(ack.getCheckpointId(), ack.getTaskName(), ack.getStateSnapshot());
+            } else if (message instanceof JobManagerMessages.TaskFailed) {
+                JobManagerMessages.TaskFailed failure = (JobManagerMessages.TaskFailed) message;
+                jobManager.notifyTaskFailure(failure.getJobId(), failure.getTaskName(), failure.getCause());
+            } else if (message instanceof JobManagerMessages.SlotsReleased) {
+                gateway.onSlotsReleased(((JobManagerMessages.SlotsReleased) message).getNumberOfAvailableSlots());
+            } else {
+                throw new IllegalArgumentException("未知的消息: " + message);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.mini.flink.runtime.jobmanager;
+
+/**
+ * TaskManager 没有足够的空闲任务槽来部署作业，并且在等待时间内也没有槽被释放。
+ */
+public class NoResourceAvailableException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public NoResourceAvailableException(String message) {
+        super(message);
+    }
+}
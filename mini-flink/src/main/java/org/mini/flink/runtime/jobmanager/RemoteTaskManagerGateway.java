@@ -0,0 +1,125 @@
+package org.mini.flink.runtime.jobmanager;
+
+import org.mini.flink.runtime.deployment.TaskDeploymentDescriptor;
+import org.mini.flink.runtime.rpc.RpcConnection;
+import org.mini.flink.runtime.rpc.TaskManagerMessages;
+import org.mini.flink.runtime.state.CheckpointBarrier;
+import org.mini.flink.runtime.taskmanager.TaskManagerGateway;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * 另一个进程中的 TaskManager，调用转换为控制连接上的消息。
+ * <p>
+ * 空闲槽数缓存在这里，由槽分配的应答和 TaskManager 主动汇报的槽释放消息更新，
+ * 调度时不必为了读取它访问网络；真正的分配仍由 TaskManager 判断，缓存过时只会导致一次分配失败。
+ */
+public class RemoteTaskManagerGateway implements TaskManagerGateway {
+    private static final Logger LOG = Logger.getLogger(RemoteTaskManagerGateway.class.getName());
+    private static final long RPC_TIMEOUT_MILLIS = 30_000;
+
+    private final RpcConnection connection;
+    private final String taskManagerId;
+    private final int numberOfSlots;
+    private final InetSocketAddress dataAddress;
+    private volatile int numberOfAvailableSlots;
+    private volatile Runnable slotReleaseListener;
+
+    public RemoteTaskManagerGateway(RpcConnection connection, String taskManagerId, int numberOfSlots,
+                                    InetSocketAddress dataAddress) {
+        this.connection = connection;
+        this.taskManagerId = taskManagerId;
+        this.numberOfSlots = numberOfSlots;
+        this.dataAddress = dataAddress;
+        this.numberOfAvailableSlots = numberOfSlots;
+    }
+
+    @Override
+    public String getTaskManagerId() {
+        return taskManagerId;
+    }
+
+    @Override
+    public InetSocketAddress getDataAddress() {
+        return dataAddress;
+    }
+
+    @Override
+    public int getNumberOfSlots() {
+        return numberOfSlots;
+    }
+
+    @Override
+    public int getNumberOfAvailableSlots() {
+        return connection.isClosed() ? 0 : numberOfAvailableSlots;
+    }
+
+    @Override
+    public List<Integer> allocateSlots(String jobId, int count) throws Exception {
+        TaskManagerMessages.SlotAllocation allocation = (TaskManagerMessages.SlotAllocation)
+                connection.ask(new TaskManagerMessages.AllocateSlots(jobId, count), RPC_TIMEOUT_MILLIS);
+        numberOfAvailableSlots = allocation.getNumberOfAvailableSlots();
+        return allocation.getSlotIndexes();
+    }
+
+    @Override
+    public void releaseSlots(String jobId) {
+        try {
+            connection.ask(new TaskManagerMessages.ReleaseSlots(jobId), RPC_TIMEOUT_MILLIS);
+        } catch (Exception e) {
+            LOG.warning("释放 TaskManager [" + taskManagerId + "] 上作业 " + jobId + " 的槽失败: " + e);
+        }
+    }
+
+    @Override
+    public void submitTask(TaskDeploymentDescriptor deployment) throws Exception {
+        connection.ask(new TaskManagerMessages.SubmitTask(deployment), RPC_TIMEOUT_MILLIS);
+    }
+
+    @Override
+    public void cancelTasks(String jobId, Collection<String> taskNames, Collection<Integer> channelIds) throws Exception {
+        connection.ask(new TaskManagerMessages.CancelTasks(jobId, new ArrayList<>(taskNames), new ArrayList<>(channelIds)),
+                RPC_TIMEOUT_MILLIS);
+    }
+
+    @Override
+    public void triggerCheckpoint(String jobId, String taskName, CheckpointBarrier barrier) {
+        connection.tell(new TaskManagerMessages.TriggerCheckpoint(jobId, taskName, barrier));
+    }
+
+    @Override
+    public void notifyCheckpointComplete(String jobId, long checkpointId) {
+        connection.tell(new TaskManagerMessages.NotifyCheckpointComplete(jobId, checkpointId));
+    }
+
+    @Override
+    public void setSlotReleaseListener(Runnable slotReleaseListener) {
+        this.slotReleaseListener = slotReleaseListener;
+    }
+
+    /**
+     * TaskManager 汇报有槽被释放。
+     */
+    void onSlotsReleased(int numberOfAvailableSlots) {
+        this.numberOfAvailableSlots = numberOfAvailableSlots;
+        Runnable listener = slotReleaseListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        connection.tell(new TaskManagerMessages.Shutdown());
+        connection.close();
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteTaskManager{" + taskManagerId + ", slots=" + numberOfSlots + ", data=" + dataAddress + "}";
+    }
+}
@@ -0,0 +1,49 @@
+package org.mini.flink.runtime.jobmanager.failover;
+
+/**
+ * 连续失败时等待时间按倍数增长，直到上限；距上次失败足够久之后再失败，等待时间回到初始值。
+ * 适合外部系统短暂不可用的场景：恢复得快时重启也快，长时间不可用时不会频繁地重启。
+ */
+public class ExponentialDelayRestartBackoffTimeStrategy implements RestartBackoffTimeStrategy {
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final double backoffMultiplier;
+    private final long resetBackoffThresholdMillis;
+    private long currentBackoffMillis;
+    private long lastFailureTimestamp = -1;
+
+    public ExponentialDelayRestartBackoffTimeStrategy(long initialBackoffMillis, long maxBackoffMillis,
+                                                      double backoffMultiplier, long resetBackoffThresholdMillis) {
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.backoffMultiplier = backoffMultiplier;
+        this.resetBackoffThresholdMillis = resetBackoffThresholdMillis;
+    }
+
+    @Override
+    public boolean canRestart() {
+        return true;
+    }
+
+    @Override
+    public long getBackoffTime() {
+        return currentBackoffMillis;
+    }
+
+    @Override
+    public void notifyFailure(Throwable cause) {
+        long now = System.currentTimeMillis();
+        if (lastFailureTimestamp < 0 || now - lastFailureTimestamp >= resetBackoffThresholdMillis) {
+            currentBackoffMillis = initialBackoffMillis;
+        } else {
+            currentBackoffMillis = Math.min((long) (currentBackoffMillis * backoffMultiplier), maxBackoffMillis);
+        }
+        lastFailureTimestamp = now;
+    }
+
+    @Override
+    public String toString() {
+        return "ExponentialDelayRestartBackoffTimeStrategy{backoff=" + currentBackoffMillis + "ms, max="
+                + maxBackoffMillis + "ms}";
+    }
+}
@@ -0,0 +1,36 @@
+package org.mini.flink.runtime.jobmanager.failover;
+
+/**
+ * 每次失败后等待固定的时间，失败次数超过上限后不再重启。
+ */
+public class FixedDelayRestartBackoffTimeStrategy implements RestartBackoffTimeStrategy {
+    private final int maxNumberRestartAttempts;
+    private final long backoffTimeMillis;
+    private int currentRestartAttempt;
+
+    public FixedDelayRestartBackoffTimeStrategy(int maxNumberRestartAttempts, long backoffTimeMillis) {
+        this.maxNumberRestartAttempts = maxNumberRestartAttempts;
+        this.backoffTimeMillis = backoffTimeMillis;
+    }
+
+    @Override
+    public boolean canRestart() {
+        return currentRestartAttempt <= maxNumberRestartAttempts;
+    }
+
+    @Override
+    public long getBackoffTime() {
+        return backoffTimeMillis;
+    }
+
+    @Override
+    public void notifyFailure(Throwable cause) {
+        currentRestartAttempt++;
+    }
+
+    @Override
+    public String toString() {
+        return "FixedDelayRestartBackoffTimeStrategy{attempt=" + currentRestartAttempt + "/" + maxNumberRestartAttempts
+                + ", backoff=" + backoffTimeMillis + "ms}";
+    }
+}
@@ -0,0 +1,28 @@
+package org.mini.flink.runtime.jobmanager.failover;
+
+/**
+ * 不允许重启，第一次失败作业就失败。
+ */
+public enum NoRestartBackoffTimeStrategy implements RestartBackoffTimeStrategy {
+    INSTANCE;
+
+    @Override
+    public boolean canRestart() {
+        return false;
+    }
+
+    @Override
+    public long getBackoffTime() {
+        return 0;
+    }
+
+    @Override
+    public void notifyFailure(Throwable cause) {
+        // 不需要记录任何失败
+    }
+
+    @Override
+    public String toString() {
+        return "NoRestartBackoffTimeStrategy";
+    }
+}
@@ -0,0 +1,84 @@
+package org.mini.flink.runtime.jobmanager.failover;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 把作业的子任务划分为流水线区域：由通道直接或间接连接起来的子任务属于同一个区域。
+ * <p>
+ * 所有通道都是流水线式的，上下游同时运行、数据不落盘，一个子任务失败后，与它有通道相连的子任务都无法继续，
+ * 必须一起重启；没有通道相连的区域互不影响，可以继续运行。例如各条流水线之间只有直连分区的作业，
+ * 每个并行实例自成一个区域，一个子任务失败只需要重启所在的那一条流水线。
+ * <p>
+ * 用并查集在部署时按通道逐条合并，构建完成后不再修改。
+ */
+public class PipelinedRegions {
+    private final Map<String, String> parents = new LinkedHashMap<>();
+    private Map<String, Set<String>> regions;
+
+    /**
+     * 登记一个子任务，之后没有任何通道相连时它单独成为一个区域。
+     */
+    public void addTask(String taskName) {
+        parents.putIfAbsent(taskName, taskName);
+    }
+
+    /**
+     * 登记一个通道，它的两端属于同一个区域。
+     */
+    public void connect(String producerTask, String consumerTask) {
+        addTask(producerTask);
+        addTask(consumerTask);
+        String producerRoot = find(producerTask);
+        String consumerRoot = find(consumerTask);
+        if (!producerRoot.equals(consumerRoot)) {
+            parents.put(producerRoot, consumerRoot);
+        }
+        regions = null;
+    }
+
+    private String find(String taskName) {
+        String root = taskName;
+        while (!root.equals(parents.get(root))) {
+            root = parents.get(root);
+        }
+        // 路径压缩，之后的查找直接找到根
+        String current = taskName;
+        while (!current.equals(root)) {
+            String next = parents.get(current);
+            parents.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+
+    /**
+     * @return 子任务所在区域中的所有子任务，子任务不存在时返回 null
+     */
+    public Set<String> getRegion(String taskName) {
+        if (!parents.containsKey(taskName)) {
+            return null;
+        }
+        return getRegions().get(find(taskName));
+    }
+
+    /**
+     * @return Key: 区域的代表子任务, Value: 区域中的所有子任务
+     */
+    public Map<String, Set<String>> getRegions() {
+        if (regions == null) {
+            Map<String, Set<String>> grouped = new LinkedHashMap<>();
+            for (String taskName : parents.keySet()) {
+                grouped.computeIfAbsent(find(taskName), k -> new LinkedHashSet<>()).add(taskName);
+            }
+            for (Map.Entry<String, Set<String>> entry : grouped.entrySet()) {
+                entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+            }
+            regions = grouped;
+        }
+        return regions;
+    }
+}
@@ -0,0 +1,38 @@
+package org.mini.flink.runtime.jobmanager.failover;
+
+import org.mini.flink.api.restartstrategy.RestartStrategies;
+
+/**
+ * 决定任务失败后能否重启，以及重启前需要等待多久。JobManager 每发现一次失败先调用 {@link #notifyFailure}，
+ * 再根据 {@link #canRestart()} 和 {@link #getBackoffTime()} 安排重启。只由 JobManager 的故障处理线程访问。
+ */
+public interface RestartBackoffTimeStrategy {
+
+    boolean canRestart();
+
+    /**
+     * @return 重启前等待的毫秒数
+     */
+    long getBackoffTime();
+
+    void notifyFailure(Throwable cause);
+
+    /**
+     * 按作业配置创建重启策略，每次部署作业创建一个新的实例。
+     */
+    static RestartBackoffTimeStrategy create(RestartStrategies.RestartStrategyConfiguration configuration) {
+        if (configuration instanceof RestartStrategies.FixedDelayRestartStrategyConfiguration) {
+            RestartStrategies.FixedDelayRestartStrategyConfiguration fixedDelay =
+                    (RestartStrategies.FixedDelayRestartStrategyConfiguration) configuration;
+            return new FixedDelayRestartBackoffTimeStrategy(fixedDelay.getRestartAttempts(), fixedDelay.getDelayMillis());
+        }
+        if (configuration instanceof RestartStrategies.ExponentialDelayRestartStrategyConfiguration) {
+            RestartStrategies.ExponentialDelayRestartStrategyConfiguration exponential =
+                    (RestartStrategies.ExponentialDelayRestartStrategyConfiguration) configuration;
+            return new ExponentialDelayRestartBackoffTimeStrategy(exponential.getInitialBackoffMillis(),
+                    exponential.getMaxBackoffMillis(), exponential.getBackoffMultiplier(),
+                    exponential.getResetBackoffThresholdMillis());
+        }
+        return NoRestartBackoffTimeStrategy.INSTANCE;
+    }
+}
@@ -0,0 +1,17 @@
+package org.mini.flink.runtime.metrics;
+
+/**
+ * 计数器，例如任务收到和发出的记录数。
+ */
+public interface Counter extends Metric {
+
+    void inc();
+
+    void inc(long n);
+
+    void dec();
+
+    void dec(long n);
+
+    long getCount();
+}
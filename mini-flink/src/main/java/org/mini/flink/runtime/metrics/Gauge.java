@@ -0,0 +1,10 @@
+package org.mini.flink.runtime.metrics;
+
+/**
+ * 在上报时才计算的瞬时值，例如通道中排队的缓冲数。getValue 在上报线程中调用，实现必须是线程安全的。
+ */
+@FunctionalInterface
+public interface Gauge<T> extends Metric {
+
+    T getValue();
+}
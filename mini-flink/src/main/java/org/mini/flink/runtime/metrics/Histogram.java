@@ -0,0 +1,19 @@
+package org.mini.flink.runtime.metrics;
+
+/**
+ * 记录数值的分布，例如检查点耗时，上报时给出分位数、最小值、最大值和平均值。
+ */
+public interface Histogram extends Metric {
+
+    void update(long value);
+
+    /**
+     * @return 记录过的数值个数
+     */
+    long getCount();
+
+    /**
+     * @return 当前分布的一份快照
+     */
+    HistogramStatistics getStatistics();
+}
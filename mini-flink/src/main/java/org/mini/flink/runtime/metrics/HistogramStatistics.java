@@ -0,0 +1,23 @@
+package org.mini.flink.runtime.metrics;
+
+/**
+ * {@link Histogram} 在某一时刻的统计结果。
+ */
+public interface HistogramStatistics {
+
+    /**
+     * @param quantile 0 到 1 之间的分位点，例如 0.99
+     */
+    double getQuantile(double quantile);
+
+    long getMin();
+
+    long getMax();
+
+    double getMean();
+
+    /**
+     * @return 快照中数值的个数
+     */
+    long size();
+}
@@ -0,0 +1,138 @@
+package org.mini.flink.runtime.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 仿照 HdrHistogram 的对数-线性分桶直方图，记录任意非负 long 值，不保留原始样本，内存占用固定。
+ * <p>
+ * 小于 128 的值每个值一个桶；更大的值按最高位所在的 2 的幂次分段，每段再线性地分成 64 个桶，
+ * 因此任意值的相对误差不超过 1/64（约 1.6%），整个 long 的范围只需要 3712 个桶。负数按 0 记录。
+ * <p>
+ * 【JUC知识点】: 更新是无锁的：桶计数用 AtomicLongArray 的原子自增，总数和总和用 LongAdder，
+ * 最小值和最大值只在新值更优时才 CAS，多个线程可以同时更新，上报线程读取快照时也不会阻塞它们。
+ */
+public class LogLinearHistogram implements Histogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+    private static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    @Override
+    public void update(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        long currentMin;
+        while (value < (currentMin = min.get()) && !min.compareAndSet(currentMin, value)) {
+            // 其他线程同时更新了最小值，重新比较
+        }
+        long currentMax;
+        while (value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value)) {
+            // 同上
+        }
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public HistogramStatistics getStatistics() {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        return new Statistics(snapshot, total, min.get(), max.get(), sum.sum());
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // 最高位是第 msb 位，右移 shift 位后落在 [64, 128) 中，每多一位占用新的 64 个桶
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_HALF_COUNT * shift + (int) (value >>> shift);
+    }
+
+    static long lowestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        return (long) (index - SUB_BUCKET_HALF_COUNT * shift) << shift;
+    }
+
+    static long bucketWidth(int index) {
+        return index < SUB_BUCKET_COUNT ? 1 : 1L << (index / SUB_BUCKET_HALF_COUNT - 1);
+    }
+
+    private static class Statistics implements HistogramStatistics {
+        private final long[] counts;
+        private final long total;
+        private final long min;
+        private final long max;
+        private final long sum;
+
+        Statistics(long[] counts, long total, long min, long max, long sum) {
+            this.counts = counts;
+            this.total = total;
+            this.min = min;
+            this.max = max;
+            this.sum = sum;
+        }
+
+        @Override
+        public double getQuantile(double quantile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    // 取桶的中点，并限制在实际出现过的最小值和最大值之间
+                    long value = lowestEquivalentValue(i) + (bucketWidth(i) >> 1);
+                    return Math.max(min, Math.min(max, value));
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public long getMin() {
+            return total == 0 ? 0 : min;
+        }
+
+        @Override
+        public long getMax() {
+            return total == 0 ? 0 : max;
+        }
+
+        @Override
+        public double getMean() {
+            return total == 0 ? 0 : (double) sum / total;
+        }
+
+        @Override
+        public long size() {
+            return total;
+        }
+    }
+}
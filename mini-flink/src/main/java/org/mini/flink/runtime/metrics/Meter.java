@@ -0,0 +1,21 @@
+package org.mini.flink.runtime.metrics;
+
+/**
+ * 事件的发生速率，例如每秒处理的记录数。
+ */
+public interface Meter extends Metric {
+
+    void markEvent();
+
+    void markEvent(long n);
+
+    /**
+     * @return 每秒发生的事件数
+     */
+    double getRate();
+
+    /**
+     * @return 发生的事件总数
+     */
+    long getCount();
+}
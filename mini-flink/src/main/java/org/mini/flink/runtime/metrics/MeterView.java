@@ -0,0 +1,61 @@
+package org.mini.flink.runtime.metrics;
+
+/**
+ * 根据一个 {@link Counter} 计算最近一段时间内平均速率的 {@link Meter}。
+ * <p>
+ * 记录路径上只更新计数器，速率由 {@link MetricRegistry} 的调度线程每 {@link View#UPDATE_INTERVAL_SECONDS} 秒
+ * 采样一次计数、按环形数组中最早和最新的采样计算，因此不会给处理记录的线程增加任何开销。
+ */
+public class MeterView implements Meter, View {
+
+    private static final int DEFAULT_TIME_SPAN_SECONDS = 60;
+
+    private final Counter counter;
+    private final int timeSpanSeconds;
+    // 最近 timeSpanSeconds 秒内的计数采样，只由调度线程写入
+    private final long[] values;
+    private int time;
+    // 【JUC知识点】: 速率由调度线程写入、上报线程读取，volatile 保证读到最新计算的结果
+    private volatile double currentRate;
+
+    public MeterView(Counter counter) {
+        this(counter, DEFAULT_TIME_SPAN_SECONDS);
+    }
+
+    /**
+     * @param timeSpanSeconds 计算平均速率的时间窗口，向上取整到 {@link View#UPDATE_INTERVAL_SECONDS} 的倍数
+     */
+    public MeterView(Counter counter, int timeSpanSeconds) {
+        this.counter = counter;
+        this.timeSpanSeconds = Math.max(timeSpanSeconds - timeSpanSeconds % UPDATE_INTERVAL_SECONDS, UPDATE_INTERVAL_SECONDS);
+        this.values = new long[this.timeSpanSeconds / UPDATE_INTERVAL_SECONDS + 1];
+    }
+
+    @Override
+    public void markEvent() {
+        counter.inc();
+    }
+
+    @Override
+    public void markEvent(long n) {
+        counter.inc(n);
+    }
+
+    @Override
+    public double getRate() {
+        return currentRate;
+    }
+
+    @Override
+    public long getCount() {
+        return counter.getCount();
+    }
+
+    @Override
+    public void update() {
+        time = (time + 1) % values.length;
+        values[time] = counter.getCount();
+        // 下一个位置是环形数组中最早的采样
+        currentRate = ((double) (values[time] - values[(time + 1) % values.length])) / timeSpanSeconds;
+    }
+}
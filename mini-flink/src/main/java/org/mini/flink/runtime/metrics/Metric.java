@@ -0,0 +1,8 @@
+package org.mini.flink.runtime.metrics;
+
+/**
+ * 所有指标的公共接口，具体类型为 {@link Counter}、{@link Gauge}、{@link Meter} 和 {@link Histogram}。
+ * 指标注册到 {@link MetricGroup} 中，由 {@link MetricRegistry} 交给配置的上报器。
+ */
+public interface Metric {
+}
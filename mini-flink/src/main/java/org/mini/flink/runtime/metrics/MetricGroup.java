@@ -0,0 +1,208 @@
+package org.mini.flink.runtime.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * 指标组，按层级组织指标，例如 TaskManager 上的 {@code taskmanager -> 作业 -> 顶点 -> 子任务}。
+ * <p>
+ * 通过 {@link #addGroup(String)} 创建的层是固定的名称，通过 {@link #addGroup(String, String)} 创建的层是一个变量，
+ * 例如 {@code job_name=WordCount}。上报器据此生成指标名：日志和 JMX 中用每一层的名称拼出
+ * {@code taskmanager.WordCount.Source -> Splitter.0.numRecordsOut}；Prometheus 中只用固定的层拼出与具体作业无关的
+ * 逻辑名称 {@code taskmanager_numRecordsOut}，变量作为标签。
+ * <p>
+ * 组被关闭时，组内及所有子组的指标都从 {@link MetricRegistry} 中注销，之后注册的指标不会再被上报。
+ * 所有方法都是线程安全的。
+ */
+public class MetricGroup {
+    private static final Logger LOG = Logger.getLogger(MetricGroup.class.getName());
+
+    // 为 null 时组内的指标只在本地使用，不会被上报
+    private final MetricRegistry registry;
+    private final MetricGroup parent;
+    private final String[] scopeComponents;
+    private final String[] logicalScopeComponents;
+    private final Map<String, String> variables;
+
+    // 以下字段都由组自身的锁保护
+    private final Map<String, Metric> metrics = new LinkedHashMap<>();
+    private final Map<String, MetricGroup> groups = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * 创建一个根组。
+     * @param registry 组内指标注册到的地方，为 null 时指标不会被上报
+     */
+    public MetricGroup(MetricRegistry registry, String name) {
+        this(registry, null, name, null);
+    }
+
+    /**
+     * @param variable 变量名，为 null 时是一个固定名称的组
+     */
+    private MetricGroup(MetricRegistry registry, MetricGroup parent, String name, String variable) {
+        this.registry = registry;
+        this.parent = parent;
+        String[] parentScope = parent != null ? parent.scopeComponents : new String[0];
+        String[] parentLogicalScope = parent != null ? parent.logicalScopeComponents : new String[0];
+        this.scopeComponents = append(parentScope, name);
+        this.logicalScopeComponents = variable == null ? append(parentLogicalScope, name) : parentLogicalScope;
+        Map<String, String> allVariables = new LinkedHashMap<>();
+        if (parent != null) {
+            allVariables.putAll(parent.variables);
+        }
+        if (variable != null) {
+            allVariables.put(variable, name);
+        }
+        this.variables = Collections.unmodifiableMap(allVariables);
+    }
+
+    public Counter counter(String name) {
+        return counter(name, new SimpleCounter());
+    }
+
+    public <C extends Counter> C counter(String name, C counter) {
+        addMetric(name, counter);
+        return counter;
+    }
+
+    public <T, G extends Gauge<T>> G gauge(String name, G gauge) {
+        addMetric(name, gauge);
+        return gauge;
+    }
+
+    public <M extends Meter> M meter(String name, M meter) {
+        addMetric(name, meter);
+        return meter;
+    }
+
+    public <H extends Histogram> H histogram(String name, H histogram) {
+        addMetric(name, histogram);
+        return histogram;
+    }
+
+    /**
+     * 添加一个固定名称的子组，例如 {@code addGroup("latency")}。已经存在同名的子组时返回它。
+     */
+    public MetricGroup addGroup(String name) {
+        return addSubGroup(name, null);
+    }
+
+    /**
+     * 添加一个带变量的子组，例如 {@code addGroup("subtask_index", "0")}。已经存在同名且未关闭的子组时返回它，
+     * 重启的子任务因此会在旧子任务的组关闭后得到一个新组。
+     */
+    public MetricGroup addGroup(String key, String value) {
+        return addSubGroup(value, key);
+    }
+
+    private synchronized MetricGroup addSubGroup(String name, String variable) {
+        MetricGroup group = groups.get(name);
+        if (group == null || group.isClosed()) {
+            group = new MetricGroup(registry, this, name, variable);
+            if (closed) {
+                // 父组已经关闭，子组也不再上报
+                group.close();
+            } else {
+                groups.put(name, group);
+            }
+        }
+        return group;
+    }
+
+    // 在组的锁内注册，与 close 中的注销互斥，关闭之后不会再有指标漏注销
+    private synchronized void addMetric(String name, Metric metric) {
+        if (closed) {
+            return;
+        }
+        if (metrics.containsKey(name) || groups.containsKey(name)) {
+            LOG.warning("指标组 " + getMetricIdentifier("") + " 中已经存在名为 " + name + " 的指标或子组，忽略新注册的指标。");
+            return;
+        }
+        metrics.put(name, metric);
+        if (registry != null) {
+            registry.register(metric, name, this);
+        }
+    }
+
+    /**
+     * 关闭组及所有子组，注销其中的指标。可以重复调用。
+     */
+    public void close() {
+        List<MetricGroup> subGroups;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (registry != null) {
+                for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+                    registry.unregister(entry.getValue(), entry.getKey(), this);
+                }
+            }
+            metrics.clear();
+            subGroups = new ArrayList<>(groups.values());
+            groups.clear();
+        }
+        for (MetricGroup group : subGroups) {
+            group.close();
+        }
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    public MetricGroup getParent() {
+        return parent;
+    }
+
+    /**
+     * @return 从根组到这一层的具体名称
+     */
+    public String[] getScopeComponents() {
+        return scopeComponents.clone();
+    }
+
+    /**
+     * @return 从根组到这一层中固定名称的组，用于生成与具体作业无关的指标名
+     */
+    public String[] getLogicalScopeComponents() {
+        return logicalScopeComponents.clone();
+    }
+
+    /**
+     * @return 从根组到这一层的所有变量，例如 {@code job_name=WordCount, task_name=Source, subtask_index=0}
+     */
+    public Map<String, String> getAllVariables() {
+        return variables;
+    }
+
+    /**
+     * @return 指标的完整名称：具体名称和指标名用 "." 连接
+     */
+    public String getMetricIdentifier(String metricName) {
+        StringBuilder identifier = new StringBuilder();
+        for (String component : scopeComponents) {
+            identifier.append(component).append('.');
+        }
+        return identifier.append(metricName).toString();
+    }
+
+    @Override
+    public String toString() {
+        return "MetricGroup" + Arrays.toString(scopeComponents);
+    }
+
+    private static String[] append(String[] components, String component) {
+        String[] result = Arrays.copyOf(components, components.length + 1);
+        result[components.length] = component;
+        return result;
+    }
+}
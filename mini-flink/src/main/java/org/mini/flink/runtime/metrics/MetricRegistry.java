@@ -0,0 +1,218 @@
+package org.mini.flink.runtime.metrics;
+
+import org.mini.flink.runtime.metrics.reporter.MetricReporter;
+import org.mini.flink.runtime.metrics.reporter.MetricReporterFactory;
+import org.mini.flink.runtime.metrics.reporter.Scheduled;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 指标注册中心：接收 {@link MetricGroup} 中注册的指标，转交给配置的 {@link MetricReporter}，
+ * 并在一个调度线程中定期更新 {@link View}、调用 {@link Scheduled} 上报器。
+ * <p>
+ * 上报器在配置中按名称声明，名称同时也是默认的工厂标识：
+ * <pre>
+ * mini-flink.metrics.reporters=log,prom
+ * mini-flink.metrics.reporter.log.interval=30
+ * mini-flink.metrics.reporter.prom.factory=prometheus-textfile
+ * mini-flink.metrics.reporter.prom.path=/var/lib/node_exporter/mini-flink.prom
+ * </pre>
+ * {@code interval} 是 {@link Scheduled} 上报器的上报间隔（秒），默认 10 秒；
+ * 其余以 {@code mini-flink.metrics.reporter.<名称>.} 开头的配置去掉前缀后交给上报器自己解释。
+ * <p>
+ * 一个进程中的 JobManager 和 TaskManager 默认共用 {@link #getDefault()}，它从 JVM 系统属性读取配置，
+ * 例如 {@code -Dmini-flink.metrics.reporters=log}。没有配置上报器时指标照常维护，只是不会输出。
+ */
+public class MetricRegistry {
+    private static final Logger LOG = Logger.getLogger(MetricRegistry.class.getName());
+
+    public static final String REPORTERS_KEY = "mini-flink.metrics.reporters";
+    public static final String REPORTER_PREFIX = "mini-flink.metrics.reporter.";
+    public static final String FACTORY_SUFFIX = "factory";
+    public static final String INTERVAL_SUFFIX = "interval";
+    private static final long DEFAULT_REPORT_INTERVAL_SECONDS = 10;
+
+    private static MetricRegistry defaultRegistry;
+
+    private final List<MetricReporter> reporters;
+    // 需要定期更新的指标，例如 MeterView
+    private final Set<View> views = ConcurrentHashMap.newKeySet();
+    // 【JUC知识点】: 视图更新和所有上报器的周期性输出共用一个单线程的调度执行器，
+    // 上报器的 report 因此不会并发执行，也不会与视图的更新交错。
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Metrics-Scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean shutdown;
+
+    public MetricRegistry(Properties config) {
+        this.reporters = Collections.unmodifiableList(createReporters(config));
+        executor.scheduleWithFixedDelay(this::updateViews,
+                View.UPDATE_INTERVAL_SECONDS, View.UPDATE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return 进程内共用的注册中心，第一次调用时按 JVM 系统属性创建，进程退出时关闭上报器
+     */
+    public static synchronized MetricRegistry getDefault() {
+        if (defaultRegistry == null) {
+            MetricRegistry registry = new MetricRegistry(System.getProperties());
+            Runtime.getRuntime().addShutdownHook(new Thread(registry::shutdown, "Metrics-Shutdown"));
+            defaultRegistry = registry;
+        }
+        return defaultRegistry;
+    }
+
+    private List<MetricReporter> createReporters(Properties config) {
+        String names = config.getProperty(REPORTERS_KEY, "").trim();
+        if (names.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, MetricReporterFactory> factories = new HashMap<>();
+        for (MetricReporterFactory factory : ServiceLoader.load(MetricReporterFactory.class)) {
+            factories.put(factory.identifier(), factory);
+        }
+
+        List<MetricReporter> created = new ArrayList<>();
+        for (String declared : names.split(",")) {
+            String name = declared.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            Properties reporterConfig = reporterConfig(config, name);
+            String identifier = reporterConfig.getProperty(FACTORY_SUFFIX, name);
+            MetricReporterFactory factory = factories.get(identifier);
+            if (factory == null) {
+                LOG.warning("找不到标识为 " + identifier + " 的指标上报器，可用的上报器: " + factories.keySet());
+                continue;
+            }
+            try {
+                MetricReporter reporter = factory.createMetricReporter();
+                reporter.open(reporterConfig);
+                if (reporter instanceof Scheduled) {
+                    long interval = Long.parseLong(reporterConfig.getProperty(INTERVAL_SUFFIX,
+                            String.valueOf(DEFAULT_REPORT_INTERVAL_SECONDS)).trim());
+                    executor.scheduleWithFixedDelay(() -> report(name, (Scheduled) reporter),
+                            interval, interval, TimeUnit.SECONDS);
+                    LOG.info("指标上报器 [" + name + "] (" + identifier + ") 已启动，每 " + interval + " 秒上报一次。");
+                } else {
+                    LOG.info("指标上报器 [" + name + "] (" + identifier + ") 已启动。");
+                }
+                created.add(reporter);
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "创建指标上报器 [" + name + "] 失败", e);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * @return 以 {@code mini-flink.metrics.reporter.<name>.} 开头的配置，键去掉了这个前缀
+     */
+    private static Properties reporterConfig(Properties config, String name) {
+        String prefix = REPORTER_PREFIX + name + ".";
+        Properties reporterConfig = new Properties();
+        for (String key : config.stringPropertyNames()) {
+            if (key.startsWith(prefix)) {
+                reporterConfig.setProperty(key.substring(prefix.length()), config.getProperty(key));
+            }
+        }
+        return reporterConfig;
+    }
+
+    /**
+     * 由 {@link MetricGroup} 在注册指标时调用。
+     */
+    void register(Metric metric, String metricName, MetricGroup group) {
+        if (shutdown) {
+            return;
+        }
+        if (metric instanceof View) {
+            views.add((View) metric);
+        }
+        for (MetricReporter reporter : reporters) {
+            try {
+                reporter.notifyOfAddedMetric(metric, metricName, group);
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "向上报器注册指标 " + group.getMetricIdentifier(metricName) + " 失败", e);
+            }
+        }
+    }
+
+    /**
+     * 由 {@link MetricGroup} 在关闭时调用。
+     */
+    void unregister(Metric metric, String metricName, MetricGroup group) {
+        if (metric instanceof View) {
+            views.remove(metric);
+        }
+        if (shutdown) {
+            return;
+        }
+        for (MetricReporter reporter : reporters) {
+            try {
+                reporter.notifyOfRemovedMetric(metric, metricName, group);
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "从上报器注销指标 " + group.getMetricIdentifier(metricName) + " 失败", e);
+            }
+        }
+    }
+
+    private void updateViews() {
+        for (View view : views) {
+            try {
+                view.update();
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "更新指标视图失败", e);
+            }
+        }
+    }
+
+    private void report(String name, Scheduled reporter) {
+        try {
+            reporter.report();
+        } catch (Exception e) {
+            // 抛出异常会取消之后的调度，这里只记录日志
+            LOG.log(Level.WARNING, "指标上报器 [" + name + "] 上报失败", e);
+        }
+    }
+
+    public List<MetricReporter> getReporters() {
+        return reporters;
+    }
+
+    /**
+     * 停止调度线程并关闭所有上报器，关闭前 {@link Scheduled} 上报器最后上报一次。
+     */
+    public synchronized void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        executor.shutdownNow();
+        for (MetricReporter reporter : reporters) {
+            try {
+                if (reporter instanceof Scheduled) {
+                    ((Scheduled) reporter).report();
+                }
+                reporter.close();
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "关闭指标上报器失败", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.mini.flink.runtime.metrics;
+
+/**
+ * 只由一个线程更新的计数器，用在任务线程处理记录的路径上。
+ * <p>
+ * 【JUC知识点】: 计数字段是普通的 long，更新时没有内存屏障，上报线程读到的可能是稍早的值，
+ * 对指标来说完全可以接受。多个线程同时更新时会丢失计数，这种场景使用 {@link ThreadSafeCounter}。
+ */
+public class SimpleCounter implements Counter {
+
+    private long count;
+
+    @Override
+    public void inc() {
+        count++;
+    }
+
+    @Override
+    public void inc(long n) {
+        count += n;
+    }
+
+    @Override
+    public void dec() {
+        count--;
+    }
+
+    @Override
+    public void dec(long n) {
+        count -= n;
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,111 @@
+package org.mini.flink.runtime.metrics;
+
+/**
+ * 任务的 IO 指标：统计任务线程在“空闲（等待输入）”、“反压（等待下游信用）”和“忙碌（处理数据）”三种状态下花费的时间。
+ * <p>
+ * 计时只由任务线程更新，由 TaskManager 的监控线程读取。
+ * 正在进行中的等待也会被计入，因此一个长时间卡在反压中的任务也能被及时发现。
+ */
+public class TaskIOMetrics {
+
+    private final String taskName;
+
+    // 【JUC知识点】: 单写多读的计数器使用 volatile 即可保证可见性，不需要原子类。
+    private volatile long idleTimeNanos;
+    private volatile long backPressuredTimeNanos;
+    // 当前正在进行的等待的开始时间，0 表示没有在等待
+    private volatile long idleStartNanos;
+    private volatile long backPressureStartNanos;
+
+    // 上一次采样时的累计值，只由采样线程访问
+    private long lastSampleNanos = System.nanoTime();
+    private long lastIdleTimeNanos;
+    private long lastBackPressuredTimeNanos;
+
+    public TaskIOMetrics(String taskName) {
+        this.taskName = taskName;
+    }
+
+    public void markIdleStart() {
+        idleStartNanos = System.nanoTime();
+    }
+
+    public void markIdleEnd() {
+        long start = idleStartNanos;
+        if (start != 0) {
+            idleTimeNanos += System.nanoTime() - start;
+            idleStartNanos = 0;
+        }
+    }
+
+    public void markBackPressureStart() {
+        backPressureStartNanos = System.nanoTime();
+    }
+
+    public void markBackPressureEnd() {
+        long start = backPressureStartNanos;
+        if (start != 0) {
+            backPressuredTimeNanos += System.nanoTime() - start;
+            backPressureStartNanos = 0;
+        }
+    }
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    /**
+     * 计算从上一次采样到现在，任务在各个状态下所占的时间比例。
+     */
+    public synchronized TimeRatios sample() {
+        long now = System.nanoTime();
+        long idle = idleTimeNanos + ongoing(idleStartNanos, now);
+        long backPressured = backPressuredTimeNanos + ongoing(backPressureStartNanos, now);
+
+        long interval = Math.max(1, now - lastSampleNanos);
+        double idleRatio = Math.min(1.0, (double) (idle - lastIdleTimeNanos) / interval);
+        double backPressuredRatio = Math.min(1.0 - idleRatio, (double) (backPressured - lastBackPressuredTimeNanos) / interval);
+
+        lastSampleNanos = now;
+        lastIdleTimeNanos = idle;
+        lastBackPressuredTimeNanos = backPressured;
+        return new TimeRatios(idleRatio, backPressuredRatio, Math.max(0.0, 1.0 - idleRatio - backPressuredRatio));
+    }
+
+    private static long ongoing(long startNanos, long now) {
+        return startNanos == 0 ? 0 : now - startNanos;
+    }
+
+    /**
+     * 一段时间内的时间占比。
+     */
+    public static class TimeRatios {
+        private final double idleRatio;
+        private final double backPressuredRatio;
+        private final double busyRatio;
+
+        public TimeRatios(double idleRatio, double backPressuredRatio, double busyRatio) {
+            this.idleRatio = idleRatio;
+            this.backPressuredRatio = backPressuredRatio;
+            this.busyRatio = busyRatio;
+        }
+
+        public double getIdleRatio() {
+            return idleRatio;
+        }
+
+        public double getBackPressuredRatio() {
+            return backPressuredRatio;
+        }
+
+        public double getBusyRatio() {
+            return busyRatio;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("busy=%.0f%%, idle=%.0f%%, backPressured=%.0f%%",
+                    busyRatio * 100, idleRatio * 100, backPressuredRatio * 100);
+        }
+    }
+}
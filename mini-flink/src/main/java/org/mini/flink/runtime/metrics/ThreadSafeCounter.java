@@ -0,0 +1,38 @@
+package org.mini.flink.runtime.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 可以由多个线程同时更新的计数器。
+ * <p>
+ * 【JUC知识点】: LongAdder 把竞争分散到多个 Cell 上，写多读少时比 AtomicLong 的 CAS 自旋开销更小。
+ */
+public class ThreadSafeCounter implements Counter {
+
+    private final LongAdder count = new LongAdder();
+
+    @Override
+    public void inc() {
+        count.increment();
+    }
+
+    @Override
+    public void inc(long n) {
+        count.add(n);
+    }
+
+    @Override
+    public void dec() {
+        count.decrement();
+    }
+
+    @Override
+    public void dec(long n) {
+        count.add(-n);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
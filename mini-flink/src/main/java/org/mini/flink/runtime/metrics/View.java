@@ -0,0 +1,12 @@
+package org.mini.flink.runtime.metrics;
+
+/**
+ * 需要定期更新的指标，例如根据计数器算出速率的 {@link MeterView}。
+ * {@link MetricRegistry} 每隔 {@link #UPDATE_INTERVAL_SECONDS} 秒在它的调度线程中调用一次 {@link #update()}。
+ */
+public interface View {
+
+    int UPDATE_INTERVAL_SECONDS = 5;
+
+    void update();
+}
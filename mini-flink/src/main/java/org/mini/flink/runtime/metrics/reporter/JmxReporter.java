@@ -0,0 +1,235 @@
+package org.mini.flink.runtime.metrics.reporter;
+
+import org.mini.flink.runtime.metrics.Counter;
+import org.mini.flink.runtime.metrics.Gauge;
+import org.mini.flink.runtime.metrics.Histogram;
+import org.mini.flink.runtime.metrics.HistogramStatistics;
+import org.mini.flink.runtime.metrics.Meter;
+import org.mini.flink.runtime.metrics.Metric;
+import org.mini.flink.runtime.metrics.MetricGroup;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * 把每个指标注册为平台 MBeanServer 中的一个 MBean，可以用 JConsole、VisualVM 或 JMX 导出器查看。
+ * <p>
+ * ObjectName 的形式为 {@code org.mini.flink:type=<逻辑名称>,<变量>=<值>,...,name=<指标名>}，例如
+ * {@code org.mini.flink:type=taskmanager,job_name=WordCount,task_name="Source -> Splitter",subtask_index=0,name=numRecordsOut}。
+ * 指标在注册时即可见，不需要周期性上报。
+ */
+public class JmxReporter implements MetricReporter {
+    private static final Logger LOG = Logger.getLogger(JmxReporter.class.getName());
+    private static final String DOMAIN = "org.mini.flink";
+    // ObjectName 中不加引号就能使用的值
+    private static final Pattern UNQUOTED_VALUE = Pattern.compile("[A-Za-z0-9_.\\-]+");
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    private final Map<ObjectName, Metric> registered = new ConcurrentHashMap<>();
+
+    @Override
+    public void open(Properties config) {
+    }
+
+    @Override
+    public void close() {
+        for (ObjectName name : registered.keySet()) {
+            unregisterMBean(name);
+        }
+        registered.clear();
+    }
+
+    @Override
+    public void notifyOfAddedMetric(Metric metric, String metricName, MetricGroup group) {
+        Object mBean;
+        try {
+            if (metric instanceof Counter) {
+                mBean = new StandardMBean(new JmxCounter((Counter) metric), JmxCounterMBean.class);
+            } else if (metric instanceof Gauge) {
+                mBean = new StandardMBean(new JmxGauge((Gauge<?>) metric), JmxGaugeMBean.class);
+            } else if (metric instanceof Meter) {
+                mBean = new StandardMBean(new JmxMeter((Meter) metric), JmxMeterMBean.class);
+            } else if (metric instanceof Histogram) {
+                mBean = new StandardMBean(new JmxHistogram((Histogram) metric), JmxHistogramMBean.class);
+            } else {
+                LOG.warning("不支持的指标类型 " + metric.getClass().getName() + "，忽略 " + group.getMetricIdentifier(metricName));
+                return;
+            }
+            ObjectName name = objectName(metricName, group);
+            mBeanServer.registerMBean(mBean, name);
+            registered.put(name, metric);
+        } catch (JMException e) {
+            LOG.warning("注册指标 " + group.getMetricIdentifier(metricName) + " 的 MBean 失败: " + e);
+        }
+    }
+
+    @Override
+    public void notifyOfRemovedMetric(Metric metric, String metricName, MetricGroup group) {
+        try {
+            ObjectName name = objectName(metricName, group);
+            // 同名的 MBean 可能已经属于一个新的指标，只注销自己注册的那一个
+            if (registered.remove(name, metric)) {
+                unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            LOG.warning("注销指标 " + group.getMetricIdentifier(metricName) + " 的 MBean 失败: " + e);
+        }
+    }
+
+    private void unregisterMBean(ObjectName name) {
+        try {
+            mBeanServer.unregisterMBean(name);
+        } catch (InstanceNotFoundException ignored) {
+            // 已经被注销
+        } catch (JMException e) {
+            LOG.warning("注销 MBean " + name + " 失败: " + e);
+        }
+    }
+
+    static ObjectName objectName(String metricName, MetricGroup group) throws JMException {
+        StringBuilder name = new StringBuilder(DOMAIN).append(":type=")
+                .append(quoteIfNeeded(String.join(".", group.getLogicalScopeComponents())));
+        for (Map.Entry<String, String> variable : group.getAllVariables().entrySet()) {
+            name.append(',').append(variable.getKey()).append('=').append(quoteIfNeeded(variable.getValue()));
+        }
+        name.append(",name=").append(quoteIfNeeded(metricName));
+        return new ObjectName(name.toString());
+    }
+
+    private static String quoteIfNeeded(String value) {
+        return UNQUOTED_VALUE.matcher(value).matches() ? value : ObjectName.quote(value);
+    }
+
+    public interface JmxCounterMBean {
+        long getCount();
+    }
+
+    public interface JmxGaugeMBean {
+        Object getValue();
+    }
+
+    public interface JmxMeterMBean {
+        double getRate();
+
+        long getCount();
+    }
+
+    public interface JmxHistogramMBean {
+        long getCount();
+
+        long getMin();
+
+        long getMax();
+
+        double getMean();
+
+        double getMedian();
+
+        double get95thPercentile();
+
+        double get99thPercentile();
+
+        double get999thPercentile();
+    }
+
+    private static class JmxCounter implements JmxCounterMBean {
+        private final Counter counter;
+
+        JmxCounter(Counter counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public long getCount() {
+            return counter.getCount();
+        }
+    }
+
+    private static class JmxGauge implements JmxGaugeMBean {
+        private final Gauge<?> gauge;
+
+        JmxGauge(Gauge<?> gauge) {
+            this.gauge = gauge;
+        }
+
+        @Override
+        public Object getValue() {
+            return gauge.getValue();
+        }
+    }
+
+    private static class JmxMeter implements JmxMeterMBean {
+        private final Meter meter;
+
+        JmxMeter(Meter meter) {
+            this.meter = meter;
+        }
+
+        @Override
+        public double getRate() {
+            return meter.getRate();
+        }
+
+        @Override
+        public long getCount() {
+            return meter.getCount();
+        }
+    }
+
+    private static class JmxHistogram implements JmxHistogramMBean {
+        private final Histogram histogram;
+
+        JmxHistogram(Histogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        @Override
+        public long getMin() {
+            return histogram.getStatistics().getMin();
+        }
+
+        @Override
+        public long getMax() {
+            return histogram.getStatistics().getMax();
+        }
+
+        @Override
+        public double getMean() {
+            return histogram.getStatistics().getMean();
+        }
+
+        @Override
+        public double getMedian() {
+            return histogram.getStatistics().getQuantile(0.5);
+        }
+
+        @Override
+        public double get95thPercentile() {
+            return histogram.getStatistics().getQuantile(0.95);
+        }
+
+        @Override
+        public double get99thPercentile() {
+            return histogram.getStatistics().getQuantile(0.99);
+        }
+
+        @Override
+        public double get999thPercentile() {
+            return histogram.getStatistics().getQuantile(0.999);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.mini.flink.runtime.metrics.reporter;
+
+/**
+ * 创建 {@link JmxReporter}，标识为 {@code jmx}。
+ */
+public class JmxReporterFactory implements MetricReporterFactory {
+
+    @Override
+    public String identifier() {
+        return "jmx";
+    }
+
+    @Override
+    public MetricReporter createMetricReporter() {
+        return new JmxReporter();
+    }
+}
@@ -0,0 +1,82 @@
+package org.mini.flink.runtime.metrics.reporter;
+
+import org.mini.flink.runtime.metrics.Counter;
+import org.mini.flink.runtime.metrics.Gauge;
+import org.mini.flink.runtime.metrics.Histogram;
+import org.mini.flink.runtime.metrics.HistogramStatistics;
+import org.mini.flink.runtime.metrics.Meter;
+import org.mini.flink.runtime.metrics.Metric;
+import org.mini.flink.runtime.metrics.MetricGroup;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * 把所有指标按名称排序后周期性地输出到日志中，适合在本地调试时观察吞吐量和检查点耗时。
+ */
+public class LogReporter implements MetricReporter, Scheduled {
+    private static final Logger LOG = Logger.getLogger(LogReporter.class.getName());
+
+    // Key 为指标对象，Value 为它的完整名称
+    private final Map<Metric, String> metrics = new ConcurrentHashMap<>();
+
+    @Override
+    public void open(Properties config) {
+    }
+
+    @Override
+    public void close() {
+        metrics.clear();
+    }
+
+    @Override
+    public void notifyOfAddedMetric(Metric metric, String metricName, MetricGroup group) {
+        metrics.put(metric, group.getMetricIdentifier(metricName));
+    }
+
+    @Override
+    public void notifyOfRemovedMetric(Metric metric, String metricName, MetricGroup group) {
+        metrics.remove(metric);
+    }
+
+    @Override
+    public void report() {
+        if (metrics.isEmpty()) {
+            return;
+        }
+        Map<String, Metric> sorted = new TreeMap<>();
+        for (Map.Entry<Metric, String> entry : metrics.entrySet()) {
+            sorted.put(entry.getValue(), entry.getKey());
+        }
+        StringBuilder report = new StringBuilder("指标上报，共 ").append(sorted.size()).append(" 个指标:");
+        for (Map.Entry<String, Metric> entry : sorted.entrySet()) {
+            report.append(System.lineSeparator()).append("  ").append(entry.getKey()).append(": ")
+                    .append(format(entry.getValue()));
+        }
+        LOG.info(report.toString());
+    }
+
+    private static String format(Metric metric) {
+        if (metric instanceof Counter) {
+            return String.valueOf(((Counter) metric).getCount());
+        }
+        if (metric instanceof Gauge) {
+            return String.valueOf(((Gauge<?>) metric).getValue());
+        }
+        if (metric instanceof Meter) {
+            Meter meter = (Meter) metric;
+            return String.format("%.2f/s (count=%d)", meter.getRate(), meter.getCount());
+        }
+        if (metric instanceof Histogram) {
+            HistogramStatistics statistics = ((Histogram) metric).getStatistics();
+            return String.format("count=%d, min=%d, max=%d, mean=%.2f, p50=%.0f, p95=%.0f, p99=%.0f, p999=%.0f",
+                    statistics.size(), statistics.getMin(), statistics.getMax(), statistics.getMean(),
+                    statistics.getQuantile(0.5), statistics.getQuantile(0.95),
+                    statistics.getQuantile(0.99), statistics.getQuantile(0.999));
+        }
+        return metric.toString();
+    }
+}
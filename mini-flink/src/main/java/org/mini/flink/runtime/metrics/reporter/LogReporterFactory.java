@@ -0,0 +1,17 @@
+package org.mini.flink.runtime.metrics.reporter;
+
+/**
+ * 创建 {@link LogReporter}，标识为 {@code log}。
+ */
+public class LogReporterFactory implements MetricReporterFactory {
+
+    @Override
+    public String identifier() {
+        return "log";
+    }
+
+    @Override
+    public MetricReporter createMetricReporter() {
+        return new LogReporter();
+    }
+}
@@ -0,0 +1,27 @@
+package org.mini.flink.runtime.metrics.reporter;
+
+import org.mini.flink.runtime.metrics.Metric;
+import org.mini.flink.runtime.metrics.MetricGroup;
+
+import java.util.Properties;
+
+/**
+ * 指标上报器，把 {@link org.mini.flink.runtime.metrics.MetricRegistry} 中的指标输出到外部系统。
+ * <p>
+ * 指标的注册和注销在创建、关闭指标组的线程中回调，实现必须是线程安全的。
+ * 需要周期性输出的上报器同时实现 {@link Scheduled}。上报器通过 {@link MetricReporterFactory} 创建。
+ */
+public interface MetricReporter {
+
+    /**
+     * 上报器创建后调用一次。
+     * @param config 这个上报器自己的配置，键已经去掉了 {@code mini-flink.metrics.reporter.<名称>.} 前缀
+     */
+    void open(Properties config);
+
+    void close();
+
+    void notifyOfAddedMetric(Metric metric, String metricName, MetricGroup group);
+
+    void notifyOfRemovedMetric(Metric metric, String metricName, MetricGroup group);
+}
@@ -0,0 +1,16 @@
+package org.mini.flink.runtime.metrics.reporter;
+
+/**
+ * 创建 {@link MetricReporter} 的工厂，通过 {@link java.util.ServiceLoader} 发现：
+ * 实现类的全限定名写在 {@code META-INF/services/org.mini.flink.runtime.metrics.reporter.MetricReporterFactory} 中，
+ * 自定义的上报器放到 classpath 上即可被配置使用。
+ */
+public interface MetricReporterFactory {
+
+    /**
+     * @return 在配置中引用这个上报器的标识，例如 {@code log}
+     */
+    String identifier();
+
+    MetricReporter createMetricReporter();
+}
@@ -0,0 +1,200 @@
+package org.mini.flink.runtime.metrics.reporter;
+
+import org.mini.flink.runtime.metrics.Counter;
+import org.mini.flink.runtime.metrics.Gauge;
+import org.mini.flink.runtime.metrics.Histogram;
+import org.mini.flink.runtime.metrics.HistogramStatistics;
+import org.mini.flink.runtime.metrics.Meter;
+import org.mini.flink.runtime.metrics.Metric;
+import org.mini.flink.runtime.metrics.MetricGroup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * 周期性地把所有指标以 Prometheus 文本格式（0.0.4）写入一个文件，供 node_exporter 的 textfile 收集器读取，
+ * 不需要在作业进程中开放 HTTP 端口。
+ * <p>
+ * 指标名由前缀、指标组中固定名称的层和指标名用 "_" 连接而成，例如 {@code mini_flink_taskmanager_numRecordsIn}，
+ * 作业名、顶点名、子任务序号等变量作为标签。计数器和数值型的 Gauge 输出为 gauge，Meter 输出每秒速率，
+ * Histogram 输出为带分位数的 summary。
+ * <p>
+ * 配置项：
+ * <ul>
+ *     <li>{@code path}：输出文件，默认当前目录下的 {@code mini-flink-metrics.prom}；</li>
+ *     <li>{@code prefix}：指标名前缀，默认 {@code mini_flink}。</li>
+ * </ul>
+ * 每次上报先写入同目录下的临时文件再原子地替换目标文件，读取方不会看到写了一半的内容。
+ */
+public class PrometheusTextFileReporter implements MetricReporter, Scheduled {
+    private static final Logger LOG = Logger.getLogger(PrometheusTextFileReporter.class.getName());
+    private static final double[] QUANTILES = {0.5, 0.75, 0.95, 0.98, 0.99, 0.999};
+
+    private final Map<Metric, MetricInfo> metrics = new ConcurrentHashMap<>();
+    private Path path;
+    private String prefix;
+
+    @Override
+    public void open(Properties config) {
+        this.path = Paths.get(config.getProperty("path", "mini-flink-metrics.prom")).toAbsolutePath();
+        this.prefix = sanitizeName(config.getProperty("prefix", "mini_flink"));
+        LOG.info("Prometheus 指标文件: " + path);
+    }
+
+    @Override
+    public void close() {
+        metrics.clear();
+    }
+
+    @Override
+    public void notifyOfAddedMetric(Metric metric, String metricName, MetricGroup group) {
+        StringBuilder name = new StringBuilder(prefix);
+        for (String component : group.getLogicalScopeComponents()) {
+            name.append('_').append(component);
+        }
+        name.append('_').append(metricName);
+        metrics.put(metric, new MetricInfo(sanitizeName(name.toString()), labels(group.getAllVariables())));
+    }
+
+    @Override
+    public void notifyOfRemovedMetric(Metric metric, String metricName, MetricGroup group) {
+        metrics.remove(metric);
+    }
+
+    @Override
+    public void report() {
+        // 同名的指标（例如各个子任务的 numRecordsIn）属于同一个指标族，TYPE 只声明一次
+        Map<String, Family> families = new TreeMap<>();
+        for (Map.Entry<Metric, MetricInfo> entry : metrics.entrySet()) {
+            addSamples(families, entry.getKey(), entry.getValue());
+        }
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Family> family : families.entrySet()) {
+            text.append("# TYPE ").append(family.getKey()).append(' ').append(family.getValue().type).append('\n');
+            for (String sample : family.getValue().samples) {
+                text.append(sample).append('\n');
+            }
+        }
+        try {
+            write(text.toString());
+        } catch (IOException e) {
+            LOG.warning("写入 Prometheus 指标文件 " + path + " 失败: " + e);
+        }
+    }
+
+    private static void addSamples(Map<String, Family> families, Metric metric, MetricInfo info) {
+        if (metric instanceof Counter) {
+            family(families, info.name, "gauge").add(info.name, info.labels, ((Counter) metric).getCount());
+        } else if (metric instanceof Gauge) {
+            Object value = ((Gauge<?>) metric).getValue();
+            if (value instanceof Number) {
+                family(families, info.name, "gauge").add(info.name, info.labels, ((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                family(families, info.name, "gauge").add(info.name, info.labels, (Boolean) value ? 1 : 0);
+            }
+            // 其他类型的值无法表示为样本，不输出
+        } else if (metric instanceof Meter) {
+            family(families, info.name, "gauge").add(info.name, info.labels, ((Meter) metric).getRate());
+        } else if (metric instanceof Histogram) {
+            HistogramStatistics statistics = ((Histogram) metric).getStatistics();
+            Family family = family(families, info.name, "summary");
+            for (double quantile : QUANTILES) {
+                String labels = info.labels.isEmpty() ? "quantile=\"" + quantile + "\""
+                        : info.labels + ",quantile=\"" + quantile + "\"";
+                family.add(info.name, labels, statistics.getQuantile(quantile));
+            }
+            family.add(info.name + "_sum", info.labels, statistics.getMean() * statistics.size());
+            family.add(info.name + "_count", info.labels, statistics.size());
+        }
+    }
+
+    private static Family family(Map<String, Family> families, String name, String type) {
+        return families.computeIfAbsent(name, k -> new Family(type));
+    }
+
+    private void write(String text) throws IOException {
+        Path parent = path.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        // 临时文件的后缀不是 .prom，textfile 收集器不会读到它
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(tmp, text.getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String labels(Map<String, String> variables) {
+        List<String> labels = new ArrayList<>();
+        for (Map.Entry<String, String> variable : variables.entrySet()) {
+            labels.add(sanitizeName(variable.getKey()) + "=\"" + escapeLabelValue(variable.getValue()) + "\"");
+        }
+        return String.join(",", labels);
+    }
+
+    /**
+     * 指标名和标签名只能包含字母、数字、下划线和冒号，且不能以数字开头。
+     */
+    static String sanitizeName(String name) {
+        StringBuilder sanitized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':'
+                    || (c >= '0' && c <= '9' && i > 0);
+            sanitized.append(valid ? c : '_');
+        }
+        return sanitized.toString();
+    }
+
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String formatValue(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        return Double.toString(value);
+    }
+
+    private static class MetricInfo {
+        private final String name;
+        private final String labels;
+
+        MetricInfo(String name, String labels) {
+            this.name = name;
+            this.labels = labels;
+        }
+    }
+
+    private static class Family {
+        private final String type;
+        private final List<String> samples = new ArrayList<>();
+
+        Family(String type) {
+            this.type = type;
+        }
+
+        void add(String name, String labels, double value) {
+            samples.add(name + (labels.isEmpty() ? "" : "{" + labels + "}") + " " + formatValue(value));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.mini.flink.runtime.metrics.reporter;
+
+/**
+ * 创建 {@link PrometheusTextFileReporter}，标识为 {@code prometheus-textfile}。
+ */
+public class PrometheusTextFileReporterFactory implements MetricReporterFactory {
+
+    @Override
+    public String identifier() {
+        return "prometheus-textfile";
+    }
+
+    @Override
+    public MetricReporter createMetricReporter() {
+        return new PrometheusTextFileReporter();
+    }
+}
@@ -0,0 +1,9 @@
+package org.mini.flink.runtime.metrics.reporter;
+
+/**
+ * 需要周期性输出的 {@link MetricReporter}，由指标注册中心的调度线程按配置的间隔调用 {@link #report()}。
+ */
+public interface Scheduled {
+
+    void report();
+}
@@ -0,0 +1,95 @@
+package org.mini.flink.runtime.net;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 从一个 ByteBuffer 中按 {@link DataInput} 的约定读取数据，与 {@link ByteBufferDataOutput} 对应。
+ */
+final class ByteBufferDataInput implements DataInput {
+    private ByteBuffer buffer;
+
+    ByteBufferDataInput setBuffer(ByteBuffer buffer) {
+        this.buffer = buffer;
+        return this;
+    }
+
+    @Override
+    public void readFully(byte[] b) {
+        buffer.get(b);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) {
+        buffer.get(b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int n) {
+        int skipped = Math.min(n, buffer.remaining());
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+
+    @Override
+    public byte readByte() {
+        return buffer.get();
+    }
+
+    @Override
+    public int readUnsignedByte() {
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public short readShort() {
+        return buffer.getShort();
+    }
+
+    @Override
+    public int readUnsignedShort() {
+        return buffer.getShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() {
+        return buffer.getChar();
+    }
+
+    @Override
+    public int readInt() {
+        return buffer.getInt();
+    }
+
+    @Override
+    public long readLong() {
+        return buffer.getLong();
+    }
+
+    @Override
+    public float readFloat() {
+        return buffer.getFloat();
+    }
+
+    @Override
+    public double readDouble() {
+        return buffer.getDouble();
+    }
+
+    @Override
+    public String readLine() {
+        throw new UnsupportedOperationException("readLine");
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+}
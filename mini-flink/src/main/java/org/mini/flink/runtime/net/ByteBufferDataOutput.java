@@ -0,0 +1,105 @@
+package org.mini.flink.runtime.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 把 {@link DataOutput} 的写入直接落到一个 ByteBuffer 上，{@link org.mini.flink.api.typeutils.TypeSerializer}
+ * 借此把记录写进网络帧，不经过中间的字节数组。
+ * <p>
+ * 剩余空间不够时抛出 {@link BufferOverflowException}，与直接写 ByteBuffer 的行为一致，调用者换更大的缓冲重试。
+ */
+final class ByteBufferDataOutput implements DataOutput {
+    private ByteBuffer buffer;
+
+    ByteBufferDataOutput setBuffer(ByteBuffer buffer) {
+        this.buffer = buffer;
+        return this;
+    }
+
+    @Override
+    public void write(int b) {
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b) {
+        buffer.put(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        buffer.put(b, off, len);
+    }
+
+    @Override
+    public void writeBoolean(boolean v) {
+        buffer.put((byte) (v ? 1 : 0));
+    }
+
+    @Override
+    public void writeByte(int v) {
+        buffer.put((byte) v);
+    }
+
+    @Override
+    public void writeShort(int v) {
+        buffer.putShort((short) v);
+    }
+
+    @Override
+    public void writeChar(int v) {
+        buffer.putChar((char) v);
+    }
+
+    @Override
+    public void writeInt(int v) {
+        buffer.putInt(v);
+    }
+
+    @Override
+    public void writeLong(long v) {
+        buffer.putLong(v);
+    }
+
+    @Override
+    public void writeFloat(float v) {
+        buffer.putFloat(v);
+    }
+
+    @Override
+    public void writeDouble(double v) {
+        buffer.putDouble(v);
+    }
+
+    @Override
+    public void writeBytes(String s) {
+        int length = s.length();
+        if (buffer.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) s.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeChars(String s) {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            buffer.putChar(s.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeUTF(String s) throws IOException {
+        // 很少用到，借用 DataOutputStream 生成 modified UTF-8 编码
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(s.length() + 2);
+        new DataOutputStream(bytes).writeUTF(s);
+        buffer.put(bytes.toByteArray());
+    }
+}
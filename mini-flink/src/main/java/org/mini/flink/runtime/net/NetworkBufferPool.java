@@ -0,0 +1,63 @@
+package org.mini.flink.runtime.net;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一个 TaskManager 进程共享的网络缓冲池，缓冲都是固定大小的堆外 (direct) 内存段。
+ * <p>
+ * 记录直接序列化到堆外内存段中，再从同一个内存段写入 socket：JDK 写 direct ByteBuffer 时不需要先拷贝到
+ * 临时的堆外缓冲，一次发送只有“对象 -> 内存段”这一次拷贝。内存段用完后归还池中循环使用，
+ * 稳定运行时不再分配新的缓冲。
+ * <p>
+ * 内存段只在一次写出的过程中被占用，同时需要的数量不超过同时发送数据的线程数，
+ * 因此池中的内存段不足时直接新分配，不会阻塞；超过池的上限的内存段用完后直接丢弃。
+ */
+public class NetworkBufferPool {
+    private final int segmentSize;
+    private final int maxPooledSegments;
+    private final ConcurrentLinkedQueue<ByteBuffer> availableSegments = new ConcurrentLinkedQueue<>();
+    // 池中当前空闲的内存段数量
+    private final AtomicInteger pooledSegments = new AtomicInteger();
+
+    public NetworkBufferPool(int segmentSize, int maxPooledSegments) {
+        if (segmentSize <= 0 || maxPooledSegments <= 0) {
+            throw new IllegalArgumentException("内存段大小和数量必须大于 0");
+        }
+        this.segmentSize = segmentSize;
+        this.maxPooledSegments = maxPooledSegments;
+    }
+
+    /**
+     * @return 一个清空的内存段，用完后必须通过 {@link #recycle(ByteBuffer)} 归还
+     */
+    public ByteBuffer requestSegment() {
+        ByteBuffer segment = availableSegments.poll();
+        if (segment == null) {
+            segment = ByteBuffer.allocateDirect(segmentSize);
+        } else {
+            pooledSegments.decrementAndGet();
+        }
+        segment.clear();
+        return segment;
+    }
+
+    /**
+     * 归还一个内存段。容量不是标准大小的临时缓冲（为超大记录分配的）不会进入池中。
+     */
+    public void recycle(ByteBuffer segment) {
+        if (segment.capacity() != segmentSize || !segment.isDirect()) {
+            return;
+        }
+        if (pooledSegments.incrementAndGet() > maxPooledSegments) {
+            pooledSegments.decrementAndGet();
+            return;
+        }
+        availableSegments.offer(segment);
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+}
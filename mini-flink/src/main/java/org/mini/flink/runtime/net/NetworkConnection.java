@@ -0,0 +1,293 @@
+package org.mini.flink.runtime.net;
+
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.runtime.stream.RecordBuffer;
+import org.mini.flink.runtime.stream.TaskInterruptGuard;
+import org.mini.flink.util.InstantiationUtil;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * 两个 TaskManager 之间的一条 TCP 连接，由发起连接的一端（上游）的所有发送通道和接受连接的一端（下游）的
+ * 对应接收通道共享，帧中带有通道 ID 用于多路复用。
+ * <p>
+ * 帧格式：{@code [int 帧长度][byte 类型][int 通道 ID][负载]}，帧长度不包含自身的 4 个字节。
+ * <ul>
+ *     <li>REGISTER：上游 → 下游，发送通道创建时发送，负载为作业 ID、缓冲数量、缓冲大小和记录的序列化器；</li>
+ *     <li>BUFFER：上游 → 下游，一个 {@link RecordBuffer} 中的记录，占用一个信用；</li>
+ *     <li>EVENT：上游 → 下游，水位线、检查点屏障等事件，不占用信用；</li>
+ *     <li>PRIORITY_EVENT：上游 → 下游，非对齐检查点的屏障，下游收到后让它越过接收队列中还没有被消费的数据；</li>
+ *     <li>CREDIT：下游 → 上游，下游处理完若干个缓冲后归还的信用数。</li>
+ * </ul>
+ * 每条连接有一个读线程负责解码收到的帧；写入由发送数据的线程直接完成，多个线程之间用锁保证帧不会交错。
+ */
+public class NetworkConnection {
+    private static final Logger LOG = Logger.getLogger(NetworkConnection.class.getName());
+
+    static final byte REGISTER = 1;
+    static final byte BUFFER = 2;
+    static final byte EVENT = 3;
+    static final byte CREDIT = 4;
+    static final byte PRIORITY_EVENT = 5;
+
+    private static final int FRAME_HEADER_LENGTH = 4 + 1 + 4;
+
+    private final SocketChannel socket;
+    private final NetworkEnvironment environment;
+    private final NetworkBufferPool bufferPool;
+    private final String remoteAddress;
+    // 【JUC知识点】: 写锁保证一个帧的所有字节连续写出。这里可能在持锁时阻塞在 socket 上，
+    // 使用 ReentrantLock 而不是 synchronized，虚拟线程在等待时不会钉住载体线程。
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // 本端的发送通道和接收通道，Key 为通道 ID
+    private final Map<Integer, RemoteOutputChannel> outputChannels = new ConcurrentHashMap<>();
+    private final Map<Integer, RemoteInputChannel> inputChannels = new ConcurrentHashMap<>();
+    private final Thread readerThread;
+    private volatile boolean closed;
+
+    NetworkConnection(SocketChannel socket, NetworkEnvironment environment) throws IOException {
+        socket.configureBlocking(true);
+        socket.socket().setTcpNoDelay(true);
+        this.socket = socket;
+        this.environment = environment;
+        this.bufferPool = environment.getBufferPool();
+        this.remoteAddress = String.valueOf(socket.getRemoteAddress());
+        this.readerThread = new Thread(this::readLoop, "NetworkReader-" + remoteAddress);
+        this.readerThread.setDaemon(true);
+    }
+
+    void start() {
+        readerThread.start();
+    }
+
+    /**
+     * 登记一个发送通道并通知下游创建对应的接收通道。
+     * 记录的序列化器只在注册时用 Java 序列化发送一次，之后的数据帧中不再带任何类型信息。
+     *
+     * @param recordSerializer 记录的序列化器，为 null 表示记录类型未知
+     */
+    void registerOutputChannel(RemoteOutputChannel channel, int numberOfBuffers, int bufferSize,
+                               TypeSerializer<?> recordSerializer) throws IOException {
+        outputChannels.put(channel.getChannelId(), channel);
+        byte[] jobId = channel.getJobId().getBytes(StandardCharsets.UTF_8);
+        byte[] serializer = recordSerializer == null ? new byte[0] : InstantiationUtil.serializeObject(recordSerializer);
+        ByteBuffer frame = bufferPool.requestSegment();
+        int frameLength = FRAME_HEADER_LENGTH + 2 + jobId.length + 4 + 4 + 4 + serializer.length;
+        if (frame.capacity() < frameLength) {
+            bufferPool.recycle(frame);
+            frame = ByteBuffer.allocateDirect(frameLength);
+        }
+        beginFrame(frame);
+        frame.putShort((short) jobId.length);
+        frame.put(jobId);
+        frame.putInt(numberOfBuffers);
+        frame.putInt(bufferSize);
+        frame.putInt(serializer.length);
+        frame.put(serializer);
+        writeFrame(REGISTER, channel.getChannelId(), frame);
+    }
+
+    void unregisterOutputChannel(int channelId) {
+        outputChannels.remove(channelId);
+    }
+
+    void unregisterInputChannel(int channelId) {
+        inputChannels.remove(channelId);
+    }
+
+    /**
+     * 把一个记录缓冲序列化到堆外内存段中并发送。内存段放不下时换用更大的临时缓冲重新序列化。
+     */
+    void sendRecords(int channelId, RecordBuffer buffer, RecordSerializer serializer) throws IOException {
+        ByteBuffer frame = bufferPool.requestSegment();
+        while (true) {
+            try {
+                beginFrame(frame);
+                serializer.writeRecords(buffer, frame);
+                break;
+            } catch (BufferOverflowException e) {
+                bufferPool.recycle(frame);
+                frame = ByteBuffer.allocateDirect(frame.capacity() * 2);
+            }
+        }
+        writeFrame(BUFFER, channelId, frame);
+    }
+
+    void sendEvent(int channelId, Object event, RecordSerializer serializer) throws IOException {
+        ByteBuffer frame = beginFrame(bufferPool.requestSegment());
+        serializer.writeEvent(event, frame);
+        writeFrame(EVENT, channelId, frame);
+    }
+
+    void sendPriorityEvent(int channelId, Object event, RecordSerializer serializer) throws IOException {
+        ByteBuffer frame = beginFrame(bufferPool.requestSegment());
+        serializer.writeEvent(event, frame);
+        writeFrame(PRIORITY_EVENT, channelId, frame);
+    }
+
+    void sendCredit(int channelId, int credits) throws IOException {
+        ByteBuffer frame = beginFrame(bufferPool.requestSegment());
+        frame.putInt(credits);
+        writeFrame(CREDIT, channelId, frame);
+    }
+
+    private static ByteBuffer beginFrame(ByteBuffer frame) {
+        frame.clear();
+        frame.position(FRAME_HEADER_LENGTH);
+        return frame;
+    }
+
+    /**
+     * 补上帧头并写出整个帧，之后归还内存段。
+     */
+    private void writeFrame(byte type, int channelId, ByteBuffer frame) throws IOException {
+        try {
+            int length = frame.position();
+            frame.putInt(0, length - 4);
+            frame.put(4, type);
+            frame.putInt(5, channelId);
+            frame.flip();
+            // 任务线程写入时不能被取消任务的线程中断，否则整条连接会被关闭
+            TaskInterruptGuard.enterUninterruptible();
+            writeLock.lock();
+            try {
+                while (frame.hasRemaining()) {
+                    socket.write(frame);
+                }
+            } finally {
+                writeLock.unlock();
+                TaskInterruptGuard.exitUninterruptible();
+            }
+        } finally {
+            bufferPool.recycle(frame);
+        }
+    }
+
+    private void readLoop() {
+        RecordSerializer serializer = new RecordSerializer();
+        ByteBuffer readBuffer = ByteBuffer.allocateDirect(bufferPool.getSegmentSize() * 2);
+        try {
+            while (!closed) {
+                if (socket.read(readBuffer) < 0) {
+                    throw new EOFException();
+                }
+                readBuffer.flip();
+                while (readBuffer.remaining() >= 4) {
+                    int frameLength = readBuffer.getInt(readBuffer.position());
+                    if (readBuffer.remaining() < 4 + frameLength) {
+                        break;
+                    }
+                    int frameEnd = readBuffer.position() + 4 + frameLength;
+                    int limit = readBuffer.limit();
+                    readBuffer.position(readBuffer.position() + 4);
+                    readBuffer.limit(frameEnd);
+                    handleFrame(readBuffer, serializer);
+                    readBuffer.limit(limit);
+                    readBuffer.position(frameEnd);
+                }
+                readBuffer.compact();
+                if (!readBuffer.hasRemaining()) {
+                    // 帧比读缓冲还大，扩容后继续读
+                    ByteBuffer larger = ByteBuffer.allocateDirect(readBuffer.capacity() * 2);
+                    readBuffer.flip();
+                    larger.put(readBuffer);
+                    readBuffer = larger;
+                }
+            }
+        } catch (EOFException e) {
+            if (!closed) {
+                LOG.info("与 " + remoteAddress + " 的数据连接已被对方关闭。");
+            }
+        } catch (Exception e) {
+            if (!closed) {
+                LOG.severe("与 " + remoteAddress + " 的数据连接读取失败: " + e);
+            }
+        } finally {
+            close();
+        }
+    }
+
+    private void handleFrame(ByteBuffer frame, RecordSerializer serializer) throws Exception {
+        byte type = frame.get();
+        int channelId = frame.getInt();
+        switch (type) {
+            case REGISTER: {
+                byte[] jobId = new byte[frame.getShort()];
+                frame.get(jobId);
+                int numberOfBuffers = frame.getInt();
+                int bufferSize = frame.getInt();
+                byte[] recordSerializerBytes = new byte[frame.getInt()];
+                frame.get(recordSerializerBytes);
+                RemoteInputChannel channel = environment.getOrCreateRemoteInputChannel(
+                        new String(jobId, StandardCharsets.UTF_8), channelId, numberOfBuffers, bufferSize);
+                @SuppressWarnings("unchecked")
+                TypeSerializer<Object> recordSerializer = recordSerializerBytes.length == 0
+                        ? null : (TypeSerializer<Object>) InstantiationUtil.deserializeObject(recordSerializerBytes);
+                channel.bind(this, recordSerializer);
+                inputChannels.put(channelId, channel);
+                break;
+            }
+            case BUFFER: {
+                // 注册帧总在数据之前到达，找不到通道说明作业已经释放，剩余的在途数据直接丢弃
+                RemoteInputChannel channel = inputChannels.get(channelId);
+                if (channel != null) {
+                    channel.onBuffer(frame);
+                }
+                break;
+            }
+            case EVENT: {
+                RemoteInputChannel channel = inputChannels.get(channelId);
+                if (channel != null) {
+                    channel.onEvent(serializer.readEvent(frame));
+                }
+                break;
+            }
+            case PRIORITY_EVENT: {
+                RemoteInputChannel channel = inputChannels.get(channelId);
+                if (channel != null) {
+                    channel.onPriorityEvent(serializer.readEvent(frame));
+                }
+                break;
+            }
+            case CREDIT: {
+                RemoteOutputChannel channel = outputChannels.get(channelId);
+                if (channel != null) {
+                    channel.onCredit(frame.getInt());
+                }
+                break;
+            }
+            default:
+                throw new IOException("未知的帧类型: " + type);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // 关闭失败时没有需要清理的资源
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkConnection{" + remoteAddress + "}";
+    }
+}
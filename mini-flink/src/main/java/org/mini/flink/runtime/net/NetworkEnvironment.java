@@ -0,0 +1,205 @@
+package org.mini.flink.runtime.net;
+
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.runtime.stream.ChannelType;
+import org.mini.flink.runtime.stream.DataChannel;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * 一个 TaskManager 的数据交换环境，为部署到这里的任务创建输入输出通道。
+ * <ul>
+ *     <li>上下游在同一个 TaskManager 中：两端通过通道 ID 拿到同一个进程内通道，与单进程模式完全相同；</li>
+ *     <li>上下游在不同的 TaskManager 中：上游创建 {@link RemoteOutputChannel}，通过到下游 TaskManager 的
+ *     {@link NetworkConnection} 发送数据；下游的 {@link RemoteInputChannel} 由连接的读线程写入。</li>
+ * </ul>
+ * 到同一个远程 TaskManager 的所有通道共享一条连接。通道在两端的创建顺序不确定，
+ * 因此按“作业 ID / 通道 ID”查找或创建，先到的一端创建、后到的一端取用。
+ * <p>
+ * 只有配置了数据端口时才监听连接，纯单进程运行的 TaskManager 不占用端口。
+ */
+public class NetworkEnvironment {
+    private static final Logger LOG = Logger.getLogger(NetworkEnvironment.class.getName());
+    private static final int SEGMENT_SIZE = 32 * 1024;
+    private static final int MAX_POOLED_SEGMENTS = 256;
+
+    private final NetworkBufferPool bufferPool = new NetworkBufferPool(SEGMENT_SIZE, MAX_POOLED_SEGMENTS);
+    // Key: 作业 ID / 通道 ID
+    private final Map<String, DataChannel> localChannels = new ConcurrentHashMap<>();
+    private final Map<String, RemoteInputChannel> remoteInputChannels = new ConcurrentHashMap<>();
+    private final Map<String, RemoteOutputChannel> remoteOutputChannels = new ConcurrentHashMap<>();
+    // 本端主动建立的连接，Key 为下游 TaskManager 的数据地址
+    private final Map<InetSocketAddress, NetworkConnection> outgoingConnections = new ConcurrentHashMap<>();
+    private final List<NetworkConnection> incomingConnections = new CopyOnWriteArrayList<>();
+    private ServerSocketChannel server;
+    private InetSocketAddress dataAddress;
+
+    /**
+     * 在给定的地址上监听其他 TaskManager 的数据连接。
+     * @param port 0 表示随机选择一个空闲端口
+     * @return 实际监听的地址
+     */
+    public synchronized InetSocketAddress start(String host, int port) throws IOException {
+        if (server != null) {
+            return dataAddress;
+        }
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(host, port));
+        dataAddress = new InetSocketAddress(host, ((InetSocketAddress) server.getLocalAddress()).getPort());
+        Thread acceptor = new Thread(this::acceptLoop, "NetworkAcceptor-" + dataAddress.getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        LOG.info("数据交换服务已在 " + dataAddress + " 上监听。");
+        return dataAddress;
+    }
+
+    private void acceptLoop() {
+        ServerSocketChannel serverChannel = server;
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel socket = serverChannel.accept();
+                NetworkConnection connection = new NetworkConnection(socket, this);
+                incomingConnections.add(connection);
+                connection.start();
+                LOG.info("接受了来自 " + socket.getRemoteAddress() + " 的数据连接。");
+            } catch (IOException e) {
+                if (serverChannel.isOpen()) {
+                    LOG.warning("接受数据连接失败: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取进程内通道，上下游两端以相同的参数调用，拿到的是同一个通道。
+     */
+    public DataChannel getOrCreateLocalChannel(String jobId, int channelId, ChannelType channelType, int capacity) {
+        return localChannels.computeIfAbsent(key(jobId, channelId), k -> channelType.createChannel(capacity));
+    }
+
+    /**
+     * 获取跨进程通道的接收端，下游任务部署时和上游的注册帧到达时都会调用。
+     */
+    public RemoteInputChannel getOrCreateRemoteInputChannel(String jobId, int channelId, int numberOfBuffers, int bufferSize) {
+        return remoteInputChannels.computeIfAbsent(key(jobId, channelId),
+                k -> new RemoteInputChannel(jobId, channelId, numberOfBuffers, bufferSize));
+    }
+
+    /**
+     * 创建跨进程通道的发送端，必要时先建立到下游 TaskManager 的连接。
+     *
+     * @param recordSerializer 上游算子输出记录的序列化器，为 null 时按每条记录的实际类型编码
+     */
+    @SuppressWarnings("unchecked")
+    public RemoteOutputChannel createRemoteOutputChannel(String jobId, int channelId, InetSocketAddress consumerAddress,
+                                                         int numberOfBuffers, int bufferSize,
+                                                         TypeSerializer<?> recordSerializer) throws IOException {
+        NetworkConnection connection = getOrConnect(consumerAddress);
+        RemoteOutputChannel channel = new RemoteOutputChannel(jobId, channelId, connection,
+                (TypeSerializer<Object>) recordSerializer);
+        connection.registerOutputChannel(channel, numberOfBuffers, bufferSize, recordSerializer);
+        remoteOutputChannels.put(key(jobId, channelId), channel);
+        return channel;
+    }
+
+    private NetworkConnection getOrConnect(InetSocketAddress address) throws IOException {
+        NetworkConnection connection = outgoingConnections.get(address);
+        if (connection != null && !connection.isClosed()) {
+            return connection;
+        }
+        synchronized (outgoingConnections) {
+            connection = outgoingConnections.get(address);
+            if (connection == null || connection.isClosed()) {
+                connection = new NetworkConnection(SocketChannel.open(address), this);
+                connection.start();
+                outgoingConnections.put(address, connection);
+                LOG.info("建立了到 " + address + " 的数据连接。");
+            }
+            return connection;
+        }
+    }
+
+    /**
+     * 作业的任务都已停止，释放它的所有通道。连接保留给之后的作业继续使用。
+     */
+    public void releaseJob(String jobId) {
+        String prefix = jobId + "/";
+        releaseChannels(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * 作业的部分任务被取消，释放它们之间的通道。取消的任务重新部署时使用新的通道 ID，
+     * 旧通道上残留的在途数据随通道一起丢弃，不会混入新的任务。
+     */
+    public void releaseChannels(String jobId, Collection<Integer> channelIds) {
+        Set<String> keys = new HashSet<>();
+        for (int channelId : channelIds) {
+            keys.add(key(jobId, channelId));
+        }
+        releaseChannels(keys::contains);
+    }
+
+    private void releaseChannels(Predicate<String> selector) {
+        localChannels.keySet().removeIf(selector);
+        remoteInputChannels.entrySet().removeIf(entry -> {
+            if (!selector.test(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().release();
+            return true;
+        });
+        remoteOutputChannels.entrySet().removeIf(entry -> {
+            if (!selector.test(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().release();
+            return true;
+        });
+    }
+
+    public synchronized void shutdown() {
+        if (server != null) {
+            try {
+                server.close();
+            } catch (IOException ignored) {
+                // 关闭失败时没有需要清理的资源
+            }
+        }
+        for (NetworkConnection connection : outgoingConnections.values()) {
+            connection.close();
+        }
+        for (NetworkConnection connection : incomingConnections) {
+            connection.close();
+        }
+        localChannels.clear();
+        remoteInputChannels.clear();
+        remoteOutputChannels.clear();
+    }
+
+    /**
+     * @return 监听的数据地址，没有启动监听时为 null
+     */
+    public synchronized InetSocketAddress getDataAddress() {
+        return dataAddress;
+    }
+
+    NetworkBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    private static String key(String jobId, int channelId) {
+        return jobId + "/" + channelId;
+    }
+}
@@ -0,0 +1,284 @@
+package org.mini.flink.runtime.net;
+
+import org.mini.flink.api.eventtime.TimestampAssigner;
+import org.mini.flink.api.eventtime.Watermark;
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.api.typeutils.runtime.GenericSerializer;
+import org.mini.flink.runtime.state.CheckpointBarrier;
+import org.mini.flink.runtime.stream.LatencyMarker;
+import org.mini.flink.runtime.stream.RecordBuffer;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 网络传输使用的紧凑二进制编码，把 {@link RecordBuffer} 和事件写入 ByteBuffer 或从中读出。
+ * <p>
+ * 通道的记录类型已知时（上游算子声明或推断出了输出类型），记录由对应的 {@link TypeSerializer} 直接写出，
+ * 不带任何类型标记。类型未知时每个值以一个字节的类型标记开头，常见类型使用紧凑的编码：
+ * <ul>
+ *     <li>int / long 使用 zigzag + 变长编码，小整数只占 1 个字节；</li>
+ *     <li>String 写入 UTF-8 字节数和内容，纯 ASCII 字符串逐字节写入，不产生中间的 byte[]；</li>
+ *     <li>其他类型交给 {@link GenericSerializer}：POJO 按字段编码，其余退回到 Java 序列化。</li>
+ * </ul>
+ * 缓冲中的记录都没有时间戳时，时间戳整体省略，只占一个标记字节。
+ * <p>
+ * 实例内部有复用的临时数组，不是线程安全的，每个发送通道和每条连接的读线程各用一个。
+ */
+public class RecordSerializer {
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte TRUE = 5;
+    private static final byte FALSE = 6;
+    private static final byte BYTES = 7;
+    private static final byte GENERIC = 8;
+
+    private static final byte EVENT_WATERMARK = 1;
+    private static final byte EVENT_CHECKPOINT_BARRIER = 2;
+    private static final byte EVENT_LATENCY_MARKER = 3;
+
+    // 为 null 表示记录类型未知，每个值带类型标记
+    private final TypeSerializer<Object> recordSerializer;
+    private final ByteBufferDataOutput dataOutput = new ByteBufferDataOutput();
+    private final ByteBufferDataInput dataInput = new ByteBufferDataInput();
+    private byte[] scratch = new byte[256];
+
+    public RecordSerializer() {
+        this(null);
+    }
+
+    /**
+     * @param recordSerializer 通道中记录的序列化器，为 null 时按值的实际类型编码
+     */
+    public RecordSerializer(TypeSerializer<Object> recordSerializer) {
+        this.recordSerializer = recordSerializer;
+    }
+
+    /**
+     * 写入一个记录缓冲中的所有记录及其时间戳。
+     * @throws BufferOverflowException 目标缓冲的剩余空间不够，调用者应换一个更大的缓冲重试
+     */
+    public void writeRecords(RecordBuffer buffer, ByteBuffer target) throws IOException {
+        int size = buffer.size();
+        writeVarInt(size, target);
+        boolean hasTimestamps = false;
+        for (int i = 0; i < size; i++) {
+            if (buffer.getTimestamp(i) != TimestampAssigner.NO_TIMESTAMP) {
+                hasTimestamps = true;
+                break;
+            }
+        }
+        target.put(hasTimestamps ? TRUE : FALSE);
+        ByteBufferDataOutput output = dataOutput.setBuffer(target);
+        for (int i = 0; i < size; i++) {
+            if (hasTimestamps) {
+                writeVarLong(zigzag(buffer.getTimestamp(i)), target);
+            }
+            Object record = buffer.get(i);
+            if (recordSerializer == null) {
+                writeValue(record, target);
+            } else if (record != null) {
+                recordSerializer.serialize(record, output);
+            } else {
+                throw new IOException("声明了类型的通道不能传输 null 记录");
+            }
+        }
+    }
+
+    /**
+     * 读出 {@link #writeRecords} 写入的记录，追加到 target 中。
+     */
+    public void readRecords(ByteBuffer source, RecordBuffer target) throws IOException {
+        int size = readVarInt(source);
+        boolean hasTimestamps = source.get() == TRUE;
+        ByteBufferDataInput input = dataInput.setBuffer(source);
+        for (int i = 0; i < size; i++) {
+            long timestamp = hasTimestamps ? unzigzag(readVarLong(source)) : TimestampAssigner.NO_TIMESTAMP;
+            target.add(recordSerializer == null ? readValue(source) : recordSerializer.deserialize(input), timestamp);
+        }
+    }
+
+    /**
+     * 写入一个在通道中传递的事件：水位线、检查点屏障或延迟标记。
+     */
+    public void writeEvent(Object event, ByteBuffer target) {
+        if (event instanceof Watermark) {
+            target.put(EVENT_WATERMARK);
+            target.putLong(((Watermark) event).getTimestamp());
+        } else if (event instanceof CheckpointBarrier) {
+            target.put(EVENT_CHECKPOINT_BARRIER);
+            target.putLong(((CheckpointBarrier) event).getCheckpointId());
+        } else if (event instanceof LatencyMarker) {
+            LatencyMarker marker = (LatencyMarker) event;
+            target.put(EVENT_LATENCY_MARKER);
+            target.putLong(marker.getMarkedTime());
+            writeVarInt(marker.getSubtaskIndex(), target);
+            writeString(marker.getSourceName(), target);
+        } else {
+            throw new IllegalArgumentException("不支持通过网络传输的事件: " + event);
+        }
+    }
+
+    public Object readEvent(ByteBuffer source) throws IOException {
+        byte type = source.get();
+        switch (type) {
+            case EVENT_WATERMARK:
+                long timestamp = source.getLong();
+                return timestamp == Long.MAX_VALUE ? Watermark.MAX_WATERMARK : new Watermark(timestamp);
+            case EVENT_CHECKPOINT_BARRIER:
+                return new CheckpointBarrier(source.getLong());
+            case EVENT_LATENCY_MARKER:
+                long markedTime = source.getLong();
+                int subtaskIndex = readVarInt(source);
+                return new LatencyMarker(markedTime, readString(source), subtaskIndex);
+            default:
+                throw new IOException("未知的事件类型: " + type);
+        }
+    }
+
+    public void writeValue(Object value, ByteBuffer target) throws IOException {
+        if (value == null) {
+            target.put(NULL);
+        } else if (value instanceof String) {
+            target.put(STRING);
+            writeString((String) value, target);
+        } else if (value instanceof Integer) {
+            target.put(INT);
+            writeVarInt(zigzag((Integer) value), target);
+        } else if (value instanceof Long) {
+            target.put(LONG);
+            writeVarLong(zigzag((Long) value), target);
+        } else if (value instanceof Double) {
+            target.put(DOUBLE);
+            target.putDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            target.put((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            target.put(BYTES);
+            writeVarInt(bytes.length, target);
+            target.put(bytes);
+        } else {
+            target.put(GENERIC);
+            GenericSerializer.INSTANCE.serialize(value, dataOutput.setBuffer(target));
+        }
+    }
+
+    public Object readValue(ByteBuffer source) throws IOException {
+        byte type = source.get();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(source);
+            case INT:
+                return unzigzag(readVarInt(source));
+            case LONG:
+                return unzigzag(readVarLong(source));
+            case DOUBLE:
+                return source.getDouble();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case BYTES: {
+                byte[] bytes = new byte[readVarInt(source)];
+                source.get(bytes);
+                return bytes;
+            }
+            case GENERIC:
+                return GenericSerializer.INSTANCE.deserialize(dataInput.setBuffer(source));
+            default:
+                throw new IOException("未知的值类型: " + type);
+        }
+    }
+
+    private void writeString(String value, ByteBuffer target) {
+        int length = value.length();
+        boolean ascii = true;
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) {
+            writeVarInt(length, target);
+            for (int i = 0; i < length; i++) {
+                target.put((byte) value.charAt(i));
+            }
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length, target);
+            target.put(bytes);
+        }
+    }
+
+    private String readString(ByteBuffer source) {
+        int length = readVarInt(source);
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        source.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(int value, ByteBuffer target) {
+        while ((value & ~0x7F) != 0) {
+            target.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        target.put((byte) value);
+    }
+
+    private static int readVarInt(ByteBuffer source) {
+        int result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = source.get();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+    }
+
+    private static void writeVarLong(long value, ByteBuffer target) {
+        while ((value & ~0x7FL) != 0) {
+            target.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        target.put((byte) value);
+    }
+
+    private static long readVarLong(ByteBuffer source) {
+        long result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = source.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,133 @@
+package org.mini.flink.runtime.net;
+
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.runtime.stream.BlockingQueueDataChannel;
+import org.mini.flink.runtime.stream.DataChannel;
+import org.mini.flink.runtime.stream.RecordBuffer;
+import org.mini.flink.runtime.stream.RecordBufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * 跨进程通道的接收端，由连接的读线程写入解码后的元素，由下游任务的 {@link org.mini.flink.runtime.stream.InputGate} 消费。
+ * <p>
+ * 收到的记录被解码到本端专属的 {@link RecordBufferPool} 的缓冲中，缓冲数量与上游的信用数相同，
+ * 所以读线程总能拿到空闲缓冲。下游任务读完一个缓冲后把它归还到池中，同时向上游发回一个信用。
+ * <p>
+ * 事件不占用信用，为了不让读线程因为某个通道的事件积压而阻塞、拖住同一连接上的其他通道，
+ * 接收队列不设上限；队列中的缓冲数仍然受信用限制。
+ */
+public class RemoteInputChannel implements DataChannel {
+    private static final Logger LOG = Logger.getLogger(RemoteInputChannel.class.getName());
+
+    private final String jobId;
+    private final int channelId;
+    private final DataChannel receivedElements = new BlockingQueueDataChannel(Integer.MAX_VALUE);
+    private final RecordBufferPool bufferPool;
+    private volatile NetworkConnection connection;
+    // 按上游声明的记录类型解码，只由连接的读线程使用
+    private RecordSerializer serializer;
+
+    RemoteInputChannel(String jobId, int channelId, int numberOfBuffers, int bufferSize) {
+        this.jobId = jobId;
+        this.channelId = channelId;
+        this.bufferPool = new RecordBufferPool(numberOfBuffers, bufferSize, this::onBufferRecycled);
+    }
+
+    /**
+     * 绑定向这个通道发送数据的连接，信用通过它发回上游。
+     *
+     * @param recordSerializer 上游在注册帧中带来的记录序列化器，为 null 表示记录类型未知
+     */
+    void bind(NetworkConnection connection, TypeSerializer<Object> recordSerializer) {
+        this.serializer = new RecordSerializer(recordSerializer);
+        this.connection = connection;
+    }
+
+    void onBuffer(ByteBuffer payload) throws IOException, InterruptedException {
+        RecordBuffer buffer = bufferPool.requestBuffer();
+        serializer.readRecords(payload, buffer);
+        receivedElements.push(buffer);
+    }
+
+    void onEvent(Object event) throws InterruptedException {
+        receivedElements.push(event);
+    }
+
+    /**
+     * 优先事件在 socket 中仍然排在之前发出的缓冲之后，读线程从不因为缓冲而阻塞，很快就能读到它，
+     * 再让它越过接收队列中还没有被下游消费的元素。
+     */
+    void onPriorityEvent(Object event) throws InterruptedException {
+        receivedElements.pushPriorityEvent(event);
+    }
+
+    private void onBufferRecycled() {
+        NetworkConnection current = connection;
+        if (current == null || current.isClosed()) {
+            return;
+        }
+        try {
+            current.sendCredit(channelId, 1);
+        } catch (IOException e) {
+            LOG.warning("向上游归还通道 " + channelId + " 的信用失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void push(Object record) {
+        throw new UnsupportedOperationException("跨进程通道的接收端只能由网络连接写入");
+    }
+
+    @Override
+    public void pushPriorityEvent(Object event) {
+        throw new UnsupportedOperationException("跨进程通道的接收端只能由网络连接写入");
+    }
+
+    @Override
+    public Object pop() throws InterruptedException {
+        return receivedElements.pop();
+    }
+
+    @Override
+    public List<Object> takeOvertakenElements() {
+        return receivedElements.takeOvertakenElements();
+    }
+
+    @Override
+    public Object poll() {
+        return receivedElements.poll();
+    }
+
+    @Override
+    public int size() {
+        return receivedElements.size();
+    }
+
+    @Override
+    public void setAvailabilityListener(Runnable availabilityListener) {
+        receivedElements.setAvailabilityListener(availabilityListener);
+    }
+
+    /**
+     * 作业结束或下游任务被取消，从连接上注销这个通道，之后不再归还信用。
+     */
+    void release() {
+        NetworkConnection current = connection;
+        connection = null;
+        if (current != null) {
+            current.unregisterInputChannel(channelId);
+        }
+    }
+
+    String getJobId() {
+        return jobId;
+    }
+
+    int getChannelId() {
+        return channelId;
+    }
+}
@@ -0,0 +1,125 @@
+package org.mini.flink.runtime.net;
+
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.runtime.stream.DataChannel;
+import org.mini.flink.runtime.stream.RecordBuffer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 跨进程通道的发送端，写入的元素被序列化后通过 {@link NetworkConnection} 发往下游所在的 TaskManager。
+ * <p>
+ * 信用流控与进程内的通道保持一致：记录缓冲发出后并不立即归还到上游的 {@link org.mini.flink.runtime.stream.RecordBufferPool}，
+ * 而是等下游处理完对应的缓冲、发回一个信用时才归还。上游可用的空闲缓冲数因此仍然等于下游授予的信用数，
+ * 下游处理不过来时上游在申请缓冲时被反压，而不是把数据无限地堆积在 socket 缓冲区中。
+ * <p>
+ * 这一端只能写入，{@link #pop()} 和 {@link #poll()} 不可用。
+ */
+public class RemoteOutputChannel implements DataChannel {
+    private final String jobId;
+    private final int channelId;
+    private final NetworkConnection connection;
+    // 由写入通道的任务线程独占
+    private final RecordSerializer serializer;
+    // 已经发出、等待下游归还信用的缓冲，按发送顺序排列
+    private final ConcurrentLinkedQueue<RecordBuffer> awaitingCredit = new ConcurrentLinkedQueue<>();
+
+    RemoteOutputChannel(String jobId, int channelId, NetworkConnection connection, TypeSerializer<Object> recordSerializer) {
+        this.jobId = jobId;
+        this.channelId = channelId;
+        this.connection = connection;
+        this.serializer = new RecordSerializer(recordSerializer);
+    }
+
+    @Override
+    public void push(Object record) throws InterruptedException {
+        try {
+            if (record instanceof RecordBuffer) {
+                RecordBuffer buffer = (RecordBuffer) record;
+                // 先登记再发送：下游可能在 sendRecords 返回之前就处理完这个缓冲并发回信用，
+                // 此时缓冲必须已经在队列中，否则这个信用被丢弃，缓冲永远回不到缓冲池
+                awaitingCredit.add(buffer);
+                try {
+                    connection.sendRecords(channelId, buffer, serializer);
+                } catch (IOException e) {
+                    awaitingCredit.remove(buffer);
+                    throw e;
+                }
+            } else {
+                connection.sendEvent(channelId, record, serializer);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("通过 " + connection + " 发送数据失败", e);
+        }
+    }
+
+    /**
+     * 优先事件越过的是下游接收队列中的数据，由接收端完成，这里只是用单独的帧类型发出。
+     */
+    @Override
+    public void pushPriorityEvent(Object event) {
+        try {
+            connection.sendPriorityEvent(channelId, event, serializer);
+        } catch (IOException e) {
+            throw new IllegalStateException("通过 " + connection + " 发送数据失败", e);
+        }
+    }
+
+    /**
+     * 下游归还了若干个信用，由连接的读线程调用。
+     */
+    void onCredit(int credits) {
+        for (int i = 0; i < credits; i++) {
+            RecordBuffer buffer = awaitingCredit.poll();
+            if (buffer == null) {
+                return;
+            }
+            buffer.recycle();
+        }
+    }
+
+    @Override
+    public Object pop() {
+        throw new UnsupportedOperationException("跨进程通道的发送端不能读取数据");
+    }
+
+    @Override
+    public Object poll() {
+        throw new UnsupportedOperationException("跨进程通道的发送端不能读取数据");
+    }
+
+    @Override
+    public List<Object> takeOvertakenElements() {
+        throw new UnsupportedOperationException("跨进程通道的发送端不能读取数据");
+    }
+
+    /**
+     * @return 已经发出但下游还没有处理完的缓冲数
+     */
+    @Override
+    public int size() {
+        return awaitingCredit.size();
+    }
+
+    @Override
+    public void setAvailabilityListener(Runnable availabilityListener) {
+        throw new UnsupportedOperationException("跨进程通道的发送端不能被消费");
+    }
+
+    /**
+     * 作业结束或上游任务被取消，从连接上注销这个通道，之后收到的信用被忽略。
+     */
+    void release() {
+        connection.unregisterOutputChannel(channelId);
+    }
+
+    String getJobId() {
+        return jobId;
+    }
+
+    int getChannelId() {
+        return channelId;
+    }
+}
@@ -0,0 +1,43 @@
+package org.mini.flink.runtime.operators;
+
+import org.mini.flink.api.RichFunction;
+import org.mini.flink.api.RuntimeContext;
+
+import java.io.Serializable;
+
+/**
+ * 包装用户函数（MapFunction、FilterFunction 等）的算子基类。
+ * 用户函数实现了 {@link RichFunction} 时，生命周期方法会转发给它，因此包装后的函数同样可以使用键控状态。
+ *
+ * @param <F> 用户函数类型
+ */
+public abstract class AbstractUdfStreamOperator<F> implements RichFunction, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    protected final F userFunction;
+
+    protected AbstractUdfStreamOperator(F userFunction) {
+        if (userFunction == null) {
+            throw new NullPointerException("userFunction 不能为 null");
+        }
+        this.userFunction = userFunction;
+    }
+
+    public F getUserFunction() {
+        return userFunction;
+    }
+
+    @Override
+    public void open(RuntimeContext runtimeContext) throws Exception {
+        if (userFunction instanceof RichFunction) {
+            ((RichFunction) userFunction).open(runtimeContext);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (userFunction instanceof RichFunction) {
+            ((RichFunction) userFunction).close();
+        }
+    }
+}
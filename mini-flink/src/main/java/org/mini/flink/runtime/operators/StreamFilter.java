@@ -0,0 +1,23 @@
+package org.mini.flink.runtime.operators;
+
+import org.mini.flink.api.Collector;
+import org.mini.flink.api.FilterFunction;
+import org.mini.flink.api.Operator;
+
+/**
+ * 执行 {@link FilterFunction} 的算子，只转发满足条件的记录。
+ */
+public class StreamFilter<T> extends AbstractUdfStreamOperator<FilterFunction<T>> implements Operator<T, T> {
+    private static final long serialVersionUID = 1L;
+
+    public StreamFilter(FilterFunction<T> filter) {
+        super(filter);
+    }
+
+    @Override
+    public void process(T element, Collector<T> collector) throws Exception {
+        if (userFunction.filter(element)) {
+            collector.collect(element);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.mini.flink.runtime.operators;
+
+import org.mini.flink.api.Collector;
+import org.mini.flink.api.Operator;
+import org.mini.flink.api.ReduceFunction;
+import org.mini.flink.api.RuntimeContext;
+import org.mini.flink.api.state.ReducingState;
+import org.mini.flink.api.state.ReducingStateDescriptor;
+
+/**
+ * 按键滚动归约的算子：每条记录与同一个键之前的归约结果合并，并输出合并后的最新结果。
+ * 归约结果保存在 {@link ReducingState} 中，因此算子必须位于按键分区的边之后。
+ */
+public class StreamGroupedReduce<T> extends AbstractUdfStreamOperator<ReduceFunction<T>> implements Operator<T, T> {
+    private static final long serialVersionUID = 1L;
+    private static final String STATE_NAME = "_reduce_state";
+
+    private transient ReducingState<T> values;
+
+    public StreamGroupedReduce(ReduceFunction<T> reducer) {
+        super(reducer);
+    }
+
+    @Override
+    public void open(RuntimeContext runtimeContext) throws Exception {
+        super.open(runtimeContext);
+        this.values = runtimeContext.getReducingState(new ReducingStateDescriptor<>(STATE_NAME, userFunction));
+    }
+
+    @Override
+    public void process(T element, Collector<T> collector) throws Exception {
+        values.add(element);
+        collector.collect(values.get());
+    }
+}
@@ -0,0 +1,21 @@
+package org.mini.flink.runtime.operators;
+
+import org.mini.flink.api.Collector;
+import org.mini.flink.api.MapFunction;
+import org.mini.flink.api.Operator;
+
+/**
+ * 执行 {@link MapFunction} 的算子。
+ */
+public class StreamMap<IN, OUT> extends AbstractUdfStreamOperator<MapFunction<IN, OUT>> implements Operator<IN, OUT> {
+    private static final long serialVersionUID = 1L;
+
+    public StreamMap(MapFunction<IN, OUT> mapper) {
+        super(mapper);
+    }
+
+    @Override
+    public void process(IN element, Collector<OUT> collector) throws Exception {
+        collector.collect(userFunction.map(element));
+    }
+}
@@ -0,0 +1,345 @@
+package org.mini.flink.runtime.operators.async;
+
+import org.mini.flink.api.AsyncFunction;
+import org.mini.flink.api.Collector;
+import org.mini.flink.api.Operator;
+import org.mini.flink.api.RuntimeContext;
+import org.mini.flink.api.datastream.AsyncDataStream;
+import org.mini.flink.api.eventtime.Watermark;
+import org.mini.flink.runtime.operators.AbstractUdfStreamOperator;
+import org.mini.flink.runtime.state.Stateful;
+import org.mini.flink.runtime.stream.MailboxOperator;
+import org.mini.flink.runtime.stream.StreamRecord;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 执行 {@link AsyncFunction} 的异步 I/O 算子，见 {@link AsyncDataStream}。
+ * <p>
+ * 算子的所有状态只由任务线程访问。请求完成或超时时，完成事件被放进一个线程安全的队列，
+ * 再投递一封邮件让任务线程处理：输出结果、释放名额。进行中的请求达到容量上限时，
+ * 任务线程在 {@code process} 中直接阻塞等待这个队列，期间不执行其他邮件，
+ * 因此检查点不会插在一条记录的处理过程中间，快照看到的进行中的请求与已经消费的输入严格对应。
+ * <p>
+ * 水位线作为一个已经完成的条目排进请求队列，不阻塞任务线程：有序模式下它在之前的结果都输出之后发出；
+ * 无序模式下水位线把队列分成若干段，结果只在所在段之前的水位线都发出之后才输出，不会越过水位线。
+ * <p>
+ * 检查点中保存所有尚未输出结果的输入及其时间戳（包括已经完成、等待之前的请求或水位线的输入），
+ * 恢复后在 open 中按原来的顺序重新发起请求。队列中的水位线不保存，恢复后由上游重新产生。
+ *
+ * @param <IN> 输入数据类型
+ * @param <OUT> 输出数据类型
+ */
+public class AsyncWaitOperator<IN, OUT> extends AbstractUdfStreamOperator<AsyncFunction<IN, OUT>>
+        implements Operator<IN, OUT>, Stateful, MailboxOperator {
+    private static final long serialVersionUID = 1L;
+    private static final String IN_FLIGHT_INPUTS = "in-flight-inputs";
+
+    private final long timeoutMillis;
+    private final int capacity;
+    private final AsyncDataStream.OutputMode outputMode;
+
+    private transient Context context;
+    // 所有尚未输出结果的请求和尚未发出的水位线，按到达的先后顺序排列
+    private transient LinkedHashSet<Entry<IN, OUT>> inFlight;
+    // 已经排进队列的和已经发出的水位线数量，无序模式下用来判断一个结果是否在队列的第一段中
+    private transient long numWatermarksQueued;
+    private transient long numWatermarksEmitted;
+    // 其他线程交给任务线程的完成事件
+    private transient LinkedBlockingQueue<Completion<IN, OUT>> completions;
+    private transient AtomicBoolean completionMailPending;
+    // 从检查点恢复的输入，在 open 中重新发起请求
+    private transient List<StreamRecord> restoredInputs;
+
+    /**
+     * @param timeoutMillis 请求的超时时间，小于等于 0 表示不超时
+     * @param capacity 同时进行的请求数上限
+     */
+    public AsyncWaitOperator(AsyncFunction<IN, OUT> asyncFunction, long timeoutMillis, int capacity,
+                             AsyncDataStream.OutputMode outputMode) {
+        super(asyncFunction);
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity 必须大于 0");
+        }
+        if (outputMode == null) {
+            throw new NullPointerException("outputMode 不能为 null");
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.capacity = capacity;
+        this.outputMode = outputMode;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void initializeState(Map<String, Object> state) {
+        Object restored = state.get(IN_FLIGHT_INPUTS);
+        this.restoredInputs = restored != null ? new ArrayList<>((List<StreamRecord>) restored) : null;
+    }
+
+    @Override
+    public void setup(Context context) {
+        this.context = context;
+        this.inFlight = new LinkedHashSet<>();
+        this.completions = new LinkedBlockingQueue<>();
+        this.completionMailPending = new AtomicBoolean();
+        this.numWatermarksQueued = 0;
+        this.numWatermarksEmitted = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void open(RuntimeContext runtimeContext) throws Exception {
+        super.open(runtimeContext);
+        if (restoredInputs != null) {
+            List<StreamRecord> inputs = restoredInputs;
+            restoredInputs = null;
+            for (StreamRecord input : inputs) {
+                addToInFlight((IN) input.getValue(), input.getTimestamp());
+            }
+        }
+    }
+
+    @Override
+    public void process(IN element, Collector<OUT> collector) throws Exception {
+        // 结果总是通过 context 输出，它与 collector 指向链上的同一个下游
+        addToInFlight(element, context.getCurrentTimestamp());
+    }
+
+    @Override
+    public void processWatermark(Watermark watermark) throws Exception {
+        waitForCapacity();
+        if (inFlight.isEmpty()) {
+            context.emitWatermark(watermark);
+            return;
+        }
+        // 队首总是一个未完成的请求，水位线排在它之后，随之前的结果一起输出
+        inFlight.add(new Entry<>(watermark));
+        numWatermarksQueued++;
+    }
+
+    private void waitForCapacity() throws Exception {
+        while (inFlight.size() >= capacity) {
+            // 【JUC知识点】: 名额用完时阻塞在完成队列上，由请求完成的线程唤醒；任务被取消时这里响应中断
+            processCompletion(completions.take());
+        }
+    }
+
+    private void addToInFlight(IN input, long timestamp) throws Exception {
+        waitForCapacity();
+        Entry<IN, OUT> entry = new Entry<>(input, timestamp, numWatermarksQueued);
+        inFlight.add(entry);
+        CompletableFuture<OUT> future = userFunction.asyncInvoke(input);
+        if (future == null) {
+            throw new NullPointerException("AsyncFunction.asyncInvoke 返回了 null，输入: " + input);
+        }
+        if (timeoutMillis > 0) {
+            entry.timeoutFuture = TimeoutTimer.INSTANCE.schedule(
+                    () -> complete(entry, null, null, true), timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        future.whenComplete((result, error) -> complete(entry, result, error, false));
+    }
+
+    /**
+     * 在请求完成或超时的线程中调用，把完成事件交给任务线程。
+     */
+    private void complete(Entry<IN, OUT> entry, OUT result, Throwable error, boolean timedOut) {
+        completions.add(new Completion<>(entry, result, error, timedOut));
+        if (completionMailPending.compareAndSet(false, true)) {
+            boolean sent = context.execute(() -> {
+                completionMailPending.set(false);
+                Completion<IN, OUT> completion;
+                while ((completion = completions.poll()) != null) {
+                    processCompletion(completion);
+                }
+            }, "异步请求结果");
+            if (!sent) {
+                // 任务已经结束，结果不再需要
+                completionMailPending.set(false);
+            }
+        }
+    }
+
+    private void processCompletion(Completion<IN, OUT> completion) throws Exception {
+        Entry<IN, OUT> entry = completion.entry;
+        if (entry.done) {
+            // 超时之后才到达的结果，或者结果到达之后才触发的超时
+            return;
+        }
+        if (completion.timedOut) {
+            entry.result = userFunction.timeout(entry.input);
+        } else if (completion.error != null) {
+            Throwable cause = completion.error instanceof CompletionException && completion.error.getCause() != null
+                    ? completion.error.getCause() : completion.error;
+            throw new Exception("异步请求失败，输入: " + entry.input, cause);
+        } else {
+            entry.result = completion.result;
+            if (entry.timeoutFuture != null) {
+                entry.timeoutFuture.cancel(false);
+            }
+        }
+        entry.done = true;
+
+        if (outputMode == AsyncDataStream.OutputMode.UNORDERED) {
+            // 之前还有水位线没有发出时，结果等到水位线发出之后再输出
+            if (entry.segment == numWatermarksEmitted) {
+                inFlight.remove(entry);
+                emit(entry);
+                emitCompletedSegments();
+            }
+        } else {
+            // 从队首开始输出连续完成的结果和水位线，队首未完成时之后的条目继续等待
+            Iterator<Entry<IN, OUT>> iterator = inFlight.iterator();
+            while (iterator.hasNext()) {
+                Entry<IN, OUT> head = iterator.next();
+                if (!head.done) {
+                    break;
+                }
+                iterator.remove();
+                emit(head);
+            }
+        }
+    }
+
+    /**
+     * 无序模式下，队首是水位线说明第一段的结果都已经输出：发出这个水位线，再输出下一段中已经完成的结果。
+     */
+    private void emitCompletedSegments() throws Exception {
+        while (!inFlight.isEmpty()) {
+            Iterator<Entry<IN, OUT>> iterator = inFlight.iterator();
+            Entry<IN, OUT> head = iterator.next();
+            if (head.watermark == null) {
+                return;
+            }
+            iterator.remove();
+            numWatermarksEmitted++;
+            emit(head);
+            while (iterator.hasNext()) {
+                Entry<IN, OUT> entry = iterator.next();
+                if (entry.watermark != null) {
+                    break;
+                }
+                if (entry.done) {
+                    iterator.remove();
+                    emit(entry);
+                }
+            }
+        }
+    }
+
+    private void emit(Entry<IN, OUT> entry) throws Exception {
+        if (entry.watermark != null) {
+            context.emitWatermark(entry.watermark);
+        } else if (entry.result != null) {
+            // 结果带着输入的时间戳输出
+            context.collect(entry.result, entry.timestamp);
+        }
+    }
+
+    @Override
+    public void drain() throws Exception {
+        while (!inFlight.isEmpty()) {
+            processCompletion(completions.take());
+        }
+    }
+
+    @Override
+    public Map<String, Object> snapshotState() {
+        List<StreamRecord> inputs = new ArrayList<>(inFlight.size());
+        for (Entry<IN, OUT> entry : inFlight) {
+            if (entry.watermark == null) {
+                inputs.add(new StreamRecord(entry.input, entry.timestamp));
+            }
+        }
+        Map<String, Object> state = new HashMap<>();
+        state.put(IN_FLIGHT_INPUTS, inputs);
+        return state;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (inFlight != null) {
+            for (Entry<IN, OUT> entry : inFlight) {
+                if (entry.timeoutFuture != null) {
+                    entry.timeoutFuture.cancel(false);
+                }
+            }
+            inFlight.clear();
+        }
+        super.close();
+    }
+
+    /**
+     * 一个尚未输出结果的请求，或者一个尚未发出的水位线，字段只由任务线程读写。
+     */
+    private static final class Entry<IN, OUT> {
+        private final IN input;
+        private final long timestamp;
+        // 水位线条目的水位线，请求条目为 null
+        private final Watermark watermark;
+        // 请求之前排进队列的水位线数量，即它在无序模式下所在的段
+        private final long segment;
+        private ScheduledFuture<?> timeoutFuture;
+        private OUT result;
+        private boolean done;
+
+        Entry(IN input, long timestamp, long segment) {
+            this.input = input;
+            this.timestamp = timestamp;
+            this.watermark = null;
+            this.segment = segment;
+        }
+
+        Entry(Watermark watermark) {
+            this.input = null;
+            this.timestamp = watermark.getTimestamp();
+            this.watermark = watermark;
+            this.segment = -1;
+            // 水位线没有需要等待的结果，轮到它时就可以发出
+            this.done = true;
+        }
+    }
+
+    private static final class Completion<IN, OUT> {
+        private final Entry<IN, OUT> entry;
+        private final OUT result;
+        private final Throwable error;
+        private final boolean timedOut;
+
+        Completion(Entry<IN, OUT> entry, OUT result, Throwable error, boolean timedOut) {
+            this.entry = entry;
+            this.result = result;
+            this.error = error;
+            this.timedOut = timedOut;
+        }
+    }
+
+    /**
+     * 进程内所有异步算子共用的超时定时器，到期时只投递完成事件，不执行用户代码。
+     */
+    private static final class TimeoutTimer {
+        private static final ScheduledThreadPoolExecutor INSTANCE = createTimer();
+
+        private static ScheduledThreadPoolExecutor createTimer() {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "AsyncIO-Timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // 大多数请求在超时之前完成，取消的定时任务立即从队列中移除，不会堆积
+            timer.setRemoveOnCancelPolicy(true);
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package org.mini.flink.runtime.operators.windowing;
+
+import org.mini.flink.api.AggregateFunction;
+import org.mini.flink.api.Collector;
+import org.mini.flink.api.Operator;
+import org.mini.flink.api.RichFunction;
+import org.mini.flink.api.RuntimeContext;
+import org.mini.flink.api.TimerService;
+import org.mini.flink.api.Triggerable;
+import org.mini.flink.api.eventtime.TimestampAssigner;
+import org.mini.flink.api.state.MapState;
+import org.mini.flink.api.state.MapStateDescriptor;
+import org.mini.flink.api.state.ValueCopier;
+import org.mini.flink.api.windowing.EventTimeSessionWindows;
+import org.mini.flink.api.windowing.SlidingEventTimeWindows;
+import org.mini.flink.api.windowing.TimeWindow;
+import org.mini.flink.api.windowing.WindowAssigner;
+import org.mini.flink.api.windowing.WindowFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * 事件时间窗口算子，放在按键分区之后，对每个键的窗口做增量聚合。
+ * <pre>
+ * JobVertex window = new JobVertex("WindowCount", new WindowOperator&lt;&gt;(
+ *         TumblingEventTimeWindows.of(Duration.ofSeconds(5)), new CountAggregate(),
+ *         (key, w, count) -&gt; key + "@" + w.getEnd() + ": " + count), 2);
+ * </pre>
+ * 记录到达时立即通过 {@link AggregateFunction#add} 折叠进累加器，不缓存记录本身。
+ * <ul>
+ *     <li>滚动/滑动窗口：按窗口长度和滑动步长的最大公约数把时间切成面板（pane），每个键的每个面板只有一个累加器，
+ *     一条记录只更新一个面板，而不是它所属的 size / slide 个窗口；窗口触发时合并窗口覆盖的面板，
+ *     之后不再被任何窗口需要的面板立即删除。内存占用为 O(键数 × 面板数)。</li>
+ *     <li>会话窗口：每个键保存若干个互不相交的会话及其累加器，新记录的窗口与重叠的会话合并，
+ *     累加器通过 {@link AggregateFunction#merge} 合并，对应的定时器也随之调整。</li>
+ * </ul>
+ * 窗口在水位线越过 {@link TimeWindow#maxTimestamp()} 时触发并清理状态；
+ * 到达时所属窗口都已触发的记录视为迟到数据，直接丢弃。
+ *
+ * @param <IN>  输入数据类型
+ * @param <KEY> 键的类型
+ * @param <ACC> 累加器类型
+ * @param <R>   聚合结果类型
+ * @param <OUT> 输出数据类型
+ */
+public class WindowOperator<IN, KEY, ACC, R, OUT> implements Operator<IN, OUT>, RichFunction, Triggerable<OUT> {
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOG = Logger.getLogger(WindowOperator.class.getName());
+
+    private final WindowAssigner windowAssigner;
+    private final AggregateFunction<IN, ACC, R> aggregateFunction;
+    private final WindowFunction<KEY, R, OUT> windowFunction;
+
+    private transient TimerService timerService;
+    // 滚动/滑动窗口: Key 为面板起始时间, Value 为面板的累加器
+    private transient MapState<Long, ACC> panes;
+    // 会话窗口: Key 为会话窗口, Value 为会话的累加器
+    private transient MapState<TimeWindow, ACC> sessions;
+    private transient long size;
+    private transient long slide;
+    private transient long paneSize;
+    private transient long numLateRecordsDropped;
+
+    public WindowOperator(WindowAssigner windowAssigner, AggregateFunction<IN, ACC, R> aggregateFunction,
+                          WindowFunction<KEY, R, OUT> windowFunction) {
+        if (!(windowAssigner instanceof SlidingEventTimeWindows) && !(windowAssigner instanceof EventTimeSessionWindows)) {
+            throw new IllegalArgumentException("不支持的窗口类型: " + windowAssigner);
+        }
+        this.windowAssigner = windowAssigner;
+        this.aggregateFunction = aggregateFunction;
+        this.windowFunction = windowFunction;
+    }
+
+    @Override
+    public void open(RuntimeContext runtimeContext) {
+        this.timerService = runtimeContext.getTimerService();
+        // 累加器会被原地修改，异步快照期间需要先拷贝；按 AggregateFunction 的约定，merge 不修改第二个参数
+        ValueCopier<ACC> accumulatorCopier = acc -> aggregateFunction.merge(aggregateFunction.createAccumulator(), acc);
+        if (windowAssigner instanceof SlidingEventTimeWindows) {
+            SlidingEventTimeWindows sliding = (SlidingEventTimeWindows) windowAssigner;
+            this.size = sliding.getSize();
+            this.slide = sliding.getSlide();
+            this.paneSize = gcd(size, slide);
+            this.panes = runtimeContext.getMapState(new MapStateDescriptor<>("window-panes", accumulatorCopier));
+        } else {
+            this.sessions = runtimeContext.getMapState(new MapStateDescriptor<>("window-sessions", accumulatorCopier));
+        }
+    }
+
+    @Override
+    public void process(IN element, Collector<OUT> collector) {
+        long timestamp = timerService.currentTimestamp();
+        if (timestamp == TimestampAssigner.NO_TIMESTAMP) {
+            throw new IllegalStateException("窗口算子需要带事件时间戳的记录，请为 Source 设置 WatermarkStrategy");
+        }
+        if (panes != null) {
+            processAligned(element, timestamp);
+        } else {
+            processSession(element, timestamp);
+        }
+    }
+
+    private void processAligned(IN element, long timestamp) {
+        long paneStart = timestamp - Math.floorMod(timestamp, paneSize);
+        // 窗口起始时间是 slide 的整数倍，结束时间为起始时间加 size。面板长度整除 slide 和 size，
+        // 所以一个面板要么完整地落在某个窗口内，要么与它不相交。包含这个面板的最后一个窗口从 paneStart 之前最近的 slide 整数倍开始
+        long lastWindowStart = paneStart - Math.floorMod(paneStart, slide);
+        if (lastWindowStart + size <= paneStart) {
+            // slide 大于 size 时窗口之间有空隙，落在空隙中的记录不属于任何窗口
+            return;
+        }
+        long lastWindowEnd = lastWindowStart + size;
+        long watermark = timerService.currentWatermark();
+        if (lastWindowEnd - 1 <= watermark) {
+            numLateRecordsDropped++;
+            return;
+        }
+        ACC accumulator = panes.get(paneStart);
+        if (accumulator == null) {
+            accumulator = aggregateFunction.createAccumulator();
+            // 每个面板只在创建时注册它所属窗口的定时器，之后的记录不再访问定时器。
+            // 第一个包含这个面板的窗口：起始时间是不早于 paneStart + paneSize - size 的最小的 slide 整数倍
+            long earliestStart = paneStart + paneSize - size;
+            long firstWindowEnd = earliestStart + Math.floorMod(-earliestStart, slide) + size;
+            for (long windowEnd = firstWindowEnd; windowEnd <= lastWindowEnd; windowEnd += slide) {
+                if (windowEnd - 1 > watermark) {
+                    timerService.registerEventTimeTimer(windowEnd - 1);
+                }
+            }
+            accumulator = aggregateFunction.add(element, accumulator);
+            panes.put(paneStart, accumulator);
+            return;
+        }
+        ACC updated = aggregateFunction.add(element, accumulator);
+        if (updated != accumulator) {
+            panes.put(paneStart, updated);
+        }
+    }
+
+    private void processSession(IN element, long timestamp) {
+        TimeWindow sessionWindow = windowAssigner.assignWindows(timestamp).iterator().next();
+        List<TimeWindow> mergedWindows = new ArrayList<>();
+        List<ACC> mergedAccumulators = new ArrayList<>();
+        // 同一个键上的会话互不相交，与新窗口重叠的会话合并之后也不会再与其他会话重叠
+        for (Map.Entry<TimeWindow, ACC> entry : sessions.entries()) {
+            if (entry.getKey().intersects(sessionWindow)) {
+                mergedWindows.add(entry.getKey());
+                mergedAccumulators.add(entry.getValue());
+            }
+        }
+        TimeWindow target = sessionWindow;
+        for (TimeWindow window : mergedWindows) {
+            target = target.cover(window);
+        }
+        if (target.maxTimestamp() <= timerService.currentWatermark()) {
+            numLateRecordsDropped++;
+            return;
+        }
+
+        ACC accumulator = mergedAccumulators.isEmpty() ? aggregateFunction.createAccumulator() : mergedAccumulators.get(0);
+        for (int i = 1; i < mergedAccumulators.size(); i++) {
+            accumulator = aggregateFunction.merge(accumulator, mergedAccumulators.get(i));
+        }
+        for (TimeWindow window : mergedWindows) {
+            if (!window.equals(target)) {
+                sessions.remove(window);
+                if (window.maxTimestamp() != target.maxTimestamp()) {
+                    timerService.deleteEventTimeTimer(window.maxTimestamp());
+                }
+            }
+        }
+        sessions.put(target, aggregateFunction.add(element, accumulator));
+        timerService.registerEventTimeTimer(target.maxTimestamp());
+    }
+
+    @Override
+    public void onEventTime(long timestamp, Collector<OUT> collector) throws Exception {
+        if (panes != null) {
+            fireAligned(timestamp, collector);
+        } else {
+            fireSession(timestamp, collector);
+        }
+    }
+
+    private void fireAligned(long timestamp, Collector<OUT> collector) throws Exception {
+        long windowEnd = timestamp + 1;
+        long windowStart = windowEnd - size;
+        ACC result = null;
+        boolean copied = false;
+        for (long paneStart = windowStart; paneStart < windowEnd; paneStart += paneSize) {
+            ACC pane = panes.get(paneStart);
+            if (pane == null) {
+                continue;
+            }
+            if (result == null) {
+                result = pane;
+            } else {
+                if (!copied) {
+                    // 不能修改面板自己的累加器，后面的窗口还要用到它
+                    result = aggregateFunction.merge(aggregateFunction.createAccumulator(), result);
+                    copied = true;
+                }
+                result = aggregateFunction.merge(result, pane);
+            }
+        }
+        if (result != null) {
+            collector.collect(windowFunction.apply(currentKey(), new TimeWindow(windowStart, windowEnd),
+                    aggregateFunction.getResult(result)));
+        }
+        // 起始时间早于下一个窗口起点的面板不再属于任何未触发的窗口
+        for (long paneStart = windowStart; paneStart < windowStart + slide; paneStart += paneSize) {
+            panes.remove(paneStart);
+        }
+    }
+
+    private void fireSession(long timestamp, Collector<OUT> collector) throws Exception {
+        TimeWindow fired = null;
+        ACC accumulator = null;
+        for (Map.Entry<TimeWindow, ACC> entry : sessions.entries()) {
+            if (entry.getKey().maxTimestamp() == timestamp) {
+                fired = entry.getKey();
+                accumulator = entry.getValue();
+                break;
+            }
+        }
+        if (fired == null) {
+            return;
+        }
+        sessions.remove(fired);
+        collector.collect(windowFunction.apply(currentKey(), fired, aggregateFunction.getResult(accumulator)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private KEY currentKey() {
+        return (KEY) timerService.getCurrentKey();
+    }
+
+    @Override
+    public void close() {
+        if (numLateRecordsDropped > 0) {
+            LOG.info("窗口算子共丢弃了 " + numLateRecordsDropped + " 条迟到记录");
+        }
+    }
+
+    /**
+     * @return 因所属窗口都已触发而被丢弃的迟到记录数
+     */
+    public long getNumLateRecordsDropped() {
+        return numLateRecordsDropped;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
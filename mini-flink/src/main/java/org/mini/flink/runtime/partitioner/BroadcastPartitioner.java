@@ -0,0 +1,28 @@
+package org.mini.flink.runtime.partitioner;
+
+/**
+ * 广播分区器：每条记录都会被发送到所有下游通道。
+ */
+public class BroadcastPartitioner<T> extends StreamPartitioner<T> {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public int selectChannel(T record) {
+        throw new UnsupportedOperationException("广播分区器不需要选择通道，记录会被发送到所有通道。");
+    }
+
+    @Override
+    public boolean isBroadcast() {
+        return true;
+    }
+
+    @Override
+    public StreamPartitioner<T> copy() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "BROADCAST";
+    }
+}
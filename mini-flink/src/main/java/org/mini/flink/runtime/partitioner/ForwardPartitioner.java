@@ -0,0 +1,29 @@
+package org.mini.flink.runtime.partitioner;
+
+/**
+ * 直连分区器：上游第 i 个子任务只把数据发送给下游第 i 个子任务，要求上下游并行度相同。
+ * 由于每个上游子任务只看得到一个通道，这里总是返回 0。
+ */
+public class ForwardPartitioner<T> extends StreamPartitioner<T> {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public int selectChannel(T record) {
+        return 0;
+    }
+
+    @Override
+    public boolean isPointwise() {
+        return true;
+    }
+
+    @Override
+    public StreamPartitioner<T> copy() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "FORWARD";
+    }
+}
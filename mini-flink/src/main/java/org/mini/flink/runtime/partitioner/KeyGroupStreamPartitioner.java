@@ -0,0 +1,59 @@
+package org.mini.flink.runtime.partitioner;
+
+import org.mini.flink.api.KeySelector;
+import org.mini.flink.runtime.state.KeyGroupRangeAssignment;
+
+/**
+ * 按键哈希分区器：通过 {@link KeySelector} 提取键，先映射到键组，再映射到下游通道。
+ * 保证相同键的记录总是被同一个下游子任务处理，这是键控状态正确性的前提。
+ */
+public class KeyGroupStreamPartitioner<T, K> extends StreamPartitioner<T> {
+    private static final long serialVersionUID = 1L;
+
+    private final KeySelector<T, K> keySelector;
+    private final int maxParallelism;
+
+    public KeyGroupStreamPartitioner(KeySelector<T, K> keySelector) {
+        this(keySelector, KeyGroupRangeAssignment.DEFAULT_MAX_PARALLELISM);
+    }
+
+    public KeyGroupStreamPartitioner(KeySelector<T, K> keySelector, int maxParallelism) {
+        if (keySelector == null) {
+            throw new NullPointerException("keySelector 不能为 null");
+        }
+        if (maxParallelism <= 0) {
+            throw new IllegalArgumentException("maxParallelism 必须大于 0");
+        }
+        this.keySelector = keySelector;
+        this.maxParallelism = maxParallelism;
+    }
+
+    public KeySelector<T, K> getKeySelector() {
+        return keySelector;
+    }
+
+    public int getMaxParallelism() {
+        return maxParallelism;
+    }
+
+    @Override
+    public int selectChannel(T record) {
+        K key;
+        try {
+            key = keySelector.getKey(record);
+        } catch (Exception e) {
+            throw new RuntimeException("无法从记录中提取键: " + record, e);
+        }
+        return KeyGroupRangeAssignment.assignKeyToParallelOperator(key, maxParallelism, numberOfChannels);
+    }
+
+    @Override
+    public StreamPartitioner<T> copy() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "HASH";
+    }
+}
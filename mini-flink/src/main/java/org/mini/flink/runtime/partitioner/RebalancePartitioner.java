@@ -0,0 +1,35 @@
+package org.mini.flink.runtime.partitioner;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 轮询分区器：以轮询的方式把记录均匀地分发给所有下游通道，用于消除数据倾斜。
+ */
+public class RebalancePartitioner<T> extends StreamPartitioner<T> {
+    private static final long serialVersionUID = 1L;
+
+    private int nextChannelToSendTo;
+
+    @Override
+    public void setup(int numberOfChannels) {
+        super.setup(numberOfChannels);
+        // 随机选择起点，避免所有上游子任务同时从第 0 个通道开始发送
+        this.nextChannelToSendTo = ThreadLocalRandom.current().nextInt(numberOfChannels);
+    }
+
+    @Override
+    public int selectChannel(T record) {
+        nextChannelToSendTo = (nextChannelToSendTo + 1) % numberOfChannels;
+        return nextChannelToSendTo;
+    }
+
+    @Override
+    public StreamPartitioner<T> copy() {
+        return new RebalancePartitioner<>();
+    }
+
+    @Override
+    public String toString() {
+        return "REBALANCE";
+    }
+}
@@ -0,0 +1,46 @@
+package org.mini.flink.runtime.partitioner;
+
+import java.io.Serializable;
+
+/**
+ * 分区器，决定上游子任务产出的每条记录应该发往哪一个下游通道。
+ * 分区器声明在作业图的边 (JobEdge) 上，由 JobManager 在部署时为每个上游子任务复制一份独立实例。
+ * @param <T> 记录类型
+ */
+public abstract class StreamPartitioner<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    protected int numberOfChannels;
+
+    /**
+     * 部署时调用，告知分区器当前上游子任务可见的下游通道数量。
+     */
+    public void setup(int numberOfChannels) {
+        this.numberOfChannels = numberOfChannels;
+    }
+
+    /**
+     * 为记录选择一个下游通道。
+     * @return 通道下标，范围是 [0, numberOfChannels)
+     */
+    public abstract int selectChannel(T record);
+
+    /**
+     * 是否将每条记录发送到所有下游通道。
+     */
+    public boolean isBroadcast() {
+        return false;
+    }
+
+    /**
+     * 是否是点对点连接：上游第 i 个子任务只连接下游第 i 个子任务。
+     */
+    public boolean isPointwise() {
+        return false;
+    }
+
+    /**
+     * 每个上游子任务都需要一份独立的分区器（例如轮询分区器带有自己的计数器）。
+     */
+    public abstract StreamPartitioner<T> copy();
+}
@@ -0,0 +1,136 @@
+package org.mini.flink.runtime.rpc;
+
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+
+/**
+ * TaskManager 发给 JobManager 的消息。
+ */
+public final class JobManagerMessages {
+
+    private JobManagerMessages() {
+    }
+
+    /**
+     * TaskManager 连接上 JobManager 后发送的第一条消息。
+     */
+    public static class RegisterTaskManager implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String taskManagerId;
+        private final int numberOfSlots;
+        private final InetSocketAddress dataAddress;
+
+        public RegisterTaskManager(String taskManagerId, int numberOfSlots, InetSocketAddress dataAddress) {
+            this.taskManagerId = taskManagerId;
+            this.numberOfSlots = numberOfSlots;
+            this.dataAddress = dataAddress;
+        }
+
+        public String getTaskManagerId() {
+            return taskManagerId;
+        }
+
+        public int getNumberOfSlots() {
+            return numberOfSlots;
+        }
+
+        public InetSocketAddress getDataAddress() {
+            return dataAddress;
+        }
+
+        @Override
+        public String toString() {
+            return "RegisterTaskManager{" + taskManagerId + ", slots=" + numberOfSlots + ", data=" + dataAddress + "}";
+        }
+    }
+
+    public static class AcknowledgeCheckpoint implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final long checkpointId;
+        private final String taskName;
+        private final TaskStateSnapshot stateSnapshot;
+
+        public AcknowledgeCheckpoint(long checkpointId, String taskName, TaskStateSnapshot stateSnapshot) {
+            this.checkpointId = checkpointId;
+            this.taskName = taskName;
+            this.stateSnapshot = stateSnapshot;
+        }
+
+        public long getCheckpointId() {
+            return checkpointId;
+        }
+
+        public String getTaskName() {
+            return taskName;
+        }
+
+        public TaskStateSnapshot getStateSnapshot() {
+            return stateSnapshot;
+        }
+
+        @Override
+        public String toString() {
+            return "AcknowledgeCheckpoint{" + checkpointId + ", " + taskName + "}";
+        }
+    }
+
+    /**
+     * TaskManager 上的一个任务因为异常而结束。
+     */
+    public static class TaskFailed implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String jobId;
+        private final String taskName;
+        private final Throwable cause;
+
+        public TaskFailed(String jobId, String taskName, Throwable cause) {
+            this.jobId = jobId;
+            this.taskName = taskName;
+            this.cause = cause;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public String getTaskName() {
+            return taskName;
+        }
+
+        public Throwable getCause() {
+            return cause;
+        }
+
+        @Override
+        public String toString() {
+            return "TaskFailed{" + jobId + ", " + taskName + ", " + cause + "}";
+        }
+    }
+
+    /**
+     * TaskManager 上有槽被释放，附带释放后的空闲槽数。
+     */
+    public static class SlotsReleased implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int numberOfAvailableSlots;
+
+        public SlotsReleased(int numberOfAvailableSlots) {
+            this.numberOfAvailableSlots = numberOfAvailableSlots;
+        }
+
+        public int getNumberOfAvailableSlots() {
+            return numberOfAvailableSlots;
+        }
+
+        @Override
+        public String toString() {
+            return "SlotsReleased{available=" + numberOfAvailableSlots + "}";
+        }
+    }
+}
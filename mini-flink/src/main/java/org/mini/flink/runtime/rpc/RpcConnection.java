@@ -0,0 +1,241 @@
+package org.mini.flink.runtime.rpc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * JobManager 和 TaskManager 之间的控制连接，消息用 Java 序列化传输。
+ * <p>
+ * 支持两种调用：{@link #ask} 发送请求并返回一个等待应答的 Future，{@link #tell} 只发送不等待。
+ * 读线程只负责解码：应答直接完成对应的 Future，请求交给一个单线程的执行器按到达顺序处理。
+ * 这样处理请求时即使阻塞在应用的锁上，也不会挡住同一条连接上其他请求的应答。
+ */
+public class RpcConnection {
+    private static final Logger LOG = Logger.getLogger(RpcConnection.class.getName());
+
+    /**
+     * 处理对端发来的请求，返回值作为应答发回，{@link #tell} 发来的消息的返回值被忽略。
+     */
+    @FunctionalInterface
+    public interface RequestHandler {
+        Object handle(Object request) throws Exception;
+    }
+
+    private final Socket socket;
+    private final String name;
+    private final ObjectOutputStream output;
+    private final ObjectInputStream input;
+    // 【JUC知识点】: 多个线程会同时发送消息，写锁保证一条消息的字节不会与其他消息交错
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong nextRequestId = new AtomicLong(1);
+    // 等待应答的请求，Key 为请求 ID
+    private final Map<Long, CompletableFuture<Object>> pendingRequests = new ConcurrentHashMap<>();
+    private final ExecutorService requestExecutor;
+    private final Thread readerThread;
+    private volatile RequestHandler requestHandler;
+    private volatile Runnable closeListener;
+    private volatile boolean closed;
+
+    public RpcConnection(Socket socket, String name) throws IOException {
+        socket.setTcpNoDelay(true);
+        this.socket = socket;
+        this.name = name;
+        // 两端都先写出流头再读取对方的流头，避免互相等待
+        this.output = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.output.flush();
+        this.input = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.requestExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "RpcHandler-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.readerThread = new Thread(this::readLoop, "RpcReader-" + name);
+        this.readerThread.setDaemon(true);
+    }
+
+    /**
+     * 开始接收消息。
+     */
+    public void start(RequestHandler requestHandler) {
+        this.requestHandler = requestHandler;
+        readerThread.start();
+    }
+
+    /**
+     * 设置连接断开时的回调，在读线程中执行。
+     */
+    public void setCloseListener(Runnable closeListener) {
+        this.closeListener = closeListener;
+    }
+
+    public CompletableFuture<Object> ask(Serializable request) {
+        long requestId = nextRequestId.getAndIncrement();
+        CompletableFuture<Object> response = new CompletableFuture<>();
+        pendingRequests.put(requestId, response);
+        try {
+            send(new Envelope(Envelope.REQUEST, requestId, request));
+        } catch (IOException e) {
+            pendingRequests.remove(requestId);
+            response.completeExceptionally(e);
+        }
+        return response;
+    }
+
+    /**
+     * 发送请求并在给定的时间内等待应答，对端处理请求时抛出的异常原样抛出。
+     */
+    public Object ask(Serializable request, long timeoutMillis) throws Exception {
+        try {
+            return ask(request).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    /**
+     * 发送一条不需要应答的消息，连接已断开时只记录日志。
+     */
+    public void tell(Serializable message) {
+        try {
+            send(new Envelope(Envelope.TELL, 0, message));
+        } catch (IOException e) {
+            LOG.warning("向 " + name + " 发送消息失败: " + e.getMessage());
+        }
+    }
+
+    private void send(Envelope envelope) throws IOException {
+        if (closed) {
+            throw new IOException("控制连接 " + name + " 已关闭");
+        }
+        writeLock.lock();
+        try {
+            output.writeObject(envelope);
+            // 清空流中已写对象的缓存，否则之后重复发送同一个对象时对端只会收到旧的引用
+            output.reset();
+            output.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void readLoop() {
+        try {
+            while (!closed) {
+                Envelope envelope = (Envelope) input.readObject();
+                if (envelope.kind == Envelope.RESPONSE || envelope.kind == Envelope.FAILURE) {
+                    CompletableFuture<Object> response = pendingRequests.remove(envelope.requestId);
+                    if (response == null) {
+                        continue;
+                    }
+                    if (envelope.kind == Envelope.RESPONSE) {
+                        response.complete(envelope.payload);
+                    } else {
+                        response.completeExceptionally((Throwable) envelope.payload);
+                    }
+                } else {
+                    requestExecutor.execute(() -> handleRequest(envelope));
+                }
+            }
+        } catch (EOFException e) {
+            if (!closed) {
+                LOG.info("控制连接 " + name + " 已被对方关闭。");
+            }
+        } catch (Exception e) {
+            if (!closed) {
+                LOG.warning("控制连接 " + name + " 读取失败: " + e);
+            }
+        } finally {
+            close();
+            Runnable listener = closeListener;
+            if (listener != null) {
+                listener.run();
+            }
+        }
+    }
+
+    private void handleRequest(Envelope request) {
+        Object result;
+        boolean failed = false;
+        try {
+            result = requestHandler.handle(request.payload);
+        } catch (Exception e) {
+            LOG.warning("处理来自 " + name + " 的消息 " + request.payload + " 失败: " + e);
+            result = e;
+            failed = true;
+        }
+        if (request.kind != Envelope.REQUEST) {
+            return;
+        }
+        try {
+            send(new Envelope(failed ? Envelope.FAILURE : Envelope.RESPONSE, request.requestId, result));
+        } catch (IOException e) {
+            LOG.warning("向 " + name + " 发送应答失败: " + e.getMessage());
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // 关闭失败时没有需要清理的资源
+        }
+        requestExecutor.shutdown();
+        IOException failure = new IOException("控制连接 " + name + " 已关闭");
+        for (CompletableFuture<Object> response : pendingRequests.values()) {
+            response.completeExceptionally(failure);
+        }
+        pendingRequests.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "RpcConnection{" + name + "}";
+    }
+
+    /**
+     * 连接上传输的一条消息。
+     */
+    private static class Envelope implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        static final byte REQUEST = 1;
+        static final byte TELL = 2;
+        static final byte RESPONSE = 3;
+        static final byte FAILURE = 4;
+
+        private final byte kind;
+        private final long requestId;
+        private final Object payload;
+
+        Envelope(byte kind, long requestId, Object payload) {
+            this.kind = kind;
+            this.requestId = requestId;
+            this.payload = payload;
+        }
+    }
+}
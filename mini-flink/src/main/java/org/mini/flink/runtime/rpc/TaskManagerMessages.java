@@ -0,0 +1,211 @@
+package org.mini.flink.runtime.rpc;
+
+import org.mini.flink.runtime.deployment.TaskDeploymentDescriptor;
+import org.mini.flink.runtime.state.CheckpointBarrier;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * JobManager 发给 TaskManager 的消息，与 {@link org.mini.flink.runtime.taskmanager.TaskManagerGateway} 的方法一一对应。
+ */
+public final class TaskManagerMessages {
+
+    private TaskManagerMessages() {
+    }
+
+    /**
+     * 应答为 {@link SlotAllocation}。
+     */
+    public static class AllocateSlots implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String jobId;
+        private final int count;
+
+        public AllocateSlots(String jobId, int count) {
+            this.jobId = jobId;
+            this.count = count;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return "AllocateSlots{" + jobId + ", count=" + count + "}";
+        }
+    }
+
+    /**
+     * 槽分配的结果。
+     */
+    public static class SlotAllocation implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Integer> slotIndexes;
+        private final int numberOfAvailableSlots;
+
+        /**
+         * @param slotIndexes 分配的槽的下标，空闲槽不足时为 null
+         * @param numberOfAvailableSlots 分配之后的空闲槽数
+         */
+        public SlotAllocation(List<Integer> slotIndexes, int numberOfAvailableSlots) {
+            this.slotIndexes = slotIndexes;
+            this.numberOfAvailableSlots = numberOfAvailableSlots;
+        }
+
+        public List<Integer> getSlotIndexes() {
+            return slotIndexes;
+        }
+
+        public int getNumberOfAvailableSlots() {
+            return numberOfAvailableSlots;
+        }
+    }
+
+    public static class ReleaseSlots implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String jobId;
+
+        public ReleaseSlots(String jobId) {
+            this.jobId = jobId;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        @Override
+        public String toString() {
+            return "ReleaseSlots{" + jobId + "}";
+        }
+    }
+
+    public static class SubmitTask implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final TaskDeploymentDescriptor deployment;
+
+        public SubmitTask(TaskDeploymentDescriptor deployment) {
+            this.deployment = deployment;
+        }
+
+        public TaskDeploymentDescriptor getDeployment() {
+            return deployment;
+        }
+
+        @Override
+        public String toString() {
+            return "SubmitTask{" + deployment.getTaskName() + "}";
+        }
+    }
+
+    /**
+     * 取消作业的部分任务并释放它们之间的通道，用于流水线区域的故障恢复。
+     */
+    public static class CancelTasks implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String jobId;
+        private final List<String> taskNames;
+        private final List<Integer> channelIds;
+
+        public CancelTasks(String jobId, List<String> taskNames, List<Integer> channelIds) {
+            this.jobId = jobId;
+            this.taskNames = taskNames;
+            this.channelIds = channelIds;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public List<String> getTaskNames() {
+            return taskNames;
+        }
+
+        public List<Integer> getChannelIds() {
+            return channelIds;
+        }
+
+        @Override
+        public String toString() {
+            return "CancelTasks{" + jobId + ", tasks=" + taskNames.size() + ", channels=" + channelIds.size() + "}";
+        }
+    }
+
+    public static class TriggerCheckpoint implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String jobId;
+        private final String taskName;
+        private final CheckpointBarrier barrier;
+
+        public TriggerCheckpoint(String jobId, String taskName, CheckpointBarrier barrier) {
+            this.jobId = jobId;
+            this.taskName = taskName;
+            this.barrier = barrier;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public String getTaskName() {
+            return taskName;
+        }
+
+        public CheckpointBarrier getBarrier() {
+            return barrier;
+        }
+
+        @Override
+        public String toString() {
+            return "TriggerCheckpoint{" + barrier.getCheckpointId() + ", " + taskName + "}";
+        }
+    }
+
+    public static class NotifyCheckpointComplete implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String jobId;
+        private final long checkpointId;
+
+        public NotifyCheckpointComplete(String jobId, long checkpointId) {
+            this.jobId = jobId;
+            this.checkpointId = checkpointId;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public long getCheckpointId() {
+            return checkpointId;
+        }
+
+        @Override
+        public String toString() {
+            return "NotifyCheckpointComplete{" + checkpointId + "}";
+        }
+    }
+
+    /**
+     * 停止所有任务并退出 TaskManager 进程。
+     */
+    public static class Shutdown implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String toString() {
+            return "Shutdown";
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.mini.flink.runtime.state;
+
+/**
+ * 键组（Key Group）分配工具。
+ * 与 Flink 一致，键先被哈希到固定数量的键组 (maxParallelism) 中，再由键组映射到具体的并行实例。
+ * 这样无论下游并行度是多少，同一个键总会落到同一个键组，为后续的状态重分布打下基础。
+ */
+public final class KeyGroupRangeAssignment {
+
+    /** 默认的最大并行度，即键组的数量 */
+    public static final int DEFAULT_MAX_PARALLELISM = 128;
+
+    private KeyGroupRangeAssignment() {
+    }
+
+    public static int assignKeyToParallelOperator(Object key, int maxParallelism, int parallelism) {
+        return computeOperatorIndexForKeyGroup(maxParallelism, parallelism, assignToKeyGroup(key, maxParallelism));
+    }
+
+    public static int assignToKeyGroup(Object key, int maxParallelism) {
+        if (key == null) {
+            throw new NullPointerException("键选择器返回的键不能为 null");
+        }
+        return (murmurHash(key.hashCode()) & Integer.MAX_VALUE) % maxParallelism;
+    }
+
+    public static int computeOperatorIndexForKeyGroup(int maxParallelism, int parallelism, int keyGroupId) {
+        return keyGroupId * parallelism / maxParallelism;
+    }
+
+    /**
+     * MurmurHash3 的 finalizer，对 hashCode 做一次扰动，避免分布不均的 hashCode（例如连续整数）产生数据倾斜。
+     */
+    private static int murmurHash(int code) {
+        code *= 0xcc9e2d51;
+        code = Integer.rotateLeft(code, 15);
+        code *= 0x1b873593;
+
+        code = Integer.rotateLeft(code, 13);
+        code = code * 5 + 0xe6546b64;
+
+        code ^= 4;
+        code ^= code >>> 16;
+        code *= 0x85ebca6b;
+        code ^= code >>> 13;
+        code *= 0xc2b2ae35;
+        code ^= code >>> 16;
+        return code;
+    }
+}
@@ -6,13 +6,14 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 标识一个算子是可拥有状态的。
- * 使用 ConcurrentHashMap 作为最简单的键/值状态存储。
- * Flink 中有更复杂的状态后端 (StateBackend)。
+ * 使用 ConcurrentHashMap 作为最简单的键/值状态存储，状态属于整个算子实例而不区分键。
+ * 按键分区的算子应优先通过 {@link org.mini.flink.api.RichFunction} 获取类型化的键控状态，
+ * 由 {@link org.mini.flink.runtime.state.heap.HeapKeyedStateBackend} 管理。
  */
 public interface Stateful extends Serializable {
 
     /**
-     * 初始化状态
+     * 初始化状态。从检查点恢复时，传入的 Map 中已经包含了该算子在检查点中的状态。
      */
     void initializeState(Map<String, Object> state);
 
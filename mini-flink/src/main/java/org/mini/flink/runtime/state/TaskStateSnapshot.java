@@ -0,0 +1,209 @@
+package org.mini.flink.runtime.state;
+
+import org.mini.flink.runtime.checkpoint.CheckpointStateSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个任务在某个检查点上的完整快照，由任务确认检查点时上报给 JobManager。
+ * 包含任务中（可能是一条算子链）每个有状态算子的状态、链头算子的键控状态，
+ * 以及非对齐检查点下各输入通道中在屏障之前的在途数据。
+ * <p>
+ * 键控状态可能是增量的：此时 keyedStates 中只有自基准检查点以来被写入的键，
+ * 被删除的键记录在 keyedStateRemovals 中，需要通过 {@link #applyTo(TaskStateSnapshot)} 叠加到基准快照上。
+ * <p>
+ * 快照从 TaskManager 进程上报给 JobManager 时，不经过 Java 序列化逐个对象地写出，
+ * 而是整体编码为检查点文件的二进制格式，见 {@link CheckpointStateSerializer}。
+ */
+public class TaskStateSnapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int subtaskIndex;
+    // Key: 算子名称, Value: 该算子通过 Stateful 保存的状态
+    private final Map<String, Map<String, Object>> operatorStates;
+    // Key: 算子名称, Value: 该算子的键控状态 (Key: 状态名称, Value: 每个键对应的值)
+    private final Map<String, Map<String, Object>> keyedStates;
+    // Key: 输入通道下标, Value: 该通道中位于屏障之前、尚未体现在算子状态里的记录
+    private final Map<Integer, List<Object>> inputChannelState;
+    // 键控状态为增量时所基于的检查点，全量时为 -1
+    private final long keyedStateBaseCheckpointId;
+    // Key: 算子名称, Value: 自基准检查点以来被删除的键 (Key: 状态名称, Value: 被删除的键)
+    private final Map<String, Map<String, List<Object>>> keyedStateRemovals;
+
+    public TaskStateSnapshot(int subtaskIndex, Map<String, Map<String, Object>> operatorStates,
+                             Map<String, Map<String, Object>> keyedStates, Map<Integer, List<Object>> inputChannelState) {
+        this(subtaskIndex, operatorStates, keyedStates, inputChannelState, -1, null);
+    }
+
+    public TaskStateSnapshot(int subtaskIndex, Map<String, Map<String, Object>> operatorStates,
+                             Map<String, Map<String, Object>> keyedStates, Map<Integer, List<Object>> inputChannelState,
+                             long keyedStateBaseCheckpointId, Map<String, Map<String, List<Object>>> keyedStateRemovals) {
+        this.subtaskIndex = subtaskIndex;
+        this.operatorStates = operatorStates != null ? operatorStates : Collections.emptyMap();
+        this.keyedStates = keyedStates != null ? keyedStates : Collections.emptyMap();
+        this.inputChannelState = inputChannelState != null ? inputChannelState : Collections.emptyMap();
+        this.keyedStateBaseCheckpointId = keyedStateBaseCheckpointId;
+        this.keyedStateRemovals = keyedStateRemovals != null ? keyedStateRemovals : Collections.emptyMap();
+    }
+
+    /**
+     * @return 一个带有给定通道状态的新快照，算子状态与当前快照相同
+     */
+    public TaskStateSnapshot withInputChannelState(Map<Integer, List<Object>> inputChannelState) {
+        return new TaskStateSnapshot(subtaskIndex, operatorStates, keyedStates, inputChannelState,
+                keyedStateBaseCheckpointId, keyedStateRemovals);
+    }
+
+    /**
+     * 把增量的键控状态叠加到基准检查点上同一任务的（全量）快照上，先删除再写入。
+     * 算子状态和通道状态总是全量的，直接取自当前快照。
+     * @return 键控状态为全量的快照
+     */
+    @SuppressWarnings("unchecked")
+    public TaskStateSnapshot applyTo(TaskStateSnapshot base) {
+        if (!isIncremental()) {
+            return this;
+        }
+        Map<String, Map<String, Object>> merged = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Object>> operator : base.getKeyedStates().entrySet()) {
+            Map<String, Object> states = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> state : operator.getValue().entrySet()) {
+                states.put(state.getKey(), new HashMap<>((Map<Object, Object>) state.getValue()));
+            }
+            merged.put(operator.getKey(), states);
+        }
+        for (Map.Entry<String, Map<String, List<Object>>> operator : keyedStateRemovals.entrySet()) {
+            Map<String, Object> states = merged.get(operator.getKey());
+            if (states == null) {
+                continue;
+            }
+            for (Map.Entry<String, List<Object>> removed : operator.getValue().entrySet()) {
+                Map<Object, Object> entries = (Map<Object, Object>) states.get(removed.getKey());
+                if (entries != null) {
+                    entries.keySet().removeAll(removed.getValue());
+                }
+            }
+        }
+        for (Map.Entry<String, Map<String, Object>> operator : keyedStates.entrySet()) {
+            Map<String, Object> states = merged.computeIfAbsent(operator.getKey(), k -> new LinkedHashMap<>());
+            for (Map.Entry<String, Object> changed : operator.getValue().entrySet()) {
+                Map<Object, Object> entries = (Map<Object, Object>) states.computeIfAbsent(changed.getKey(), k -> new HashMap<>());
+                entries.putAll((Map<Object, Object>) changed.getValue());
+            }
+        }
+        return new TaskStateSnapshot(subtaskIndex, operatorStates, merged, inputChannelState);
+    }
+
+    public int getSubtaskIndex() {
+        return subtaskIndex;
+    }
+
+    public Map<String, Map<String, Object>> getOperatorStates() {
+        return operatorStates;
+    }
+
+    public Map<String, Map<String, Object>> getKeyedStates() {
+        return keyedStates;
+    }
+
+    public Map<Integer, List<Object>> getInputChannelState() {
+        return inputChannelState;
+    }
+
+    public boolean isIncremental() {
+        return keyedStateBaseCheckpointId >= 0;
+    }
+
+    public long getKeyedStateBaseCheckpointId() {
+        return keyedStateBaseCheckpointId;
+    }
+
+    public Map<String, Map<String, List<Object>>> getKeyedStateRemovals() {
+        return keyedStateRemovals;
+    }
+
+    public boolean isEmpty() {
+        return operatorStates.isEmpty() && keyedStates.isEmpty() && inputChannelState.isEmpty();
+    }
+
+    /**
+     * 只输出各部分的条目数，不输出状态内容：状态可能很大，日志中打印它会在协调线程上把整个状态转成字符串。
+     */
+    @Override
+    public String toString() {
+        int inFlightRecords = 0;
+        for (List<Object> records : inputChannelState.values()) {
+            inFlightRecords += records.size();
+        }
+        return "TaskStateSnapshot{subtask=" + subtaskIndex
+                + ", operatorStateEntries=" + countEntries(operatorStates)
+                + ", keyedStateEntries=" + countEntries(keyedStates)
+                + (isIncremental() ? ", baseCheckpoint=" + keyedStateBaseCheckpointId
+                        + ", removedKeys=" + countEntries(keyedStateRemovals) : "")
+                + ", inFlightRecords=" + inFlightRecords + "}";
+    }
+
+    /**
+     * @return 所有算子的所有状态中的条目数，Map 和 Collection 按元素个数计，其他值计为 1
+     */
+    private static int countEntries(Map<String, ? extends Map<String, ?>> states) {
+        int entries = 0;
+        for (Map<String, ?> operatorStates : states.values()) {
+            for (Object state : operatorStates.values()) {
+                if (state instanceof Map) {
+                    entries += ((Map<?, ?>) state).size();
+                } else if (state instanceof Collection) {
+                    entries += ((Collection<?>) state).size();
+                } else {
+                    entries++;
+                }
+            }
+        }
+        return entries;
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            CheckpointStateSerializer.writeTaskState(this, out);
+        } catch (IOException e) {
+            throw new NotSerializableException("无法序列化任务状态: " + e.getMessage());
+        }
+        return new SerializedTaskState(bytes.toByteArray());
+    }
+
+    /**
+     * 快照在 Java 序列化流中的替身，只包含编码后的字节。
+     */
+    private static final class SerializedTaskState implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] bytes;
+
+        SerializedTaskState(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                return CheckpointStateSerializer.readTaskState(in);
+            } catch (IOException e) {
+                throw new InvalidObjectException("无法反序列化任务状态: " + e.getMessage());
+            }
+        }
+    }
+}
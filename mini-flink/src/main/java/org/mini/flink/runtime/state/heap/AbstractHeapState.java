@@ -0,0 +1,50 @@
+package org.mini.flink.runtime.state.heap;
+
+import org.mini.flink.api.state.State;
+import org.mini.flink.api.state.StateDescriptor;
+
+import java.util.Map;
+
+/**
+ * 堆上键控状态的公共父类，所有读写都作用于状态后端的当前键。
+ */
+abstract class AbstractHeapState implements State {
+
+    private final HeapKeyedStateBackend backend;
+    private final StateDescriptor descriptor;
+
+    AbstractHeapState(HeapKeyedStateBackend backend, StateDescriptor descriptor) {
+        this.backend = backend;
+        this.descriptor = descriptor;
+    }
+
+    StateDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    protected final Object currentKey() {
+        Object key = backend.getCurrentKey();
+        if (key == null) {
+            throw new IllegalStateException("没有设置当前键，键控状态只能在处理记录时访问");
+        }
+        return key;
+    }
+
+    /**
+     * @return 存储该状态的状态表
+     */
+    abstract HeapStateTable getStateTable();
+
+    /**
+     * 对状态做写时复制快照，只由任务线程调用。
+     */
+    final HeapStateTable.StateTableSnapshot snapshot() {
+        return getStateTable().stateSnapshot();
+    }
+
+    /**
+     * 从检查点恢复状态。
+     * @param entries Key 为记录的键, Value 为该键的状态值
+     */
+    abstract void restore(Map<?, ?> entries);
+}
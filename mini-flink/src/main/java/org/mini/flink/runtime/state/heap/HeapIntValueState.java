@@ -0,0 +1,47 @@
+package org.mini.flink.runtime.state.heap;
+
+import org.mini.flink.api.state.IntValueState;
+import org.mini.flink.api.state.IntValueStateDescriptor;
+
+import java.util.Map;
+
+class HeapIntValueState extends AbstractHeapState implements IntValueState {
+
+    private final IntStateTable table = new IntStateTable();
+
+    HeapIntValueState(HeapKeyedStateBackend backend, IntValueStateDescriptor descriptor) {
+        super(backend, descriptor);
+    }
+
+    @Override
+    public int value() {
+        return table.get(currentKey());
+    }
+
+    @Override
+    public void update(int value) {
+        table.put(currentKey(), value);
+    }
+
+    @Override
+    public int add(int delta) {
+        return table.add(currentKey(), delta);
+    }
+
+    @Override
+    public void clear() {
+        table.remove(currentKey());
+    }
+
+    @Override
+    HeapStateTable getStateTable() {
+        return table;
+    }
+
+    @Override
+    void restore(Map<?, ?> entries) {
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            table.put(entry.getKey(), ((Number) entry.getValue()).intValue());
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.mini.flink.runtime.state.heap;
+
+import org.mini.flink.api.state.IntValueState;
+import org.mini.flink.api.state.IntValueStateDescriptor;
+import org.mini.flink.api.state.LongValueState;
+import org.mini.flink.api.state.LongValueStateDescriptor;
+import org.mini.flink.api.state.MapState;
+import org.mini.flink.api.state.MapStateDescriptor;
+import org.mini.flink.api.state.ReducingState;
+import org.mini.flink.api.state.ReducingStateDescriptor;
+import org.mini.flink.api.state.State;
+import org.mini.flink.api.state.StateDescriptor;
+import org.mini.flink.api.state.ValueState;
+import org.mini.flink.api.state.ValueStateDescriptor;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 堆内存键控状态后端，管理一个算子的所有键控状态。
+ * <p>
+ * 任务在把每条记录交给算子之前，通过 {@link #setCurrentKey} 设置当前键，
+ * 之后算子对任何状态的读写都作用于这个键。每个状态各自使用一张 {@link HeapStateTable} 存储。
+ * <p>
+ * <b>增量快照</b>：开启后，快照只包含自最近一个已完成检查点以来被写入或删除的键，
+ * 快照大小与两次检查点之间的更新量成正比，而与状态总量无关。基准必须是已经完成的检查点，
+ * 因为进行中的检查点随时可能失败，失败之后它的变化要由下一次增量重新带上。
+ * 每隔 fullSnapshotInterval 次检查点做一次全量快照，避免恢复时需要回放的增量链无限增长。
+ * <p>
+ * 除 {@link #notifyCheckpointComplete(long)} 外只由任务线程访问，不是线程安全的。
+ */
+public class HeapKeyedStateBackend {
+
+    // Key: 状态名称, Value: 已注册的状态
+    private final Map<String, AbstractHeapState> states = new LinkedHashMap<>();
+    private Object currentKey;
+    // 从检查点恢复、但还没有被算子重新注册的状态。Key: 状态名称, Value: 每个键对应的值
+    private final Map<String, Map<?, ?>> restoredStates = new HashMap<>();
+
+    private final boolean incrementalSnapshots;
+    private final int fullSnapshotInterval;
+    // 最近一个已完成的检查点，由检查点协调器的线程更新
+    private final AtomicLong lastCompletedCheckpointId = new AtomicLong(-1);
+    // Key: 检查点 ID, Value: 该检查点上各状态表的快照版本；只保留最近完成的检查点及之后的，只由任务线程访问
+    private final TreeMap<Long, SnapshotVersions> snapshotVersions = new TreeMap<>();
+
+    /**
+     * 创建一个每次都做全量快照的状态后端。
+     */
+    public HeapKeyedStateBackend() {
+        this(false, 1);
+    }
+
+    /**
+     * @param incrementalSnapshots 是否只快照自上一个完成的检查点以来的变化
+     * @param fullSnapshotInterval 开启增量快照时，每隔多少次检查点做一次全量快照
+     */
+    public HeapKeyedStateBackend(boolean incrementalSnapshots, int fullSnapshotInterval) {
+        if (fullSnapshotInterval <= 0) {
+            throw new IllegalArgumentException("全量快照间隔必须大于 0");
+        }
+        this.incrementalSnapshots = incrementalSnapshots;
+        this.fullSnapshotInterval = fullSnapshotInterval;
+    }
+
+    /**
+     * 从检查点恢复键控状态。状态在算子通过描述符重新注册时才真正写入状态表，
+     * 因为只有那时才知道它的类型。
+     * @param keyedState Key 为状态名称, Value 为每个键对应的值
+     */
+    public void restore(Map<String, Object> keyedState) {
+        for (Map.Entry<String, Object> entry : keyedState.entrySet()) {
+            restoredStates.put(entry.getKey(), (Map<?, ?>) entry.getValue());
+        }
+    }
+
+    /**
+     * @return 从检查点恢复、但还没有被重新注册的状态，没有时返回 null
+     */
+    public Map<?, ?> getRestoredState(String stateName) {
+        return restoredStates.get(stateName);
+    }
+
+    public void setCurrentKey(Object key) {
+        this.currentKey = key;
+    }
+
+    public Object getCurrentKey() {
+        return currentKey;
+    }
+
+    public <T> ValueState<T> getState(ValueStateDescriptor<T> descriptor) {
+        return getOrCreateState(descriptor, () -> new HeapValueState<>(this, descriptor));
+    }
+
+    public <UK, UV> MapState<UK, UV> getMapState(MapStateDescriptor<UK, UV> descriptor) {
+        return getOrCreateState(descriptor, () -> new HeapMapState<>(this, descriptor));
+    }
+
+    public <T> ReducingState<T> getReducingState(ReducingStateDescriptor<T> descriptor) {
+        return getOrCreateState(descriptor, () -> new HeapReducingState<>(this, descriptor));
+    }
+
+    public LongValueState getLongState(LongValueStateDescriptor descriptor) {
+        return getOrCreateState(descriptor, () -> new HeapLongValueState(this, descriptor));
+    }
+
+    public IntValueState getIntState(IntValueStateDescriptor descriptor) {
+        return getOrCreateState(descriptor, () -> new HeapIntValueState(this, descriptor));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S extends State> S getOrCreateState(StateDescriptor descriptor, Supplier<AbstractHeapState> factory) {
+        AbstractHeapState state = states.get(descriptor.getName());
+        if (state == null) {
+            state = factory.get();
+            state.getStateTable().setChangelogEnabled(incrementalSnapshots);
+            states.put(descriptor.getName(), state);
+            Map<?, ?> restored = restoredStates.remove(descriptor.getName());
+            if (restored != null) {
+                state.restore(restored);
+            }
+        } else if (state.getDescriptor().getType() != descriptor.getType()) {
+            throw new IllegalStateException("状态 [" + descriptor.getName() + "] 已经以 "
+                    + state.getDescriptor().getType() + " 类型注册，不能再作为 " + descriptor.getType() + " 使用");
+        }
+        return (S) state;
+    }
+
+    /**
+     * 对所有键控状态做写时复制快照。这一步很快，耗时与状态条目数基本无关，
+     * 真正的数据拷贝在 {@link HeapKeyedStateSnapshot#materialize()} 中进行。
+     * <p>
+     * 开启增量快照并且有可用的基准时，返回的是相对于最近一个已完成检查点的增量快照。
+     */
+    public HeapKeyedStateSnapshot snapshot(long checkpointId) {
+        Map<String, HeapStateTable.StateTableSnapshot> tableSnapshots = new LinkedHashMap<>();
+        Map<String, Integer> versions = new HashMap<>();
+        for (Map.Entry<String, AbstractHeapState> entry : states.entrySet()) {
+            HeapStateTable.StateTableSnapshot tableSnapshot = entry.getValue().snapshot();
+            tableSnapshots.put(entry.getKey(), tableSnapshot);
+            versions.put(entry.getKey(), tableSnapshot.getVersion());
+        }
+        if (!incrementalSnapshots) {
+            return new HeapKeyedStateSnapshot(tableSnapshots, -1, null);
+        }
+
+        long baseCheckpointId = lastCompletedCheckpointId.get();
+        // 比最近完成的检查点更早的检查点再也不会被用作基准
+        snapshotVersions.headMap(baseCheckpointId).clear();
+        SnapshotVersions base = snapshotVersions.get(baseCheckpointId);
+        boolean full = base == null || base.incrementsSinceFull + 1 >= fullSnapshotInterval;
+        snapshotVersions.put(checkpointId, new SnapshotVersions(versions, full ? 0 : base.incrementsSinceFull + 1));
+        discardUnreferencedChanges();
+
+        if (full) {
+            return new HeapKeyedStateSnapshot(tableSnapshots, -1, null);
+        }
+        return new HeapKeyedStateSnapshot(tableSnapshots, baseCheckpointId, base.versions);
+    }
+
+    /**
+     * 之后的增量快照只可能以仍然保留的检查点为基准，比它们都早的删除记录可以丢弃。
+     */
+    private void discardUnreferencedChanges() {
+        for (Map.Entry<String, AbstractHeapState> entry : states.entrySet()) {
+            int oldestVersion = Integer.MAX_VALUE;
+            for (SnapshotVersions retained : snapshotVersions.values()) {
+                Integer version = retained.versions.get(entry.getKey());
+                if (version != null) {
+                    oldestVersion = Math.min(oldestVersion, version);
+                }
+            }
+            entry.getValue().getStateTable().discardChangesBefore(oldestVersion);
+        }
+    }
+
+    /**
+     * 检查点已经在所有任务上完成并持久化，之后的增量快照可以以它为基准。可以在任意线程中调用。
+     */
+    public void notifyCheckpointComplete(long checkpointId) {
+        lastCompletedCheckpointId.accumulateAndGet(checkpointId, Math::max);
+    }
+
+    public boolean isEmpty() {
+        return states.isEmpty();
+    }
+
+    private static class SnapshotVersions {
+        // Key: 状态名称, Value: 快照时该状态表的版本
+        final Map<String, Integer> versions;
+        // 距离最近一次全量快照经过了多少次增量快照，全量快照为 0
+        final int incrementsSinceFull;
+
+        SnapshotVersions(Map<String, Integer> versions, int incrementsSinceFull) {
+            this.versions = versions;
+            this.incrementsSinceFull = incrementsSinceFull;
+        }
+    }
+}
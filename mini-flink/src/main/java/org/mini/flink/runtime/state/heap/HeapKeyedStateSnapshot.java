@@ -0,0 +1,98 @@
+package org.mini.flink.runtime.state.heap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一个算子所有键控状态在某次检查点上的写时复制快照。
+ * <p>
+ * 创建快照是同步的，只需要记下每张状态表的页引用；{@link #materialize()} 遍历快照生成普通的 Map，
+ * 可以在任务线程之外异步执行，不阻塞数据处理。
+ * <p>
+ * 增量快照只导出自基准检查点以来被写入的键值对和被删除的键，恢复时要叠加在基准检查点的状态之上。
+ */
+public class HeapKeyedStateSnapshot {
+
+    // Key: 状态名称, Value: 该状态的状态表快照
+    private final Map<String, HeapStateTable.StateTableSnapshot> tableSnapshots;
+    // 增量快照的基准检查点，全量快照为 -1
+    private final long baseCheckpointId;
+    // Key: 状态名称, Value: 基准检查点上该状态表的版本；全量快照为 null
+    private final Map<String, Integer> baseVersions;
+
+    HeapKeyedStateSnapshot(Map<String, HeapStateTable.StateTableSnapshot> tableSnapshots,
+                           long baseCheckpointId, Map<String, Integer> baseVersions) {
+        this.tableSnapshots = tableSnapshots;
+        this.baseCheckpointId = baseCheckpointId;
+        this.baseVersions = baseVersions;
+    }
+
+    public boolean isIncremental() {
+        return baseVersions != null;
+    }
+
+    public long getBaseCheckpointId() {
+        return baseCheckpointId;
+    }
+
+    /**
+     * 把快照复制成普通的 Map 并释放快照，之后任务线程不再需要为它复制状态页。
+     */
+    public MaterializedKeyedState materialize() {
+        try {
+            Map<String, Object> values = new LinkedHashMap<>();
+            Map<String, List<Object>> removedKeys = new LinkedHashMap<>();
+            for (Map.Entry<String, HeapStateTable.StateTableSnapshot> entry : tableSnapshots.entrySet()) {
+                HeapStateTable.StateTableSnapshot snapshot = entry.getValue();
+                if (!isIncremental()) {
+                    values.put(entry.getKey(), snapshot.toMap());
+                    continue;
+                }
+                // 基准检查点之后才注册的状态，从版本 0 开始的变化就是它的全部内容
+                Integer baseVersion = baseVersions.get(entry.getKey());
+                int since = baseVersion != null ? baseVersion : 0;
+                values.put(entry.getKey(), snapshot.changesSince(since));
+                Set<Object> removed = snapshot.removedSince(since);
+                if (!removed.isEmpty()) {
+                    removedKeys.put(entry.getKey(), new ArrayList<>(removed));
+                }
+            }
+            return new MaterializedKeyedState(values, removedKeys);
+        } finally {
+            release();
+        }
+    }
+
+    public void release() {
+        for (HeapStateTable.StateTableSnapshot snapshot : tableSnapshots.values()) {
+            snapshot.release();
+        }
+    }
+
+    /**
+     * 物化之后的键控状态。
+     */
+    public static class MaterializedKeyedState {
+        // Key: 状态名称, Value: 每个键对应的值（增量快照中只有被写入过的键）
+        private final Map<String, Object> values;
+        // Key: 状态名称, Value: 被删除的键，只有增量快照才有
+        private final Map<String, List<Object>> removedKeys;
+
+        MaterializedKeyedState(Map<String, Object> values, Map<String, List<Object>> removedKeys) {
+            this.values = values;
+            this.removedKeys = removedKeys != null ? removedKeys : Collections.emptyMap();
+        }
+
+        public Map<String, Object> getValues() {
+            return values;
+        }
+
+        public Map<String, List<Object>> getRemovedKeys() {
+            return removedKeys;
+        }
+    }
+}
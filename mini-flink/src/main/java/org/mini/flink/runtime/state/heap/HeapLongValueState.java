@@ -0,0 +1,47 @@
+package org.mini.flink.runtime.state.heap;
+
+import org.mini.flink.api.state.LongValueState;
+import org.mini.flink.api.state.LongValueStateDescriptor;
+
+import java.util.Map;
+
+class HeapLongValueState extends AbstractHeapState implements LongValueState {
+
+    private final LongStateTable table = new LongStateTable();
+
+    HeapLongValueState(HeapKeyedStateBackend backend, LongValueStateDescriptor descriptor) {
+        super(backend, descriptor);
+    }
+
+    @Override
+    public long value() {
+        return table.get(currentKey());
+    }
+
+    @Override
+    public void update(long value) {
+        table.put(currentKey(), value);
+    }
+
+    @Override
+    public long add(long delta) {
+        return table.add(currentKey(), delta);
+    }
+
+    @Override
+    public void clear() {
+        table.remove(currentKey());
+    }
+
+    @Override
+    HeapStateTable getStateTable() {
+        return table;
+    }
+
+    @Override
+    void restore(Map<?, ?> entries) {
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            table.put(entry.getKey(), ((Number) entry.getValue()).longValue());
+        }
+    }
+}
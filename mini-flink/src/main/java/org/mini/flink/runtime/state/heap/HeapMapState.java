@@ -0,0 +1,97 @@
+package org.mini.flink.runtime.state.heap;
+
+import org.mini.flink.api.state.MapState;
+import org.mini.flink.api.state.MapStateDescriptor;
+import org.mini.flink.api.state.ValueCopier;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+class HeapMapState<UK, UV> extends AbstractHeapState implements MapState<UK, UV> {
+
+    private final ObjectStateTable<HashMap<UK, UV>> table;
+    // 值可变时，读出的值也可能被算子原地修改，因此读也按写访问处理
+    private final ValueCopier<UV> valueCopier;
+
+    HeapMapState(HeapKeyedStateBackend backend, MapStateDescriptor<UK, UV> descriptor) {
+        super(backend, descriptor);
+        this.valueCopier = descriptor.getValueCopier();
+        this.table = new ObjectStateTable<>(valueCopier == null ? HashMap::new : this::copyWithValues);
+    }
+
+    private HashMap<UK, UV> copyWithValues(HashMap<UK, UV> map) {
+        HashMap<UK, UV> copy = new HashMap<>(Math.max(16, (int) (map.size() / 0.75f) + 1));
+        for (Map.Entry<UK, UV> entry : map.entrySet()) {
+            UV value = entry.getValue();
+            copy.put(entry.getKey(), value == null ? null : valueCopier.copy(value));
+        }
+        return copy;
+    }
+
+    @Override
+    public UV get(UK key) {
+        HashMap<UK, UV> map = valueCopier == null ? table.get(currentKey()) : table.getForUpdate(currentKey());
+        return map == null ? null : map.get(key);
+    }
+
+    @Override
+    public void put(UK key, UV value) {
+        Object currentKey = currentKey();
+        HashMap<UK, UV> map = table.getForUpdate(currentKey);
+        if (map == null) {
+            map = new HashMap<>();
+            table.put(currentKey, map);
+        }
+        map.put(key, value);
+    }
+
+    @Override
+    public void remove(UK key) {
+        Object currentKey = currentKey();
+        HashMap<UK, UV> map = table.getForUpdate(currentKey);
+        if (map != null) {
+            map.remove(key);
+            if (map.isEmpty()) {
+                table.remove(currentKey);
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(UK key) {
+        HashMap<UK, UV> map = table.get(currentKey());
+        return map != null && map.containsKey(key);
+    }
+
+    @Override
+    public Iterable<Map.Entry<UK, UV>> entries() {
+        // 调用方可能通过迭代器修改用户 Map，按写访问处理
+        HashMap<UK, UV> map = table.getForUpdate(currentKey());
+        return map == null ? Collections.<Map.Entry<UK, UV>>emptySet() : map.entrySet();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        HashMap<UK, UV> map = table.get(currentKey());
+        return map == null || map.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        table.remove(currentKey());
+    }
+
+    @Override
+    HeapStateTable getStateTable() {
+        return table;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void restore(Map<?, ?> entries) {
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            table.put(entry.getKey(), new HashMap<>((Map<UK, UV>) entry.getValue()));
+        }
+    }
+}
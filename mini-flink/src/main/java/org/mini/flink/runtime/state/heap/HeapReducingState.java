@@ -0,0 +1,51 @@
+package org.mini.flink.runtime.state.heap;
+
+import org.mini.flink.api.ReduceFunction;
+import org.mini.flink.api.state.ReducingState;
+import org.mini.flink.api.state.ReducingStateDescriptor;
+
+import java.util.Map;
+
+class HeapReducingState<T> extends AbstractHeapState implements ReducingState<T> {
+
+    private final ObjectStateTable<T> table = new ObjectStateTable<>();
+    private final ReduceFunction<T> reduceFunction;
+
+    HeapReducingState(HeapKeyedStateBackend backend, ReducingStateDescriptor<T> descriptor) {
+        super(backend, descriptor);
+        this.reduceFunction = descriptor.getReduceFunction();
+    }
+
+    @Override
+    public T get() {
+        return table.get(currentKey());
+    }
+
+    @Override
+    public void add(T value) throws Exception {
+        if (value == null) {
+            return;
+        }
+        Object key = currentKey();
+        T current = table.get(key);
+        table.put(key, current == null ? value : reduceFunction.reduce(current, value));
+    }
+
+    @Override
+    public void clear() {
+        table.remove(currentKey());
+    }
+
+    @Override
+    HeapStateTable getStateTable() {
+        return table;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void restore(Map<?, ?> entries) {
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            table.put(entry.getKey(), (T) entry.getValue());
+        }
+    }
+}
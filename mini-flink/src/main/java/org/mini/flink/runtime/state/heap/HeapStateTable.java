@@ -0,0 +1,459 @@
+package org.mini.flink.runtime.state.heap;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 基于开放寻址（线性探测）的状态表，是所有堆上键控状态的存储结构。
+ * <p>
+ * 与 {@code HashMap}/{@code ConcurrentHashMap} 相比，这里不为每个键分配 Node 对象，
+ * 键、哈希值和状态值分别存放在平行的数组中。子类用基本类型数组（long[]、int[]）保存值时，
+ * 读写完全不会装箱，百万级键的内存占用也远小于链表法的 Map。
+ * <p>
+ * 删除采用"向后移位"而不是墓碑标记，探测链始终紧凑，不会随着删除越来越长。
+ * <p>
+ * <b>写时复制快照</b>：所有数组都按 {@link #PAGE_SIZE} 个槽位分页。{@link #stateSnapshot()} 只把状态版本加一，
+ * 并记下当前每一页的引用，耗时只与页数相关，与状态条目的多少基本无关。此后任务线程第一次写某一页时，
+ * 如果这一页的版本比仍在使用中的快照版本旧，就先复制这一页再写，快照持有的旧页保持不变。
+ * 因此快照可以在其他线程中慢慢遍历和序列化，而不需要暂停数据处理。
+ * <p>
+ * <b>变更日志</b>：每个槽位记录最后一次被写入时的状态版本，开启变更日志后还会按版本记录被删除的键。
+ * 快照据此可以只导出某个版本之后发生变化的条目（见 {@link StateTableSnapshot#changesSince(int)}），
+ * 用于增量检查点。
+ * <p>
+ * 状态表只由任务线程读写，快照对象可以交给其他线程遍历。
+ */
+public abstract class HeapStateTable {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    static final int PAGE_SHIFT = 10;
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private Object[][] keyPages;
+    // 缓存每个槽位上键的哈希值，探测时先比较哈希，避免频繁调用 equals
+    private int[][] hashPages;
+    // 每个槽位最后一次被写入时的状态版本
+    private int[][] modifiedVersionPages;
+    // 每一页最近一次被复制（或创建）时的状态版本
+    private int[] pageVersions;
+    private int size;
+    private int capacity;
+    private int mask;
+    private int threshold;
+
+    // 当前状态版本，每次快照加一，只由任务线程修改
+    private int stateVersion;
+    // 仍在使用中的快照的最高版本，没有快照时为 0；快照在其他线程中释放时会降低这个值
+    private volatile int highestRequiredSnapshotVersion;
+    // 【JUC知识点】: 快照由异步线程释放，与任务线程的创建并发，这里用 synchronized 保护
+    private final TreeSet<Integer> activeSnapshotVersions = new TreeSet<>();
+
+    // 是否记录被删除的键，只有增量检查点需要
+    private boolean changelogEnabled;
+    // 当前状态版本下被删除的键，没有删除时为 null
+    private Set<Object> removedKeys;
+    // Key: 状态版本, Value: 在该版本下被删除的键，封存之后不再修改，可以被快照在其他线程中读取
+    private final TreeMap<Integer, Set<Object>> sealedRemovedKeys = new TreeMap<>();
+
+    protected HeapStateTable() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 为新的容量分配值数组（页大小为 {@link #pageSize(int)}）。调用之后会通过 {@link #transferValue}
+     * 把旧数组中的值逐个搬到新数组，子类需要在此之前保留旧数组的引用。
+     */
+    protected abstract void resizeValues(int newCapacity);
+
+    /**
+     * 扩容时把旧值数组 oldIndex 处的值搬到新值数组 newIndex 处。
+     */
+    protected abstract void transferValue(int oldIndex, int newIndex);
+
+    /**
+     * 扩容完成，子类可以释放旧值数组。
+     */
+    protected abstract void releaseOldValues();
+
+    /**
+     * 删除时把 from 槽位的值移到 to 槽位。
+     */
+    protected abstract void moveValue(int from, int to);
+
+    /**
+     * 把槽位上的值恢复为初始值（0 或 null），便于该槽位被复用。
+     */
+    protected abstract void clearValue(int index);
+
+    /**
+     * 写时复制：用一份拷贝替换第 page 页的值，快照仍然持有原来的那一页。
+     */
+    protected abstract void copyValuePage(int page);
+
+    /**
+     * @return 键所在的槽位，不存在时返回 -1。只用于读，不会触发写时复制
+     */
+    protected final int lookup(Object key) {
+        int hash = hash(key);
+        int index = hash & mask;
+        while (true) {
+            int page = index >>> PAGE_SHIFT;
+            int offset = index & PAGE_MASK;
+            Object existing = keyPages[page][offset];
+            if (existing == null) {
+                return -1;
+            }
+            if (hashPages[page][offset] == hash && existing.equals(key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * @return 键所在的槽位，不存在时返回 -1。返回的槽位所在页可以直接写入
+     */
+    protected final int lookupForUpdate(Object key) {
+        int index = lookup(key);
+        if (index >= 0) {
+            ensureWritable(index >>> PAGE_SHIFT);
+            markModified(index);
+        }
+        return index;
+    }
+
+    /**
+     * @return 键所在的槽位，返回的槽位所在页可以直接写入；
+     * 键不存在时先插入，新槽位上的值为初始值（0 或 null）
+     */
+    protected final int lookupOrInsert(Object key) {
+        int index = lookup(key);
+        if (index >= 0) {
+            ensureWritable(index >>> PAGE_SHIFT);
+            markModified(index);
+            return index;
+        }
+        if (size >= threshold) {
+            resize();
+        }
+        int hash = hash(key);
+        index = hash & mask;
+        while (keyPages[index >>> PAGE_SHIFT][index & PAGE_MASK] != null) {
+            index = (index + 1) & mask;
+        }
+        int page = index >>> PAGE_SHIFT;
+        ensureWritable(page);
+        keyPages[page][index & PAGE_MASK] = key;
+        hashPages[page][index & PAGE_MASK] = hash;
+        markModified(index);
+        size++;
+        return index;
+    }
+
+    /**
+     * @return 键是否存在并被删除
+     */
+    public final boolean remove(Object key) {
+        int index = lookup(key);
+        if (index < 0) {
+            return false;
+        }
+        if (changelogEnabled) {
+            if (removedKeys == null) {
+                removedKeys = new HashSet<>();
+            }
+            removedKeys.add(key);
+        }
+        removeAt(index);
+        return true;
+    }
+
+    public final boolean containsKey(Object key) {
+        return lookup(key) >= 0;
+    }
+
+    public final int size() {
+        return size;
+    }
+
+    protected final int capacity() {
+        return capacity;
+    }
+
+    protected final int getStateVersion() {
+        return stateVersion;
+    }
+
+    protected final int getHighestRequiredSnapshotVersion() {
+        return highestRequiredSnapshotVersion;
+    }
+
+    /**
+     * 开启后，被删除的键会按状态版本记录下来，直到 {@link #discardChangesBefore(int)} 把它们丢弃。
+     */
+    public final void setChangelogEnabled(boolean changelogEnabled) {
+        this.changelogEnabled = changelogEnabled;
+        if (!changelogEnabled) {
+            removedKeys = null;
+            sealedRemovedKeys.clear();
+        }
+    }
+
+    /**
+     * 丢弃早于给定状态版本的删除记录，这些变化已经包含在一个完成的检查点中，之后的增量不再需要它们。
+     */
+    public final void discardChangesBefore(int version) {
+        sealedRemovedKeys.headMap(version).clear();
+    }
+
+    private void markModified(int index) {
+        modifiedVersionPages[index >>> PAGE_SHIFT][index & PAGE_MASK] = stateVersion;
+    }
+
+    /**
+     * @return 每一页的槽位数，容量小于 {@link #PAGE_SIZE} 时只有一页
+     */
+    protected static int pageSize(int capacity) {
+        return Math.min(capacity, PAGE_SIZE);
+    }
+
+    protected static int numberOfPages(int capacity) {
+        return capacity / pageSize(capacity);
+    }
+
+    private void removeAt(int index) {
+        size--;
+        int gap = index;
+        int next = index;
+        while (true) {
+            next = (next + 1) & mask;
+            int nextPage = next >>> PAGE_SHIFT;
+            Object key = keyPages[nextPage][next & PAGE_MASK];
+            if (key == null) {
+                break;
+            }
+            // 只有当空位处在该键的理想槽位与当前槽位之间时，才能把它向前移到空位，否则会破坏它的探测链
+            int nextHash = hashPages[nextPage][next & PAGE_MASK];
+            int ideal = nextHash & mask;
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                int gapPage = gap >>> PAGE_SHIFT;
+                ensureWritable(gapPage);
+                keyPages[gapPage][gap & PAGE_MASK] = key;
+                hashPages[gapPage][gap & PAGE_MASK] = nextHash;
+                modifiedVersionPages[gapPage][gap & PAGE_MASK] = modifiedVersionPages[nextPage][next & PAGE_MASK];
+                moveValue(next, gap);
+                gap = next;
+            }
+        }
+        int gapPage = gap >>> PAGE_SHIFT;
+        ensureWritable(gapPage);
+        keyPages[gapPage][gap & PAGE_MASK] = null;
+        hashPages[gapPage][gap & PAGE_MASK] = 0;
+        modifiedVersionPages[gapPage][gap & PAGE_MASK] = 0;
+        clearValue(gap);
+    }
+
+    private void ensureWritable(int page) {
+        if (pageVersions[page] < highestRequiredSnapshotVersion) {
+            keyPages[page] = keyPages[page].clone();
+            hashPages[page] = hashPages[page].clone();
+            modifiedVersionPages[page] = modifiedVersionPages[page].clone();
+            copyValuePage(page);
+            pageVersions[page] = stateVersion;
+        }
+    }
+
+    private void allocate(int newCapacity) {
+        int pageSize = pageSize(newCapacity);
+        int pages = numberOfPages(newCapacity);
+        keyPages = new Object[pages][pageSize];
+        hashPages = new int[pages][pageSize];
+        modifiedVersionPages = new int[pages][pageSize];
+        pageVersions = new int[pages];
+        // 新分配的页不被任何快照持有
+        Arrays.fill(pageVersions, stateVersion);
+        capacity = newCapacity;
+        mask = newCapacity - 1;
+        threshold = (int) (newCapacity * LOAD_FACTOR);
+    }
+
+    private void resize() {
+        Object[][] oldKeyPages = keyPages;
+        int[][] oldHashPages = hashPages;
+        int[][] oldModifiedVersionPages = modifiedVersionPages;
+        int oldCapacity = capacity;
+        int newCapacity = oldCapacity << 1;
+        if (newCapacity <= 0) {
+            throw new IllegalStateException("状态表已达到最大容量");
+        }
+        // 扩容只写新数组，快照持有的旧页不受影响
+        allocate(newCapacity);
+        resizeValues(newCapacity);
+        for (int i = 0; i < oldCapacity; i++) {
+            Object key = oldKeyPages[i >>> PAGE_SHIFT][i & PAGE_MASK];
+            if (key != null) {
+                int hash = oldHashPages[i >>> PAGE_SHIFT][i & PAGE_MASK];
+                int index = hash & mask;
+                while (keyPages[index >>> PAGE_SHIFT][index & PAGE_MASK] != null) {
+                    index = (index + 1) & mask;
+                }
+                keyPages[index >>> PAGE_SHIFT][index & PAGE_MASK] = key;
+                hashPages[index >>> PAGE_SHIFT][index & PAGE_MASK] = hash;
+                modifiedVersionPages[index >>> PAGE_SHIFT][index & PAGE_MASK] =
+                        oldModifiedVersionPages[i >>> PAGE_SHIFT][i & PAGE_MASK];
+                transferValue(i, index);
+            }
+        }
+        releaseOldValues();
+    }
+
+    /**
+     * 开始一次快照：状态版本加一，之后对旧页的写入都会先复制。
+     * @return 新快照的版本
+     */
+    protected final int beginSnapshot() {
+        if (removedKeys != null) {
+            sealedRemovedKeys.put(stateVersion, removedKeys);
+            removedKeys = null;
+        }
+        int version = ++stateVersion;
+        synchronized (activeSnapshotVersions) {
+            activeSnapshotVersions.add(version);
+            highestRequiredSnapshotVersion = version;
+        }
+        return version;
+    }
+
+    protected final Object[][] getKeyPages() {
+        return keyPages;
+    }
+
+    private int[][] getModifiedVersionPages() {
+        return modifiedVersionPages;
+    }
+
+    private TreeMap<Integer, Set<Object>> getSealedRemovedKeys() {
+        return sealedRemovedKeys;
+    }
+
+    private void releaseSnapshot(int version) {
+        synchronized (activeSnapshotVersions) {
+            activeSnapshotVersions.remove(version);
+            highestRequiredSnapshotVersion = activeSnapshotVersions.isEmpty() ? 0 : activeSnapshotVersions.last();
+        }
+    }
+
+    /**
+     * 对状态表做一次写时复制快照，只由任务线程调用。
+     */
+    public abstract StateTableSnapshot stateSnapshot();
+
+    /**
+     * 状态表在某个版本上的只读视图。持有的页在快照释放之前不会再被修改，因此可以在任意线程中遍历。
+     * 使用完毕后必须调用 {@link #release()}，否则任务线程会一直为它复制页。
+     */
+    public abstract class StateTableSnapshot {
+        private final int version;
+        private final Object[][] keyPages;
+        private final int[][] modifiedVersionPages;
+        // 快照之前封存的删除记录，各个集合本身不会再被修改
+        private final TreeMap<Integer, Set<Object>> removedKeys;
+        private final int size;
+        private boolean released;
+
+        protected StateTableSnapshot(int version) {
+            this.version = version;
+            // 只拷贝页的引用，不拷贝页的内容
+            this.keyPages = getKeyPages().clone();
+            this.modifiedVersionPages = getModifiedVersionPages().clone();
+            this.removedKeys = new TreeMap<>(getSealedRemovedKeys());
+            this.size = HeapStateTable.this.size;
+        }
+
+        /**
+         * @return 快照的状态版本，作为下一次增量快照的基准
+         */
+        public int getVersion() {
+            return version;
+        }
+
+        /**
+         * @return 快照中第 page 页 offset 处的值，值为基本类型时在这里装箱
+         */
+        protected abstract Object valueAt(int page, int offset);
+
+        /**
+         * 把快照中的所有键值对复制到一个普通 Map 中。
+         */
+        public Map<Object, Object> toMap() {
+            Map<Object, Object> result = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+            for (int page = 0; page < keyPages.length; page++) {
+                Object[] keys = keyPages[page];
+                for (int offset = 0; offset < keys.length; offset++) {
+                    if (keys[offset] != null) {
+                        result.put(keys[offset], valueAt(page, offset));
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 把在 baseVersion 版本的快照之后被写入的键值对复制到一个普通 Map 中。
+         * baseVersion 为 0 时等同于 {@link #toMap()}。
+         */
+        public Map<Object, Object> changesSince(int baseVersion) {
+            Map<Object, Object> result = new HashMap<>();
+            for (int page = 0; page < keyPages.length; page++) {
+                Object[] keys = keyPages[page];
+                int[] modifiedVersions = modifiedVersionPages[page];
+                for (int offset = 0; offset < keys.length; offset++) {
+                    // 版本 v 的快照包含了版本号小于 v 时的所有写入
+                    if (keys[offset] != null && modifiedVersions[offset] >= baseVersion) {
+                        result.put(keys[offset], valueAt(page, offset));
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @return 在 baseVersion 版本的快照之后被删除的键。其中可能包含之后又被重新写入的键，
+         * 恢复时需要先应用删除再应用 {@link #changesSince(int)} 的结果
+         */
+        public Set<Object> removedSince(int baseVersion) {
+            Set<Object> result = new HashSet<>();
+            for (Set<Object> keys : removedKeys.tailMap(baseVersion).values()) {
+                result.addAll(keys);
+            }
+            return result;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void release() {
+            if (!released) {
+                released = true;
+                releaseSnapshot(version);
+            }
+        }
+    }
+
+    private static int hash(Object key) {
+        if (key == null) {
+            throw new NullPointerException("键控状态的键不能为 null");
+        }
+        // 线性探测对哈希低位的分布很敏感，先用黄金分割乘法把高位的差异扩散到低位
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,47 @@
+package org.mini.flink.runtime.state.heap;
+
+import org.mini.flink.api.state.ValueState;
+import org.mini.flink.api.state.ValueStateDescriptor;
+
+import java.util.Map;
+
+class HeapValueState<T> extends AbstractHeapState implements ValueState<T> {
+
+    private final ObjectStateTable<T> table = new ObjectStateTable<>();
+
+    HeapValueState(HeapKeyedStateBackend backend, ValueStateDescriptor<T> descriptor) {
+        super(backend, descriptor);
+    }
+
+    @Override
+    public T value() {
+        return table.get(currentKey());
+    }
+
+    @Override
+    public void update(T value) {
+        if (value == null) {
+            clear();
+        } else {
+            table.put(currentKey(), value);
+        }
+    }
+
+    @Override
+    public void clear() {
+        table.remove(currentKey());
+    }
+
+    @Override
+    HeapStateTable getStateTable() {
+        return table;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void restore(Map<?, ?> entries) {
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            table.put(entry.getKey(), (T) entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.mini.flink.runtime.state.heap;
+
+/**
+ * 值为 int 的状态表，值直接存放在分页的 int[] 中，读写不会装箱。
+ */
+public class IntStateTable extends HeapStateTable {
+
+    private int[][] valuePages;
+    private int[][] oldValuePages;
+
+    public IntStateTable() {
+        this.valuePages = new int[numberOfPages(capacity())][pageSize(capacity())];
+    }
+
+    /**
+     * @return 键对应的值，不存在时返回 0
+     */
+    public int get(Object key) {
+        int index = lookup(key);
+        return index < 0 ? 0 : valuePages[index >>> PAGE_SHIFT][index & PAGE_MASK];
+    }
+
+    public void put(Object key, int value) {
+        int index = lookupOrInsert(key);
+        valuePages[index >>> PAGE_SHIFT][index & PAGE_MASK] = value;
+    }
+
+    /**
+     * @return 相加之后的值
+     */
+    public int add(Object key, int delta) {
+        int index = lookupOrInsert(key);
+        return valuePages[index >>> PAGE_SHIFT][index & PAGE_MASK] += delta;
+    }
+
+    @Override
+    public StateTableSnapshot stateSnapshot() {
+        int version = beginSnapshot();
+        // 只拷贝页的引用，之后任务线程写这些页时会先复制
+        final int[][] snapshotValuePages = valuePages.clone();
+        return new StateTableSnapshot(version) {
+            @Override
+            protected Object valueAt(int page, int offset) {
+                return snapshotValuePages[page][offset];
+            }
+        };
+    }
+
+    @Override
+    protected void resizeValues(int newCapacity) {
+        oldValuePages = valuePages;
+        valuePages = new int[numberOfPages(newCapacity)][pageSize(newCapacity)];
+    }
+
+    @Override
+    protected void transferValue(int oldIndex, int newIndex) {
+        valuePages[newIndex >>> PAGE_SHIFT][newIndex & PAGE_MASK] = oldValuePages[oldIndex >>> PAGE_SHIFT][oldIndex & PAGE_MASK];
+    }
+
+    @Override
+    protected void releaseOldValues() {
+        oldValuePages = null;
+    }
+
+    @Override
+    protected void moveValue(int from, int to) {
+        valuePages[to >>> PAGE_SHIFT][to & PAGE_MASK] = valuePages[from >>> PAGE_SHIFT][from & PAGE_MASK];
+    }
+
+    @Override
+    protected void clearValue(int index) {
+        valuePages[index >>> PAGE_SHIFT][index & PAGE_MASK] = 0;
+    }
+
+    @Override
+    protected void copyValuePage(int page) {
+        valuePages[page] = valuePages[page].clone();
+    }
+}
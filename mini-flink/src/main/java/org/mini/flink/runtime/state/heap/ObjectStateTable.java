@@ -0,0 +1,142 @@
+package org.mini.flink.runtime.state.heap;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * 值为对象的状态表。
+ * <p>
+ * 值对象本身可变时（例如 MapState 中每个键对应的 HashMap），仅复制页是不够的：
+ * 快照和任务线程仍然引用同一个值对象。此时需要提供值的拷贝方式，并通过 {@link #getForUpdate} 获取要原地修改的值，
+ * 每个槽位额外记录值的版本，值比仍在使用中的快照旧时先拷贝一份再交给调用方修改。
+ *
+ * @param <V> 状态值的类型
+ */
+public class ObjectStateTable<V> extends HeapStateTable {
+
+    // 值对象的拷贝方式，值不可变时为 null
+    private final UnaryOperator<V> valueCopier;
+    private Object[][] valuePages;
+    private Object[][] oldValuePages;
+    // 每个槽位上的值最近一次被拷贝（或写入）时的状态版本，值不可变时为 null
+    private int[][] valueVersionPages;
+    private int[][] oldValueVersionPages;
+
+    /**
+     * 创建值不可变的状态表，值只会被整体替换，不会被原地修改。
+     */
+    public ObjectStateTable() {
+        this(null);
+    }
+
+    public ObjectStateTable(UnaryOperator<V> valueCopier) {
+        this.valueCopier = valueCopier;
+        this.valuePages = new Object[numberOfPages(capacity())][pageSize(capacity())];
+        if (valueCopier != null) {
+            this.valueVersionPages = new int[numberOfPages(capacity())][pageSize(capacity())];
+        }
+    }
+
+    /**
+     * @return 键对应的值，不存在时返回 null。返回的值只能读，不能原地修改
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int index = lookup(key);
+        return index < 0 ? null : (V) valuePages[index >>> PAGE_SHIFT][index & PAGE_MASK];
+    }
+
+    /**
+     * @return 键对应的值，不存在时返回 null。返回的值可以原地修改，不会影响仍在使用中的快照
+     */
+    @SuppressWarnings("unchecked")
+    public V getForUpdate(Object key) {
+        if (valueCopier == null) {
+            throw new UnsupportedOperationException("没有提供值的拷贝方式，值不能被原地修改");
+        }
+        int index = lookupForUpdate(key);
+        if (index < 0) {
+            return null;
+        }
+        int page = index >>> PAGE_SHIFT;
+        int offset = index & PAGE_MASK;
+        V value = (V) valuePages[page][offset];
+        if (valueVersionPages[page][offset] < getHighestRequiredSnapshotVersion()) {
+            value = valueCopier.apply(value);
+            valuePages[page][offset] = value;
+            valueVersionPages[page][offset] = getStateVersion();
+        }
+        return value;
+    }
+
+    public void put(Object key, V value) {
+        int index = lookupOrInsert(key);
+        valuePages[index >>> PAGE_SHIFT][index & PAGE_MASK] = value;
+        if (valueVersionPages != null) {
+            valueVersionPages[index >>> PAGE_SHIFT][index & PAGE_MASK] = getStateVersion();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public StateTableSnapshot stateSnapshot() {
+        int version = beginSnapshot();
+        final Object[][] snapshotValuePages = valuePages.clone();
+        return new StateTableSnapshot(version) {
+            @Override
+            protected Object valueAt(int page, int offset) {
+                Object value = snapshotValuePages[page][offset];
+                // 快照释放之后任务线程会原地修改可变的值，导出的值必须是一份拷贝
+                return valueCopier != null && value != null ? valueCopier.apply((V) value) : value;
+            }
+        };
+    }
+
+    @Override
+    protected void resizeValues(int newCapacity) {
+        oldValuePages = valuePages;
+        valuePages = new Object[numberOfPages(newCapacity)][pageSize(newCapacity)];
+        if (valueVersionPages != null) {
+            oldValueVersionPages = valueVersionPages;
+            valueVersionPages = new int[numberOfPages(newCapacity)][pageSize(newCapacity)];
+        }
+    }
+
+    @Override
+    protected void transferValue(int oldIndex, int newIndex) {
+        valuePages[newIndex >>> PAGE_SHIFT][newIndex & PAGE_MASK] = oldValuePages[oldIndex >>> PAGE_SHIFT][oldIndex & PAGE_MASK];
+        if (valueVersionPages != null) {
+            valueVersionPages[newIndex >>> PAGE_SHIFT][newIndex & PAGE_MASK] =
+                    oldValueVersionPages[oldIndex >>> PAGE_SHIFT][oldIndex & PAGE_MASK];
+        }
+    }
+
+    @Override
+    protected void releaseOldValues() {
+        oldValuePages = null;
+        oldValueVersionPages = null;
+    }
+
+    @Override
+    protected void moveValue(int from, int to) {
+        valuePages[to >>> PAGE_SHIFT][to & PAGE_MASK] = valuePages[from >>> PAGE_SHIFT][from & PAGE_MASK];
+        if (valueVersionPages != null) {
+            valueVersionPages[to >>> PAGE_SHIFT][to & PAGE_MASK] = valueVersionPages[from >>> PAGE_SHIFT][from & PAGE_MASK];
+        }
+    }
+
+    @Override
+    protected void clearValue(int index) {
+        valuePages[index >>> PAGE_SHIFT][index & PAGE_MASK] = null;
+        if (valueVersionPages != null) {
+            valueVersionPages[index >>> PAGE_SHIFT][index & PAGE_MASK] = 0;
+        }
+    }
+
+    @Override
+    protected void copyValuePage(int page) {
+        valuePages[page] = valuePages[page].clone();
+        if (valueVersionPages != null) {
+            valueVersionPages[page] = valueVersionPages[page].clone();
+        }
+    }
+}
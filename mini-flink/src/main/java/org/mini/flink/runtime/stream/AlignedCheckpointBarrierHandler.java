@@ -0,0 +1,50 @@
+package org.mini.flink.runtime.stream;
+
+import org.mini.flink.runtime.state.CheckpointBarrier;
+
+import java.util.logging.Logger;
+
+/**
+ * 对齐的屏障处理器。
+ * 某个通道送来检查点 N 的屏障后就被阻塞：其中后续的数据留在通道里暂不消费（不会丢失），
+ * 其余尚未送来屏障的通道照常处理。所有通道的屏障都到齐后再做快照、向下游转发屏障并恢复所有通道。
+ */
+public class AlignedCheckpointBarrierHandler extends CheckpointBarrierHandler {
+    private static final Logger LOG = Logger.getLogger(AlignedCheckpointBarrierHandler.class.getName());
+
+    private long currentCheckpointId = -1;
+    private int numBarriersReceived;
+
+    public AlignedCheckpointBarrierHandler(InputGate inputGate, StreamTask task) {
+        super(inputGate, task);
+    }
+
+    @Override
+    public void processBarrier(CheckpointBarrier barrier, int channelIndex) throws Exception {
+        long barrierId = barrier.getCheckpointId();
+        if (barrierId < currentCheckpointId) {
+            // 属于已经被放弃的旧检查点
+            return;
+        }
+        if (barrierId > currentCheckpointId) {
+            if (numBarriersReceived > 0) {
+                LOG.warning(String.format("任务 [%s] 在对齐检查点 %d 时收到了更新的检查点 %d 的屏障，放弃旧检查点。",
+                        task.getTaskName(), currentCheckpointId, barrierId));
+                inputGate.resumeConsumption();
+            }
+            currentCheckpointId = barrierId;
+            numBarriersReceived = 0;
+        }
+
+        if (!inputGate.isBlocked(channelIndex)) {
+            inputGate.blockChannel(channelIndex);
+            numBarriersReceived++;
+        }
+
+        if (numBarriersReceived == inputGate.getNumberOfChannels()) {
+            numBarriersReceived = 0;
+            inputGate.resumeConsumption();
+            task.performCheckpoint(barrier);
+        }
+    }
+}
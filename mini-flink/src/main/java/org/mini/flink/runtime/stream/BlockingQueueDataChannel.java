@@ -0,0 +1,137 @@
+package org.mini.flink.runtime.stream;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于阻塞队列的数据通道。
+ * 【JUC知识点】: 使用 BlockingQueue 模拟 Flink 的网络缓冲和反压机制。
+ * 当队列满时，上游的 put 操作会阻塞，实现反压。
+ * 当队列空时，下游的 pop 操作会挂起线程，等待数据或优先事件到达。
+ * Flink 的真实实现是基于 Netty 和信用机制的复杂网络栈，远比这个复杂。
+ * <p>
+ * 优先事件放在单独的队列中，记下写入时生产者已经写入的元素数，消费者据此知道它越过了队列头部的哪些元素。
+ */
+public class BlockingQueueDataChannel implements DataChannel {
+    private final BlockingQueue<Object> queue;
+    private final Queue<PriorityEvent> priorityEvents = new ConcurrentLinkedQueue<>();
+    // 数据到达时的回调，由消费该通道的 InputGate 注册，用于唤醒等待数据的下游任务
+    private volatile Runnable availabilityListener;
+    // 在 pop() 中因通道为空而挂起的消费者线程
+    private volatile Thread waitingConsumer;
+    // 已写入的普通元素数量，只由生产者读写
+    private long numPushed;
+    // 已取出的普通元素数量，只由消费者读写
+    private long numPolled;
+    // 最近取出的优先事件越过的元素写入时的序号上限（不含），只由消费者读写
+    private long overtakenEnd;
+
+    public BlockingQueueDataChannel(int capacity) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void push(Object record) throws InterruptedException {
+        queue.put(record); // 队列满时阻塞
+        numPushed++;
+        notifyDataAvailable();
+    }
+
+    @Override
+    public void pushPriorityEvent(Object event) {
+        priorityEvents.add(new PriorityEvent(event, numPushed));
+        notifyDataAvailable();
+    }
+
+    @Override
+    public Object pop() throws InterruptedException {
+        while (true) {
+            Object element = poll();
+            if (element != null) {
+                return element;
+            }
+            waitingConsumer = Thread.currentThread();
+            // 登记后再检查一次，防止在登记前写入的数据错过唤醒
+            if (queue.isEmpty() && priorityEvents.isEmpty()) {
+                LockSupport.park(this);
+            }
+            waitingConsumer = null;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    @Override
+    public Object poll() {
+        // 先看到队首元素再检查优先事件：此时还没有出现的优先事件一定写在这个元素之后，不会被它越过
+        Object element = queue.peek();
+        if (!priorityEvents.isEmpty()) {
+            PriorityEvent priorityEvent = priorityEvents.poll();
+            overtakenEnd = priorityEvent.sequence;
+            return priorityEvent.event;
+        }
+        if (element == null) {
+            return null;
+        }
+        queue.poll(); // 只有一个消费者，取出的就是刚才看到的元素
+        numPolled++;
+        return element;
+    }
+
+    @Override
+    public List<Object> takeOvertakenElements() {
+        int numOvertaken = (int) Math.max(0, overtakenEnd - numPolled);
+        overtakenEnd = 0;
+        if (numOvertaken == 0) {
+            return Collections.emptyList();
+        }
+        List<Object> overtaken = new ArrayList<>(numOvertaken);
+        Iterator<Object> iterator = queue.iterator();
+        for (int i = 0; i < numOvertaken; i++) {
+            overtaken.add(iterator.next());
+        }
+        return overtaken;
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void setAvailabilityListener(Runnable availabilityListener) {
+        this.availabilityListener = availabilityListener;
+    }
+
+    private void notifyDataAvailable() {
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        Runnable listener = availabilityListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * 优先事件及写入它时生产者已经写入的普通元素数量。
+     */
+    static final class PriorityEvent {
+        final Object event;
+        final long sequence;
+
+        PriorityEvent(Object event, long sequence) {
+            this.event = event;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.mini.flink.runtime.stream;
+
+/**
+ * 数据通道的实现类型，可以在作业图的每条边上单独选择。
+ */
+public enum ChannelType {
+
+    /** 基于 LinkedBlockingQueue，每条记录分配一个链表节点并获取锁 */
+    BLOCKING_QUEUE {
+        @Override
+        public DataChannel createChannel(int capacity) {
+            return new BlockingQueueDataChannel(capacity);
+        }
+    },
+
+    /** 基于数组的单生产者/单消费者无锁环形缓冲区，无额外分配 */
+    SPSC_RING_BUFFER {
+        @Override
+        public DataChannel createChannel(int capacity) {
+            return new SpscRingBufferDataChannel(capacity);
+        }
+    };
+
+    public abstract DataChannel createChannel(int capacity);
+}
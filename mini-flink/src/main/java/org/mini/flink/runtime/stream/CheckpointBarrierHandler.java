@@ -0,0 +1,28 @@
+package org.mini.flink.runtime.stream;
+
+import org.mini.flink.runtime.state.CheckpointBarrier;
+
+/**
+ * 检查点屏障处理器，位于输入门和算子之间，决定多个输入通道的屏障到达时何时触发检查点。
+ */
+public abstract class CheckpointBarrierHandler {
+
+    protected final InputGate inputGate;
+    protected final StreamTask task;
+
+    protected CheckpointBarrierHandler(InputGate inputGate, StreamTask task) {
+        this.inputGate = inputGate;
+        this.task = task;
+    }
+
+    /**
+     * 处理从某个输入通道到达的屏障。
+     */
+    public abstract void processBarrier(CheckpointBarrier barrier, int channelIndex) throws Exception;
+
+    /**
+     * 在一条普通记录交给算子之前调用，用于在需要时记录在途数据。
+     */
+    public void processRecord(Object record, long timestamp, int channelIndex) {
+    }
+}
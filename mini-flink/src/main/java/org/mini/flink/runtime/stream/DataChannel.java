@@ -1,35 +1,50 @@
 package org.mini.flink.runtime.stream;
 
-import org.mini.flink.runtime.state.CheckpointBarrier;
-
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.List;
 
 /**
  * 数据通道，用于在任务之间传输数据。
- * 【JUC知识点】: 使用 BlockingQueue 模拟 Flink 的网络缓冲和反压机制。
- * 当队列满时，上游的 put 操作会阻塞，实现反压。
- * 当队列空时，下游的 take 操作会阻塞，等待数据。
- * Flink 的真实实现是基于 Netty 和信用机制的复杂网络栈，远比这个复杂。
+ * 每个通道只连接一个上游子任务和一个下游子任务，下游通过 {@link InputGate} 同时消费多个通道。
+ * 通道容量有限，写满时上游的 {@link #push(Object)} 会阻塞，从而形成反压。
  */
-public class DataChannel {
-    private final BlockingQueue<Object> queue;
-
-    public DataChannel(int capacity) {
-        this.queue = new LinkedBlockingQueue<>(capacity);
-    }
-
-    public void push(Object record) throws InterruptedException {
-        queue.put(record); // 队列满时阻塞
-    }
-
-    public Object pop() throws InterruptedException {
-        return queue.take(); // 队列空时阻塞
-    }
-
-    public void broadcastBarrier(CheckpointBarrier barrier) {
-        // 简单地清空队列并在队首插入 barrier，实际 Flink 不会清空数据
-        queue.clear();
-        queue.offer(barrier);
-    }
-}
\ No newline at end of file
+public interface DataChannel {
+
+    /**
+     * 写入一个元素，通道已满时阻塞。
+     */
+    void push(Object record) throws InterruptedException;
+
+    /**
+     * 写入一个优先事件，它越过通道中所有尚未被消费的元素，成为下一个被取出的元素，不受通道容量的限制。
+     * 被越过的元素仍然留在通道中，之后按原来的顺序被消费。非对齐检查点的屏障借此不必排在积压的数据之后。
+     */
+    void pushPriorityEvent(Object event) throws InterruptedException;
+
+    /**
+     * 取出一个元素，通道为空时阻塞。
+     */
+    Object pop() throws InterruptedException;
+
+    /**
+     * 非阻塞地获取下一个元素。
+     * @return 队首元素，通道为空时返回 null
+     */
+    Object poll();
+
+    /**
+     * 由消费者在取出一个优先事件之后、取出下一个元素之前调用。
+     * @return 该优先事件越过的元素，按写入顺序排列，它们不会因此被取出；
+     *         每个优先事件只返回一次，最近取出的不是优先事件时返回空列表
+     */
+    List<Object> takeOvertakenElements();
+
+    /**
+     * @return 通道中当前积压的元素数量（近似值）
+     */
+    int size();
+
+    /**
+     * 注册数据到达时的回调，由消费该通道的 InputGate 注册，用于唤醒等待数据的下游任务。
+     */
+    void setAvailabilityListener(Runnable availabilityListener);
+}
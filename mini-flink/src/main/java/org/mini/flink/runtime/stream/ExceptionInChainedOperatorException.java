@@ -0,0 +1,13 @@
+package org.mini.flink.runtime.stream;
+
+/**
+ * 链中的下游算子抛出的异常。{@link org.mini.flink.api.Collector#collect} 不能声明受检异常，
+ * 因此链中算子的异常被包装成运行时异常，沿着调用栈一路传回任务线程。
+ */
+public class ExceptionInChainedOperatorException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ExceptionInChainedOperatorException(Throwable cause) {
+        super("链中的算子处理记录时发生异常", cause);
+    }
+}
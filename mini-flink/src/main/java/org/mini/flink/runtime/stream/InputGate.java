@@ -0,0 +1,237 @@
+package org.mini.flink.runtime.stream;
+
+import org.mini.flink.api.eventtime.TimestampAssigner;
+import org.mini.flink.runtime.state.CheckpointBarrier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 输入门，把一个下游子任务的所有输入通道聚合成一个统一的输入。
+ * <p>
+ * 通道之间采用公平的轮询选择：每次取出一个元素后，下一次从下一个通道开始查找，
+ * 因此任何一个繁忙的通道都不会饿死其他通道，所有上游子任务都能持续向前推进，
+ * 不会因为某个通道长期得不到消费而在反压中卡死。
+ * <p>
+ * 上游以 {@link RecordBuffer} 为单位发送记录，输入门会把缓冲拆开逐条返回；
+ * 一个缓冲中的记录全部返回之后，才会轮询到下一个通道。
+ * <p>
+ * 非对齐检查点的屏障以优先事件的形式越过通道中积压的数据，输入门在返回屏障时一并取出被它越过的记录，
+ * 见 {@link #getOvertakenRecords()}。
+ * <p>
+ * 输入门只能被一个线程（所属的 StreamTask）消费。其他线程可以通过 {@link #wakeUp()}
+ * 让正在等待数据的任务线程提前返回，以便它去处理邮箱中的邮件。
+ */
+public class InputGate {
+    // 所有通道都为空时，先自旋若干轮、再让出 CPU 若干轮，仍无数据才挂起线程
+    private static final int SPIN_ROUNDS = 64;
+    private static final int YIELD_ROUNDS = 8;
+
+    private final DataChannel[] channels;
+    // 被阻塞的通道暂不消费，其中的数据保留在通道中（用于检查点屏障对齐）
+    private final boolean[] blocked;
+    private int numBlockedChannels;
+    // 下一次轮询的起始通道
+    private int nextChannelIndex;
+    // 最近一次返回的元素来自哪个通道
+    private int lastChannelIndex = -1;
+    // 最近一次返回的记录的时间戳，返回的是事件时为 NO_TIMESTAMP
+    private long lastTimestamp = TimestampAssigner.NO_TIMESTAMP;
+    // 正在拆分的缓冲及其读取位置
+    private RecordBuffer currentBuffer;
+    private int currentBufferPosition;
+    // 最近一次返回的屏障越过的记录
+    private List<Object> overtakenRecords = Collections.emptyList();
+
+    // 【JUC知识点】: 当所有通道都为空时，消费线程通过 LockSupport.park 挂起，
+    // 上游在写入数据后通过 LockSupport.unpark 唤醒它。
+    // volatile 的写（登记等待线程）和读（检查是否有人等待）配合通道内部的可见性保证，
+    // 确保不会出现“数据已写入但等待线程永远不被唤醒”的情况。
+    private volatile Thread waitingThread;
+    // 由 wakeUp 设置，等待中的 getNext 看到后返回 null
+    private volatile boolean wakeUpRequested;
+
+    public InputGate(List<DataChannel> channels) {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("输入门至少需要一个输入通道");
+        }
+        this.channels = channels.toArray(new DataChannel[0]);
+        this.blocked = new boolean[this.channels.length];
+        for (DataChannel channel : this.channels) {
+            channel.setAvailabilityListener(this::notifyDataAvailable);
+        }
+    }
+
+    /**
+     * 阻塞地获取下一个元素，所有通道都为空时等待。
+     * @return 下一个元素；等待期间被 {@link #wakeUp()} 唤醒时返回 null
+     */
+    public Object getNext() throws InterruptedException {
+        int idleRounds = 0;
+        while (true) {
+            Object element = pollNext();
+            if (element != null) {
+                return element;
+            }
+            if (wakeUpRequested) {
+                wakeUpRequested = false;
+                return null;
+            }
+            if (idleRounds < SPIN_ROUNDS) {
+                idleRounds++;
+                continue;
+            }
+            if (idleRounds < SPIN_ROUNDS + YIELD_ROUNDS) {
+                idleRounds++;
+                Thread.yield();
+                continue;
+            }
+            waitingThread = Thread.currentThread();
+            try {
+                // 登记后再检查一次，防止在登记前到达的数据错过唤醒
+                element = pollNext();
+                if (element != null) {
+                    return element;
+                }
+                if (wakeUpRequested) {
+                    continue;
+                }
+                LockSupport.park(this);
+            } finally {
+                waitingThread = null;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * 非阻塞地按轮询顺序获取下一个元素。
+     * @return 下一个元素，所有通道都为空时返回 null
+     */
+    public Object pollNext() {
+        if (currentBuffer != null) {
+            // 继续返回当前缓冲中的记录，lastChannelIndex 保持不变
+            lastTimestamp = currentBuffer.getTimestamp(currentBufferPosition);
+            Object record = currentBuffer.get(currentBufferPosition++);
+            if (currentBufferPosition == currentBuffer.size()) {
+                // 缓冲读完，归还给上游，即向上游授予一个新的信用
+                currentBuffer.recycle();
+                currentBuffer = null;
+            }
+            return record;
+        }
+        int numberOfChannels = channels.length;
+        for (int i = 0; i < numberOfChannels; i++) {
+            int channelIndex = (nextChannelIndex + i) % numberOfChannels;
+            if (numBlockedChannels > 0 && blocked[channelIndex]) {
+                continue;
+            }
+            Object element = channels[channelIndex].poll();
+            if (element != null) {
+                lastChannelIndex = channelIndex;
+                nextChannelIndex = (channelIndex + 1) % numberOfChannels;
+                if (element instanceof RecordBuffer) {
+                    currentBuffer = (RecordBuffer) element;
+                    currentBufferPosition = 0;
+                    return pollNext();
+                }
+                lastTimestamp = TimestampAssigner.NO_TIMESTAMP;
+                if (element instanceof CheckpointBarrier) {
+                    overtakenRecords = toRecords(channels[channelIndex].takeOvertakenElements());
+                }
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 把被越过的元素展开为记录，带时间戳的记录包装为 {@link StreamRecord}，事件被丢弃。
+     */
+    private static List<Object> toRecords(List<Object> elements) {
+        if (elements.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> records = new ArrayList<>();
+        for (Object element : elements) {
+            if (!(element instanceof RecordBuffer)) {
+                continue;
+            }
+            RecordBuffer buffer = (RecordBuffer) element;
+            for (int i = 0; i < buffer.size(); i++) {
+                long timestamp = buffer.getTimestamp(i);
+                records.add(timestamp == TimestampAssigner.NO_TIMESTAMP
+                        ? buffer.get(i) : new StreamRecord(buffer.get(i), timestamp));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * 阻塞一个通道，之后 {@link #pollNext()} 将跳过该通道，直到调用 {@link #resumeConsumption()}。
+     */
+    public void blockChannel(int channelIndex) {
+        if (!blocked[channelIndex]) {
+            blocked[channelIndex] = true;
+            numBlockedChannels++;
+        }
+    }
+
+    public boolean isBlocked(int channelIndex) {
+        return blocked[channelIndex];
+    }
+
+    /**
+     * 恢复所有被阻塞通道的消费。
+     */
+    public void resumeConsumption() {
+        Arrays.fill(blocked, false);
+        numBlockedChannels = 0;
+    }
+
+    /**
+     * @return 最近一次 {@link #getNext()} / {@link #pollNext()} 返回的元素所在的通道下标
+     */
+    public int getLastChannelIndex() {
+        return lastChannelIndex;
+    }
+
+    /**
+     * @return 最近一次返回的检查点屏障越过的、仍留在其通道中的记录，按通道中的顺序排列，
+     *         带时间戳的记录包装为 {@link StreamRecord}；只有非对齐检查点的屏障会越过数据
+     */
+    public List<Object> getOvertakenRecords() {
+        return overtakenRecords;
+    }
+
+    /**
+     * @return 最近一次返回的记录的事件时间戳
+     */
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public int getNumberOfChannels() {
+        return channels.length;
+    }
+
+    /**
+     * 让正在（或即将）等待数据的 {@link #getNext()} 返回 null，可以在任意线程中调用。
+     */
+    public void wakeUp() {
+        wakeUpRequested = true;
+        notifyDataAvailable();
+    }
+
+    private void notifyDataAvailable() {
+        Thread waiter = waitingThread;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.mini.flink.runtime.stream;
+
+import java.io.Serializable;
+
+/**
+ * 延迟标记，由 Source 任务周期性地发出，像事件一样在通道中流动，但不经过算子逻辑。
+ * <p>
+ * 标记在每个任务中排在它之前写入输出缓冲的记录之后发送，因此会和记录一样经历缓冲等待、
+ * 通道排队和反压；没有下游的任务（通常以 Sink 结尾）用收到标记的时间减去标记的创建时间得到端到端延迟。
+ * 标记不经过算子，算子本身的处理耗时只会通过它造成的排队体现出来。
+ */
+public final class LatencyMarker implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // 用一次墙上时钟读数锚定单调时钟：同一进程内的延迟精确到微秒且不受时钟调整影响，
+    // 跨进程时仍可比较，误差取决于机器之间的时钟偏差
+    private static final long BASE_MICROS = System.currentTimeMillis() * 1000;
+    private static final long BASE_NANOS = System.nanoTime();
+
+    private final long markedTime;
+    private final String sourceName;
+    private final int subtaskIndex;
+
+    /**
+     * @param markedTime 标记创建的时间，取自 {@link #currentTimeMicros()}
+     * @param sourceName 发出标记的 Source 名称
+     * @param subtaskIndex 发出标记的 Source 子任务序号
+     */
+    public LatencyMarker(long markedTime, String sourceName, int subtaskIndex) {
+        this.markedTime = markedTime;
+        this.sourceName = sourceName;
+        this.subtaskIndex = subtaskIndex;
+    }
+
+    /**
+     * @return 当前时间，自 1970-01-01 起的微秒数
+     */
+    public static long currentTimeMicros() {
+        return BASE_MICROS + (System.nanoTime() - BASE_NANOS) / 1000;
+    }
+
+    public long getMarkedTime() {
+        return markedTime;
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    public int getSubtaskIndex() {
+        return subtaskIndex;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyMarker{" + sourceName + "#" + subtaskIndex + " @ " + markedTime + "}";
+    }
+}
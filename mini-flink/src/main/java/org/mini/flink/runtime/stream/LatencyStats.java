@@ -0,0 +1,39 @@
+package org.mini.flink.runtime.stream;
+
+import org.mini.flink.runtime.metrics.Histogram;
+import org.mini.flink.runtime.metrics.LogLinearHistogram;
+import org.mini.flink.runtime.metrics.MetricGroup;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 按 Source 子任务统计收到的 {@link LatencyMarker} 的延迟。
+ * <p>
+ * 每个 Source 子任务一个直方图，单位微秒，注册在任务指标组下的
+ * {@code source_task -> source_subtask_index} 两层变量组中，名为 {@code latencyMicros}。
+ * 直方图在第一次收到对应标记时创建。只由任务线程访问。
+ */
+class LatencyStats {
+    static final String LATENCY_HISTOGRAM = "latencyMicros";
+
+    private final MetricGroup metricGroup;
+    private final Map<String, Map<Integer, Histogram>> histograms = new HashMap<>();
+
+    LatencyStats(MetricGroup metricGroup) {
+        this.metricGroup = metricGroup;
+    }
+
+    void reportLatency(LatencyMarker marker) {
+        Map<Integer, Histogram> subtasks = histograms.computeIfAbsent(marker.getSourceName(), k -> new HashMap<>());
+        Histogram histogram = subtasks.get(marker.getSubtaskIndex());
+        if (histogram == null) {
+            histogram = metricGroup.addGroup("source_task", marker.getSourceName())
+                    .addGroup("source_subtask_index", String.valueOf(marker.getSubtaskIndex()))
+                    .histogram(LATENCY_HISTOGRAM, new LogLinearHistogram());
+            subtasks.put(marker.getSubtaskIndex(), histogram);
+        }
+        // 跨进程时两台机器的时钟可能有偏差，负数由直方图按 0 记录
+        histogram.update(LatencyMarker.currentTimeMicros() - marker.getMarkedTime());
+    }
+}
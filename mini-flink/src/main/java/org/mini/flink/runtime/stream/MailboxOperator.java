@@ -0,0 +1,55 @@
+package org.mini.flink.runtime.stream;
+
+import org.mini.flink.api.eventtime.Watermark;
+import org.mini.flink.runtime.stream.mailbox.Mail;
+
+/**
+ * 不在 {@code process} 中同步产生输出的算子，例如异步 I/O 算子：它在其他线程中得到结果后，
+ * 通过任务的邮箱回到任务线程输出，与记录处理、检查点串行执行。
+ * <p>
+ * 任务在打开算子之前调用 {@link #setup}。水位线通过 {@link #processWatermark} 交给算子，
+ * 由算子把它排在已经接收的输入之后再发出，保证这些输入产生的输出排在水位线之前，任务线程不需要等待；
+ * 有界输入结束时任务调用 {@link #drain}，已经接收的输入不会在任务结束时丢失。
+ */
+public interface MailboxOperator {
+
+    void setup(Context context);
+
+    /**
+     * 在任务线程中处理一个水位线：之前接收的输入都已经输出时立即通过 {@link Context#emitWatermark} 发出，
+     * 否则等这些输入输出之后再发出。
+     */
+    void processWatermark(Watermark watermark) throws Exception;
+
+    /**
+     * 在任务线程中等待所有已经接收的输入产生输出。
+     */
+    void drain() throws Exception;
+
+    /**
+     * 任务为算子提供的运行时环境，只有 {@link #execute} 可以在任务线程之外调用。
+     */
+    interface Context {
+
+        /**
+         * 向任务邮箱投递一个动作，可以在任意线程中调用。
+         * @return 任务已经结束时返回 false，动作不会被执行
+         */
+        boolean execute(Mail.Action action, String description);
+
+        /**
+         * @return 当前正在处理的记录的事件时间戳，没有时为 {@link org.mini.flink.api.eventtime.TimestampAssigner#NO_TIMESTAMP}
+         */
+        long getCurrentTimestamp();
+
+        /**
+         * 以指定的事件时间戳把一条记录发往算子在链上的下游。
+         */
+        void collect(Object record, long timestamp);
+
+        /**
+         * 把水位线发往算子在链上的下游：交给链上的下一个 MailboxOperator，或者发往任务的下游。
+         */
+        void emitWatermark(Watermark watermark) throws Exception;
+    }
+}
@@ -0,0 +1,121 @@
+package org.mini.flink.runtime.stream;
+
+import org.mini.flink.api.Collector;
+import org.mini.flink.api.Operator;
+import org.mini.flink.api.Sink;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 算子链，把通过直连边相连、并行度相同的多个算子融合到同一个任务（同一个线程）中执行。
+ * <p>
+ * 链头算子的输出不会进入 DataChannel，而是通过 {@link ChainingOutput} 直接调用下一个算子的
+ * {@link Operator#process}，省去了队列交接和线程切换；只有链尾算子的输出才会写入网络输出。
+ */
+public class OperatorChain {
+
+    // Key: 算子名称, Value: 算子逻辑，按链上的先后顺序排列
+    private final LinkedHashMap<String, Serializable> operators;
+    // 链头算子使用的输出：指向链上的第二个算子，若链只有一个算子则直接是网络输出
+    private final Collector<Object> chainEntryOutput;
+    // Key: 算子名称, Value: 该算子的输出，即链上的下一个算子或网络输出
+    private final Map<String, Collector<Object>> operatorOutputs = new HashMap<>();
+
+    public OperatorChain(LinkedHashMap<String, Serializable> operators, Collector<Object> networkOutput) {
+        if (operators.isEmpty()) {
+            throw new IllegalArgumentException("算子链至少包含一个算子");
+        }
+        this.operators = operators;
+
+        // 从链尾向链头依次构建输出
+        List<String> names = new ArrayList<>(operators.keySet());
+        Collector<Object> output = networkOutput;
+        for (int i = names.size() - 1; i >= 1; i--) {
+            operatorOutputs.put(names.get(i), output);
+            output = createChainingOutput(operators.get(names.get(i)), output);
+        }
+        operatorOutputs.put(names.get(0), output);
+        this.chainEntryOutput = output;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collector<Object> createChainingOutput(Serializable logic, Collector<Object> next) {
+        if (logic instanceof Operator) {
+            return new ChainingOutput((Operator<Object, Object>) logic, next);
+        } else if (logic instanceof Sink) {
+            return new SinkChainingOutput((Sink<Object>) logic);
+        }
+        throw new IllegalArgumentException("只有 Operator 和 Sink 可以被链接到链中: " + logic.getClass().getName());
+    }
+
+    public Serializable getHead() {
+        return operators.values().iterator().next();
+    }
+
+    public Collector<Object> getChainEntryOutput() {
+        return chainEntryOutput;
+    }
+
+    /**
+     * @return 算子的输出，链尾算子的输出是网络输出
+     */
+    public Collector<Object> getOperatorOutput(String operatorName) {
+        return operatorOutputs.get(operatorName);
+    }
+
+    public Map<String, Serializable> getAllOperators() {
+        return Collections.unmodifiableMap(operators);
+    }
+
+    /**
+     * 把记录直接交给下一个算子处理的输出。
+     */
+    private static class ChainingOutput implements Collector<Object> {
+        private static final long serialVersionUID = 1L;
+        private final Operator<Object, Object> operator;
+        private final Collector<Object> next;
+
+        ChainingOutput(Operator<Object, Object> operator, Collector<Object> next) {
+            this.operator = operator;
+            this.next = next;
+        }
+
+        @Override
+        public void collect(Object record) {
+            try {
+                operator.process(record, next);
+            } catch (ExceptionInChainedOperatorException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ExceptionInChainedOperatorException(e);
+            }
+        }
+    }
+
+    /**
+     * 链尾是 Sink 时使用的输出。
+     */
+    private static class SinkChainingOutput implements Collector<Object> {
+        private static final long serialVersionUID = 1L;
+        private final Sink<Object> sink;
+
+        SinkChainingOutput(Sink<Object> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void collect(Object record) {
+            try {
+                sink.invoke(record);
+            } catch (Exception e) {
+                throw new ExceptionInChainedOperatorException(e);
+            }
+        }
+    }
+}
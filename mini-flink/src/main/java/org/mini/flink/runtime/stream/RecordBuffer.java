@@ -0,0 +1,60 @@
+package org.mini.flink.runtime.stream;
+
+import java.util.Arrays;
+
+/**
+ * 记录缓冲，一次性在通道中传递的一批记录及其事件时间戳。
+ * 上游把记录攒满（或超时）后整体写入通道，一次通道交接的开销由一批记录分摊。
+ * 缓冲来自 {@link RecordBufferPool}，下游读完后通过 {@link #recycle()} 归还，循环使用。
+ * <p>
+ * 时间戳保存在与记录平行的 long 数组中，不需要为每条记录分配一个包装对象。
+ */
+public class RecordBuffer {
+    private final Object[] records;
+    private final long[] timestamps;
+    private final RecordBufferPool owner;
+    private int size;
+
+    public RecordBuffer(int capacity, RecordBufferPool owner) {
+        this.records = new Object[capacity];
+        this.timestamps = new long[capacity];
+        this.owner = owner;
+    }
+
+    /**
+     * @param timestamp 记录的事件时间戳，没有时为 {@link org.mini.flink.api.eventtime.TimestampAssigner#NO_TIMESTAMP}
+     */
+    public void add(Object record, long timestamp) {
+        timestamps[size] = timestamp;
+        records[size++] = record;
+    }
+
+    public Object get(int index) {
+        return records[index];
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == records.length;
+    }
+
+    /**
+     * 清空并归还到所属的缓冲池。
+     */
+    public void recycle() {
+        Arrays.fill(records, 0, size, null);
+        size = 0;
+        owner.recycle(this);
+    }
+}
@@ -0,0 +1,93 @@
+package org.mini.flink.runtime.stream;
+
+import org.mini.flink.runtime.metrics.TaskIOMetrics;
+
+/**
+ * 一个通道专属的缓冲池，实现基于信用 (credit) 的流控。
+ * <p>
+ * 池中的每一个空闲缓冲就是下游授予上游的一个信用：上游只有拿到空闲缓冲才能写入并发送数据，
+ * 下游处理完一个缓冲后把它归还到池中，相当于向上游归还一个信用。
+ * 因此每个通道中在途的数据量被严格限制在 {@code numberOfBuffers * bufferSize} 条记录以内，
+ * 缓冲循环使用，稳定运行时不再分配新的缓冲；上游等待信用的时间就是它被反压的时间。
+ * <p>
+ * 空闲缓冲由上游取出、由下游归还，恰好是单生产者/单消费者，复用 {@link SpscRingBufferDataChannel} 存放。
+ */
+public class RecordBufferPool {
+    private final SpscRingBufferDataChannel freeBuffers;
+    private final int numberOfBuffers;
+    // 缓冲归还后的回调，跨进程的通道借此把信用发回上游；为 null 时不回调
+    private final Runnable recycleListener;
+    private volatile TaskIOMetrics ioMetrics;
+
+    public RecordBufferPool(int numberOfBuffers, int bufferSize) {
+        this(numberOfBuffers, bufferSize, null);
+    }
+
+    /**
+     * @param recycleListener 每归还一个缓冲回调一次，在归还缓冲的线程中执行
+     */
+    public RecordBufferPool(int numberOfBuffers, int bufferSize, Runnable recycleListener) {
+        this.numberOfBuffers = numberOfBuffers;
+        this.recycleListener = recycleListener;
+        this.freeBuffers = new SpscRingBufferDataChannel(numberOfBuffers);
+        try {
+            for (int i = 0; i < numberOfBuffers; i++) {
+                freeBuffers.push(new RecordBuffer(bufferSize, this));
+            }
+        } catch (InterruptedException e) {
+            // 容量足够，初始化时不会阻塞
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 申请一个空闲缓冲（一个信用），没有信用时阻塞，阻塞时间计入反压时间。
+     */
+    public RecordBuffer requestBuffer() throws InterruptedException {
+        RecordBuffer buffer = (RecordBuffer) freeBuffers.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        TaskIOMetrics metrics = ioMetrics;
+        if (metrics != null) {
+            metrics.markBackPressureStart();
+        }
+        try {
+            return (RecordBuffer) freeBuffers.pop();
+        } finally {
+            if (metrics != null) {
+                metrics.markBackPressureEnd();
+            }
+        }
+    }
+
+    /**
+     * 下游处理完缓冲后归还，向上游授予一个新的信用。
+     */
+    void recycle(RecordBuffer buffer) {
+        try {
+            freeBuffers.push(buffer);
+        } catch (InterruptedException e) {
+            // 池中的缓冲数量固定，归还永远不会阻塞
+            Thread.currentThread().interrupt();
+        }
+        if (recycleListener != null) {
+            recycleListener.run();
+        }
+    }
+
+    /**
+     * @return 当前可用的信用数（空闲缓冲数）
+     */
+    public int getAvailableCredits() {
+        return freeBuffers.size();
+    }
+
+    public int getNumberOfBuffers() {
+        return numberOfBuffers;
+    }
+
+    public void setIOMetrics(TaskIOMetrics ioMetrics) {
+        this.ioMetrics = ioMetrics;
+    }
+}
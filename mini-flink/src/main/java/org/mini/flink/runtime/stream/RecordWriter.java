@@ -0,0 +1,164 @@
+package org.mini.flink.runtime.stream;
+
+import org.mini.flink.runtime.metrics.TaskIOMetrics;
+import org.mini.flink.runtime.partitioner.StreamPartitioner;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 记录写出器，对应作业图中的一条输出边。
+ * 它持有这条边在当前子任务上可见的所有下游通道，并借助分区器决定每条记录的去向。
+ * <p>
+ * 记录不会逐条写入通道，而是先追加到每个通道各自的 {@link RecordBuffer} 中，
+ * 缓冲写满、超时或遇到检查点屏障等事件时才整体写入通道。
+ * <p>
+ * 每个通道都有一个专属的 {@link RecordBufferPool}：只有从池中拿到空闲缓冲（即下游授予的信用）才能写入记录，
+ * 这就是基于信用的流控。检查点屏障等事件不占用信用，总是可以发送。
+ */
+public class RecordWriter {
+    private final StreamPartitioner<Object> partitioner;
+    private final DataChannel[] channels;
+    private final RecordBufferPool[] bufferPools;
+    // 每个通道正在写入的缓冲，null 表示还没有申请
+    private final RecordBuffer[] buffers;
+    // 每个通道等待跟在当前缓冲之后发送的延迟标记
+    private final LatencyMarker[] pendingLatencyMarkers;
+    // 下一个延迟标记发往的通道，轮流覆盖所有下游
+    private int nextLatencyMarkerChannel;
+    // 每条记录写入后都立即发送，对应 bufferTimeout = 0
+    private final boolean flushAlways;
+
+    public RecordWriter(StreamPartitioner<Object> partitioner, List<DataChannel> channels,
+                        int bufferSize, int buffersPerChannel, boolean flushAlways) {
+        this.partitioner = partitioner;
+        this.channels = channels.toArray(new DataChannel[0]);
+        this.partitioner.setup(this.channels.length);
+        this.flushAlways = flushAlways;
+        this.buffers = new RecordBuffer[this.channels.length];
+        this.pendingLatencyMarkers = new LatencyMarker[this.channels.length];
+        this.bufferPools = new RecordBufferPool[this.channels.length];
+        for (int i = 0; i < bufferPools.length; i++) {
+            bufferPools[i] = new RecordBufferPool(buffersPerChannel, bufferSize);
+        }
+    }
+
+    /**
+     * 按照分区器的选择发送一条记录。
+     * @param timestamp 记录的事件时间戳，没有时为 {@link org.mini.flink.api.eventtime.TimestampAssigner#NO_TIMESTAMP}
+     */
+    public void emit(Object record, long timestamp) throws InterruptedException {
+        if (partitioner.isBroadcast()) {
+            for (int i = 0; i < channels.length; i++) {
+                emitToChannel(record, timestamp, i);
+            }
+        } else {
+            emitToChannel(record, timestamp, partitioner.selectChannel(record));
+        }
+    }
+
+    private void emitToChannel(Object record, long timestamp, int channelIndex) throws InterruptedException {
+        RecordBuffer buffer = buffers[channelIndex];
+        if (buffer == null) {
+            // 需要下游的信用才能继续写入，没有信用时在这里被反压
+            buffer = bufferPools[channelIndex].requestBuffer();
+            buffers[channelIndex] = buffer;
+        }
+        buffer.add(record, timestamp);
+        if (flushAlways || buffer.isFull()) {
+            flush(channelIndex);
+        }
+    }
+
+    /**
+     * 把事件（例如检查点屏障、水位线）发送到所有下游通道。
+     * 事件之前缓冲的记录会先被发送，保证事件与记录之间的先后顺序不变。
+     */
+    public void broadcastEvent(Object event) throws InterruptedException {
+        flushAll();
+        for (DataChannel channel : channels) {
+            channel.push(event);
+        }
+    }
+
+    /**
+     * 把优先事件（非对齐检查点的屏障）发送到所有下游通道，它越过通道中下游还没有消费的数据。
+     * 事件之前缓冲的记录仍会先被发送，成为被越过的数据的一部分；这些缓冲已经占有信用，发送时不会因为反压而阻塞。
+     */
+    public void broadcastPriorityEvent(Object event) throws InterruptedException {
+        flushAll();
+        for (DataChannel channel : channels) {
+            channel.pushPriorityEvent(event);
+        }
+    }
+
+    /**
+     * 把延迟标记发往一个下游通道，每次调用轮换一个通道。
+     * <p>
+     * 与其他事件不同，标记不会提前发送缓冲：通道中还有未发送的记录时，标记等到这个缓冲因为写满、超时
+     * 或其他事件而发送时才紧随其后发出，从而计入记录在输出缓冲中的等待时间。
+     * 同一个缓冲之后只跟随一个标记，更晚的标记被丢弃。
+     */
+    public void emitLatencyMarker(LatencyMarker marker) throws InterruptedException {
+        if (channels.length == 0) {
+            return;
+        }
+        int channelIndex = nextLatencyMarkerChannel;
+        nextLatencyMarkerChannel = (channelIndex + 1) % channels.length;
+        RecordBuffer buffer = buffers[channelIndex];
+        if (buffer == null || buffer.isEmpty()) {
+            channels[channelIndex].push(marker);
+        } else if (pendingLatencyMarkers[channelIndex] == null) {
+            pendingLatencyMarkers[channelIndex] = marker;
+        }
+    }
+
+    /**
+     * 发送所有通道中尚未写满的缓冲。
+     */
+    public void flushAll() throws InterruptedException {
+        for (int i = 0; i < channels.length; i++) {
+            flush(i);
+        }
+    }
+
+    private void flush(int channelIndex) throws InterruptedException {
+        RecordBuffer buffer = buffers[channelIndex];
+        if (buffer == null || buffer.isEmpty()) {
+            return;
+        }
+        // 已发送的缓冲归下游所有，下一条记录到来时再申请新的缓冲
+        buffers[channelIndex] = null;
+        channels[channelIndex].push(buffer);
+        LatencyMarker marker = pendingLatencyMarkers[channelIndex];
+        if (marker != null) {
+            pendingLatencyMarkers[channelIndex] = null;
+            channels[channelIndex].push(marker);
+        }
+    }
+
+    public void setIOMetrics(TaskIOMetrics ioMetrics) {
+        for (RecordBufferPool bufferPool : bufferPools) {
+            bufferPool.setIOMetrics(ioMetrics);
+        }
+    }
+
+    /**
+     * @return 所有通道当前可用的信用总数
+     */
+    public int getAvailableCredits() {
+        int credits = 0;
+        for (RecordBufferPool bufferPool : bufferPools) {
+            credits += bufferPool.getAvailableCredits();
+        }
+        return credits;
+    }
+
+    public int getNumberOfChannels() {
+        return channels.length;
+    }
+
+    public List<DataChannel> getChannels() {
+        return Arrays.asList(channels);
+    }
+}
@@ -0,0 +1,250 @@
+package org.mini.flink.runtime.stream;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于数组的单生产者/单消费者 (SPSC) 无锁环形缓冲区通道。
+ * <p>
+ * 由于每个通道恰好只有一个上游子任务写入、一个下游子任务读取，生产者和消费者只需各自推进自己的序号：
+ * <ul>
+ *     <li>写入时不需要加锁，也不会像 LinkedBlockingQueue 那样为每条记录分配链表节点；</li>
+ *     <li>生产者序号、消费者序号和等待线程通过前后填充 (padding) 分别独占缓存行，避免伪共享；</li>
+ *     <li>双方都缓存了对方的序号，只有在缓存值显示“满/空”时才去读取对方的 volatile 序号。</li>
+ * </ul>
+ * 等待采用“先自旋、再让出、最后挂起”的策略：短暂的满/空通过自旋即可度过，长时间等待则 park 线程避免空耗 CPU。
+ * <p>
+ * 优先事件不进入环形数组，而是连同写入时的生产者序号放在单独的队列中，消费者据此知道它越过了哪些槽位。
+ * <p>
+ * 【JUC知识点】: 两个序号都是 volatile 写，元素的写入与序号的发布之间构成 happens-before，
+ * 同时保证了“登记等待线程”和“检查对方序号”之间不会错过唤醒。
+ */
+public class SpscRingBufferDataChannel extends SpscRingBufferPad3 implements DataChannel {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 10;
+
+    private final Object[] buffer;
+    private final int capacity;
+    private final int mask;
+    private volatile Runnable availabilityListener;
+    private final Queue<BlockingQueueDataChannel.PriorityEvent> priorityEvents = new ConcurrentLinkedQueue<>();
+
+    public SpscRingBufferDataChannel(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("通道容量必须大于 0");
+        }
+        // 容量向上取整到 2 的幂，用位运算代替取模
+        int actualCapacity = Integer.highestOneBit(capacity);
+        if (actualCapacity < capacity) {
+            actualCapacity <<= 1;
+        }
+        this.buffer = new Object[actualCapacity];
+        this.capacity = actualCapacity;
+        this.mask = actualCapacity - 1;
+    }
+
+    @Override
+    public void push(Object record) throws InterruptedException {
+        if (record == null) {
+            throw new NullPointerException("通道不接受 null 元素");
+        }
+        long index = producerIndex;
+        if (index - cachedConsumerIndex >= capacity) {
+            cachedConsumerIndex = consumerIndex;
+            if (index - cachedConsumerIndex >= capacity) {
+                waitForSpace(index);
+            }
+        }
+        buffer[(int) index & mask] = record;
+        producerIndex = index + 1; // 发布元素
+
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        Runnable listener = availabilityListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    @Override
+    public void pushPriorityEvent(Object event) {
+        if (event == null) {
+            throw new NullPointerException("通道不接受 null 元素");
+        }
+        priorityEvents.add(new BlockingQueueDataChannel.PriorityEvent(event, producerIndex));
+        priorityEventsPushed = priorityEventsPushed + 1; // 只有生产者写入
+
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        Runnable listener = availabilityListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    @Override
+    public Object poll() {
+        long index = consumerIndex;
+        if (index >= cachedProducerIndex) {
+            cachedProducerIndex = producerIndex;
+            if (index >= cachedProducerIndex) {
+                return priorityEventsPushed != priorityEventsPolled ? pollPriorityEvent() : null;
+            }
+        }
+        // 在读到覆盖这个槽位的生产者序号之后才检查优先事件：此时还没有出现的优先事件一定写在这个槽位之后
+        if (priorityEventsPushed != priorityEventsPolled) {
+            return pollPriorityEvent();
+        }
+        int offset = (int) index & mask;
+        Object element = buffer[offset];
+        buffer[offset] = null; // 释放引用，便于 GC
+        consumerIndex = index + 1;
+
+        Thread producer = waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+        return element;
+    }
+
+    private Object pollPriorityEvent() {
+        BlockingQueueDataChannel.PriorityEvent priorityEvent = priorityEvents.poll();
+        priorityEventsPolled++;
+        overtakenEnd = priorityEvent.sequence;
+        return priorityEvent.event;
+    }
+
+    @Override
+    public List<Object> takeOvertakenElements() {
+        long index = consumerIndex;
+        long end = overtakenEnd;
+        overtakenEnd = 0;
+        if (end <= index) {
+            return Collections.emptyList();
+        }
+        // 这些槽位还没有被消费，生产者不会覆盖它们
+        List<Object> overtaken = new ArrayList<>((int) (end - index));
+        for (long i = index; i < end; i++) {
+            overtaken.add(buffer[(int) i & mask]);
+        }
+        return overtaken;
+    }
+
+    @Override
+    public Object pop() throws InterruptedException {
+        int idleCount = 0;
+        while (true) {
+            Object element = poll();
+            if (element != null) {
+                return element;
+            }
+            if (idleCount < SPIN_TRIES) {
+                idleCount++;
+            } else if (idleCount < SPIN_TRIES + YIELD_TRIES) {
+                idleCount++;
+                Thread.yield();
+            } else {
+                waitingConsumer = Thread.currentThread();
+                if (consumerIndex >= producerIndex && priorityEventsPushed == priorityEventsPolled) {
+                    LockSupport.park(this);
+                }
+                waitingConsumer = null;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        // 先读消费者序号再读生产者序号，保证结果不会为负
+        long consumed = consumerIndex;
+        return (int) Math.max(0, Math.min(capacity, producerIndex - consumed));
+    }
+
+    @Override
+    public void setAvailabilityListener(Runnable availabilityListener) {
+        this.availabilityListener = availabilityListener;
+    }
+
+    private void waitForSpace(long index) throws InterruptedException {
+        int idleCount = 0;
+        while (index - (cachedConsumerIndex = consumerIndex) >= capacity) {
+            if (idleCount < SPIN_TRIES) {
+                idleCount++;
+            } else if (idleCount < SPIN_TRIES + YIELD_TRIES) {
+                idleCount++;
+                Thread.yield();
+            } else {
+                waitingProducer = Thread.currentThread();
+                if (index - consumerIndex >= capacity) {
+                    LockSupport.park(this);
+                }
+                waitingProducer = null;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
+
+/**
+ * 以下几个抽象类只用于控制字段布局：JVM 会先排列父类字段，
+ * 借助继承把生产者字段、消费者字段、等待线程字段分别夹在两段 64 字节的填充之间。
+ */
+abstract class SpscRingBufferPad0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class SpscRingBufferProducerFields extends SpscRingBufferPad0 {
+    // 只由生产者写入
+    protected volatile long producerIndex;
+    // 生产者缓存的消费者序号，只由生产者读写
+    protected long cachedConsumerIndex;
+}
+
+abstract class SpscRingBufferPad1 extends SpscRingBufferProducerFields {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class SpscRingBufferConsumerFields extends SpscRingBufferPad1 {
+    // 只由消费者写入
+    protected volatile long consumerIndex;
+    // 消费者缓存的生产者序号，只由消费者读写
+    protected long cachedProducerIndex;
+    // 已取出的优先事件数，以及最近取出的优先事件越过的槽位上限（不含），只由消费者读写
+    protected long priorityEventsPolled;
+    protected long overtakenEnd;
+}
+
+abstract class SpscRingBufferPad2 extends SpscRingBufferConsumerFields {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+}
+
+/**
+ * 双方在每次 push/poll 时都要读取对方是否挂起，消费者还要读取是否有优先事件。这些字段只在挂起前后或写入优先事件时才被写入，单独占一个缓存行后，
+ * 平时在双方的缓存中都保持共享状态，读取它不会把对方频繁写入的序号所在的缓存行拉过来。
+ */
+abstract class SpscRingBufferWaiterFields extends SpscRingBufferPad2 {
+    // 因通道已满而挂起的生产者线程
+    protected volatile Thread waitingProducer;
+    // 在 pop() 中因通道为空而挂起的消费者线程
+    protected volatile Thread waitingConsumer;
+    // 已写入的优先事件数，只由生产者写入，很少变化
+    protected volatile long priorityEventsPushed;
+}
+
+abstract class SpscRingBufferPad3 extends SpscRingBufferWaiterFields {
+    long p30, p31, p32, p33, p34, p35, p36, p37;
+}
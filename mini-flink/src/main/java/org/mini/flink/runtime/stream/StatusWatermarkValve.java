@@ -0,0 +1,48 @@
+package org.mini.flink.runtime.stream;
+
+import java.util.Arrays;
+
+/**
+ * 合并多个输入通道的水位线：任务的水位线是所有通道水位线的最小值，
+ * 只有当最慢的通道前进时，任务的事件时间才会前进。
+ * <p>
+ * 只由任务线程访问，不是线程安全的。
+ */
+public class StatusWatermarkValve {
+
+    private final long[] channelWatermarks;
+    private long lastOutputWatermark = Long.MIN_VALUE;
+
+    public StatusWatermarkValve(int numberOfChannels) {
+        this.channelWatermarks = new long[numberOfChannels];
+        Arrays.fill(channelWatermarks, Long.MIN_VALUE);
+    }
+
+    /**
+     * 某个通道收到了一个水位线。
+     * @return 合并之后的水位线前进了
+     */
+    public boolean inputWatermark(long watermark, int channelIndex) {
+        // 同一通道上的水位线不会后退，迟到的旧水位线直接忽略
+        if (watermark <= channelWatermarks[channelIndex]) {
+            return false;
+        }
+        channelWatermarks[channelIndex] = watermark;
+        long min = Long.MAX_VALUE;
+        for (long channelWatermark : channelWatermarks) {
+            min = Math.min(min, channelWatermark);
+        }
+        if (min > lastOutputWatermark) {
+            lastOutputWatermark = min;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return 合并之后的水位线，还没有前进过时为 {@link Long#MIN_VALUE}
+     */
+    public long getOutputWatermark() {
+        return lastOutputWatermark;
+    }
+}
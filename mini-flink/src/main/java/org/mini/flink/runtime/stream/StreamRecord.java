@@ -0,0 +1,34 @@
+package org.mini.flink.runtime.stream;
+
+import java.io.Serializable;
+
+/**
+ * 带事件时间戳的记录。
+ * <p>
+ * 正常传输时时间戳保存在 {@link RecordBuffer} 中，不需要这个包装；只有当记录离开缓冲
+ * （例如作为非对齐检查点的通道状态被保存）时，才用它把时间戳和记录放在一起。
+ */
+public final class StreamRecord implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Object value;
+    private final long timestamp;
+
+    public StreamRecord(Object value, long timestamp) {
+        this.value = value;
+        this.timestamp = timestamp;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamRecord{" + value + " @ " + timestamp + "}";
+    }
+}
@@ -1,56 +1,255 @@
 package org.mini.flink.runtime.stream;
 
 import org.mini.flink.api.Collector;
+import org.mini.flink.api.KeySelector;
 import org.mini.flink.api.Operator;
+import org.mini.flink.api.RichFunction;
 import org.mini.flink.api.Sink;
 import org.mini.flink.api.Source;
-import org.mini.flink.runtime.jobmanager.JobManager;
+import org.mini.flink.api.Triggerable;
+import org.mini.flink.api.eventtime.TimestampAssigner;
+import org.mini.flink.api.eventtime.Watermark;
+import org.mini.flink.api.eventtime.WatermarkGenerator;
+import org.mini.flink.api.eventtime.WatermarkOutput;
+import org.mini.flink.api.eventtime.WatermarkStrategy;
+import org.mini.flink.runtime.jobgraph.CheckpointConfig;
+import org.mini.flink.runtime.jobgraph.ExecutionConfig;
+import org.mini.flink.runtime.metrics.Counter;
+import org.mini.flink.runtime.metrics.Gauge;
+import org.mini.flink.runtime.metrics.MeterView;
+import org.mini.flink.runtime.metrics.MetricGroup;
+import org.mini.flink.runtime.metrics.TaskIOMetrics;
 import org.mini.flink.runtime.state.CheckpointBarrier;
 import org.mini.flink.runtime.state.Stateful;
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+import org.mini.flink.runtime.state.heap.HeapKeyedStateBackend;
+import org.mini.flink.runtime.state.heap.HeapKeyedStateSnapshot;
+import org.mini.flink.runtime.stream.mailbox.Mail;
+import org.mini.flink.runtime.stream.mailbox.TaskMailbox;
+import org.mini.flink.runtime.taskmanager.CheckpointResponder;
+import org.mini.flink.runtime.taskmanager.TaskExecutionMode;
+import org.mini.flink.runtime.timer.HeapInternalTimerService;
+import org.mini.flink.runtime.timer.InternalTimer;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * 在 TaskManager 中执行的核心任务单元。它包装了 Source, Operator, 或 Sink 的逻辑。
+ * 在 TaskManager 中执行的核心任务单元。它包装了 Source, Operator, 或 Sink 的逻辑，
+ * 也可以包装一条由多个直连算子融合而成的算子链。
+ * <p>
+ * 任务采用邮箱模型执行：算子、状态和输出只由任务线程访问。其他线程发起的控制动作
+ * （触发检查点、检查点完成通知、输出刷新、周期性水位线、停止任务）都作为 {@link Mail} 投递到任务的
+ * {@link TaskMailbox}，由任务线程在两条记录之间执行，因此处理记录时不需要任何锁，
+ * 快照总是精确地落在两条记录之间。
+ * <p>
+ * Source 任务例外：用户的 run 方法可能长时间阻塞，它在单独的 Source 线程中执行，任务线程留在邮箱循环中，
+ * 两者通过一把锁互斥地访问算子链，见 {@link #runSource()}。
+ * <p>
+ * 任务在自己的 {@link MetricGroup} 中维护收到和发出的记录数、对应的每秒速率以及输入输出通道中排队的缓冲数，
+ * 任务结束或被取消时关闭这个组。
  */
 public class StreamTask implements Runnable {
     private static final Logger LOG = Logger.getLogger(StreamTask.class.getName());
+    // 取消任务时等待任务线程离开网络写入的最长时间
+    private static final long CANCEL_INTERRUPT_TIMEOUT_MILLIS = 1000;
+    // 任务结束时等待被中断的 Source 线程退出的最长时间
+    private static final long SOURCE_THREAD_JOIN_TIMEOUT_MILLIS = 5000;
 
     private final String taskName;
+    private final int subtaskIndex;
+    private final int parallelism;
+    // 链头算子的逻辑，决定任务的运行方式
     private final Serializable logic;
+    private final OperatorChain operatorChain;
     private final List<DataChannel> inputs;
-    private final List<DataChannel> outputs;
-    private final JobManager jobManager;
-    private volatile boolean running = true;
+    private final List<RecordWriter> outputs;
+    private final CheckpointResponder checkpointResponder;
+    private final ExecutionConfig executionConfig;
+    private final CheckpointConfig checkpointConfig;
+    private final OutputCollector output;
+    private final TaskIOMetrics ioMetrics;
+    private final MetricGroup metricGroup;
+    // 只由任务线程更新
+    private final Counter numRecordsIn;
+    private final Counter numRecordsOut;
+    private final LatencyStats latencyStats;
+    // 输入按键分区时，用于从每条输入记录中提取当前键；否则为 null
+    private final KeySelector<Object, Object> inputKeySelector;
+    // 链头算子的键控状态，只有输入按键分区时才存在
+    private final HeapKeyedStateBackend keyedStateBackend;
+    // 链头算子的事件时间定时器，只有输入按键分区且链头算子实现了 Triggerable 时才存在
+    private final HeapInternalTimerService timerService;
+    // Source 任务的事件时间策略，为 null 时 Source 不分配时间戳也不生成水位线
+    private final WatermarkStrategy<Object> watermarkStrategy;
+    // 正在处理的记录（或正在触发的定时器）的事件时间戳，输出的记录沿用这个时间戳
+    private long currentTimestamp = TimestampAssigner.NO_TIMESTAMP;
+    // 执行检查点异步阶段的线程池，避免在任务线程中拷贝大状态
+    private final ExecutorService asyncOperationsThreadPool;
+    // 从非对齐检查点恢复的在途数据，任务开始消费输入之前先重放这些记录
+    private Map<Integer, List<Object>> restoredChannelState;
+    // 链上的 MailboxOperator，按链上的顺序排列，水位线依次经过它们
+    private final List<MailboxOperator> mailboxOperators = new ArrayList<>();
+    // 其他线程向任务线程投递控制动作的邮箱
+    private final TaskMailbox mailbox = new TaskMailbox();
+    // 已经投递但尚未执行的刷新邮件和周期性水位线邮件，避免任务被反压时同样的邮件在邮箱中堆积
+    private final AtomicBoolean flushMailPending = new AtomicBoolean();
+    private final AtomicBoolean periodicWatermarkMailPending = new AtomicBoolean();
+    private final AtomicBoolean latencyMarkerMailPending = new AtomicBoolean();
+    // 创建任务辅助线程（输出刷新、水位线生成、异步快照）的工厂，与任务线程属于同一种执行模式
+    private volatile ThreadFactory threadFactory = TaskExecutionMode.PLATFORM_THREADS.createThreadFactory(true);
+    // 只由任务线程读写，停止任务也是通过邮件完成的
+    private boolean running = true;
+    // Source 线程持有它向算子链发送记录，任务线程持有它执行邮件
+    private final ReentrantLock sourceLock = new ReentrantLock();
+    // Source 线程结束后由它投递的邮件置位，只由任务线程读写
+    private boolean sourceFinished;
+    // 任务线程退出邮箱循环后置位，之后 Source 线程发送记录时抛出异常，结束 run 方法
+    private volatile boolean sourceStopped;
+    // 有状态的 Source 推迟到它下一次发送记录时执行的检查点，只在持有 sourceLock 时访问
+    private final List<CheckpointBarrier> deferredSourceCheckpoints = new ArrayList<>();
+    private boolean deferSourceCheckpoints;
+    // 任务被停止或取消后置位，此后任务线程上的异常都是停止引起的，不当作任务失败
+    private volatile boolean canceled;
+    // 执行任务的线程，取消任务时中断它
+    private volatile Thread executingThread;
+    private final TaskInterruptGuard interruptGuard = new TaskInterruptGuard();
+    // 任务失败的原因，正常运行或被取消时为 null
+    private volatile Throwable failureCause;
+    // 任务失败时的回调，由 TaskManager 在部署任务时设置
+    private volatile Consumer<Throwable> failureListener;
 
-    // 【JUC知识点】: 读写锁，用于在状态快照时保护状态的一致性。
-    // 快照时获取写锁，阻止所有读写操作；平时处理数据时获取读锁。
-    private final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
-    // 【JUC知识点】: ConcurrentHashMap 作为内存状态存储，保证多并发任务下的线程安全。
-    private Map<String, Object> operatorState;
+    /**
+     * @param chainedOperators 任务中按链上顺序排列的算子，Key 为算子名称；未发生链接时只有一个算子
+     * @param inputKeySelector 输入按键分区时的键选择器，否则为 null
+     * @param watermarkStrategy Source 任务的事件时间策略，没有时为 null
+     * @param restoredState 从检查点恢复的状态，全新启动时为 null
+     */
+    public StreamTask(String taskName, int subtaskIndex, int parallelism,
+                      LinkedHashMap<String, Serializable> chainedOperators, KeySelector<?, ?> inputKeySelector,
+                      WatermarkStrategy<?> watermarkStrategy, List<DataChannel> inputs, List<RecordWriter> outputs,
+                      CheckpointResponder checkpointResponder, ExecutionConfig executionConfig, CheckpointConfig checkpointConfig,
+                      TaskStateSnapshot restoredState) {
+        this(taskName, subtaskIndex, parallelism, chainedOperators, inputKeySelector, watermarkStrategy, inputs, outputs,
+                checkpointResponder, executionConfig, checkpointConfig, restoredState, new MetricGroup(null, "task"));
+    }
 
-    public StreamTask(String taskName, Serializable logic, List<DataChannel> inputs, List<DataChannel> outputs, JobManager jobManager) {
+    /**
+     * @param metricGroup 任务的指标组，由 TaskManager 在 {@code 作业 -> 顶点 -> 子任务} 的层级下创建
+     */
+    @SuppressWarnings("unchecked")
+    public StreamTask(String taskName, int subtaskIndex, int parallelism,
+                      LinkedHashMap<String, Serializable> chainedOperators, KeySelector<?, ?> inputKeySelector,
+                      WatermarkStrategy<?> watermarkStrategy, List<DataChannel> inputs, List<RecordWriter> outputs,
+                      CheckpointResponder checkpointResponder, ExecutionConfig executionConfig, CheckpointConfig checkpointConfig,
+                      TaskStateSnapshot restoredState, MetricGroup metricGroup) {
         this.taskName = taskName;
-        this.logic = logic;
+        this.subtaskIndex = subtaskIndex;
+        this.parallelism = parallelism;
+        this.inputKeySelector = (KeySelector<Object, Object>) inputKeySelector;
+        this.watermarkStrategy = (WatermarkStrategy<Object>) watermarkStrategy;
+        this.keyedStateBackend = inputKeySelector != null ? new HeapKeyedStateBackend(
+                checkpointConfig.isIncrementalCheckpointsEnabled(), checkpointConfig.getFullCheckpointInterval()) : null;
+        // 线程在第一次提交时才创建，此时任务已经拿到了所在槽的线程工厂
+        this.asyncOperationsThreadPool = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = threadFactory.newThread(r);
+            thread.setName("AsyncOperations for " + taskName);
+            return thread;
+        });
         this.inputs = inputs;
         this.outputs = outputs;
-        this.jobManager = jobManager;
-        if (logic instanceof Stateful) {
-            this.operatorState = new ConcurrentHashMap<>();
-            ((Stateful) logic).initializeState(this.operatorState);
+        this.checkpointResponder = checkpointResponder;
+        this.executionConfig = executionConfig;
+        this.checkpointConfig = checkpointConfig;
+        this.output = new OutputCollector(outputs);
+        this.ioMetrics = new TaskIOMetrics(taskName);
+        for (RecordWriter writer : outputs) {
+            writer.setIOMetrics(ioMetrics);
+        }
+        this.metricGroup = metricGroup;
+        this.numRecordsIn = metricGroup.counter("numRecordsIn");
+        this.numRecordsOut = metricGroup.counter("numRecordsOut");
+        this.latencyStats = new LatencyStats(metricGroup);
+        registerMetrics();
+        this.operatorChain = new OperatorChain(chainedOperators, output);
+        this.logic = operatorChain.getHead();
+        this.restoredChannelState = restoredState != null ? restoredState.getInputChannelState() : null;
+        for (Map.Entry<String, Serializable> entry : chainedOperators.entrySet()) {
+            if (entry.getValue() instanceof Stateful) {
+                // 【JUC知识点】: ConcurrentHashMap 作为内存状态存储，保证多并发任务下的线程安全。
+                Map<String, Object> state = new ConcurrentHashMap<>();
+                if (restoredState != null && restoredState.getOperatorStates().containsKey(entry.getKey())) {
+                    state.putAll(restoredState.getOperatorStates().get(entry.getKey()));
+                }
+                ((Stateful) entry.getValue()).initializeState(state);
+            }
+        }
+        if (keyedStateBackend != null && restoredState != null) {
+            Map<String, Object> keyedState = restoredState.getKeyedStates().get(getHeadName());
+            if (keyedState != null) {
+                keyedStateBackend.restore(keyedState);
+            }
         }
+        // 在恢复键控状态之后创建，这样才能取回检查点中的定时器
+        this.timerService = keyedStateBackend != null && logic instanceof Triggerable
+                ? new HeapInternalTimerService(keyedStateBackend, () -> currentTimestamp) : null;
+    }
+
+    private void registerMetrics() {
+        metricGroup.meter("numRecordsInPerSecond", new MeterView(numRecordsIn));
+        metricGroup.meter("numRecordsOutPerSecond", new MeterView(numRecordsOut));
+        // 通道中排队的是缓冲和事件，不是单条记录；输出队列长时说明下游处理不过来
+        metricGroup.gauge("inputQueueLength", (Gauge<Integer>) () -> {
+            int queued = 0;
+            for (DataChannel input : inputs) {
+                queued += input.size();
+            }
+            return queued;
+        });
+        metricGroup.gauge("outputQueueLength", (Gauge<Integer>) () -> {
+            int queued = 0;
+            for (RecordWriter writer : outputs) {
+                for (DataChannel channel : writer.getChannels()) {
+                    queued += channel.size();
+                }
+            }
+            return queued;
+        });
     }
 
     @Override
     public void run() {
+        Thread outputFlusher = null;
+        Thread latencyMarkerEmitter = null;
+        executingThread = Thread.currentThread();
+        interruptGuard.bind();
         try {
             LOG.info("任务 [" + taskName + "] 开始运行...");
+            openOperators();
+            if (!outputs.isEmpty() && executionConfig.getBufferTimeout() > 0) {
+                outputFlusher = startHelperThread(new OutputFlusher(executionConfig.getBufferTimeout()),
+                        "OutputFlusher for " + taskName);
+            }
+            if (logic instanceof Source && executionConfig.getLatencyTrackingInterval() > 0) {
+                latencyMarkerEmitter = startHelperThread(new LatencyMarkerEmitter(executionConfig.getLatencyTrackingInterval()),
+                        "LatencyMarkerEmitter for " + taskName);
+            }
             if (logic instanceof Source) {
                 runSource();
             } else if (logic instanceof Operator) {
@@ -58,125 +257,844 @@ public class StreamTask implements Runnable {
             } else if (logic instanceof Sink) {
                 runSink();
             }
+            if (running) {
+                // 有界输入正常结束，执行完已经投递的邮件（例如刚刚触发的检查点）再退出
+                runMails(mailbox.close());
+            }
         } catch (InterruptedException e) {
-            LOG.warning("任务 [" + taskName + "] 被中断。");
+            if (canceled) {
+                LOG.info("任务 [" + taskName + "] 被取消。");
+            } else {
+                LOG.warning("任务 [" + taskName + "] 被中断。");
+                failureCause = e;
+            }
             Thread.currentThread().interrupt();
         } catch (Exception e) {
-            LOG.severe("任务 [" + taskName + "] 发生严重错误: " + e.getMessage());
-            e.printStackTrace();
+            if (canceled) {
+                LOG.info("任务 [" + taskName + "] 在取消过程中抛出异常: " + e);
+            } else {
+                LOG.log(Level.SEVERE, "任务 [" + taskName + "] 发生严重错误", e);
+                failureCause = e;
+            }
         } finally {
+            if (outputFlusher != null) {
+                outputFlusher.interrupt();
+            }
+            if (latencyMarkerEmitter != null) {
+                latencyMarkerEmitter.interrupt();
+            }
+            List<Mail> discarded = mailbox.close();
+            if (!discarded.isEmpty()) {
+                LOG.info("任务 [" + taskName + "] 结束，丢弃未执行的邮件: " + discarded);
+            }
+            closeOperators();
+            asyncOperationsThreadPool.shutdownNow();
+            metricGroup.close();
+            executingThread = null;
+            interruptGuard.unbind();
             LOG.info("任务 [" + taskName + "] 停止运行。");
         }
+        // 清理完成之后才汇报失败，JobManager 收到汇报时任务已经不再占用通道
+        Throwable cause = failureCause;
+        Consumer<Throwable> listener = failureListener;
+        if (cause != null && listener != null) {
+            listener.accept(cause);
+        }
     }
 
+    /**
+     * 调用链上所有 {@link RichFunction} 的 open 方法。键控状态只属于链头算子，因为只有它的输入是按键分区的。
+     */
+    private void openOperators() throws Exception {
+        for (Map.Entry<String, Serializable> entry : operatorChain.getAllOperators().entrySet()) {
+            Serializable operator = entry.getValue();
+            if (operator instanceof MailboxOperator) {
+                ((MailboxOperator) operator).setup(new MailboxOperatorContext(
+                        operatorChain.getOperatorOutput(entry.getKey()), mailboxOperators.size() + 1));
+                mailboxOperators.add((MailboxOperator) operator);
+            }
+            if (operator instanceof RichFunction) {
+                boolean head = operator == logic;
+                ((RichFunction) operator).open(new StreamingRuntimeContext(taskName, subtaskIndex, parallelism,
+                        head ? keyedStateBackend : null, head ? timerService : null));
+            }
+        }
+    }
+
+    private void closeOperators() {
+        for (Serializable operator : operatorChain.getAllOperators().values()) {
+            if (operator instanceof RichFunction) {
+                try {
+                    ((RichFunction) operator).close();
+                } catch (Exception e) {
+                    LOG.warning("任务 [" + taskName + "] 关闭算子失败: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Source 的 run 方法在单独的 Source 线程中执行，任务线程留在邮箱循环中：Source 阻塞在外部系统上
+     * 或者暂时没有数据时，检查点、输出刷新、周期性水位线、延迟标记和停止邮件照常执行。
+     * <p>
+     * 两个线程用 {@link #sourceLock} 互斥：Source 线程只在 collect 中持有它，把记录送入算子链；
+     * 任务线程持有它执行邮件。算子链、输出缓冲和算子状态因此仍然同一时刻只被一个线程访问，
+     * 屏障也不会插在一条记录的中间。Source 被反压时在 collect 中持锁阻塞，此时邮件要等它拿到输出缓冲。
+     * <p>
+     * {@link Stateful} 的 Source 在两次 collect 之间由用户代码修改自己的状态，任务线程无法判断它是否处于一致的位置，
+     * 它的检查点推迟到下一次 collect（或者 run 返回之后）执行，快照看到的状态与已发送的数据严格对应；
+     * 这样的 Source 长时间没有数据时检查点仍会等待。
+     */
     private void runSource() throws Exception {
         Source<?> source = (Source<?>) logic;
-        Collector<Object> collector = new OutputCollector(outputs, null);
-        source.run((Collector) collector);
+        Collector<Object> chainOutput = operatorChain.getChainEntryOutput();
+        Collector<Object> emitter = chainOutput;
+        SourceWatermarkOutput watermarkOutput = null;
+        Thread watermarkEmitter = null;
+        if (watermarkStrategy != null) {
+            TimestampAssigner<Object> timestampAssigner = watermarkStrategy.getTimestampAssigner();
+            WatermarkGenerator<Object> watermarkGenerator = watermarkStrategy.createWatermarkGenerator();
+            SourceWatermarkOutput sourceWatermarkOutput = new SourceWatermarkOutput();
+            emitter = record -> {
+                currentTimestamp = timestampAssigner.extractTimestamp(record, TimestampAssigner.NO_TIMESTAMP);
+                watermarkGenerator.onEvent(record, currentTimestamp, sourceWatermarkOutput);
+                chainOutput.collect(record);
+            };
+            watermarkOutput = sourceWatermarkOutput;
+            watermarkEmitter = startHelperThread(new WatermarkEmitter(watermarkGenerator, watermarkOutput,
+                    executionConfig.getAutoWatermarkInterval()), "WatermarkEmitter for " + taskName);
+        }
+
+        Collector<Object> sourceEmitter = emitter;
+        deferSourceCheckpoints = source instanceof Stateful;
+        Thread sourceThread = startHelperThread(() -> runSourceThread(source, sourceEmitter), "Source Thread for " + taskName);
+        try {
+            while (running && !sourceFinished) {
+                mailbox.awaitMail();
+                sourceLock.lock();
+                try {
+                    runMails(mailbox.drain());
+                } finally {
+                    sourceLock.unlock();
+                }
+            }
+        } finally {
+            if (watermarkEmitter != null) {
+                watermarkEmitter.interrupt();
+            }
+            stopSourceThread(sourceThread);
+        }
+        if (!running) {
+            return;
+        }
+        // 有界输入结束：补上推迟的检查点，等待链上进行中的异步请求，再发送缓冲中剩余的记录，不等待刷新线程
+        performDeferredSourceCheckpoints();
+        if (watermarkOutput != null) {
+            // 事件时间推进到终点，下游所有剩余的定时器都会触发
+            watermarkOutput.emitWatermark(Watermark.MAX_WATERMARK);
+        }
+        drainMailboxOperators();
+        output.flushAll();
+    }
+
+    /**
+     * Source 线程的主体。run 方法结束（或失败）后投递一封邮件通知任务线程，失败的异常由任务线程重新抛出。
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void runSourceThread(Source<?> source, Collector<Object> emitter) {
+        interruptGuard.bind();
+        Throwable error = null;
+        try {
+            source.run((Collector) (Collector<Object>) record -> collectFromSource(record, emitter));
+        } catch (Throwable t) {
+            error = t;
+        } finally {
+            interruptGuard.unbind();
+        }
+        Throwable failure = error;
+        sendMail(() -> {
+            sourceFinished = true;
+            deferSourceCheckpoints = false;
+            if (failure instanceof Exception) {
+                throw (Exception) failure;
+            } else if (failure != null) {
+                throw (Error) failure;
+            }
+        }, "Source 结束");
+    }
+
+    /**
+     * 在 Source 线程中发送一条记录。{@link Collector#collect} 不能声明受检异常，检查点的异常被包装后抛给 Source。
+     */
+    private void collectFromSource(Object record, Collector<Object> emitter) {
+        sourceLock.lock();
+        try {
+            if (sourceStopped) {
+                throw new IllegalStateException("任务 [" + taskName + "] 已经停止，Source 不能再发送记录");
+            }
+            performDeferredSourceCheckpoints();
+            emitter.collect(record);
+        } catch (InterruptedException e) {
+            // 只有取消任务时才会被中断，抛出异常结束 Source，不再发送这条记录
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("任务 [" + taskName + "] 在 Source 线程中执行检查点时被中断", e);
+        } finally {
+            sourceLock.unlock();
+        }
+    }
+
+    private void performDeferredSourceCheckpoints() throws InterruptedException {
+        if (deferredSourceCheckpoints.isEmpty()) {
+            return;
+        }
+        List<CheckpointBarrier> barriers = new ArrayList<>(deferredSourceCheckpoints);
+        deferredSourceCheckpoints.clear();
+        for (CheckpointBarrier barrier : barriers) {
+            performCheckpoint(barrier);
+        }
+    }
+
+    /**
+     * 任务线程退出邮箱循环后结束 Source 线程：之后的 collect 抛出异常，阻塞中的 Source 被中断。
+     * Source 线程写网络时同样受 {@link TaskInterruptGuard} 保护。
+     */
+    private void stopSourceThread(Thread sourceThread) {
+        sourceStopped = true;
+        // 任务线程自己可能带着取消时的中断标志，先清除，等待结束后再恢复
+        boolean interrupted = Thread.interrupted();
+        try {
+            if (sourceThread.isAlive()) {
+                interruptGuard.interrupt(sourceThread, CANCEL_INTERRUPT_TIMEOUT_MILLIS);
+                sourceThread.join(SOURCE_THREAD_JOIN_TIMEOUT_MILLIS);
+                if (sourceThread.isAlive()) {
+                    LOG.warning("任务 [" + taskName + "] 的 Source 线程在被中断后没有退出。");
+                }
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     private void runOperator() throws Exception {
         Operator<Object, Object> operator = (Operator<Object, Object>) logic;
-        Collector<Object> collector = new OutputCollector(outputs, operator);
-        // Operator 通常只有一个输入
-        DataChannel inputChannel = inputs.get(0);
-        while (running) {
-            Object record = inputChannel.pop(); // 从上游阻塞式地获取数据
+        Collector<Object> chainOutput = operatorChain.getChainEntryOutput();
+        // 一个 Operator 可能同时被多个上游子任务喂数据，由输入门公平地消费所有输入通道
+        InputGate inputGate = createInputGate();
+        CheckpointBarrierHandler barrierHandler = createBarrierHandler(inputGate);
+        StatusWatermarkValve watermarkValve = new StatusWatermarkValve(inputGate.getNumberOfChannels());
+        for (Object record : drainRestoredChannelState()) {
+            record = unwrapRestoredRecord(record);
+            numRecordsIn.inc();
+            setCurrentKey(record);
+            operator.process(record, chainOutput);
+        }
+        while (true) {
+            Object record = nextElement(inputGate); // 先执行邮件，再从上游阻塞式地获取数据
+            if (record == null) {
+                return;
+            }
+            int channelIndex = inputGate.getLastChannelIndex();
 
-            stateLock.readLock().lock(); // 获取读锁，允许多个读操作并发
-            try {
-                if (record instanceof CheckpointBarrier) {
-                    handleCheckpointBarrier((CheckpointBarrier) record, collector);
-                } else {
-                    operator.process(record, collector);
+            if (record instanceof CheckpointBarrier) {
+                barrierHandler.processBarrier((CheckpointBarrier) record, channelIndex);
+                continue;
+            }
+            if (record instanceof Watermark) {
+                if (watermarkValve.inputWatermark(((Watermark) record).getTimestamp(), channelIndex)) {
+                    advanceWatermark(watermarkValve.getOutputWatermark());
                 }
-            } finally {
-                stateLock.readLock().unlock();
+                continue;
             }
+            if (record instanceof LatencyMarker) {
+                processLatencyMarker((LatencyMarker) record);
+                continue;
+            }
+            currentTimestamp = inputGate.getLastTimestamp();
+            barrierHandler.processRecord(record, currentTimestamp, channelIndex);
+            numRecordsIn.inc();
+            setCurrentKey(record);
+            operator.process(record, chainOutput);
         }
     }
 
     private void runSink() throws Exception {
         Sink<Object> sink = (Sink<Object>) logic;
-        DataChannel inputChannel = inputs.get(0);
-        while (running) {
-            Object record = inputChannel.pop();
+        InputGate inputGate = createInputGate();
+        CheckpointBarrierHandler barrierHandler = createBarrierHandler(inputGate);
+        for (Object record : drainRestoredChannelState()) {
+            record = unwrapRestoredRecord(record);
+            numRecordsIn.inc();
+            setCurrentKey(record);
+            sink.invoke(record);
+        }
+        while (true) {
+            Object record = nextElement(inputGate);
+            if (record == null) {
+                return;
+            }
+            int channelIndex = inputGate.getLastChannelIndex();
             if (record instanceof CheckpointBarrier) {
-                handleCheckpointBarrier((CheckpointBarrier) record, null);
+                barrierHandler.processBarrier((CheckpointBarrier) record, channelIndex);
+            } else if (record instanceof Watermark) {
+                // Sink 没有下游，也不注册定时器，水位线到此为止
+                continue;
+            } else if (record instanceof LatencyMarker) {
+                processLatencyMarker((LatencyMarker) record);
             } else {
+                currentTimestamp = inputGate.getLastTimestamp();
+                barrierHandler.processRecord(record, currentTimestamp, channelIndex);
+                numRecordsIn.inc();
+                setCurrentKey(record);
                 sink.invoke(record);
             }
         }
     }
 
-    private void handleCheckpointBarrier(CheckpointBarrier barrier, Collector<Object> collector) throws InterruptedException {
-        LOG.info(String.format("任务 [%s] 收到检查点屏障: %d", taskName, barrier.getCheckpointId()));
+    /**
+     * 按通道顺序取出所有需要重放的在途记录，只能调用一次。
+     */
+    private List<Object> drainRestoredChannelState() {
+        List<Object> records = new ArrayList<>();
+        if (restoredChannelState != null) {
+            for (List<Object> channelRecords : new TreeMap<>(restoredChannelState).values()) {
+                records.addAll(channelRecords);
+            }
+            if (!records.isEmpty()) {
+                LOG.info(String.format("任务 [%s] 正在重放检查点中的 %d 条在途记录", taskName, records.size()));
+            }
+            restoredChannelState = null;
+        }
+        return records;
+    }
 
-        // 1. 执行状态快照
-        if (logic instanceof Stateful) {
-            stateLock.writeLock().lock(); // 获取写锁，暂停所有数据处理
+    /**
+     * 重放的通道状态中，带时间戳的记录被包装为 {@link StreamRecord}，这里恢复它的时间戳。
+     */
+    private Object unwrapRestoredRecord(Object record) {
+        if (record instanceof StreamRecord) {
+            currentTimestamp = ((StreamRecord) record).getTimestamp();
+            return ((StreamRecord) record).getValue();
+        }
+        currentTimestamp = TimestampAssigner.NO_TIMESTAMP;
+        return record;
+    }
+
+    /**
+     * 任务的水位线前进：先触发所有到期的定时器，再把水位线发往下游。
+     * 定时器输出的记录排在水位线之前，下游不会把它们当作迟到数据。
+     */
+    @SuppressWarnings("unchecked")
+    private void advanceWatermark(long watermark) throws Exception {
+        if (timerService != null) {
+            Triggerable<Object> triggerable = (Triggerable<Object>) logic;
+            Collector<Object> chainOutput = operatorChain.getChainEntryOutput();
+            timerService.advanceWatermark(watermark);
+            InternalTimer timer;
+            while ((timer = timerService.pollExpiredTimer()) != null) {
+                currentTimestamp = timer.getTimestamp();
+                triggerable.onEventTime(timer.getTimestamp(), chainOutput);
+            }
+        }
+        emitWatermark(0, new Watermark(watermark));
+    }
+
+    /**
+     * 把水位线交给链上第 index 个 {@link MailboxOperator}，它排在这个算子已经接收的输入之后，
+     * 等这些输入都输出之后再交给下一个；后面没有这样的算子时直接发往下游。
+     * 任务线程不会因为等待异步请求而阻塞。
+     */
+    private void emitWatermark(int index, Watermark watermark) throws Exception {
+        if (index < mailboxOperators.size()) {
+            mailboxOperators.get(index).processWatermark(watermark);
+        } else {
+            output.emitWatermark(watermark);
+        }
+    }
+
+    /**
+     * 有界输入结束时按链上的顺序等待每个 {@link MailboxOperator} 输出它已经接收的所有输入，
+     * 前一个算子输出的记录会进入后一个算子。
+     */
+    private void drainMailboxOperators() throws Exception {
+        for (MailboxOperator operator : mailboxOperators) {
+            operator.drain();
+        }
+    }
+
+    /**
+     * 延迟标记不经过算子：有下游时原样转发给每条输出边，否则这里就是它的终点，记录端到端延迟。
+     */
+    private void processLatencyMarker(LatencyMarker marker) throws InterruptedException {
+        if (outputs.isEmpty()) {
+            latencyStats.reportLatency(marker);
+        } else {
+            output.emitLatencyMarker(marker);
+        }
+    }
+
+    private String getHeadName() {
+        return operatorChain.getAllOperators().keySet().iterator().next();
+    }
+
+    private void setCurrentKey(Object record) throws Exception {
+        if (keyedStateBackend != null) {
+            keyedStateBackend.setCurrentKey(inputKeySelector.getKey(record));
+        }
+    }
+
+    /**
+     * 邮箱主循环的一步：先执行邮箱中的所有邮件，再获取下一个输入元素。
+     * 输入暂时为空时，任务即将进入空闲，此时先把输出缓冲中攒着的记录发出去，
+     * 这样低流量下记录不必等到缓冲超时才被发送；空闲期间到达的邮件会唤醒任务线程。
+     * @return 下一个输入元素，任务被停止时返回 null
+     */
+    private Object nextElement(InputGate inputGate) throws Exception {
+        while (true) {
+            if (mailbox.hasMail()) {
+                runMails(mailbox.drain());
+            }
+            if (!running) {
+                return null;
+            }
+            Object element = inputGate.pollNext();
+            if (element != null) {
+                return element;
+            }
+            output.flushAll();
+            ioMetrics.markIdleStart();
             try {
-                LOG.info(String.format("任务 [%s] 正在为检查点 %d 进行状态快照...", taskName, barrier.getCheckpointId()));
-                Map<String, Object> stateSnapshot = ((Stateful) logic).snapshotState();
-                // 2. 将快照报告给 JobManager
-                jobManager.acknowledgeCheckpoint(barrier.getCheckpointId(), taskName, stateSnapshot);
+                element = inputGate.getNext();
             } finally {
-                stateLock.writeLock().unlock();
+                ioMetrics.markIdleEnd();
+            }
+            if (element != null) {
+                return element;
+            }
+        }
+    }
+
+    private InputGate createInputGate() {
+        InputGate inputGate = new InputGate(inputs);
+        mailbox.setWakeUpListener(inputGate::wakeUp);
+        return inputGate;
+    }
+
+    private void runMails(List<Mail> mails) throws Exception {
+        for (Mail mail : mails) {
+            mail.run();
+        }
+    }
+
+    /**
+     * 向任务线程投递一个控制动作，任务已经结束时动作被丢弃。
+     * @return 是否投递成功
+     */
+    private boolean sendMail(Mail.Action action, String description) {
+        return mailbox.put(new Mail(action, description));
+    }
+
+    /**
+     * 投递一个不需要重复排队的动作：上一次投递的同类邮件还没执行时不再投递。
+     */
+    private void sendMailIfNotPending(AtomicBoolean pending, Mail.Action action, String description) {
+        if (pending.compareAndSet(false, true)) {
+            boolean sent = sendMail(() -> {
+                pending.set(false);
+                action.run();
+            }, description);
+            if (!sent) {
+                pending.set(false);
+            }
+        }
+    }
+
+    private CheckpointBarrierHandler createBarrierHandler(InputGate inputGate) {
+        return checkpointConfig.isUnalignedCheckpointsEnabled()
+                ? new UnalignedCheckpointBarrierHandler(inputGate, this, checkpointConfig.getMaxInFlightRecords())
+                : new AlignedCheckpointBarrierHandler(inputGate, this);
+    }
+
+    /**
+     * 由 JobManager 调用，在 Source 任务中触发检查点：投递一封邮件，由任务线程在发送下一条记录之前
+     * 快照状态并向所有下游注入屏障。调用者不会等待检查点执行。
+     */
+    public void triggerCheckpoint(CheckpointBarrier barrier) {
+        if (!sendMail(() -> {
+            if (deferSourceCheckpoints) {
+                deferredSourceCheckpoints.add(barrier);
+            } else {
+                performCheckpoint(barrier);
+            }
+        }, "检查点 " + barrier.getCheckpointId())) {
+            LOG.info(String.format("任务 [%s] 已经结束，忽略检查点 %d", taskName, barrier.getCheckpointId()));
+        }
+    }
+
+    /**
+     * 执行一次完整的检查点：快照状态、向下游转发屏障、状态异步物化完成后向 JobManager 确认。
+     */
+    void performCheckpoint(CheckpointBarrier barrier) throws InterruptedException {
+        long checkpointId = barrier.getCheckpointId();
+        LOG.info(String.format("任务 [%s] 收到检查点屏障: %d", taskName, checkpointId));
+        CompletableFuture<TaskStateSnapshot> stateSnapshot = snapshotOperatorState(checkpointId);
+        broadcastBarrier(barrier);
+        stateSnapshot.thenAccept(snapshot -> acknowledgeCheckpoint(checkpointId, snapshot));
+    }
+
+    /**
+     * 对链上所有有状态算子的状态做快照，分为两个阶段：
+     * <ol>
+     *     <li>同步阶段：在任务线程中调用 {@link Stateful#snapshotState()}，并对键控状态做写时复制快照，
+     *     后者只记录状态页的引用，耗时与状态大小基本无关；</li>
+     *     <li>异步阶段：在异步线程中遍历键控状态快照，复制出最终上报的数据，期间任务线程照常处理数据。</li>
+     * </ol>
+     * @return 异步阶段完成后得到的任务快照，不包含通道状态
+     */
+    CompletableFuture<TaskStateSnapshot> snapshotOperatorState(long checkpointId) {
+        Map<String, Map<String, Object>> operatorStates = new LinkedHashMap<>();
+        HeapKeyedStateSnapshot keyedStateSnapshot = null;
+        // 总是在任务线程中、两条记录之间执行，此时没有记录正在处理
+        for (Map.Entry<String, Serializable> entry : operatorChain.getAllOperators().entrySet()) {
+            Serializable operator = entry.getValue();
+            boolean hasKeyedState = operator == logic && keyedStateBackend != null && !keyedStateBackend.isEmpty();
+            if (!(operator instanceof Stateful) && !hasKeyedState) {
+                continue;
+            }
+            LOG.info(String.format("任务 [%s] 正在为检查点 %d 对算子 [%s] 进行状态快照...",
+                    taskName, checkpointId, entry.getKey()));
+            if (operator instanceof Stateful) {
+                operatorStates.put(entry.getKey(), ((Stateful) operator).snapshotState());
+            }
+            if (hasKeyedState) {
+                keyedStateSnapshot = keyedStateBackend.snapshot(checkpointId);
             }
-        } else {
-            // 无状态算子直接确认
-            jobManager.acknowledgeCheckpoint(barrier.getCheckpointId(), taskName, null);
+        }
+        if (keyedStateSnapshot == null) {
+            return CompletableFuture.completedFuture(new TaskStateSnapshot(subtaskIndex, operatorStates, null, null));
         }
 
-        // 3. 将屏障广播到下游
-        if (collector != null) {
-            ((OutputCollector) collector).broadcastBarrier(barrier);
+        final HeapKeyedStateSnapshot pendingSnapshot = keyedStateSnapshot;
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                HeapKeyedStateSnapshot.MaterializedKeyedState keyedState = pendingSnapshot.materialize();
+                Map<String, Map<String, Object>> keyedStates = new LinkedHashMap<>();
+                keyedStates.put(getHeadName(), keyedState.getValues());
+                Map<String, Map<String, List<Object>>> keyedStateRemovals = new LinkedHashMap<>();
+                if (!keyedState.getRemovedKeys().isEmpty()) {
+                    keyedStateRemovals.put(getHeadName(), keyedState.getRemovedKeys());
+                }
+                return new TaskStateSnapshot(subtaskIndex, operatorStates, keyedStates, null,
+                        pendingSnapshot.getBaseCheckpointId(), keyedStateRemovals);
+            }, asyncOperationsThreadPool).whenComplete((result, error) -> {
+                if (error != null) {
+                    LOG.severe(String.format("任务 [%s] 异步物化检查点 %d 的状态失败: %s", taskName, checkpointId, error));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 任务正在停止
+            pendingSnapshot.release();
+            CompletableFuture<TaskStateSnapshot> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    /**
+     * 检查点已在所有任务上完成并持久化，之后的增量快照可以以它为基准。由检查点协调器的线程调用，
+     * 通知作为邮件交给任务线程，与快照按投递顺序执行。
+     */
+    public void notifyCheckpointComplete(long checkpointId) {
+        if (keyedStateBackend != null) {
+            sendMail(() -> keyedStateBackend.notifyCheckpointComplete(checkpointId), "检查点 " + checkpointId + " 完成通知");
+        }
+    }
+
+    void broadcastBarrier(CheckpointBarrier barrier) throws InterruptedException {
+        if (!outputs.isEmpty()) {
+            output.broadcastBarrier(barrier, checkpointConfig.isUnalignedCheckpointsEnabled());
             LOG.info(String.format("任务 [%s] 已将屏障 %d 广播到下游", taskName, barrier.getCheckpointId()));
         }
     }
 
+    void acknowledgeCheckpoint(long checkpointId, TaskStateSnapshot snapshot) {
+        checkpointResponder.acknowledgeCheckpoint(checkpointId, taskName, snapshot);
+    }
+
+    public String getTaskName() {
+        return taskName;
+    }
+
+    public TaskIOMetrics getIOMetrics() {
+        return ioMetrics;
+    }
+
+    public MetricGroup getMetricGroup() {
+        return metricGroup;
+    }
+
+    private Thread startHelperThread(Runnable runnable, String name) {
+        Thread thread = threadFactory.newThread(runnable);
+        thread.setName(name);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * 由任务槽在启动任务之前调用，任务的辅助线程使用与任务线程相同的执行模式创建。
+     */
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * 由 TaskManager 在启动任务之前调用，任务线程上抛出异常（而不是被停止或取消）时回调一次。
+     */
+    public void setFailureListener(Consumer<Throwable> failureListener) {
+        this.failureListener = failureListener;
+    }
+
+    public boolean isSourceTask() {
+        return logic instanceof Source;
+    }
+
+    /**
+     * @return 任务是否因为异常而结束
+     */
+    public boolean isFailed() {
+        return failureCause != null;
+    }
+
+    /**
+     * 停止任务，可以在任意线程中调用。任务线程执行完当前记录后退出，阻塞在输入上的任务会被邮件唤醒。
+     * Source 任务的任务线程退出邮箱循环时中断 Source 线程，并让它之后的 collect 抛出异常。
+     */
     public void stop() {
-        this.running = false;
+        canceled = true;
+        sendMail(() -> running = false, "停止任务");
+    }
+
+    /**
+     * 取消任务：停止任务并中断任务线程，阻塞在输出通道上（被反压）的任务和 Source 任务也能尽快退出。
+     * 任务线程正在写网络时等它写完再中断，见 {@link TaskInterruptGuard}。取消过程中抛出的异常不会作为任务失败汇报。
+     */
+    public void cancel() {
+        stop();
+        // 立即注销指标，重新部署的同名任务可以注册自己的指标，不必等这个任务线程退出
+        metricGroup.close();
+        Thread thread = executingThread;
+        if (thread != null && !interruptGuard.interrupt(thread, CANCEL_INTERRUPT_TIMEOUT_MILLIS)) {
+            LOG.warning("任务 [" + taskName + "] 的网络写入长时间没有结束，取消时没有中断任务线程。");
+        }
     }
 
     /**
      * 内部收集器实现
      */
     private class OutputCollector implements Collector<Object> {
-        private final List<DataChannel> outputChannels;
-        private final Object operatorLogic;
+        private final List<RecordWriter> recordWriters;
 
-        public OutputCollector(List<DataChannel> outputChannels, Object operatorLogic) {
+        public OutputCollector(List<RecordWriter> recordWriters) {
             // 【JUC知识点】: 使用 CopyOnWriteArrayList 保证广播时的线程安全。
             // 虽然在此单线程模型中不是必须，但在真实 Flink 中，输出目标可能是动态变化的。
-            this.outputChannels = outputChannels != null ? new CopyOnWriteArrayList<>(outputChannels) : new CopyOnWriteArrayList<>();
-            this.operatorLogic = operatorLogic;
+            this.recordWriters = recordWriters != null ? new CopyOnWriteArrayList<>(recordWriters) : new CopyOnWriteArrayList<>();
         }
 
         @Override
         public void collect(Object record) {
-            // 分发到所有下游 channel
-            for (DataChannel channel : outputChannels) {
-                try {
-                    channel.push(record);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    LOG.warning("Collect interrupted");
+            numRecordsOut.inc();
+            try {
+                // 每条输出边由各自的分区器决定记录发往哪个下游 channel
+                for (RecordWriter writer : recordWriters) {
+                    writer.emit(record, currentTimestamp);
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.warning("Collect interrupted");
+            }
+        }
+
+        public void flushAll() throws InterruptedException {
+            for (RecordWriter writer : recordWriters) {
+                writer.flushAll();
             }
         }
 
-        public void broadcastBarrier(CheckpointBarrier barrier) {
+        public void emitWatermark(Watermark watermark) throws InterruptedException {
+            for (RecordWriter writer : recordWriters) {
+                writer.broadcastEvent(watermark);
+            }
+        }
+
+        public void emitLatencyMarker(LatencyMarker marker) throws InterruptedException {
+            for (RecordWriter writer : recordWriters) {
+                // 每条输出边只发往一个下游通道，不随并行度放大标记的数量
+                writer.emitLatencyMarker(marker);
+            }
+        }
+
+        /**
+         * @param unaligned 为 true 时屏障越过通道中积压的数据，由下游把被越过的数据记录为通道状态
+         */
+        public void broadcastBarrier(CheckpointBarrier barrier, boolean unaligned) throws InterruptedException {
             LOG.info(String.format("任务 [%s] 的 Collector 正在广播屏障 %d", taskName, barrier.getCheckpointId()));
-            for (DataChannel channel : outputChannels) {
-                try {
-                    // 这里我们简单地把 barrier 放在数据前面，实际 Flink 有更复杂的对齐逻辑
-                    channel.push(barrier);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    LOG.warning("Barrier broadcast interrupted");
+            for (RecordWriter writer : recordWriters) {
+                if (unaligned) {
+                    writer.broadcastPriorityEvent(barrier);
+                } else {
+                    // 屏障排在该通道已发送的所有数据之后，下游据此完成对齐
+                    writer.broadcastEvent(barrier);
+                }
+            }
+        }
+    }
+
+    /**
+     * 链上的一个 {@link MailboxOperator} 的运行时环境，输出时临时切换任务的当前时间戳。
+     */
+    private class MailboxOperatorContext implements MailboxOperator.Context {
+        private final Collector<Object> operatorOutput;
+        // 链上下一个 MailboxOperator 的序号，水位线从这个算子出来之后交给它
+        private final int nextMailboxOperator;
+
+        MailboxOperatorContext(Collector<Object> operatorOutput, int nextMailboxOperator) {
+            this.operatorOutput = operatorOutput;
+            this.nextMailboxOperator = nextMailboxOperator;
+        }
+
+        @Override
+        public boolean execute(Mail.Action action, String description) {
+            return sendMail(action, description);
+        }
+
+        @Override
+        public long getCurrentTimestamp() {
+            return currentTimestamp;
+        }
+
+        @Override
+        public void collect(Object record, long timestamp) {
+            long previousTimestamp = currentTimestamp;
+            currentTimestamp = timestamp;
+            try {
+                operatorOutput.collect(record);
+            } finally {
+                currentTimestamp = previousTimestamp;
+            }
+        }
+
+        @Override
+        public void emitWatermark(Watermark watermark) throws Exception {
+            StreamTask.this.emitWatermark(nextMailboxOperator, watermark);
+        }
+    }
+
+    /**
+     * 输出缓冲刷新线程，保证缓冲中的记录最多等待 bufferTimeout 毫秒就会被发送。
+     * <p>
+     * 输出只由任务线程访问，这里只投递刷新邮件，由任务线程在处理下一条记录之前刷新，
+     * 而任务空闲前本身就会刷新输出（见 {@link #nextElement}）。
+     */
+    private class OutputFlusher implements Runnable {
+        private final long timeout;
+
+        OutputFlusher(long timeout) {
+            this.timeout = timeout;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Thread.sleep(timeout);
+                    sendMailIfNotPending(flushMailPending, output::flushAll, "刷新输出");
+                }
+            } catch (InterruptedException ignored) {
+                // 任务结束
+            }
+        }
+    }
+
+    /**
+     * Source 任务的水位线出口，只发送比上一次更大的水位线。总是在持有 {@link #sourceLock} 时调用。
+     */
+    private class SourceWatermarkOutput implements WatermarkOutput {
+        private long lastEmittedWatermark = Long.MIN_VALUE;
+
+        @Override
+        public void emitWatermark(Watermark watermark) {
+            if (watermark.getTimestamp() <= lastEmittedWatermark) {
+                return;
+            }
+            lastEmittedWatermark = watermark.getTimestamp();
+            try {
+                StreamTask.this.emitWatermark(0, watermark);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.warning("任务 [" + taskName + "] 发送水位线时被中断");
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("任务 [" + taskName + "] 发送水位线失败", e);
+            }
+        }
+    }
+
+    /**
+     * 周期性地调用 {@link WatermarkGenerator#onPeriodicEmit}。水位线不在记录处理路径上生成，
+     * 每条记录只需要更新一次最大时间戳。生成器通过邮件在任务线程中调用，与记录的处理串行执行。
+     */
+    private class WatermarkEmitter implements Runnable {
+        private final WatermarkGenerator<Object> generator;
+        private final WatermarkOutput watermarkOutput;
+        private final long interval;
+
+        WatermarkEmitter(WatermarkGenerator<Object> generator, WatermarkOutput watermarkOutput, long interval) {
+            this.generator = generator;
+            this.watermarkOutput = watermarkOutput;
+            this.interval = interval;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Thread.sleep(interval);
+                    sendMailIfNotPending(periodicWatermarkMailPending,
+                            () -> generator.onPeriodicEmit(watermarkOutput), "周期性水位线");
+                }
+            } catch (InterruptedException ignored) {
+                // 任务结束
+            }
+        }
+    }
+
+    /**
+     * Source 任务周期性地通过邮件发出 {@link LatencyMarker}。标记与 Source 线程发送的记录互斥地发出，
+     * 因此排在它之前发送的记录之后；Source 阻塞或没有数据时标记照常发出，反映的是通道本身的延迟。
+     */
+    private class LatencyMarkerEmitter implements Runnable {
+        private final long interval;
+
+        LatencyMarkerEmitter(long interval) {
+            this.interval = interval;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Thread.sleep(interval);
+                    sendMailIfNotPending(latencyMarkerMailPending, () -> processLatencyMarker(
+                            new LatencyMarker(LatencyMarker.currentTimeMicros(), getHeadName(), subtaskIndex)),
+                            "延迟标记");
                 }
+            } catch (InterruptedException ignored) {
+                // 任务结束
             }
         }
     }
-}
\ No newline at end of file
+}
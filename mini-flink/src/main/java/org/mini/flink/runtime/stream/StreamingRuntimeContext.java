@@ -0,0 +1,96 @@
+package org.mini.flink.runtime.stream;
+
+import org.mini.flink.api.RuntimeContext;
+import org.mini.flink.api.TimerService;
+import org.mini.flink.api.state.IntValueState;
+import org.mini.flink.api.state.IntValueStateDescriptor;
+import org.mini.flink.api.state.LongValueState;
+import org.mini.flink.api.state.LongValueStateDescriptor;
+import org.mini.flink.api.state.MapState;
+import org.mini.flink.api.state.MapStateDescriptor;
+import org.mini.flink.api.state.ReducingState;
+import org.mini.flink.api.state.ReducingStateDescriptor;
+import org.mini.flink.api.state.ValueState;
+import org.mini.flink.api.state.ValueStateDescriptor;
+import org.mini.flink.runtime.state.heap.HeapKeyedStateBackend;
+import org.mini.flink.runtime.timer.HeapInternalTimerService;
+
+/**
+ * {@link RuntimeContext} 的实现，键控状态委托给任务的 {@link HeapKeyedStateBackend}。
+ */
+public class StreamingRuntimeContext implements RuntimeContext {
+
+    private final String taskName;
+    private final int subtaskIndex;
+    private final int parallelism;
+    // 算子的输入不是按键分区时为 null
+    private final HeapKeyedStateBackend keyedStateBackend;
+    // 算子没有键控状态或没有实现 Triggerable 时为 null
+    private final HeapInternalTimerService timerService;
+
+    public StreamingRuntimeContext(String taskName, int subtaskIndex, int parallelism,
+                                   HeapKeyedStateBackend keyedStateBackend, HeapInternalTimerService timerService) {
+        this.taskName = taskName;
+        this.subtaskIndex = subtaskIndex;
+        this.parallelism = parallelism;
+        this.keyedStateBackend = keyedStateBackend;
+        this.timerService = timerService;
+    }
+
+    @Override
+    public String getTaskName() {
+        return taskName;
+    }
+
+    @Override
+    public int getIndexOfThisSubtask() {
+        return subtaskIndex;
+    }
+
+    @Override
+    public int getNumberOfParallelSubtasks() {
+        return parallelism;
+    }
+
+    @Override
+    public <T> ValueState<T> getState(ValueStateDescriptor<T> stateDescriptor) {
+        return checkKeyedStateBackend().getState(stateDescriptor);
+    }
+
+    @Override
+    public <UK, UV> MapState<UK, UV> getMapState(MapStateDescriptor<UK, UV> stateDescriptor) {
+        return checkKeyedStateBackend().getMapState(stateDescriptor);
+    }
+
+    @Override
+    public <T> ReducingState<T> getReducingState(ReducingStateDescriptor<T> stateDescriptor) {
+        return checkKeyedStateBackend().getReducingState(stateDescriptor);
+    }
+
+    @Override
+    public LongValueState getLongState(LongValueStateDescriptor stateDescriptor) {
+        return checkKeyedStateBackend().getLongState(stateDescriptor);
+    }
+
+    @Override
+    public IntValueState getIntState(IntValueStateDescriptor stateDescriptor) {
+        return checkKeyedStateBackend().getIntState(stateDescriptor);
+    }
+
+    @Override
+    public TimerService getTimerService() {
+        checkKeyedStateBackend();
+        if (timerService == null) {
+            throw new IllegalStateException("任务 [" + taskName + "] 的算子没有实现 Triggerable，不能使用定时器");
+        }
+        return timerService;
+    }
+
+    private HeapKeyedStateBackend checkKeyedStateBackend() {
+        if (keyedStateBackend == null) {
+            throw new IllegalStateException("任务 [" + taskName + "] 的输入不是按键分区的，"
+                    + "键控状态只能在 KeyGroupStreamPartitioner 之后的第一个算子中使用");
+        }
+        return keyedStateBackend;
+    }
+}
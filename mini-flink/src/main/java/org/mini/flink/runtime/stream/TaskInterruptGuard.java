@@ -0,0 +1,76 @@
+package org.mini.flink.runtime.stream;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 保证取消任务时不会在任务线程读写网络的过程中中断它。
+ * <p>
+ * NIO 的 SocketChannel 是可中断通道：线程阻塞在通道读写中时被中断，或者带着中断标志开始读写，通道都会被直接关闭。
+ * 两个 TaskManager 之间的一条数据连接由所有通道共享，取消一个任务时如果恰好打断了它的网络写入，
+ * 同一条连接上其他区域的任务也会随之失败。因此任务线程写网络时进入不可中断区段，
+ * 取消任务的线程要先拿到同一把锁才能中断它；已经带着中断标志的线程放弃这次写入，不碰通道。
+ */
+public final class TaskInterruptGuard {
+    // 当前线程所属任务的守卫，非任务线程（例如网络读线程）上为 null
+    private static final ThreadLocal<TaskInterruptGuard> CURRENT = new ThreadLocal<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 当前线程为任务线程时进入不可中断区段，必须与 {@link #exitUninterruptible()} 成对调用。
+     * @throws InterruptedIOException 任务已经被中断，此时没有进入区段
+     */
+    public static void enterUninterruptible() throws InterruptedIOException {
+        TaskInterruptGuard guard = CURRENT.get();
+        if (guard == null) {
+            return;
+        }
+        guard.lock.lock();
+        if (Thread.interrupted()) {
+            guard.lock.unlock();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("任务已被中断，放弃网络写入");
+        }
+    }
+
+    public static void exitUninterruptible() {
+        TaskInterruptGuard guard = CURRENT.get();
+        if (guard != null) {
+            guard.lock.unlock();
+        }
+    }
+
+    /**
+     * 把守卫绑定到当前的任务线程。
+     */
+    void bind() {
+        CURRENT.set(this);
+    }
+
+    void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 等任务线程离开不可中断区段后中断它。
+     * @return 是否中断了线程；网络写入一直没有结束时放弃中断，任务在写入结束后会看到停止邮件
+     */
+    boolean interrupt(Thread thread, long timeoutMillis) {
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try {
+            thread.interrupt();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
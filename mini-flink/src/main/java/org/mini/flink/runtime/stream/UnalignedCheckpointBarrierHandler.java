@@ -0,0 +1,115 @@
+package org.mini.flink.runtime.stream;
+
+import org.mini.flink.api.eventtime.TimestampAssigner;
+import org.mini.flink.runtime.state.CheckpointBarrier;
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * 非对齐的屏障处理器。
+ * 屏障以优先事件的形式越过通道中积压的数据，收到检查点 N 的第一个屏障时立即对算子状态做快照并向下游转发屏障，
+ * 不阻塞任何通道。每个屏障越过的记录（见 {@link InputGate#getOvertakenRecords()}）被记录为该通道的通道状态；
+ * 之后从尚未送来屏障的通道读到的记录仍然正常处理，同时也被记录下来。
+ * 等所有通道的屏障都到齐后，算子状态和在途数据一起确认给 JobManager。
+ * <p>
+ * 恢复时先重放这些在途记录，再继续消费通道，即可得到与快照时刻一致的结果。
+ * <p>
+ * 在途记录保存在内存中，数量超过上限时放弃这个检查点：不再确认，由检查点协调器在超时后判定失败。
+ */
+public class UnalignedCheckpointBarrierHandler extends CheckpointBarrierHandler {
+    private static final Logger LOG = Logger.getLogger(UnalignedCheckpointBarrierHandler.class.getName());
+
+    private final int maxInFlightRecords;
+    private long currentCheckpointId = -1;
+    private int numBarriersReceived;
+    private boolean[] barrierReceived;
+    private Map<Integer, List<Object>> inFlightData;
+    private int numInFlightRecords;
+    private CompletableFuture<TaskStateSnapshot> operatorSnapshot;
+
+    public UnalignedCheckpointBarrierHandler(InputGate inputGate, StreamTask task, int maxInFlightRecords) {
+        super(inputGate, task);
+        this.maxInFlightRecords = maxInFlightRecords;
+    }
+
+    @Override
+    public void processBarrier(CheckpointBarrier barrier, int channelIndex) throws Exception {
+        long barrierId = barrier.getCheckpointId();
+        if (barrierId < currentCheckpointId) {
+            return;
+        }
+        if (barrierId > currentCheckpointId) {
+            if (isCheckpointPending()) {
+                LOG.warning(String.format("任务 [%s] 在等待检查点 %d 的屏障时收到了更新的检查点 %d 的屏障，放弃旧检查点。",
+                        task.getTaskName(), currentCheckpointId, barrierId));
+            }
+            currentCheckpointId = barrierId;
+            numBarriersReceived = 0;
+            barrierReceived = new boolean[inputGate.getNumberOfChannels()];
+            inFlightData = new HashMap<>();
+            numInFlightRecords = 0;
+            // 第一个屏障到达：立即快照并把屏障发往下游，不等待其他通道
+            operatorSnapshot = task.snapshotOperatorState(barrierId);
+            task.broadcastBarrier(barrier);
+        }
+
+        if (!isCheckpointPending() || barrierReceived[channelIndex]) {
+            // 重复的屏障，或者检查点已经因为在途数据过多而被放弃
+            return;
+        }
+        barrierReceived[channelIndex] = true;
+        numBarriersReceived++;
+        // 屏障越过的记录在快照之后才会被处理，属于这个通道的通道状态
+        List<Object> overtakenRecords = inputGate.getOvertakenRecords();
+        if (!overtakenRecords.isEmpty()) {
+            inFlightData.computeIfAbsent(channelIndex, k -> new ArrayList<>()).addAll(overtakenRecords);
+            numInFlightRecords += overtakenRecords.size();
+            if (exceedsInFlightLimit()) {
+                return;
+            }
+        }
+
+        if (numBarriersReceived == inputGate.getNumberOfChannels()) {
+            Map<Integer, List<Object>> channelState = inFlightData;
+            // 算子状态可能仍在异步物化，完成后再和在途数据一起确认
+            operatorSnapshot.thenAccept(snapshot ->
+                    task.acknowledgeCheckpoint(barrierId, snapshot.withInputChannelState(channelState)));
+            barrierReceived = null;
+            inFlightData = null;
+            operatorSnapshot = null;
+        }
+    }
+
+    private boolean exceedsInFlightLimit() {
+        if (numInFlightRecords <= maxInFlightRecords) {
+            return false;
+        }
+        LOG.warning(String.format("任务 [%s] 为检查点 %d 保存的在途记录超过了上限 %d，放弃这个检查点。",
+                task.getTaskName(), currentCheckpointId, maxInFlightRecords));
+        barrierReceived = null;
+        inFlightData = null;
+        operatorSnapshot = null;
+        return true;
+    }
+
+    @Override
+    public void processRecord(Object record, long timestamp, int channelIndex) {
+        if (isCheckpointPending() && !barrierReceived[channelIndex]) {
+            // 带时间戳的记录连同时间戳一起保存，重放时才能得到相同的事件时间
+            Object inFlight = timestamp == TimestampAssigner.NO_TIMESTAMP ? record : new StreamRecord(record, timestamp);
+            inFlightData.computeIfAbsent(channelIndex, k -> new ArrayList<>()).add(inFlight);
+            numInFlightRecords++;
+            exceedsInFlightLimit();
+        }
+    }
+
+    private boolean isCheckpointPending() {
+        return barrierReceived != null;
+    }
+}
@@ -0,0 +1,32 @@
+package org.mini.flink.runtime.stream.mailbox;
+
+/**
+ * 投递到任务邮箱中的一个控制动作，例如触发检查点、刷新输出或停止任务。
+ * 邮件总是由任务线程在两条记录之间执行，因此动作中可以直接访问算子和状态，不需要加锁。
+ */
+public final class Mail {
+    private final Action action;
+    private final String description;
+
+    public Mail(Action action, String description) {
+        this.action = action;
+        this.description = description;
+    }
+
+    public void run() throws Exception {
+        action.run();
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    /**
+     * 邮件中要执行的动作。
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+}
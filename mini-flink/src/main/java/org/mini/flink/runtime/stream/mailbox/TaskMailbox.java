@@ -0,0 +1,116 @@
+package org.mini.flink.runtime.stream.mailbox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 任务的邮箱：任意线程都可以投递邮件，只有任务线程取出并执行邮件。
+ * <p>
+ * 任务线程在处理每条记录之前检查一次邮箱，有邮件时先把它们全部执行完再处理记录。
+ * 检查点、定时触发的动作和取消因此都与记录处理串行执行，任务内部不再需要任何锁。
+ * Source 任务的任务线程不处理记录，只在邮箱上等待并执行邮件，见 {@link #awaitMail()}。
+ * <p>
+ * 邮箱关闭（任务结束）之后投递的邮件会被拒绝。
+ */
+public class TaskMailbox {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final ArrayDeque<Mail> queue = new ArrayDeque<>();
+    // 【JUC知识点】: 任务线程每处理一条记录都要检查邮箱，这里只读一个 volatile 变量，不获取锁；
+    // 投递者在锁内先入队再写这个变量，任务线程读到 true 之后再加锁取邮件，一定能看到入队的邮件。
+    private volatile boolean hasNewMail;
+    private boolean closed;
+    // 邮件到达时唤醒可能正在等待输入的任务线程
+    private volatile Runnable wakeUpListener;
+
+    /**
+     * 投递一封邮件，可以在任意线程中调用。
+     * @return 邮箱已经关闭时返回 false，邮件不会被执行
+     */
+    public boolean put(Mail mail) {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            queue.add(mail);
+            hasNewMail = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        Runnable listener = wakeUpListener;
+        if (listener != null) {
+            listener.run();
+        }
+        return true;
+    }
+
+    /**
+     * @return 是否有尚未取出的邮件，只由任务线程调用
+     */
+    public boolean hasMail() {
+        return hasNewMail;
+    }
+
+    /**
+     * 阻塞直到邮箱中有邮件或者邮箱已经关闭，只由任务线程调用。
+     */
+    public void awaitMail() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (queue.isEmpty() && !closed) {
+                notEmpty.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 按投递顺序取出当前所有的邮件，只由任务线程调用。
+     */
+    public List<Mail> drain() {
+        if (!hasNewMail) {
+            return Collections.emptyList();
+        }
+        lock.lock();
+        try {
+            return takeAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 关闭邮箱，之后的投递都会被拒绝。
+     * @return 关闭时尚未执行的邮件
+     */
+    public List<Mail> close() {
+        lock.lock();
+        try {
+            closed = true;
+            return takeAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Mail> takeAll() {
+        List<Mail> mails = new ArrayList<>(queue);
+        queue.clear();
+        hasNewMail = false;
+        return mails;
+    }
+
+    /**
+     * 设置邮件到达时的回调，用于唤醒阻塞在输入上的任务线程。
+     */
+    public void setWakeUpListener(Runnable wakeUpListener) {
+        this.wakeUpListener = wakeUpListener;
+    }
+}
@@ -0,0 +1,12 @@
+package org.mini.flink.runtime.taskmanager;
+
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+
+/**
+ * 任务向 JobManager 确认检查点的出口。任务和 JobManager 在同一个进程中时就是 JobManager 本身，
+ * 否则由 TaskManager 通过控制连接转发给 JobManager。
+ */
+public interface CheckpointResponder {
+
+    void acknowledgeCheckpoint(long checkpointId, String taskName, TaskStateSnapshot stateSnapshot);
+}
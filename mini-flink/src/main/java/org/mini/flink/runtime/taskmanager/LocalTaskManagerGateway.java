@@ -0,0 +1,102 @@
+package org.mini.flink.runtime.taskmanager;
+
+import org.mini.flink.runtime.deployment.TaskDeploymentDescriptor;
+import org.mini.flink.runtime.state.CheckpointBarrier;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 与 JobManager 在同一个进程中的 TaskManager，所有调用直接转交给 {@link TaskManager}。
+ */
+public class LocalTaskManagerGateway implements TaskManagerGateway {
+    private final TaskManager taskManager;
+    private final CheckpointResponder checkpointResponder;
+    private final TaskFailureListener failureListener;
+
+    public LocalTaskManagerGateway(TaskManager taskManager, CheckpointResponder checkpointResponder,
+                                   TaskFailureListener failureListener) {
+        this.taskManager = taskManager;
+        this.checkpointResponder = checkpointResponder;
+        this.failureListener = failureListener;
+    }
+
+    @Override
+    public String getTaskManagerId() {
+        return "local";
+    }
+
+    @Override
+    public InetSocketAddress getDataAddress() {
+        return taskManager.getNetworkEnvironment().getDataAddress();
+    }
+
+    @Override
+    public int getNumberOfSlots() {
+        return taskManager.getNumberOfSlots();
+    }
+
+    @Override
+    public int getNumberOfAvailableSlots() {
+        return taskManager.getNumberOfAvailableSlots();
+    }
+
+    @Override
+    public List<Integer> allocateSlots(String jobId, int count) {
+        List<TaskSlot> slots = taskManager.allocateSlots(jobId, count);
+        if (slots == null) {
+            return null;
+        }
+        List<Integer> slotIndexes = new ArrayList<>(slots.size());
+        for (TaskSlot slot : slots) {
+            slotIndexes.add(slot.getSlotIndex());
+        }
+        return slotIndexes;
+    }
+
+    @Override
+    public void releaseSlots(String jobId) {
+        taskManager.releaseSlots(jobId);
+    }
+
+    @Override
+    public void submitTask(TaskDeploymentDescriptor deployment) throws Exception {
+        taskManager.deployTask(deployment, checkpointResponder, failureListener);
+    }
+
+    @Override
+    public void cancelTasks(String jobId, Collection<String> taskNames, Collection<Integer> channelIds) {
+        taskManager.cancelTasks(jobId, taskNames, channelIds);
+    }
+
+    @Override
+    public void triggerCheckpoint(String jobId, String taskName, CheckpointBarrier barrier) {
+        taskManager.triggerCheckpoint(jobId, taskName, barrier);
+    }
+
+    @Override
+    public void notifyCheckpointComplete(String jobId, long checkpointId) {
+        taskManager.notifyCheckpointComplete(jobId, checkpointId);
+    }
+
+    @Override
+    public void setSlotReleaseListener(Runnable slotReleaseListener) {
+        taskManager.addSlotReleaseListener(slotReleaseListener);
+    }
+
+    @Override
+    public void shutdown() {
+        taskManager.shutdown();
+    }
+
+    public TaskManager getTaskManager() {
+        return taskManager;
+    }
+
+    @Override
+    public String toString() {
+        return "LocalTaskManager{slots=" + getNumberOfSlots() + "}";
+    }
+}
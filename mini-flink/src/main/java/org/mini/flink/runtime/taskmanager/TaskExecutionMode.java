@@ -0,0 +1,47 @@
+package org.mini.flink.runtime.taskmanager;
+
+import org.mini.flink.util.VirtualThreads;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 任务的执行模式，决定每个任务及其辅助线程运行在哪种线程上。
+ */
+public enum TaskExecutionMode {
+
+    /**
+     * 每个任务独占一个平台线程。任务在等待数据或信用时一直占着这个线程，
+     * 每个线程都有独立的栈，一个 JVM 中能运行的任务数受限于几百到几千个线程。
+     */
+    PLATFORM_THREADS {
+        @Override
+        public ThreadFactory createThreadFactory(boolean daemon) {
+            return r -> {
+                Thread thread = new Thread(r);
+                thread.setDaemon(daemon);
+                return thread;
+            };
+        }
+    },
+
+    /**
+     * 每个任务运行在一个虚拟线程上（需要 Java 21）。任务在通道上 park 等待时会让出载体线程，
+     * 栈保存在堆上且按需增长，适合在一个节点上密集地运行大量低速率的小作业。
+     * 虚拟线程总是守护线程。
+     */
+    VIRTUAL_THREADS {
+        @Override
+        public ThreadFactory createThreadFactory(boolean daemon) {
+            return VirtualThreads.newThreadFactory();
+        }
+    };
+
+    /**
+     * @param daemon 是否创建守护线程，只对平台线程有效
+     */
+    public abstract ThreadFactory createThreadFactory(boolean daemon);
+
+    public boolean isSupported() {
+        return this != VIRTUAL_THREADS || VirtualThreads.isSupported();
+    }
+}
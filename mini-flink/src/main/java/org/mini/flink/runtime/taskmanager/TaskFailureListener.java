@@ -0,0 +1,13 @@
+package org.mini.flink.runtime.taskmanager;
+
+/**
+ * 任务向 JobManager 汇报失败的出口。任务和 JobManager 在同一个进程中时就是 JobManager 本身，
+ * 否则由 TaskManager 通过控制连接转发给 JobManager。
+ */
+public interface TaskFailureListener {
+
+    /**
+     * @param cause 任务线程上抛出的异常，被取消的任务在取消过程中抛出的异常不会汇报
+     */
+    void notifyTaskFailure(String jobId, String taskName, Throwable cause);
+}
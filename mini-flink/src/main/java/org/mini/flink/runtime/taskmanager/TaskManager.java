@@ -1,40 +1,343 @@
 package org.mini.flink.runtime.taskmanager;
 
+import org.mini.flink.runtime.deployment.ChannelDescriptor;
+import org.mini.flink.runtime.deployment.RecordWriterDescriptor;
+import org.mini.flink.runtime.deployment.TaskDeploymentDescriptor;
+import org.mini.flink.runtime.jobgraph.ExecutionConfig;
+import org.mini.flink.runtime.metrics.MetricGroup;
+import org.mini.flink.runtime.metrics.MetricRegistry;
+import org.mini.flink.runtime.metrics.TaskIOMetrics;
+import org.mini.flink.runtime.net.NetworkEnvironment;
+import org.mini.flink.runtime.state.CheckpointBarrier;
+import org.mini.flink.runtime.stream.DataChannel;
+import org.mini.flink.runtime.stream.RecordWriter;
 import org.mini.flink.runtime.stream.StreamTask;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 /**
  * TaskManager 负责执行 JobManager 分配的任务。
+ * <p>
+ * TaskManager 拥有固定数量的 {@link TaskSlot}，JobManager 部署作业之前先按作业需要的槽数申请，
+ * 申请是“全有或全无”的：要么一次拿到全部的槽，要么一个也不占用，避免两个作业各占一部分槽后互相等待。
+ * <p>
+ * 任务默认运行在平台线程上；选择 {@link TaskExecutionMode#VIRTUAL_THREADS} 时运行在虚拟线程上，
+ * 一个 JVM 可以承载上万个子任务。
+ * <p>
+ * TaskManager 根据 {@link TaskDeploymentDescriptor} 在本地创建任务的通道：上下游都在这里时使用进程内通道，
+ * 否则通过 {@link NetworkEnvironment} 与其他 TaskManager 交换数据。多进程部署见 {@link TaskManagerRunner}。
+ * <p>
+ * 任务的指标注册在 {@code taskmanager -> 作业 -> 顶点 -> 子任务} 的 {@link MetricGroup} 层级中，
+ * 作业在这个 TaskManager 上的所有槽都释放后关闭作业的指标组。
  */
 public class TaskManager {
     private static final Logger LOG = Logger.getLogger(TaskManager.class.getName());
     private final int numberOfSlots;
+    private final TaskExecutionMode executionMode;
+    private final List<TaskSlot> slots;
 
-    // 【JUC知识点】: 使用 ThreadPoolExecutor 作为 TaskManager 的核心。
-    // 这里的 corePoolSize 和 maximumPoolSize 设置为 numberOfSlots，
-    // 完美模拟了 Flink 中 TaskManager 拥有固定数量的 TaskSlot。
-    // 每个提交到这个线程池的 Runnable 就是一个 Task。
-    private final ExecutorService taskExecutor;
+    // 保证检查空闲槽数量和分配槽是一个原子操作；槽不足时由 JobManager 排队等待，这里不等待
+    private final ReentrantLock slotLock = new ReentrantLock();
+    private final List<Runnable> slotReleaseListeners = new CopyOnWriteArrayList<>();
+    private final NetworkEnvironment networkEnvironment = new NetworkEnvironment();
+    private volatile ScheduledExecutorService metricsReporter;
+    private final MetricGroup metricGroup;
+    // Key: 作业 ID, Value: 作业在这个 TaskManager 上的指标组
+    private final Map<String, MetricGroup> jobMetricGroups = new ConcurrentHashMap<>();
 
     public TaskManager(int numberOfSlots) {
+        this(numberOfSlots, TaskExecutionMode.PLATFORM_THREADS);
+    }
+
+    /**
+     * @param executionMode 任务的执行模式，当前 JVM 不支持虚拟线程时退回到平台线程
+     */
+    public TaskManager(int numberOfSlots, TaskExecutionMode executionMode) {
+        this(numberOfSlots, executionMode, MetricRegistry.getDefault());
+    }
+
+    /**
+     * @param metricRegistry 任务指标注册到的地方，通常是进程内共用的 {@link MetricRegistry#getDefault()}
+     */
+    public TaskManager(int numberOfSlots, TaskExecutionMode executionMode, MetricRegistry metricRegistry) {
+        if (numberOfSlots <= 0) {
+            throw new IllegalArgumentException("任务槽数量必须大于 0");
+        }
+        if (!executionMode.isSupported()) {
+            LOG.warning("当前 JVM (" + System.getProperty("java.version") + ") 不支持 " + executionMode
+                    + "，任务将运行在平台线程上。");
+            executionMode = TaskExecutionMode.PLATFORM_THREADS;
+        }
         this.numberOfSlots = numberOfSlots;
-        this.taskExecutor = Executors.newFixedThreadPool(numberOfSlots);
-        LOG.info("TaskManager 已启动，拥有 " + numberOfSlots + " 个任务槽。");
+        this.executionMode = executionMode;
+        List<TaskSlot> slotList = new ArrayList<>(numberOfSlots);
+        for (int i = 0; i < numberOfSlots; i++) {
+            slotList.add(new TaskSlot(i, executionMode, this::onSlotReleased));
+        }
+        this.slots = Collections.unmodifiableList(slotList);
+        this.metricGroup = new MetricGroup(metricRegistry, "taskmanager");
+        LOG.info("TaskManager 已启动，拥有 " + numberOfSlots + " 个任务槽，执行模式: " + executionMode + "。");
+    }
+
+    /**
+     * 为作业申请指定数量的空闲槽，不等待。
+     * @return 分配给作业的槽；空闲槽不足时返回 null，此时不占用任何槽
+     */
+    public List<TaskSlot> allocateSlots(String jobId, int count) {
+        if (count > numberOfSlots) {
+            return null;
+        }
+        slotLock.lock();
+        try {
+            if (getNumberOfAvailableSlots() < count) {
+                return null;
+            }
+            List<TaskSlot> allocated = new ArrayList<>(count);
+            for (TaskSlot slot : slots) {
+                if (allocated.size() == count) {
+                    break;
+                }
+                if (slot.isAvailable()) {
+                    slot.allocate(jobId);
+                    allocated.add(slot);
+                }
+            }
+            LOG.info("为作业 " + jobId + " 分配了 " + count + " 个任务槽，剩余空闲 " + getNumberOfAvailableSlots() + " 个。");
+            return allocated;
+        } finally {
+            slotLock.unlock();
+        }
+    }
+
+    /**
+     * 停止作业在所有槽上的任务并释放这些槽。
+     */
+    public void releaseSlots(String jobId) {
+        for (TaskSlot slot : slots) {
+            if (jobId.equals(slot.getJobId())) {
+                slot.free();
+            }
+        }
+    }
+
+    private void onSlotReleased(String jobId) {
+        boolean jobReleased = true;
+        for (TaskSlot slot : slots) {
+            if (jobId.equals(slot.getJobId())) {
+                jobReleased = false;
+                break;
+            }
+        }
+        if (jobReleased) {
+            networkEnvironment.releaseJob(jobId);
+            MetricGroup jobMetricGroup = jobMetricGroups.remove(jobId);
+            if (jobMetricGroup != null) {
+                jobMetricGroup.close();
+            }
+        }
+        for (Runnable listener : slotReleaseListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * 注册槽被释放时的回调，在释放槽的线程中执行。
+     */
+    public void addSlotReleaseListener(Runnable listener) {
+        slotReleaseListeners.add(listener);
+    }
+
+    public void submitTask(StreamTask task, TaskSlot slot) {
+        LOG.info("TaskManager 接收到任务: " + task.getTaskName() + "，提交到任务槽 " + slot.getSlotIndex() + " 执行。");
+        slot.execute(task);
+    }
+
+    /**
+     * 按部署描述创建任务的输入输出通道和任务本身，并在指定的槽中启动任务。
+     * @param checkpointResponder 任务确认检查点的出口
+     * @param failureListener 任务汇报失败的出口
+     */
+    public void deployTask(TaskDeploymentDescriptor deployment, CheckpointResponder checkpointResponder,
+                           TaskFailureListener failureListener) throws IOException {
+        TaskSlot slot = slots.get(deployment.getSlotIndex());
+        if (!deployment.getJobId().equals(slot.getJobId())) {
+            throw new IllegalStateException("任务槽 " + slot.getSlotIndex() + " 没有分配给作业 " + deployment.getJobId());
+        }
+        String jobId = deployment.getJobId();
+        ExecutionConfig executionConfig = deployment.getExecutionConfig();
+        List<DataChannel> inputs = new ArrayList<>();
+        for (ChannelDescriptor channel : deployment.getInputChannels()) {
+            inputs.add(channel.isRemote()
+                    ? networkEnvironment.getOrCreateRemoteInputChannel(jobId, channel.getChannelId(),
+                    executionConfig.getBuffersPerChannel(), executionConfig.getBufferSize())
+                    : networkEnvironment.getOrCreateLocalChannel(jobId, channel.getChannelId(),
+                    channel.getChannelType(), channel.getCapacity()));
+        }
+        List<RecordWriter> outputs = new ArrayList<>();
+        for (RecordWriterDescriptor output : deployment.getOutputs()) {
+            List<DataChannel> channels = new ArrayList<>();
+            for (ChannelDescriptor channel : output.getChannels()) {
+                channels.add(channel.isRemote()
+                        ? networkEnvironment.createRemoteOutputChannel(jobId, channel.getChannelId(), channel.getConsumerAddress(),
+                        executionConfig.getBuffersPerChannel(), executionConfig.getBufferSize(), output.getRecordSerializer())
+                        : networkEnvironment.getOrCreateLocalChannel(jobId, channel.getChannelId(),
+                        channel.getChannelType(), channel.getCapacity()));
+            }
+            outputs.add(new RecordWriter(output.getPartitioner(), channels, executionConfig.getBufferSize(),
+                    executionConfig.getBuffersPerChannel(), executionConfig.getBufferTimeout() == 0));
+        }
+        MetricGroup taskMetricGroup = jobMetricGroups
+                .computeIfAbsent(jobId, id -> metricGroup.addGroup("job_name", deployment.getJobName()))
+                .addGroup("task_name", deployment.getVertexName())
+                .addGroup("subtask_index", String.valueOf(deployment.getSubtaskIndex()));
+        StreamTask task = new StreamTask(deployment.getTaskName(), deployment.getSubtaskIndex(), deployment.getParallelism(),
+                deployment.getChainedOperators(), deployment.getInputKeySelector(), deployment.getWatermarkStrategy(),
+                inputs, outputs, checkpointResponder, executionConfig, deployment.getCheckpointConfig(),
+                deployment.getRestoredState(), taskMetricGroup);
+        task.setFailureListener(cause -> failureListener.notifyTaskFailure(jobId, deployment.getTaskName(), cause));
+        slot.setSlotSharingGroup(deployment.getSlotSharingGroup());
+        submitTask(task, slot);
+    }
+
+    /**
+     * 取消作业的部分任务并释放它们使用的通道，任务所在的槽保留给作业，用于重新部署这些任务。
+     * @param channelIds 这些任务之间的通道，其中不在这个 TaskManager 上的通道被忽略
+     */
+    public void cancelTasks(String jobId, Collection<String> taskNames, Collection<Integer> channelIds) {
+        int canceled = 0;
+        for (TaskSlot slot : slots) {
+            if (jobId.equals(slot.getJobId())) {
+                canceled += slot.cancelTasks(taskNames);
+            }
+        }
+        networkEnvironment.releaseChannels(jobId, channelIds);
+        LOG.info("取消了作业 " + jobId + " 的 " + canceled + " 个任务。");
+    }
+
+    /**
+     * 在作业的一个 Source 任务中触发检查点。
+     */
+    public void triggerCheckpoint(String jobId, String taskName, CheckpointBarrier barrier) {
+        for (StreamTask task : getTasks(jobId)) {
+            if (task.getTaskName().equals(taskName)) {
+                task.triggerCheckpoint(barrier);
+                return;
+            }
+        }
+        LOG.warning("找不到作业 " + jobId + " 的任务 [" + taskName + "]，忽略检查点 " + barrier.getCheckpointId());
+    }
+
+    public void notifyCheckpointComplete(String jobId, long checkpointId) {
+        for (StreamTask task : getTasks(jobId)) {
+            task.notifyCheckpointComplete(checkpointId);
+        }
+    }
+
+    private List<StreamTask> getTasks(String jobId) {
+        List<StreamTask> tasks = new ArrayList<>();
+        for (TaskSlot slot : slots) {
+            if (jobId.equals(slot.getJobId())) {
+                tasks.addAll(slot.getTasks());
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * 开始监听其他 TaskManager 的数据连接，多进程部署时调用。
+     * @param port 0 表示随机选择一个空闲端口
+     * @return 实际监听的数据地址
+     */
+    public InetSocketAddress startNetwork(String host, int port) throws IOException {
+        return networkEnvironment.start(host, port);
+    }
+
+    public NetworkEnvironment getNetworkEnvironment() {
+        return networkEnvironment;
+    }
+
+    public TaskExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public int getNumberOfSlots() {
+        return numberOfSlots;
+    }
+
+    public int getNumberOfAvailableSlots() {
+        int available = 0;
+        for (TaskSlot slot : slots) {
+            if (slot.isAvailable()) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    public List<TaskSlot> getSlots() {
+        return slots;
+    }
+
+    public MetricGroup getMetricGroup() {
+        return metricGroup;
+    }
+
+    /**
+     * 采样所有任务自上次采样以来的空闲、反压和繁忙时间占比。
+     * 反压占比高说明下游处理不过来，空闲占比高说明上游数据不足。
+     */
+    public Map<String, TaskIOMetrics.TimeRatios> getTaskMetrics() {
+        Map<String, TaskIOMetrics.TimeRatios> metrics = new LinkedHashMap<>();
+        for (TaskSlot slot : slots) {
+            for (StreamTask task : slot.getTasks()) {
+                metrics.put(task.getTaskName(), task.getIOMetrics().sample());
+            }
+        }
+        return metrics;
     }
 
-    public void submitTask(StreamTask task) {
-        LOG.info("TaskManager 接收到任务: " + task.getClass().getSimpleName() + "，并提交到任务槽执行。");
-        taskExecutor.submit(task);
+    /**
+     * 按固定间隔把各任务的反压情况打印到日志中。
+     */
+    public synchronized void startBackPressureMonitor(long intervalMillis) {
+        if (metricsReporter != null) {
+            return;
+        }
+        metricsReporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "BackPressure-Monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metricsReporter.scheduleAtFixedRate(() -> {
+            for (Map.Entry<String, TaskIOMetrics.TimeRatios> entry : getTaskMetrics().entrySet()) {
+                LOG.info("任务 [" + entry.getKey() + "] " + entry.getValue());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
     }
 
     public void shutdown() {
         LOG.info("TaskManager 正在关闭...");
-        taskExecutor.shutdownNow();
+        if (metricsReporter != null) {
+            metricsReporter.shutdownNow();
+        }
+        for (TaskSlot slot : slots) {
+            slot.free();
+        }
+        networkEnvironment.shutdown();
+        metricGroup.close();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package org.mini.flink.runtime.taskmanager;
+
+import org.mini.flink.runtime.deployment.TaskDeploymentDescriptor;
+import org.mini.flink.runtime.state.CheckpointBarrier;
+
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JobManager 眼中的一个 TaskManager。TaskManager 可以和 JobManager 在同一个进程中（{@link LocalTaskManagerGateway}），
+ * 也可以是通过控制连接注册上来的另一个进程，JobManager 对两者的调度和检查点协调完全相同。
+ */
+public interface TaskManagerGateway {
+
+    /**
+     * @return 用于日志的 TaskManager 标识
+     */
+    String getTaskManagerId();
+
+    /**
+     * @return TaskManager 接收其他 TaskManager 数据连接的地址，没有监听时为 null，此时只能承载进程内的通道
+     */
+    InetSocketAddress getDataAddress();
+
+    int getNumberOfSlots();
+
+    int getNumberOfAvailableSlots();
+
+    /**
+     * 不等待地为作业申请槽，“全有或全无”。
+     * @return 分配的槽的下标；空闲槽不足时返回 null，此时不占用任何槽
+     */
+    List<Integer> allocateSlots(String jobId, int count) throws Exception;
+
+    /**
+     * 停止作业在这个 TaskManager 上的所有任务并释放它占用的槽。
+     */
+    void releaseSlots(String jobId);
+
+    void submitTask(TaskDeploymentDescriptor deployment) throws Exception;
+
+    /**
+     * 取消作业在这个 TaskManager 上的部分任务并释放它们之间的通道，返回时任务已被通知取消，槽仍由作业占用。
+     * @param channelIds 这些任务之间的通道，不在这个 TaskManager 上的通道被忽略
+     */
+    void cancelTasks(String jobId, Collection<String> taskNames, Collection<Integer> channelIds) throws Exception;
+
+    /**
+     * 在一个 Source 任务中触发检查点，不等待检查点执行。
+     */
+    void triggerCheckpoint(String jobId, String taskName, CheckpointBarrier barrier);
+
+    /**
+     * 通知这个 TaskManager 上作业的所有任务检查点已经完成。
+     */
+    void notifyCheckpointComplete(String jobId, long checkpointId);
+
+    /**
+     * 设置槽被释放时的回调，JobManager 借此唤醒排队等待槽的作业。
+     */
+    void setSlotReleaseListener(Runnable slotReleaseListener);
+
+    void shutdown();
+}
@@ -0,0 +1,166 @@
+package org.mini.flink.runtime.taskmanager;
+
+import org.mini.flink.runtime.rpc.JobManagerMessages;
+import org.mini.flink.runtime.rpc.RpcConnection;
+import org.mini.flink.runtime.rpc.TaskManagerMessages;
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+import org.mini.flink.util.InstantiationUtil;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Logger;
+
+/**
+ * 在独立进程中运行一个 TaskManager：监听数据端口，连接 JobManager 的控制端口并注册，
+ * 之后执行 JobManager 发来的指令，直到收到关闭消息或与 JobManager 的连接断开。
+ * <pre>
+ * java -cp target/classes org.mini.flink.runtime.taskmanager.TaskManagerRunner \
+ *     --jobmanager 127.0.0.1:6123 [--slots 2] [--host 127.0.0.1] [--data-port 0] [--mode platform|virtual]
+ * </pre>
+ */
+public class TaskManagerRunner {
+    private static final Logger LOG = Logger.getLogger(TaskManagerRunner.class.getName());
+    private static final long REGISTRATION_TIMEOUT_MILLIS = 30_000;
+
+    private final TaskManager taskManager;
+    private final RpcConnection connection;
+    private final String taskManagerId;
+    // 【JUC知识点】: 主线程在 CountDownLatch 上等待，关闭消息或连接断开时计数归零，进程随之退出
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    public TaskManagerRunner(TaskManager taskManager, InetSocketAddress jobManagerAddress) throws Exception {
+        this.taskManager = taskManager;
+        this.taskManagerId = "tm-" + UUID.randomUUID().toString().substring(0, 8);
+        Socket socket = new Socket(jobManagerAddress.getAddress(), jobManagerAddress.getPort());
+        this.connection = new RpcConnection(socket, "JobManager@" + jobManagerAddress);
+    }
+
+    /**
+     * 向 JobManager 注册，之后任务的检查点确认、任务失败和槽的释放都通过控制连接汇报给 JobManager。
+     */
+    public void start() throws Exception {
+        taskManager.addSlotReleaseListener(() -> connection.tell(
+                new JobManagerMessages.SlotsReleased(taskManager.getNumberOfAvailableSlots())));
+        connection.setCloseListener(terminated::countDown);
+        connection.start(this::handle);
+        connection.ask(new JobManagerMessages.RegisterTaskManager(taskManagerId, taskManager.getNumberOfSlots(),
+                taskManager.getNetworkEnvironment().getDataAddress()), REGISTRATION_TIMEOUT_MILLIS);
+        LOG.info("TaskManager [" + taskManagerId + "] 已向 JobManager 注册。");
+    }
+
+    private Object handle(Object message) throws Exception {
+        if (message instanceof TaskManagerMessages.AllocateSlots) {
+            TaskManagerMessages.AllocateSlots request = (TaskManagerMessages.AllocateSlots) message;
+            List<TaskSlot> slots = taskManager.allocateSlots(request.getJobId(), request.getCount());
+            List<Integer> slotIndexes = null;
+            if (slots != null) {
+                slotIndexes = new ArrayList<>(slots.size());
+                for (TaskSlot slot : slots) {
+                    slotIndexes.add(slot.getSlotIndex());
+                }
+            }
+            return new TaskManagerMessages.SlotAllocation(slotIndexes, taskManager.getNumberOfAvailableSlots());
+        } else if (message instanceof TaskManagerMessages.ReleaseSlots) {
+            taskManager.releaseSlots(((TaskManagerMessages.ReleaseSlots) message).getJobId());
+        } else if (message instanceof TaskManagerMessages.SubmitTask) {
+            taskManager.deployTask(((TaskManagerMessages.SubmitTask) message).getDeployment(), this::acknowledgeCheckpoint,
+                    this::notifyTaskFailure);
+        } else if (message instanceof TaskManagerMessages.CancelTasks) {
+            TaskManagerMessages.CancelTasks request = (TaskManagerMessages.CancelTasks) message;
+            taskManager.cancelTasks(request.getJobId(), request.getTaskNames(), request.getChannelIds());
+        } else if (message instanceof TaskManagerMessages.TriggerCheckpoint) {
+            TaskManagerMessages.TriggerCheckpoint request = (TaskManagerMessages.TriggerCheckpoint) message;
+            taskManager.triggerCheckpoint(request.getJobId(), request.getTaskName(), request.getBarrier());
+        } else if (message instanceof TaskManagerMessages.NotifyCheckpointComplete) {
+            TaskManagerMessages.NotifyCheckpointComplete request = (TaskManagerMessages.NotifyCheckpointComplete) message;
+            taskManager.notifyCheckpointComplete(request.getJobId(), request.getCheckpointId());
+        } else if (message instanceof TaskManagerMessages.Shutdown) {
+            LOG.info("TaskManager [" + taskManagerId + "] 收到关闭指令。");
+            terminated.countDown();
+        } else {
+            throw new IllegalArgumentException("未知的消息: " + message);
+        }
+        return null;
+    }
+
+    private void acknowledgeCheckpoint(long checkpointId, String taskName, TaskStateSnapshot stateSnapshot) {
+        connection.tell(new JobManagerMessages.AcknowledgeCheckpoint(checkpointId, taskName, stateSnapshot));
+    }
+
+    private void notifyTaskFailure(String jobId, String taskName, Throwable cause) {
+        connection.tell(new JobManagerMessages.TaskFailed(jobId, taskName, serializableCause(cause)));
+    }
+
+    /**
+     * 用户代码抛出的异常不一定能被序列化，写出一半失败会破坏控制连接上的对象流，
+     * 这种情况下改为发送一个只带原始描述和调用栈的异常。
+     */
+    private static Throwable serializableCause(Throwable cause) {
+        try {
+            InstantiationUtil.serializeObject(cause);
+            return cause;
+        } catch (IOException e) {
+            Exception substitute = new Exception(cause.toString());
+            substitute.setStackTrace(cause.getStackTrace());
+            return substitute;
+        }
+    }
+
+    /**
+     * 等待关闭指令或与 JobManager 的连接断开，然后停止所有任务。
+     */
+    public void awaitTermination() throws InterruptedException {
+        terminated.await();
+        taskManager.shutdown();
+        connection.close();
+        LOG.info("TaskManager [" + taskManagerId + "] 已退出。");
+    }
+
+    public static void main(String[] args) throws Exception {
+        String jobManager = null;
+        int slots = 2;
+        String host = "127.0.0.1";
+        int dataPort = 0;
+        TaskExecutionMode mode = TaskExecutionMode.PLATFORM_THREADS;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--jobmanager":
+                    jobManager = args[i + 1];
+                    break;
+                case "--slots":
+                    slots = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--host":
+                    host = args[i + 1];
+                    break;
+                case "--data-port":
+                    dataPort = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--mode":
+                    mode = args[i + 1].equalsIgnoreCase("virtual")
+                            ? TaskExecutionMode.VIRTUAL_THREADS : TaskExecutionMode.PLATFORM_THREADS;
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知的参数: " + args[i]);
+            }
+        }
+        if (jobManager == null) {
+            throw new IllegalArgumentException("缺少参数 --jobmanager host:port");
+        }
+        int separator = jobManager.lastIndexOf(':');
+        InetSocketAddress jobManagerAddress = new InetSocketAddress(jobManager.substring(0, separator),
+                Integer.parseInt(jobManager.substring(separator + 1)));
+
+        TaskManager taskManager = new TaskManager(slots, mode);
+        taskManager.startNetwork(host, dataPort);
+        TaskManagerRunner runner = new TaskManagerRunner(taskManager, jobManagerAddress);
+        runner.start();
+        runner.awaitTermination();
+        System.exit(0);
+    }
+}
@@ -2,30 +2,183 @@ package org.mini.flink.runtime.taskmanager;
 
 import org.mini.flink.runtime.stream.StreamTask;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
- * 任务槽，代表 TaskManager 中的一个执行资源。
- * 这里简化为一个单线程的 Executor。
+ * 任务槽，代表 TaskManager 中的一份执行资源，同一时刻只属于一个作业。
+ * <p>
+ * 借助槽共享，一个槽承载同一个槽共享组中每个顶点的一个并行实例，也就是一条完整的流水线切片。
+ * 流水线上的任务都是长期运行的，所以槽为每个任务分配一个线程：槽的数量决定了作业能并行运行多少条流水线，
+ * 而不会因为线程不够导致部分任务永远无法启动。
+ * <p>
+ * 槽上的所有任务都结束后，槽自动释放并通知 TaskManager，排队等待槽的作业可以继续部署。
+ * 槽上有任务失败时不会自动释放：JobManager 会取消失败任务所在的区域并把新的任务部署回同一个槽，
+ * 或者在不再重启时释放作业的所有槽。
  */
 public class TaskSlot {
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
-    private Future<?> taskFuture;
+    private final int slotIndex;
+    private final TaskExecutionMode executionMode;
+    // 槽被释放时的回调，参数为释放前占用槽的作业，由 TaskManager 提供
+    private final Consumer<String> releaseListener;
 
-    public boolean isAvailable() {
-        return taskFuture == null || taskFuture.isDone();
+    // 以下字段都由槽自身的锁保护
+    // 占用该槽的作业，空闲时为 null
+    private String jobId;
+    private String slotSharingGroup;
+    private ExecutorService executor;
+    private final List<StreamTask> tasks = new ArrayList<>();
+    private final Set<StreamTask> runningTasks = new HashSet<>();
+
+    TaskSlot(int slotIndex, TaskExecutionMode executionMode, Consumer<String> releaseListener) {
+        this.slotIndex = slotIndex;
+        this.executionMode = executionMode;
+        this.releaseListener = releaseListener;
+    }
+
+    public int getSlotIndex() {
+        return slotIndex;
+    }
+
+    public synchronized boolean isAvailable() {
+        return jobId == null;
+    }
+
+    public synchronized String getJobId() {
+        return jobId;
+    }
+
+    public synchronized String getSlotSharingGroup() {
+        return slotSharingGroup;
+    }
+
+    public synchronized List<StreamTask> getTasks() {
+        return new ArrayList<>(tasks);
+    }
+
+    synchronized void allocate(String jobId) {
+        if (this.jobId != null) {
+            throw new IllegalStateException("任务槽 " + slotIndex + " 已被作业 " + this.jobId + " 占用!");
+        }
+        this.jobId = jobId;
+        this.executor = Executors.newCachedThreadPool(executionMode.createThreadFactory(false));
+    }
+
+    /**
+     * 记录这个槽承载的是哪个槽共享组，仅用于日志和监控。
+     */
+    public synchronized void setSlotSharingGroup(String slotSharingGroup) {
+        this.slotSharingGroup = slotSharingGroup;
     }
 
-    public void execute(StreamTask task) {
-        if (!isAvailable()) {
-            throw new IllegalStateException("任务槽已被占用!");
+    /**
+     * 在槽中启动一个任务，任务独占槽内的一个线程直到结束。
+     */
+    public synchronized void execute(StreamTask task) {
+        if (jobId == null) {
+            throw new IllegalStateException("任务槽 " + slotIndex + " 尚未分配给任何作业!");
         }
-        this.taskFuture = executor.submit(task);
+        task.setThreadFactory(executionMode.createThreadFactory(true));
+        tasks.add(task);
+        runningTasks.add(task);
+        ExecutorService allocationExecutor = executor;
+        allocationExecutor.submit(() -> {
+            Thread.currentThread().setName("TaskSlot-" + slotIndex + " " + task.getTaskName());
+            try {
+                task.run();
+            } finally {
+                onTaskFinished(allocationExecutor, task);
+            }
+        });
     }
 
-    public void shutdown() {
+    /**
+     * @param allocationExecutor 任务启动时槽的执行器，用来识别槽被释放之后才结束的旧任务
+     */
+    private void onTaskFinished(ExecutorService allocationExecutor, StreamTask task) {
+        String releasedJobId = null;
+        synchronized (this) {
+            // 已被取消并移出槽的任务不再影响槽的状态
+            if (executor != allocationExecutor || !runningTasks.remove(task)) {
+                return;
+            }
+            if (runningTasks.isEmpty() && jobId != null && !hasFailedTask()) {
+                releasedJobId = jobId;
+                reset();
+            }
+        }
+        // 在槽的锁之外回调，TaskManager 的回调会获取它自己的锁
+        if (releasedJobId != null) {
+            releaseListener.accept(releasedJobId);
+        }
+    }
+
+    private boolean hasFailedTask() {
+        for (StreamTask task : tasks) {
+            if (task.isFailed()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 取消槽上给定名称的任务并把它们移出槽，槽仍然属于当前作业，之后可以部署新的任务。
+     * @return 取消的任务数
+     */
+    synchronized int cancelTasks(Collection<String> taskNames) {
+        int canceled = 0;
+        Iterator<StreamTask> iterator = tasks.iterator();
+        while (iterator.hasNext()) {
+            StreamTask task = iterator.next();
+            if (taskNames.contains(task.getTaskName())) {
+                task.cancel();
+                iterator.remove();
+                runningTasks.remove(task);
+                canceled++;
+            }
+        }
+        return canceled;
+    }
+
+    /**
+     * 停止槽上的所有任务并释放槽。
+     */
+    void free() {
+        String releasedJobId;
+        synchronized (this) {
+            if (jobId == null) {
+                return;
+            }
+            releasedJobId = jobId;
+            for (StreamTask task : tasks) {
+                task.stop();
+            }
+            reset();
+        }
+        releaseListener.accept(releasedJobId);
+    }
+
+    private void reset() {
+        // 【JUC知识点】: shutdownNow 会中断仍在运行的任务线程，阻塞在通道上的任务因此能够退出。
         executor.shutdownNow();
+        executor = null;
+        runningTasks.clear();
+        jobId = null;
+        slotSharingGroup = null;
+        tasks.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TaskSlot{" + slotIndex + (jobId == null ? ", free" : ", job=" + jobId + ", group=" + slotSharingGroup
+                + ", tasks=" + tasks.size()) + "}";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package org.mini.flink.runtime.timer;
+
+import org.mini.flink.api.TimerService;
+import org.mini.flink.api.state.MapState;
+import org.mini.flink.api.state.MapStateDescriptor;
+import org.mini.flink.runtime.state.heap.HeapKeyedStateBackend;
+
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 堆上的事件时间定时器服务。
+ * <p>
+ * 定时器同时保存在两处：{@link InternalTimerHeap} 负责按时间排序和去重，
+ * 键控状态中的一个 {@link MapState}（Key: 定时器时间）负责持久化。后者随键控状态一起参与写时复制快照、
+ * 增量检查点以及按键组重新分配，因此恢复和改变并行度之后定时器都不会丢失；恢复时再据此重建堆。
+ * <p>
+ * 定时器触发时立即从两处删除，已经处理完的时间窗口不会在内存中留下任何东西。
+ * <p>
+ * 只由任务线程访问，不是线程安全的。
+ */
+public class HeapInternalTimerService implements TimerService {
+
+    /** 保存定时器的键控状态名称，用户状态不要使用这个名称 */
+    public static final String TIMER_STATE_NAME = "_event_time_timers";
+
+    private final HeapKeyedStateBackend keyedStateBackend;
+    private final LongSupplier currentTimestampSupplier;
+    private final InternalTimerHeap eventTimeTimers = new InternalTimerHeap();
+    private final MapState<Long, Boolean> timerState;
+    private long currentWatermark = Long.MIN_VALUE;
+
+    /**
+     * @param currentTimestampSupplier 当前记录的时间戳，由任务提供
+     */
+    public HeapInternalTimerService(HeapKeyedStateBackend keyedStateBackend, LongSupplier currentTimestampSupplier) {
+        this.keyedStateBackend = keyedStateBackend;
+        this.currentTimestampSupplier = currentTimestampSupplier;
+        // 状态注册时会消耗恢复的数据，先取出来重建堆
+        Map<?, ?> restoredTimers = keyedStateBackend.getRestoredState(TIMER_STATE_NAME);
+        this.timerState = keyedStateBackend.getMapState(new MapStateDescriptor<>(TIMER_STATE_NAME));
+        if (restoredTimers != null) {
+            for (Map.Entry<?, ?> entry : restoredTimers.entrySet()) {
+                for (Object timestamp : ((Map<?, ?>) entry.getValue()).keySet()) {
+                    eventTimeTimers.add(new InternalTimer(entry.getKey(), ((Number) timestamp).longValue()));
+                }
+            }
+        }
+    }
+
+    @Override
+    public long currentWatermark() {
+        return currentWatermark;
+    }
+
+    @Override
+    public long currentTimestamp() {
+        return currentTimestampSupplier.getAsLong();
+    }
+
+    @Override
+    public Object getCurrentKey() {
+        return keyedStateBackend.getCurrentKey();
+    }
+
+    @Override
+    public void registerEventTimeTimer(long time) {
+        Object key = currentKey();
+        if (eventTimeTimers.add(new InternalTimer(key, time))) {
+            timerState.put(time, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public void deleteEventTimeTimer(long time) {
+        Object key = currentKey();
+        if (eventTimeTimers.remove(new InternalTimer(key, time))) {
+            timerState.remove(time);
+        }
+    }
+
+    private Object currentKey() {
+        Object key = keyedStateBackend.getCurrentKey();
+        if (key == null) {
+            throw new IllegalStateException("没有设置当前键，定时器只能在处理记录或定时器回调时注册");
+        }
+        return key;
+    }
+
+    /**
+     * 推进水位线。之后通过 {@link #pollExpiredTimer()} 依次取出所有到期的定时器。
+     */
+    public void advanceWatermark(long watermark) {
+        currentWatermark = watermark;
+    }
+
+    /**
+     * 取出并删除下一个触发时间不晚于当前水位线的定时器，同时把状态后端的当前键切换到定时器的键。
+     * @return 到期的定时器，没有时返回 null
+     */
+    public InternalTimer pollExpiredTimer() {
+        InternalTimer timer = eventTimeTimers.peek();
+        if (timer == null || timer.getTimestamp() > currentWatermark) {
+            return null;
+        }
+        eventTimeTimers.poll();
+        keyedStateBackend.setCurrentKey(timer.getKey());
+        timerState.remove(timer.getTimestamp());
+        return timer;
+    }
+
+    public int numberOfTimers() {
+        return eventTimeTimers.size();
+    }
+}
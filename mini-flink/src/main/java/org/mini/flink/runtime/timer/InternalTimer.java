@@ -0,0 +1,56 @@
+package org.mini.flink.runtime.timer;
+
+/**
+ * 一个事件时间定时器：键和触发时间。两个定时器的键和时间都相同时视为同一个定时器。
+ */
+public final class InternalTimer {
+    static final int NOT_CONTAINED = -1;
+
+    private final Object key;
+    private final long timestamp;
+    // 在 {@link InternalTimerHeap} 数组中的下标，删除定时器时据此直接定位，不需要遍历
+    private int heapIndex = NOT_CONTAINED;
+
+    public InternalTimer(Object key, long timestamp) {
+        this.key = key;
+        this.timestamp = timestamp;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    int getHeapIndex() {
+        return heapIndex;
+    }
+
+    void setHeapIndex(int heapIndex) {
+        this.heapIndex = heapIndex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof InternalTimer)) {
+            return false;
+        }
+        InternalTimer that = (InternalTimer) o;
+        return timestamp == that.timestamp && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(timestamp) + key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "InternalTimer{key=" + key + ", timestamp=" + timestamp + "}";
+    }
+}
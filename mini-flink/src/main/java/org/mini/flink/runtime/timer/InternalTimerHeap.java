@@ -0,0 +1,134 @@
+package org.mini.flink.runtime.timer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 按触发时间排序的定时器小顶堆，同时是一个集合：重复添加同一个定时器不会产生第二个元素。
+ * <p>
+ * 与 {@code PriorityQueue} 加 {@code HashSet} 的组合相比，每个定时器记录自己在堆数组中的下标，
+ * 删除任意定时器只需要 O(log n)，而不是 {@code PriorityQueue#remove(Object)} 的线性查找。
+ * <p>
+ * 只由任务线程访问，不是线程安全的。
+ */
+public class InternalTimerHeap {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private InternalTimer[] queue = new InternalTimer[DEFAULT_CAPACITY];
+    private int size;
+    // 用于去重，并在删除时找到堆中的那个实例
+    private final Map<InternalTimer, InternalTimer> dedupMap = new HashMap<>();
+
+    /**
+     * @return 定时器是新加入的；已经存在时返回 false
+     */
+    public boolean add(InternalTimer timer) {
+        if (dedupMap.putIfAbsent(timer, timer) != null) {
+            return false;
+        }
+        if (size == queue.length) {
+            queue = Arrays.copyOf(queue, size << 1);
+        }
+        queue[size] = timer;
+        timer.setHeapIndex(size);
+        size++;
+        siftUp(size - 1);
+        return true;
+    }
+
+    /**
+     * @return 定时器存在并被删除
+     */
+    public boolean remove(InternalTimer timer) {
+        InternalTimer stored = dedupMap.remove(timer);
+        if (stored == null) {
+            return false;
+        }
+        removeAt(stored.getHeapIndex());
+        return true;
+    }
+
+    /**
+     * @return 最早触发的定时器，堆为空时返回 null
+     */
+    public InternalTimer peek() {
+        return size == 0 ? null : queue[0];
+    }
+
+    /**
+     * 取出并删除最早触发的定时器，堆为空时返回 null。
+     */
+    public InternalTimer poll() {
+        if (size == 0) {
+            return null;
+        }
+        InternalTimer head = queue[0];
+        dedupMap.remove(head);
+        removeAt(0);
+        return head;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void removeAt(int index) {
+        InternalTimer removed = queue[index];
+        removed.setHeapIndex(InternalTimer.NOT_CONTAINED);
+        size--;
+        if (index == size) {
+            queue[size] = null;
+            return;
+        }
+        // 用最后一个元素填补空位，再向上或向下调整
+        InternalTimer last = queue[size];
+        queue[size] = null;
+        queue[index] = last;
+        last.setHeapIndex(index);
+        siftDown(index);
+        if (queue[index] == last) {
+            siftUp(index);
+        }
+    }
+
+    private void siftUp(int index) {
+        InternalTimer timer = queue[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            InternalTimer parentTimer = queue[parent];
+            if (parentTimer.getTimestamp() <= timer.getTimestamp()) {
+                break;
+            }
+            queue[index] = parentTimer;
+            parentTimer.setHeapIndex(index);
+            index = parent;
+        }
+        queue[index] = timer;
+        timer.setHeapIndex(index);
+    }
+
+    private void siftDown(int index) {
+        InternalTimer timer = queue[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && queue[right].getTimestamp() < queue[child].getTimestamp()) {
+                child = right;
+            }
+            if (timer.getTimestamp() <= queue[child].getTimestamp()) {
+                break;
+            }
+            queue[index] = queue[child];
+            queue[index].setHeapIndex(index);
+            index = child;
+        }
+        queue[index] = timer;
+        timer.setHeapIndex(index);
+    }
+}
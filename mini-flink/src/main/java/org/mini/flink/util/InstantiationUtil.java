@@ -0,0 +1,55 @@
+package org.mini.flink.util;
+
+import java.io.*;
+
+/**
+ * 对象实例化相关的工具方法。
+ */
+public final class InstantiationUtil {
+
+    private InstantiationUtil() {
+    }
+
+    /**
+     * 通过 Java 序列化对对象做一次深拷贝。
+     * 真实 Flink 中，每个并行子任务都会从 JobGraph 中反序列化出一份独立的用户逻辑实例，
+     * 这里用同样的方式保证各个子任务之间不会共享算子的成员变量（例如状态）。
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Serializable> T clone(T obj) {
+        if (obj == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                oos.writeObject(obj);
+            }
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+                return (T) ois.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("无法复制对象: " + obj.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * 把对象序列化为字节数组。
+     */
+    public static byte[] serializeObject(Object obj) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(obj);
+        }
+        return bos.toByteArray();
+    }
+
+    /**
+     * 从字节数组中反序列化出对象。
+     */
+    public static Object deserializeObject(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return ois.readObject();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.mini.flink.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 通过反射使用 JDK 21 的虚拟线程，使 mini-flink 仍然可以在 Java 8 上编译和运行。
+ */
+public final class VirtualThreads {
+
+    // Thread.ofVirtual()，当前 JVM 不支持虚拟线程时为 null
+    private static final Method OF_VIRTUAL;
+    // Thread.Builder#factory()
+    private static final Method BUILDER_FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method builderFactory = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderFactory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            // JDK 19/20 中虚拟线程是预览特性，没有开启预览时调用会抛出异常
+            builderFactory.invoke(ofVirtual.invoke(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            ofVirtual = null;
+            builderFactory = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_FACTORY = builderFactory;
+    }
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @return 创建虚拟线程的工厂
+     * @throws UnsupportedOperationException 当前 JVM 不支持虚拟线程
+     */
+    public static ThreadFactory newThreadFactory() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("当前 JVM 不支持虚拟线程，需要 Java 21 或更高版本: "
+                    + System.getProperty("java.version"));
+        }
+        try {
+            return (ThreadFactory) BUILDER_FACTORY.invoke(OF_VIRTUAL.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法创建虚拟线程工厂", e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.mini.flink.api.typeutils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * zigzag + 变长编码：边界值（包括 MIN_VALUE，它的 zigzag 结果是最大的无符号数）都能原样读回，
+ * 绝对值小的数只占 1 个字节。
+ */
+public class VarIntsTest {
+
+    @Test
+    public void testIntRoundTrip() throws IOException {
+        int[] values = {0, 1, -1, 63, -64, 64, -65, 127, 128, 16383, 16384,
+                Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE + 1};
+        for (int value : values) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            VarInts.writeVarInt(value, new DataOutputStream(bytes));
+            DataInputStream in = input(bytes);
+            assertEquals(value, VarInts.readVarInt(in));
+            assertEquals("多读了字节: " + value, 0, in.available());
+        }
+    }
+
+    @Test
+    public void testLongRoundTrip() throws IOException {
+        long[] values = {0, 1, -1, 63, -64, 64, -65, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                1L << 62, -(1L << 62), Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+        for (long value : values) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            VarInts.writeVarLong(value, new DataOutputStream(bytes));
+            DataInputStream in = input(bytes);
+            assertEquals(value, VarInts.readVarLong(in));
+            assertEquals("多读了字节: " + value, 0, in.available());
+        }
+    }
+
+    @Test
+    public void testUnsignedIntRoundTrip() throws IOException {
+        int[] values = {0, 127, 128, 300, Integer.MAX_VALUE, -1};
+        for (int value : values) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            VarInts.writeUnsignedVarInt(value, new DataOutputStream(bytes));
+            assertEquals(value, VarInts.readUnsignedVarInt(input(bytes)));
+        }
+    }
+
+    @Test
+    public void testEncodedSizes() throws IOException {
+        assertEquals(1, intSize(-64));
+        assertEquals(1, intSize(63));
+        assertEquals(2, intSize(64));
+        assertEquals(5, intSize(Integer.MIN_VALUE));
+        assertEquals(5, intSize(Integer.MAX_VALUE));
+        assertEquals(1, longSize(-1));
+        assertEquals(10, longSize(Long.MIN_VALUE));
+        assertEquals(10, longSize(Long.MAX_VALUE));
+    }
+
+    private static int intSize(int value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        VarInts.writeVarInt(value, new DataOutputStream(bytes));
+        return bytes.size();
+    }
+
+    private static int longSize(long value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        VarInts.writeVarLong(value, new DataOutputStream(bytes));
+        return bytes.size();
+    }
+
+    private static DataInputStream input(ByteArrayOutputStream bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
@@ -0,0 +1,106 @@
+package org.mini.flink.api.typeutils.runtime;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 事先不知道类型的值按实际类型编码并读回：只有 HashMap 和 ArrayList 走紧凑编码，
+ * 其他集合类型读回来仍然是原来的类型，而不是被悄悄换成 HashMap / ArrayList。
+ */
+public class GenericSerializerTest {
+
+    public static class Point {
+        public int x;
+        public int y;
+
+        public Point() {
+        }
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Point && ((Point) o).x == x && ((Point) o).y == y;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * x + y;
+        }
+    }
+
+    @Test
+    public void testBasicTypes() throws IOException {
+        Object[] values = {"text", "", 0, Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE,
+                -1.5d, Double.NaN, true, false};
+        for (Object value : values) {
+            assertEquals(value, roundTrip(value));
+        }
+        assertNull(roundTrip(null));
+        assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) roundTrip(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    public void testNestedCollections() throws IOException {
+        Map<Object, Object> map = new HashMap<>();
+        map.put("list", new ArrayList<>(Arrays.asList(1, 2L, null, "x")));
+        map.put(7, new Point(1, -2));
+        map.put(null, new HashMap<>());
+        Object copy = roundTrip(map);
+        assertEquals(map, copy);
+        assertSame(HashMap.class, copy.getClass());
+        assertSame(ArrayList.class, ((Map<?, ?>) copy).get("list").getClass());
+        assertSame(Point.class, ((Map<?, ?>) copy).get(7).getClass());
+    }
+
+    @Test
+    public void testOtherCollectionTypesArePreserved() throws IOException {
+        Map<String, Integer> linked = new LinkedHashMap<>();
+        linked.put("b", 2);
+        linked.put("a", 1);
+        Map<String, Integer> sorted = new TreeMap<>(linked);
+        List<Integer> linkedList = new LinkedList<>(Arrays.asList(3, 1, 2));
+
+        Object linkedCopy = roundTrip(linked);
+        assertSame(LinkedHashMap.class, linkedCopy.getClass());
+        assertEquals(new ArrayList<>(linked.keySet()), new ArrayList<>(((Map<?, ?>) linkedCopy).keySet()));
+        assertSame(TreeMap.class, roundTrip(sorted).getClass());
+        assertSame(LinkedList.class, roundTrip(linkedList).getClass());
+        assertEquals(linkedList, roundTrip(linkedList));
+    }
+
+    @Test
+    public void testPojoRoundTrip() throws IOException {
+        assertEquals(new Point(Integer.MIN_VALUE, 5), roundTrip(new Point(Integer.MIN_VALUE, 5)));
+    }
+
+    private static Object roundTrip(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GenericSerializer.INSTANCE.serialize(value, new DataOutputStream(bytes));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Object copy = GenericSerializer.INSTANCE.deserialize(in);
+        assertEquals("多读或少读了字节", 0, in.available());
+        return copy;
+    }
+}
@@ -0,0 +1,151 @@
+package org.mini.flink.api.typeutils.runtime;
+
+import org.junit.Test;
+import org.mini.flink.api.typeutils.VarInts;
+import org.mini.flink.api.typeutils.base.StringSerializer;
+import org.mini.flink.util.InstantiationUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * POJO 按字段写出：父类字段在前、同一个类中按字段名排序，null 字段原样读回，
+ * 子类的对象被拒绝，序列化器经过 Java 序列化发送到 TaskManager 后仍然可用。
+ */
+public class PojoSerializerTest {
+
+    public static class Base {
+        public int count;
+    }
+
+    public static class Event extends Base {
+        // 声明顺序与字段名顺序相反，写出时按字段名排序
+        public String name;
+        public long amount;
+        public Long boxed;
+        public Object payload;
+        public transient String ignored;
+
+        public Event() {
+        }
+
+        Event(int count, String name, long amount, Long boxed, Object payload) {
+            this.count = count;
+            this.name = name;
+            this.amount = amount;
+            this.boxed = boxed;
+            this.payload = payload;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Event)) {
+                return false;
+            }
+            Event other = (Event) o;
+            return count == other.count && amount == other.amount && Objects.equals(name, other.name)
+                    && Objects.equals(boxed, other.boxed) && Objects.equals(payload, other.payload);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(count, name, amount);
+        }
+    }
+
+    public static class SpecialEvent extends Event {
+        public int extra;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        PojoSerializer<Event> serializer = new PojoSerializer<>(Event.class);
+        Event event = new Event(Integer.MIN_VALUE, "click", Long.MIN_VALUE, 42L, new ArrayList<>(Arrays.asList(1, "a")));
+        event.ignored = "not written";
+        Event copy = roundTrip(serializer, event);
+        assertEquals(event, copy);
+        assertNull(copy.ignored);
+    }
+
+    @Test
+    public void testNullFields() throws IOException {
+        PojoSerializer<Event> serializer = new PojoSerializer<>(Event.class);
+        Event event = new Event(1, null, 2, null, null);
+        assertEquals(event, roundTrip(serializer, event));
+    }
+
+    @Test
+    public void testSuperclassFieldsComeFirst() throws IOException {
+        Event event = new Event(7, "x", 3, null, null);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(expected);
+        // Base.count，然后是 Event 中按字段名排序的 amount、boxed、name、payload
+        VarInts.writeVarInt(7, out);
+        VarInts.writeVarLong(3, out);
+        out.writeBoolean(false);
+        out.writeBoolean(true);
+        StringSerializer.INSTANCE.serialize("x", out);
+        out.writeBoolean(false);
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        new PojoSerializer<>(Event.class).serialize(event, new DataOutputStream(actual));
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    @Test
+    public void testSubclassIsRejected() {
+        PojoSerializer<Event> serializer = new PojoSerializer<>(Event.class);
+        SpecialEvent event = new SpecialEvent();
+        event.extra = 1;
+        try {
+            serializer.serialize(event, new DataOutputStream(new ByteArrayOutputStream()));
+            fail("子类的字段会被丢失，应该拒绝");
+        } catch (IOException expected) {
+            // 预期的异常
+        }
+    }
+
+    @Test
+    public void testUsableAfterJavaSerialization() throws Exception {
+        PojoSerializer<Event> serializer = new PojoSerializer<>(Event.class);
+        @SuppressWarnings("unchecked")
+        PojoSerializer<Event> shipped = (PojoSerializer<Event>) InstantiationUtil.deserializeObject(
+                InstantiationUtil.serializeObject(serializer));
+        Event event = new Event(3, "shipped", -5, 9L, "payload");
+
+        ByteArrayOutputStream original = new ByteArrayOutputStream();
+        serializer.serialize(event, new DataOutputStream(original));
+        ByteArrayOutputStream copied = new ByteArrayOutputStream();
+        shipped.serialize(event, new DataOutputStream(copied));
+        assertArrayEquals(original.toByteArray(), copied.toByteArray());
+        assertEquals(event, roundTrip(shipped, event));
+    }
+
+    @Test
+    public void testPojoDetection() {
+        assertEquals(true, PojoSerializer.isPojo(Event.class));
+        assertEquals(false, PojoSerializer.isPojo(String.class));
+        assertEquals(false, PojoSerializer.isPojo(ArrayList.class));
+        assertNull(PojoSerializer.lookup(Integer.class));
+    }
+
+    private static <T> T roundTrip(PojoSerializer<T> serializer, T value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        serializer.serialize(value, new DataOutputStream(bytes));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        T copy = serializer.deserialize(in);
+        assertEquals("多读或少读了字节", 0, in.available());
+        return copy;
+    }
+}
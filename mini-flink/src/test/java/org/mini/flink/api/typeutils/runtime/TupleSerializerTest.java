@@ -0,0 +1,72 @@
+package org.mini.flink.api.typeutils.runtime;
+
+import org.junit.Test;
+import org.mini.flink.api.tuple.Tuple2;
+import org.mini.flink.api.tuple.Tuple3;
+import org.mini.flink.api.typeutils.TypeSerializer;
+import org.mini.flink.api.typeutils.TypeSerializers;
+import org.mini.flink.api.typeutils.base.LongSerializer;
+import org.mini.flink.api.typeutils.base.StringSerializer;
+import org.mini.flink.util.InstantiationUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 元组按字段各自的序列化器读写，null 字段原样读回；序列化器经过 Java 序列化后仍然可用。
+ */
+public class TupleSerializerTest {
+
+    @Test
+    public void testTypedFields() throws IOException {
+        TypeSerializer<Tuple2<String, Long>> serializer =
+                TypeSerializers.forTuple(Tuple2.class, StringSerializer.INSTANCE, LongSerializer.INSTANCE);
+        assertEquals(Tuple2.of("word", Long.MIN_VALUE), roundTrip(serializer, Tuple2.of("word", Long.MIN_VALUE)));
+        assertEquals(Tuple2.of(null, 1L), roundTrip(serializer, Tuple2.of(null, 1L)));
+        assertEquals(Tuple2.of("word", null), roundTrip(serializer, Tuple2.of("word", null)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGenericFields() throws IOException {
+        TypeSerializer<Tuple3<Object, Object, Object>> serializer =
+                (TypeSerializer<Tuple3<Object, Object, Object>>) (TypeSerializer<?>) TypeSerializers.forClass(Tuple3.class);
+        Tuple3<Object, Object, Object> tuple = new Tuple3<>(Integer.MIN_VALUE, null, Tuple2.of("nested", 2L));
+        assertEquals(tuple, roundTrip(serializer, tuple));
+    }
+
+    @Test
+    public void testUsableAfterJavaSerialization() throws Exception {
+        TypeSerializer<Tuple2<String, Long>> serializer =
+                TypeSerializers.forTuple(Tuple2.class, StringSerializer.INSTANCE, LongSerializer.INSTANCE);
+        @SuppressWarnings("unchecked")
+        TypeSerializer<Tuple2<String, Long>> shipped = (TypeSerializer<Tuple2<String, Long>>)
+                InstantiationUtil.deserializeObject(InstantiationUtil.serializeObject(serializer));
+        assertEquals(Tuple2.of("a", 1L), roundTrip(shipped, Tuple2.of("a", 1L)));
+    }
+
+    @Test
+    public void testArityMismatchIsRejected() {
+        try {
+            TypeSerializers.forTuple(Tuple2.class, StringSerializer.INSTANCE);
+            fail("字段数与序列化器数量不同时应该拒绝");
+        } catch (IllegalArgumentException expected) {
+            // 预期的异常
+        }
+    }
+
+    private static <T> T roundTrip(TypeSerializer<T> serializer, T value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        serializer.serialize(value, new DataOutputStream(bytes));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        T copy = serializer.deserialize(in);
+        assertEquals("多读或少读了字节", 0, in.available());
+        return copy;
+    }
+}
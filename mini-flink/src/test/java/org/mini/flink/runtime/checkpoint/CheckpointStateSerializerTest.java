@@ -0,0 +1,93 @@
+package org.mini.flink.runtime.checkpoint;
+
+import org.junit.Test;
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 任务状态文件的读写：状态值的类型原样保留，版本 4 之前的文件仍然可以读取。
+ */
+public class CheckpointStateSerializerTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Map<Object, Object> counts = new HashMap<>();
+        counts.put("a", 1L);
+        counts.put("b", Long.MIN_VALUE);
+        Map<String, Object> keyed = new LinkedHashMap<>();
+        keyed.put("count", counts);
+        Map<String, Object> operator = new LinkedHashMap<>();
+        operator.put("offsets", new TreeMap<>(Collections.singletonMap(3, 30L)));
+        operator.put("pending", new ArrayList<>(Arrays.asList("x", null)));
+        Map<Integer, List<Object>> channels = new HashMap<>();
+        channels.put(1, new ArrayList<>(Arrays.asList(5, "y")));
+        Map<String, Map<String, List<Object>>> removals = Collections.singletonMap("Sum",
+                Collections.singletonMap("count", new ArrayList<>(Collections.singletonList("c"))));
+
+        TaskStateSnapshot snapshot = new TaskStateSnapshot(2, Collections.singletonMap("Source", operator),
+                Collections.singletonMap("Sum", keyed), channels, 7, removals);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CheckpointStateSerializer.writeTaskState(snapshot, new DataOutputStream(bytes));
+        TaskStateSnapshot copy = CheckpointStateSerializer.readTaskState(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(2, copy.getSubtaskIndex());
+        assertEquals(snapshot.getOperatorStates(), copy.getOperatorStates());
+        assertSame(TreeMap.class, copy.getOperatorStates().get("Source").get("offsets").getClass());
+        assertEquals(snapshot.getKeyedStates(), copy.getKeyedStates());
+        assertEquals(channels, copy.getInputChannelState());
+        assertEquals(7, copy.getKeyedStateBaseCheckpointId());
+        assertEquals(removals, copy.getKeyedStateRemovals());
+    }
+
+    @Test
+    public void testReadsVersion3Files() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x4D465453);
+        out.writeInt(3);
+        out.writeInt(0);
+        // 算子状态: {"Source": {"offset": 42L}}
+        out.writeInt(1);
+        writeString("Source", out);
+        out.writeByte(6);
+        out.writeInt(1);
+        out.writeByte(1);
+        writeString("offset", out);
+        out.writeByte(3);
+        out.writeLong(42L);
+        // 没有键控状态和通道状态，全量快照
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeLong(-1);
+        out.writeInt(0);
+
+        TaskStateSnapshot snapshot = CheckpointStateSerializer.readTaskState(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(Collections.singletonMap("offset", 42L), snapshot.getOperatorStates().get("Source"));
+        assertEquals(-1, snapshot.getKeyedStateBaseCheckpointId());
+    }
+
+    private static void writeString(String value, DataOutputStream out) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
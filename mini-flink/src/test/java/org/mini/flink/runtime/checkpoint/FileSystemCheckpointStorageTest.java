@@ -0,0 +1,129 @@
+package org.mini.flink.runtime.checkpoint;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 增量检查点的保留：已经持久化、任务可能仍以它为基准的检查点，在确认不再被使用之前不会被删除；
+ * 引用了不存在的基准的检查点不能持久化。
+ */
+public class FileSystemCheckpointStorageTest {
+    private static final String TASK = "Sum (1/1)";
+    private static final String OPERATOR = "Sum";
+    private static final String STATE = "sum";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testConcurrentCheckpointDoesNotDeleteNotifiedBase() throws Exception {
+        FileSystemCheckpointStorage storage = new FileSystemCheckpointStorage(folder.getRoot().getPath(), 1, true);
+        storage.persist(1, states(full("a", 1)));
+        // C2 和 C3 同时进行，都基于 C1；C2 先完成，C4 在 C3 完成之前触发，基于 C2
+        storage.persist(2, states(incremental(1, "b", 2)));
+        storage.persist(3, states(incremental(1, "c", 3)));
+        assertTrue(exists(2));
+        storage.persist(4, states(incremental(2, "d", 4)));
+
+        Map<Object, Object> expected = new HashMap<>();
+        expected.put("a", 1);
+        expected.put("b", 2);
+        expected.put("d", 4);
+        assertEquals(expected, keyedState(storage.loadLatestCheckpoint()));
+    }
+
+    @Test
+    public void testBasesAreReleasedOnceTasksMoveOn() throws Exception {
+        FileSystemCheckpointStorage storage = new FileSystemCheckpointStorage(folder.getRoot().getPath(), 1, true);
+        storage.persist(1, states(full("a", 1)));
+        storage.persist(2, states(incremental(1, "b", 2)));
+        storage.persist(3, states(incremental(1, "c", 3)));
+        // 全量快照不能说明任务之后的基准，C3 仍然保留
+        storage.persist(4, states(full("d", 4)));
+        assertTrue(exists(3));
+        storage.persist(5, states(incremental(4, "e", 5)));
+
+        for (long id = 1; id <= 3; id++) {
+            assertFalse("检查点 " + id + " 应该被删除", exists(id));
+        }
+        assertTrue(exists(4));
+        assertTrue(exists(5));
+    }
+
+    @Test
+    public void testPersistFailsWhenBaseIsMissing() throws Exception {
+        FileSystemCheckpointStorage storage = new FileSystemCheckpointStorage(folder.getRoot().getPath(), 1, true);
+        storage.persist(1, states(full("a", 1)));
+        try {
+            storage.persist(3, states(incremental(2, "c", 3)));
+            fail("引用不存在的基准检查点时持久化应该失败");
+        } catch (IOException expected) {
+            // 预期的异常
+        }
+        assertFalse(Files.exists(checkpointDir(3).resolve("_metadata")));
+        assertEquals(1, storage.loadLatestCheckpoint().getCheckpointId());
+    }
+
+    @Test
+    public void testUnreadableCheckpointsAreReportedInsteadOfIgnored() throws Exception {
+        FileSystemCheckpointStorage storage = new FileSystemCheckpointStorage(folder.getRoot().getPath(), 2, true);
+        storage.persist(1, states(full("a", 1)));
+        storage.persist(2, states(incremental(1, "b", 2)));
+        Files.write(checkpointDir(1).resolve("_metadata"), new byte[]{1, 2, 3});
+        try {
+            storage.loadLatestCheckpoint();
+            fail("检查点都无法读取时不能返回 null");
+        } catch (IOException expected) {
+            // 预期的异常
+        }
+    }
+
+    private static Map<String, TaskStateSnapshot> states(TaskStateSnapshot snapshot) {
+        Map<String, TaskStateSnapshot> states = new LinkedHashMap<>();
+        states.put(TASK, snapshot);
+        return states;
+    }
+
+    private static TaskStateSnapshot full(String key, int value) {
+        return new TaskStateSnapshot(0, null, keyedStates(key, value), null);
+    }
+
+    private static TaskStateSnapshot incremental(long baseCheckpointId, String key, int value) {
+        return new TaskStateSnapshot(0, null, keyedStates(key, value), null, baseCheckpointId, null);
+    }
+
+    private static Map<String, Map<String, Object>> keyedStates(String key, int value) {
+        Map<Object, Object> entries = new HashMap<>();
+        entries.put(key, value);
+        Map<String, Object> states = new LinkedHashMap<>();
+        states.put(STATE, entries);
+        return Collections.singletonMap(OPERATOR, states);
+    }
+
+    private static Object keyedState(CompletedCheckpoint checkpoint) {
+        return checkpoint.getTaskStates().get(TASK).getKeyedStates().get(OPERATOR).get(STATE);
+    }
+
+    private Path checkpointDir(long checkpointId) {
+        return folder.getRoot().toPath().resolve("chk-" + checkpointId);
+    }
+
+    private boolean exists(long checkpointId) {
+        return Files.exists(checkpointDir(checkpointId));
+    }
+}
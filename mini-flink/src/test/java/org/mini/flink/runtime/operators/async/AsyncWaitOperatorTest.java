@@ -0,0 +1,140 @@
+package org.mini.flink.runtime.operators.async;
+
+import org.junit.Test;
+import org.mini.flink.api.datastream.AsyncDataStream;
+import org.mini.flink.api.eventtime.Watermark;
+import org.mini.flink.runtime.stream.MailboxOperator;
+import org.mini.flink.runtime.stream.StreamRecord;
+import org.mini.flink.runtime.stream.mailbox.Mail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 水位线排进异步算子的请求队列，不阻塞任务线程：有序模式下按到达顺序输出，
+ * 无序模式下结果可以相互越过，但不会越过水位线。
+ */
+public class AsyncWaitOperatorTest {
+
+    @Test
+    public void testOrderedWatermarkWaitsForEarlierResults() throws Exception {
+        Harness harness = new Harness(AsyncDataStream.OutputMode.ORDERED);
+        harness.process(1);
+        harness.process(2);
+        harness.operator.processWatermark(new Watermark(10));
+        harness.process(3);
+        assertEquals(Arrays.asList(), harness.outputs);
+
+        harness.complete(2);
+        harness.complete(3);
+        assertEquals(Arrays.asList(), harness.outputs);
+        harness.complete(1);
+        assertEquals(Arrays.<Object>asList("r1", "r2", new Watermark(10), "r3"), harness.outputs);
+    }
+
+    @Test
+    public void testUnorderedResultsDoNotCrossWatermarks() throws Exception {
+        Harness harness = new Harness(AsyncDataStream.OutputMode.UNORDERED);
+        harness.process(1);
+        harness.process(2);
+        harness.operator.processWatermark(new Watermark(10));
+        harness.process(3);
+        harness.process(4);
+
+        // 第二段的结果等待水位线
+        harness.complete(4);
+        assertEquals(Arrays.asList(), harness.outputs);
+        // 第一段内的结果可以相互越过
+        harness.complete(2);
+        assertEquals(Arrays.<Object>asList("r2"), harness.outputs);
+        harness.complete(1);
+        assertEquals(Arrays.<Object>asList("r2", "r1", new Watermark(10), "r4"), harness.outputs);
+        harness.complete(3);
+        assertEquals(Arrays.<Object>asList("r2", "r1", new Watermark(10), "r4", "r3"), harness.outputs);
+    }
+
+    @Test
+    public void testWatermarkWithoutPendingRequestsIsEmittedImmediately() throws Exception {
+        for (AsyncDataStream.OutputMode mode : AsyncDataStream.OutputMode.values()) {
+            Harness harness = new Harness(mode);
+            harness.operator.processWatermark(new Watermark(5));
+            harness.process(1);
+            harness.complete(1);
+            harness.operator.processWatermark(new Watermark(6));
+            assertEquals(Arrays.<Object>asList(new Watermark(5), "r1", new Watermark(6)), harness.outputs);
+        }
+    }
+
+    @Test
+    public void testSnapshotSkipsQueuedWatermarks() throws Exception {
+        Harness harness = new Harness(AsyncDataStream.OutputMode.ORDERED);
+        harness.process(1);
+        harness.operator.processWatermark(new Watermark(10));
+        harness.process(2);
+        @SuppressWarnings("unchecked")
+        List<StreamRecord> inputs = (List<StreamRecord>) harness.operator.snapshotState().get("in-flight-inputs");
+        assertEquals(2, inputs.size());
+        assertEquals(1, inputs.get(0).getValue());
+        assertEquals(2, inputs.get(1).getValue());
+    }
+
+    /**
+     * 手动完成请求，邮件在 {@link #complete} 中像任务线程一样依次执行。
+     */
+    private static class Harness implements MailboxOperator.Context {
+        private final Map<Integer, CompletableFuture<String>> requests = new HashMap<>();
+        private final List<Mail.Action> mails = new ArrayList<>();
+        private final List<Object> outputs = new ArrayList<>();
+        private final AsyncWaitOperator<Integer, String> operator;
+
+        Harness(AsyncDataStream.OutputMode mode) throws Exception {
+            operator = new AsyncWaitOperator<>(input -> {
+                CompletableFuture<String> future = new CompletableFuture<>();
+                requests.put(input, future);
+                return future;
+            }, 0, 10, mode);
+            operator.setup(this);
+            operator.open(null);
+        }
+
+        void process(int input) throws Exception {
+            operator.process(input, null);
+        }
+
+        void complete(int input) throws Exception {
+            requests.get(input).complete("r" + input);
+            List<Mail.Action> pending = new ArrayList<>(mails);
+            mails.clear();
+            for (Mail.Action mail : pending) {
+                mail.run();
+            }
+        }
+
+        @Override
+        public boolean execute(Mail.Action action, String description) {
+            mails.add(action);
+            return true;
+        }
+
+        @Override
+        public long getCurrentTimestamp() {
+            return 0;
+        }
+
+        @Override
+        public void collect(Object record, long timestamp) {
+            outputs.add(record);
+        }
+
+        @Override
+        public void emitWatermark(Watermark watermark) {
+            outputs.add(watermark);
+        }
+    }
+}
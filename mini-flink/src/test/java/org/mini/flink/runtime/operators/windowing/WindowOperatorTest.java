@@ -0,0 +1,225 @@
+package org.mini.flink.runtime.operators.windowing;
+
+import org.junit.Test;
+import org.mini.flink.api.AggregateFunction;
+import org.mini.flink.api.Collector;
+import org.mini.flink.api.windowing.EventTimeSessionWindows;
+import org.mini.flink.api.windowing.SlidingEventTimeWindows;
+import org.mini.flink.api.windowing.TimeWindow;
+import org.mini.flink.api.windowing.TumblingEventTimeWindows;
+import org.mini.flink.api.windowing.WindowAssigner;
+import org.mini.flink.runtime.state.heap.HeapKeyedStateBackend;
+import org.mini.flink.runtime.stream.StreamingRuntimeContext;
+import org.mini.flink.runtime.timer.HeapInternalTimerService;
+import org.mini.flink.runtime.timer.InternalTimer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 校验 {@link WindowOperator} 输出的窗口及其计数与 {@link WindowAssigner#assignWindows} 定义的窗口完全一致。
+ * 记录的乱序程度不超过 {@link #MAX_OUT_OF_ORDERNESS}，水位线始终落后于最大时间戳，因此没有记录被当作迟到数据。
+ */
+public class WindowOperatorTest {
+    private static final int NUM_RECORDS = 5000;
+    private static final int NUM_KEYS = 5;
+    private static final long MAX_OUT_OF_ORDERNESS = 20;
+
+    @Test
+    public void testTumblingWindows() throws Exception {
+        assertSameAsAssigner(TumblingEventTimeWindows.of(Duration.ofMillis(10)));
+    }
+
+    @Test
+    public void testSlidingWindowsWithSizeMultipleOfSlide() throws Exception {
+        assertSameAsAssigner(SlidingEventTimeWindows.of(Duration.ofMillis(12), Duration.ofMillis(4)));
+    }
+
+    @Test
+    public void testSlidingWindowsWithSizeNotMultipleOfSlide() throws Exception {
+        assertSameAsAssigner(SlidingEventTimeWindows.of(Duration.ofMillis(5), Duration.ofMillis(3)));
+        assertSameAsAssigner(SlidingEventTimeWindows.of(Duration.ofMillis(10), Duration.ofMillis(4)));
+    }
+
+    @Test
+    public void testSlidingWindowsWithGaps() throws Exception {
+        // slide 大于 size 时窗口之间有空隙，空隙中的记录不属于任何窗口
+        assertSameAsAssigner(SlidingEventTimeWindows.of(Duration.ofMillis(3), Duration.ofMillis(5)));
+    }
+
+    @Test
+    public void testSizeNotMultipleOfSlideFiresAssignedWindows() throws Exception {
+        // size=5, slide=3：时间戳 4 属于 [0,5) 和 [3,8)
+        WindowOperatorHarness harness = new WindowOperatorHarness(
+                SlidingEventTimeWindows.of(Duration.ofMillis(5), Duration.ofMillis(3)));
+        harness.processElement("a", 4);
+        harness.advanceWatermark(Long.MAX_VALUE);
+        Map<String, Long> expected = new TreeMap<>();
+        expected.put(windowKey("a", new TimeWindow(0, 5)), 1L);
+        expected.put(windowKey("a", new TimeWindow(3, 8)), 1L);
+        assertEquals(expected, harness.getOutput());
+    }
+
+    @Test
+    public void testSessionWindows() throws Exception {
+        long gap = 15;
+        List<long[]> records = generateRecords(new Random(42));
+        WindowOperatorHarness harness = new WindowOperatorHarness(EventTimeSessionWindows.withGap(Duration.ofMillis(gap)));
+        harness.processAll(records);
+
+        // 按键排序时间戳，相交（包括首尾相接）的 [t, t + gap) 合并为一个会话
+        Map<Long, List<Long>> timestampsByKey = new HashMap<>();
+        for (long[] record : records) {
+            timestampsByKey.computeIfAbsent(record[0], k -> new ArrayList<>()).add(record[1]);
+        }
+        Map<String, Long> expected = new TreeMap<>();
+        for (Map.Entry<Long, List<Long>> entry : timestampsByKey.entrySet()) {
+            List<Long> timestamps = entry.getValue();
+            Collections.sort(timestamps);
+            TimeWindow session = null;
+            long count = 0;
+            for (long timestamp : timestamps) {
+                TimeWindow window = new TimeWindow(timestamp, timestamp + gap);
+                if (session != null && session.intersects(window)) {
+                    session = session.cover(window);
+                    count++;
+                } else {
+                    if (session != null) {
+                        expected.put(windowKey(entry.getKey(), session), count);
+                    }
+                    session = window;
+                    count = 1;
+                }
+            }
+            expected.put(windowKey(entry.getKey(), session), count);
+        }
+        assertEquals(expected, harness.getOutput());
+        assertEquals(0, harness.operator.getNumLateRecordsDropped());
+    }
+
+    private static void assertSameAsAssigner(WindowAssigner assigner) throws Exception {
+        List<long[]> records = generateRecords(new Random(42));
+        WindowOperatorHarness harness = new WindowOperatorHarness(assigner);
+        harness.processAll(records);
+
+        Map<String, Long> expected = new TreeMap<>();
+        for (long[] record : records) {
+            for (TimeWindow window : assigner.assignWindows(record[1])) {
+                expected.merge(windowKey(record[0], window), 1L, Long::sum);
+            }
+        }
+        assertTrue(!expected.isEmpty());
+        assertEquals(assigner.toString(), expected, harness.getOutput());
+        assertEquals(0, harness.operator.getNumLateRecordsDropped());
+    }
+
+    /**
+     * @return 每条记录为 {键, 时间戳}，时间戳总体递增，相对于之前的最大时间戳最多回退 {@link #MAX_OUT_OF_ORDERNESS}
+     */
+    private static List<long[]> generateRecords(Random random) {
+        List<long[]> records = new ArrayList<>(NUM_RECORDS);
+        long maxTimestamp = 0;
+        for (int i = 0; i < NUM_RECORDS; i++) {
+            maxTimestamp += random.nextInt(4);
+            long timestamp = maxTimestamp - random.nextInt((int) MAX_OUT_OF_ORDERNESS + 1);
+            // 偶尔出现长时间的停顿，会话窗口因此断开
+            if (random.nextInt(200) == 0) {
+                maxTimestamp += 100;
+            }
+            records.add(new long[]{random.nextInt(NUM_KEYS), timestamp});
+        }
+        return records;
+    }
+
+    private static String windowKey(Object key, TimeWindow window) {
+        return key + "@[" + window.getStart() + "," + window.getEnd() + ")";
+    }
+
+    /**
+     * 用真实的键控状态后端和定时器服务驱动窗口算子，代替 StreamTask 中的记录处理和水位线推进。
+     */
+    private static class WindowOperatorHarness {
+        private final HeapKeyedStateBackend keyedStateBackend = new HeapKeyedStateBackend();
+        private final HeapInternalTimerService timerService;
+        private final WindowOperator<Long, Object, long[], Long, String> operator;
+        private final Map<String, Long> output = new TreeMap<>();
+        private final Collector<String> collector;
+        private long currentTimestamp;
+        private long maxTimestamp = Long.MIN_VALUE;
+
+        WindowOperatorHarness(WindowAssigner assigner) {
+            this.timerService = new HeapInternalTimerService(keyedStateBackend, () -> currentTimestamp);
+            this.operator = new WindowOperator<>(assigner, new CountAggregate(), (key, window, count) -> {
+                String windowKey = windowKey(key, window);
+                assertTrue("窗口重复输出: " + windowKey, !output.containsKey(windowKey));
+                output.put(windowKey, count);
+                return windowKey;
+            });
+            this.collector = record -> { };
+            operator.open(new StreamingRuntimeContext("WindowOperatorTest", 0, 1, keyedStateBackend, timerService));
+        }
+
+        void processAll(List<long[]> records) throws Exception {
+            for (long[] record : records) {
+                processElement(record[0], record[1]);
+                advanceWatermark(maxTimestamp - MAX_OUT_OF_ORDERNESS - 1);
+            }
+            advanceWatermark(Long.MAX_VALUE);
+        }
+
+        void processElement(Object key, long timestamp) {
+            keyedStateBackend.setCurrentKey(key);
+            currentTimestamp = timestamp;
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+            operator.process(timestamp, collector);
+        }
+
+        void advanceWatermark(long watermark) throws Exception {
+            timerService.advanceWatermark(watermark);
+            InternalTimer timer;
+            while ((timer = timerService.pollExpiredTimer()) != null) {
+                currentTimestamp = timer.getTimestamp();
+                operator.onEventTime(timer.getTimestamp(), collector);
+            }
+        }
+
+        Map<String, Long> getOutput() {
+            return output;
+        }
+    }
+
+    private static class CountAggregate implements AggregateFunction<Long, long[], Long> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public long[] createAccumulator() {
+            return new long[1];
+        }
+
+        @Override
+        public long[] add(Long value, long[] accumulator) {
+            accumulator[0]++;
+            return accumulator;
+        }
+
+        @Override
+        public Long getResult(long[] accumulator) {
+            return accumulator[0];
+        }
+
+        @Override
+        public long[] merge(long[] a, long[] b) {
+            a[0] += b[0];
+            return a;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.mini.flink.runtime.state.heap;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mini.flink.api.state.LongValueState;
+import org.mini.flink.api.state.LongValueStateDescriptor;
+import org.mini.flink.api.state.MapState;
+import org.mini.flink.api.state.MapStateDescriptor;
+import org.mini.flink.api.state.ValueState;
+import org.mini.flink.api.state.ValueStateDescriptor;
+import org.mini.flink.runtime.state.TaskStateSnapshot;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 增量快照：每个增量快照的变更和删除记录叠加到基准检查点的全量状态上（{@link TaskStateSnapshot#applyTo}），
+ * 结果必须与快照时的全量状态一致。快照像 StreamTask 中一样在其他线程中物化，期间任务线程继续写入。
+ */
+public class HeapKeyedStateBackendTest {
+    private static final String OPERATOR = "op";
+    private static final String COUNT = "count";
+    private static final String NAME = "name";
+    private static final String ATTRIBUTES = "attributes";
+    private static final int NUM_KEYS = 4000;
+    private static final int UPDATES_PER_CHECKPOINT = 3000;
+
+    private final ExecutorService materializer = Executors.newSingleThreadExecutor();
+
+    @After
+    public void tearDown() {
+        materializer.shutdownNow();
+    }
+
+    @Test
+    public void testIncrementalSnapshotsRebuildFullState() throws Exception {
+        HeapKeyedStateBackend backend = new HeapKeyedStateBackend(true, 4);
+        Random random = new Random(7);
+        ReferenceState reference = new ReferenceState(backend);
+
+        // 已经完成的检查点及其全量状态，后面的增量以它为基准
+        TaskStateSnapshot completed = null;
+        long completedCheckpointId = -1;
+        int incrementalSnapshots = 0;
+        for (long checkpointId = 1; checkpointId <= 12; checkpointId++) {
+            reference.randomUpdates(random);
+            Map<String, Object> expected = reference.copy();
+
+            HeapKeyedStateSnapshot snapshot = backend.snapshot(checkpointId);
+            Future<HeapKeyedStateSnapshot.MaterializedKeyedState> materialized = materializer.submit(snapshot::materialize);
+            // 物化期间继续写入，这些写入属于下一个检查点
+            reference.randomUpdates(random);
+            TaskStateSnapshot taskState = toTaskState(snapshot, materialized.get());
+
+            if (snapshot.isIncremental()) {
+                incrementalSnapshots++;
+                assertEquals(completedCheckpointId, snapshot.getBaseCheckpointId());
+                taskState = taskState.applyTo(completed);
+            }
+            assertEquals("检查点 " + checkpointId, expected, taskState.getKeyedStates().get(OPERATOR));
+
+            // 每隔几个检查点有一个失败，之后的增量仍然以更早完成的检查点为基准
+            if (checkpointId % 5 != 0) {
+                backend.notifyCheckpointComplete(checkpointId);
+                completed = taskState;
+                completedCheckpointId = checkpointId;
+            }
+        }
+        assertTrue(incrementalSnapshots > 0);
+    }
+
+    @Test
+    public void testRemovedAndRewrittenKeysSurviveIncrementalSnapshot() throws Exception {
+        HeapKeyedStateBackend backend = new HeapKeyedStateBackend(true, 10);
+        LongValueState count = backend.getLongState(new LongValueStateDescriptor(COUNT));
+        for (long key = 0; key < 10; key++) {
+            backend.setCurrentKey(key);
+            count.update(key);
+        }
+        HeapKeyedStateSnapshot full = backend.snapshot(1);
+        TaskStateSnapshot base = toTaskState(full, full.materialize());
+        backend.notifyCheckpointComplete(1);
+
+        backend.setCurrentKey(1L);
+        count.clear();
+        backend.setCurrentKey(2L);
+        count.clear();
+        count.update(200);
+        HeapKeyedStateSnapshot delta = backend.snapshot(2);
+        assertTrue(delta.isIncremental());
+        HeapKeyedStateSnapshot.MaterializedKeyedState materialized = delta.materialize();
+        assertEquals(1, ((Map<?, ?>) materialized.getValues().get(COUNT)).size());
+        assertEquals(2, materialized.getRemovedKeys().get(COUNT).size());
+
+        Map<Object, Object> expected = new HashMap<>();
+        for (long key = 0; key < 10; key++) {
+            expected.put(key, key);
+        }
+        expected.remove(1L);
+        expected.put(2L, 200L);
+        Map<String, Object> states = toTaskState(delta, materialized).applyTo(base).getKeyedStates().get(OPERATOR);
+        assertEquals(expected, states.get(COUNT));
+    }
+
+    @Test
+    public void testWithoutCompletedCheckpointSnapshotsAreFull() {
+        HeapKeyedStateBackend backend = new HeapKeyedStateBackend(true, 10);
+        ValueState<String> name = backend.getState(new ValueStateDescriptor<>(NAME));
+        backend.setCurrentKey("k");
+        name.update("v");
+        HeapKeyedStateSnapshot first = backend.snapshot(1);
+        first.release();
+        // 检查点 1 没有完成，不能作为基准
+        HeapKeyedStateSnapshot second = backend.snapshot(2);
+        assertFalse(second.isIncremental());
+        second.release();
+    }
+
+    private static TaskStateSnapshot toTaskState(HeapKeyedStateSnapshot snapshot,
+                                                 HeapKeyedStateSnapshot.MaterializedKeyedState materialized) {
+        Map<String, Map<String, Object>> keyedStates = new LinkedHashMap<>();
+        keyedStates.put(OPERATOR, materialized.getValues());
+        Map<String, Map<String, List<Object>>> removals = new LinkedHashMap<>();
+        if (!materialized.getRemovedKeys().isEmpty()) {
+            removals.put(OPERATOR, materialized.getRemovedKeys());
+        }
+        return new TaskStateSnapshot(0, null, keyedStates, null, snapshot.getBaseCheckpointId(), removals);
+    }
+
+    /**
+     * 对状态后端做随机的写入和删除，同时在普通的 Map 中维护期望的状态。
+     */
+    private static class ReferenceState {
+        private final HeapKeyedStateBackend backend;
+        private final LongValueState count;
+        private final ValueState<String> name;
+        private final MapState<String, Integer> attributes;
+        private final Map<Object, Object> expectedCounts = new HashMap<>();
+        private final Map<Object, Object> expectedNames = new HashMap<>();
+        private final Map<Object, Object> expectedAttributes = new HashMap<>();
+
+        ReferenceState(HeapKeyedStateBackend backend) {
+            this.backend = backend;
+            this.count = backend.getLongState(new LongValueStateDescriptor(COUNT));
+            this.name = backend.getState(new ValueStateDescriptor<>(NAME));
+            this.attributes = backend.getMapState(new MapStateDescriptor<>(ATTRIBUTES));
+        }
+
+        @SuppressWarnings("unchecked")
+        void randomUpdates(Random random) throws Exception {
+            for (int i = 0; i < UPDATES_PER_CHECKPOINT; i++) {
+                int key = random.nextInt(NUM_KEYS);
+                backend.setCurrentKey(key);
+                switch (random.nextInt(6)) {
+                    case 0:
+                        count.add(1);
+                        expectedCounts.merge(key, 1L, (a, b) -> (Long) a + (Long) b);
+                        break;
+                    case 1:
+                        count.clear();
+                        expectedCounts.remove(key);
+                        break;
+                    case 2:
+                        name.update("name-" + i);
+                        expectedNames.put(key, "name-" + i);
+                        break;
+                    case 3:
+                        name.clear();
+                        expectedNames.remove(key);
+                        break;
+                    case 4:
+                        String attribute = "a" + random.nextInt(3);
+                        attributes.put(attribute, i);
+                        ((Map<String, Integer>) expectedAttributes.computeIfAbsent(key, k -> new HashMap<>()))
+                                .put(attribute, i);
+                        break;
+                    default:
+                        attributes.clear();
+                        expectedAttributes.remove(key);
+                        break;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> copy() {
+            Map<Object, Object> attributesCopy = new HashMap<>();
+            for (Map.Entry<Object, Object> entry : expectedAttributes.entrySet()) {
+                attributesCopy.put(entry.getKey(), new HashMap<>((Map<String, Integer>) entry.getValue()));
+            }
+            Map<String, Object> states = new HashMap<>();
+            states.put(COUNT, new HashMap<>(expectedCounts));
+            states.put(NAME, new HashMap<>(expectedNames));
+            states.put(ATTRIBUTES, attributesCopy);
+            return states;
+        }
+    }
+}
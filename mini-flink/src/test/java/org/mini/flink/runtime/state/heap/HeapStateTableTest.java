@@ -0,0 +1,211 @@
+package org.mini.flink.runtime.state.heap;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 状态表的写时复制快照：快照之后的写入、扩容和删除对快照不可见，快照以任意顺序释放后任务线程的写入仍然正确。
+ */
+public class HeapStateTableTest {
+    // 超过一页，写入会分布在多个页上
+    private static final int NUM_KEYS = 3 * HeapStateTable.PAGE_SIZE;
+
+    @Test
+    public void testSnapshotIsolatedFromWritesResizesAndRemovals() {
+        LongStateTable table = new LongStateTable();
+        Map<Object, Object> expected = new HashMap<>();
+        for (long i = 0; i < NUM_KEYS; i++) {
+            table.put(i, i);
+            expected.put(i, i);
+        }
+        HeapStateTable.StateTableSnapshot snapshot = table.stateSnapshot();
+
+        // 修改每个已有的键、删除一半的键，再插入足够多的新键触发多次扩容；删除会向前移动探测链上的其他键
+        for (long i = 0; i < NUM_KEYS; i++) {
+            table.add(i, 1000);
+        }
+        for (long i = 0; i < NUM_KEYS; i += 2) {
+            assertTrue(table.remove(i));
+        }
+        for (long i = NUM_KEYS; i < 8 * NUM_KEYS; i++) {
+            table.put(i, -i);
+        }
+
+        assertEquals(expected, snapshot.toMap());
+        assertEquals(NUM_KEYS, snapshot.size());
+        snapshot.release();
+
+        assertEquals(NUM_KEYS / 2 + 7 * NUM_KEYS, table.size());
+        for (long i = 0; i < NUM_KEYS; i++) {
+            assertEquals(i % 2 == 0 ? 0 : i + 1000, table.get(i));
+            assertEquals(i % 2 != 0, table.containsKey(i));
+        }
+        for (long i = NUM_KEYS; i < 8 * NUM_KEYS; i++) {
+            assertEquals(-i, table.get(i));
+        }
+    }
+
+    @Test
+    public void testOverlappingSnapshotsReleasedInOrder() {
+        testOverlappingSnapshots(true);
+    }
+
+    @Test
+    public void testOverlappingSnapshotsReleasedOutOfOrder() {
+        testOverlappingSnapshots(false);
+    }
+
+    private void testOverlappingSnapshots(boolean releaseOlderFirst) {
+        Random random = new Random(releaseOlderFirst ? 1 : 2);
+        LongStateTable table = new LongStateTable();
+        Map<Object, Object> expected = new HashMap<>();
+        randomUpdates(table, expected, random);
+        Map<Object, Object> expectedFirst = new HashMap<>(expected);
+        HeapStateTable.StateTableSnapshot first = table.stateSnapshot();
+
+        randomUpdates(table, expected, random);
+        Map<Object, Object> expectedSecond = new HashMap<>(expected);
+        HeapStateTable.StateTableSnapshot second = table.stateSnapshot();
+
+        randomUpdates(table, expected, random);
+        HeapStateTable.StateTableSnapshot releasedFirst = releaseOlderFirst ? first : second;
+        HeapStateTable.StateTableSnapshot remaining = releaseOlderFirst ? second : first;
+        releasedFirst.release();
+        // 释放一个快照之后，另一个快照仍然持有的页必须继续被复制
+        randomUpdates(table, expected, random);
+
+        assertEquals(releaseOlderFirst ? expectedSecond : expectedFirst, remaining.toMap());
+        remaining.release();
+        randomUpdates(table, expected, random);
+
+        HeapStateTable.StateTableSnapshot last = table.stateSnapshot();
+        assertEquals(expected, last.toMap());
+        last.release();
+        for (Map.Entry<Object, Object> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), table.get(entry.getKey()));
+        }
+        assertEquals(expected.size(), table.size());
+    }
+
+    @Test
+    public void testReleasingTwiceDoesNotReleaseOtherSnapshots() {
+        LongStateTable table = new LongStateTable();
+        table.put("a", 1);
+        HeapStateTable.StateTableSnapshot first = table.stateSnapshot();
+        HeapStateTable.StateTableSnapshot second = table.stateSnapshot();
+        first.release();
+        first.release();
+        table.put("a", 2);
+        assertEquals(1L, second.toMap().get("a"));
+        second.release();
+    }
+
+    @Test
+    public void testGetForUpdateCopiesValuesHeldBySnapshot() {
+        ObjectStateTable<Map<String, Integer>> table = new ObjectStateTable<>(HashMap::new);
+        Map<String, Integer> original = new HashMap<>();
+        original.put("x", 1);
+        table.put("k", original);
+        HeapStateTable.StateTableSnapshot snapshot = table.stateSnapshot();
+
+        Map<String, Integer> updated = table.getForUpdate("k");
+        assertNotSame(original, updated);
+        updated.put("x", 2);
+        updated.put("y", 3);
+        // 同一个版本内再次获取，拿到的是已经拷贝过的值，不会重复拷贝
+        assertSame(updated, table.getForUpdate("k"));
+        assertSame(updated, table.get("k"));
+        assertNull(table.getForUpdate("missing"));
+
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("x", 1);
+        assertEquals(expected, original);
+        assertEquals(expected, snapshot.toMap().get("k"));
+        snapshot.release();
+
+        // 没有快照需要旧值时原地修改
+        assertSame(updated, table.getForUpdate("k"));
+    }
+
+    @Test
+    public void testSnapshotExportsCopiesOfMutableValues() {
+        ObjectStateTable<Map<String, Integer>> table = new ObjectStateTable<>(HashMap::new);
+        table.put("k", new HashMap<>());
+        HeapStateTable.StateTableSnapshot snapshot = table.stateSnapshot();
+        Map<?, ?> exported = (Map<?, ?>) snapshot.toMap().get("k");
+        snapshot.release();
+        table.getForUpdate("k").put("x", 1);
+        assertTrue(exported.isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetForUpdateRequiresValueCopier() {
+        ObjectStateTable<String> table = new ObjectStateTable<>();
+        table.put("k", "v");
+        table.getForUpdate("k");
+    }
+
+    @Test
+    public void testChangesSinceAndRemovedSince() {
+        LongStateTable table = new LongStateTable();
+        table.setChangelogEnabled(true);
+        for (long i = 0; i < NUM_KEYS; i++) {
+            table.put(i, i);
+        }
+        HeapStateTable.StateTableSnapshot base = table.stateSnapshot();
+        base.release();
+
+        table.put(1L, 100);
+        table.add(2L, 100);
+        assertTrue(table.remove(3L));
+        // 删除之后又重新写入的键同时出现在删除记录和变更中
+        assertTrue(table.remove(4L));
+        table.put(4L, 400);
+        table.put(-1L, -1);
+        assertFalse(table.remove(-2L));
+
+        HeapStateTable.StateTableSnapshot delta = table.stateSnapshot();
+        Map<Object, Object> expectedChanges = new HashMap<>();
+        expectedChanges.put(1L, 100L);
+        expectedChanges.put(2L, 102L);
+        expectedChanges.put(4L, 400L);
+        expectedChanges.put(-1L, -1L);
+        assertEquals(expectedChanges, delta.changesSince(base.getVersion()));
+        assertEquals(new HashSet<Object>(Arrays.asList(3L, 4L)), delta.removedSince(base.getVersion()));
+        // 基准版本为 0 时导出全部内容
+        assertEquals(delta.toMap(), delta.changesSince(0));
+        delta.release();
+    }
+
+    private static void randomUpdates(LongStateTable table, Map<Object, Object> expected, Random random) {
+        for (int i = 0; i < NUM_KEYS; i++) {
+            long key = random.nextInt(2 * NUM_KEYS);
+            switch (random.nextInt(3)) {
+                case 0:
+                    table.put(key, key * 10);
+                    expected.put(key, key * 10);
+                    break;
+                case 1:
+                    long value = table.add(key, 1);
+                    expected.merge(key, 1L, (a, b) -> (Long) a + (Long) b);
+                    assertEquals(expected.get(key), value);
+                    break;
+                default:
+                    assertEquals(expected.remove(key) != null, table.remove(key));
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.mini.flink.runtime.stream;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 优先事件越过通道中尚未被消费的元素：在生产者和消费者并发运行时，
+ * 每个优先事件越过的元素恰好是写入它之前、还没有被取出的那些元素，普通元素的顺序保持不变。
+ */
+public class DataChannelTest {
+    private static final long NUM_ELEMENTS = 200_000;
+    private static final int PRIORITY_EVENT_INTERVAL = 997;
+
+    @Test
+    public void testBlockingQueuePriorityEventsOvertakeQueuedElements() throws Exception {
+        testPriorityEventsOvertakeQueuedElements(new BlockingQueueDataChannel(16));
+    }
+
+    @Test
+    public void testSpscRingBufferPriorityEventsOvertakeQueuedElements() throws Exception {
+        testPriorityEventsOvertakeQueuedElements(new SpscRingBufferDataChannel(16));
+    }
+
+    @Test
+    public void testPriorityEventIsPolledFirst() throws Exception {
+        for (DataChannel channel : new DataChannel[]{new BlockingQueueDataChannel(4), new SpscRingBufferDataChannel(4)}) {
+            channel.push(1L);
+            channel.push(2L);
+            channel.pushPriorityEvent("barrier");
+            channel.push(3L);
+            assertEquals("barrier", channel.poll());
+            List<Object> overtaken = new ArrayList<>();
+            Collections.addAll(overtaken, 1L, 2L);
+            assertEquals(overtaken, channel.takeOvertakenElements());
+            // 每个优先事件只返回一次被越过的元素
+            assertTrue(channel.takeOvertakenElements().isEmpty());
+            assertEquals(1L, channel.pop());
+            assertEquals(2L, channel.poll());
+            assertEquals(3L, channel.poll());
+            assertNull(channel.poll());
+        }
+    }
+
+    @Test
+    public void testPriorityEventWakesUpBlockedPop() throws Exception {
+        for (DataChannel channel : new DataChannel[]{new BlockingQueueDataChannel(4), new SpscRingBufferDataChannel(4)}) {
+            AtomicReference<Object> popped = new AtomicReference<>();
+            Thread consumer = new Thread(() -> {
+                try {
+                    popped.set(channel.pop());
+                } catch (InterruptedException ignored) {
+                    // 测试失败时由 join 超时暴露
+                }
+            });
+            consumer.start();
+            Thread.sleep(50);
+            channel.pushPriorityEvent("barrier");
+            consumer.join(5000);
+            assertEquals("barrier", popped.get());
+        }
+    }
+
+    private static void testPriorityEventsOvertakeQueuedElements(DataChannel channel) throws Exception {
+        AtomicReference<Throwable> producerError = new AtomicReference<>();
+        Thread producer = new Thread(() -> {
+            try {
+                for (long i = 0; i < NUM_ELEMENTS; i++) {
+                    if (i % PRIORITY_EVENT_INTERVAL == 0) {
+                        // 优先事件记下写入它之前已经写入的元素数
+                        channel.pushPriorityEvent(new long[]{i});
+                    }
+                    channel.push(i);
+                }
+            } catch (Throwable t) {
+                producerError.set(t);
+            }
+        });
+        producer.start();
+
+        long expectedNext = 0;
+        int numPriorityEvents = 0;
+        while (expectedNext < NUM_ELEMENTS) {
+            Object element = channel.pop();
+            if (element instanceof long[]) {
+                numPriorityEvents++;
+                long sequence = ((long[]) element)[0];
+                assertTrue("优先事件 " + sequence + " 之后的元素已经被取出", expectedNext <= sequence);
+                List<Object> overtaken = channel.takeOvertakenElements();
+                assertEquals(sequence - expectedNext, overtaken.size());
+                for (int i = 0; i < overtaken.size(); i++) {
+                    assertEquals(expectedNext + i, overtaken.get(i));
+                }
+            } else {
+                assertEquals(expectedNext, element);
+                expectedNext++;
+            }
+        }
+        producer.join();
+        assertNull(producerError.get());
+        assertEquals((NUM_ELEMENTS + PRIORITY_EVENT_INTERVAL - 1) / PRIORITY_EVENT_INTERVAL, numPriorityEvents);
+    }
+}